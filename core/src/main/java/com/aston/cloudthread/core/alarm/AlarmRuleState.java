@@ -0,0 +1,245 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.alarm;
+
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
+import lombok.Getter;
+
+/**
+ * Alarm state of one metric of one thread pool.
+ *
+ * <p>Samples are kept in a primitive ring buffer of values and timestamps sized for the
+ * longest configured window, and the EWMA in a single {@code double}, so evaluating a
+ * rule allocates nothing. Not thread safe, the alarm checker evaluates from a single
+ * thread.</p>
+ */
+public class AlarmRuleState {
+
+    /**
+     * Result of feeding one sample into the state
+     */
+    public enum Transition {
+        /**
+         * Alarm is and stays clear
+         */
+        NONE,
+        /**
+         * Alarm has just been raised
+         */
+        RAISED,
+        /**
+         * Alarm was raised before and still is
+         */
+        FIRING,
+        /**
+         * Alarm was raised before and has just cleared
+         */
+        CLEARED
+    }
+
+    private final long checkIntervalMillis;
+
+    private double[] values;
+    private long[] timestamps;
+    private int head;
+    private int size;
+
+    private double ewma;
+    private boolean ewmaInitialized;
+
+    @Getter
+    private boolean raised;
+
+    /**
+     * Epoch milliseconds at which the alarm was raised
+     */
+    @Getter
+    private long raisedAt;
+
+    /**
+     * Whether an alarm was dispatched since the alarm was raised, only such alarms get a recovery
+     */
+    @Getter
+    private boolean notified;
+
+    /**
+     * Rule statistic of the latest evaluation: the sample, the EWMA, the minimum of the
+     * sustained period or the breaching percentage of the window
+     */
+    @Getter
+    private double lastStatistic;
+
+    public AlarmRuleState(long checkIntervalMillis) {
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.values = new double[2];
+        this.timestamps = new long[2];
+    }
+
+    /**
+     * Record a sample and evaluate the configured rule.
+     *
+     * @param now            sample time in epoch milliseconds
+     * @param value          sample value, e.g. a usage percentage or a latency
+     * @param config         alarm configuration of the pool
+     * @param raiseThreshold threshold raising the alarm
+     * @param clearThreshold threshold below which a raised alarm clears
+     * @return what happened to the alarm
+     */
+    public Transition update(long now, double value, ThreadPoolExecutorProperties.AlarmConfig config,
+                             double raiseThreshold, double clearThreshold) {
+        AlarmRuleTypeEnum rule = AlarmRuleTypeEnum.of(config.getRule());
+        record(now, value, requiredCapacity(config));
+        double alpha = config.getEwmaAlpha() == null ? 0.3 : config.getEwmaAlpha();
+        if (ewmaInitialized) {
+            ewma += alpha * (value - ewma);
+        } else {
+            ewma = value;
+            ewmaInitialized = true;
+        }
+
+        if (!raised) {
+            if (holds(rule, now, config, raiseThreshold)) {
+                raised = true;
+                raisedAt = now;
+                notified = false;
+                return Transition.RAISED;
+            }
+            return Transition.NONE;
+        }
+        if (holds(rule, now, config, clearThreshold)) {
+            return Transition.FIRING;
+        }
+        raised = false;
+        return Transition.CLEARED;
+    }
+
+    /**
+     * Record that an alarm of the current raise was dispatched to the subscribers.
+     */
+    public void markNotified() {
+        notified = true;
+    }
+
+    private boolean holds(AlarmRuleTypeEnum rule, long now, ThreadPoolExecutorProperties.AlarmConfig config,
+                          double threshold) {
+        switch (rule) {
+            case SUSTAINED:
+                return sustained(now, millis(config.getSustainedSeconds()), threshold);
+            case WINDOW:
+                return window(now, millis(config.getWindowSeconds()), threshold, config.getWindowPercent());
+            case EWMA:
+                lastStatistic = ewma;
+                return ewma >= threshold;
+            case INSTANT:
+            default:
+                lastStatistic = latest();
+                return latest() >= threshold;
+        }
+    }
+
+    /**
+     * Every sample within the period breaches, and the samples cover the whole period.
+     */
+    private boolean sustained(long now, long periodMillis, double threshold) {
+        if (!covers(now, periodMillis)) {
+            lastStatistic = latest();
+            return false;
+        }
+        double min = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            int index = indexFromNewest(i);
+            if (timestamps[index] < now - periodMillis) {
+                break;
+            }
+            min = Math.min(min, values[index]);
+        }
+        lastStatistic = min;
+        return min >= threshold;
+    }
+
+    /**
+     * The breaching share of the samples within the window reaches {@code percent}, and
+     * the samples cover the whole window.
+     */
+    private boolean window(long now, long windowMillis, double threshold, Integer percent) {
+        int count = 0;
+        int breaching = 0;
+        for (int i = 0; i < size; i++) {
+            int index = indexFromNewest(i);
+            if (timestamps[index] < now - windowMillis) {
+                break;
+            }
+            count++;
+            if (values[index] >= threshold) {
+                breaching++;
+            }
+        }
+        lastStatistic = count == 0 ? 0.0 : breaching * 100.0 / count;
+        return covers(now, windowMillis) && lastStatistic >= (percent == null ? 50 : percent);
+    }
+
+    /**
+     * Whether the oldest sample is old enough to span the period, allowing for one check
+     * interval of scheduling jitter.
+     */
+    private boolean covers(long now, long periodMillis) {
+        return size > 0 && now - timestamps[indexFromNewest(size - 1)] + checkIntervalMillis >= periodMillis;
+    }
+
+    private void record(long now, double value, int capacity) {
+        if (capacity > values.length) {
+            grow(capacity);
+        }
+        values[head] = value;
+        timestamps[head] = now;
+        head = (head + 1) % values.length;
+        if (size < values.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Reallocate the ring when a refreshed configuration asks for a longer window,
+     * keeping the existing samples in order.
+     */
+    private void grow(int capacity) {
+        double[] newValues = new double[capacity];
+        long[] newTimestamps = new long[capacity];
+        for (int i = 0; i < size; i++) {
+            int index = indexFromNewest(size - 1 - i);
+            newValues[i] = values[index];
+            newTimestamps[i] = timestamps[index];
+        }
+        values = newValues;
+        timestamps = newTimestamps;
+        head = size % capacity;
+    }
+
+    private int requiredCapacity(ThreadPoolExecutorProperties.AlarmConfig config) {
+        long longest = Math.max(millis(config.getSustainedSeconds()), millis(config.getWindowSeconds()));
+        return (int) Math.min(Integer.MAX_VALUE / 2, longest / Math.max(1L, checkIntervalMillis) + 2);
+    }
+
+    private double latest() {
+        return size == 0 ? 0 : values[indexFromNewest(0)];
+    }
+
+    private int indexFromNewest(int offset) {
+        return (head - 1 - offset + 2 * values.length) % values.length;
+    }
+
+    private static long millis(Integer seconds) {
+        return seconds == null ? 0L : seconds * 1000L;
+    }
+}
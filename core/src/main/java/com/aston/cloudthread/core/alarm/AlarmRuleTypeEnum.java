@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.alarm;
+
+import lombok.Getter;
+
+/**
+ * Rules deciding whether a thread pool metric breaches an alarm threshold.
+ *
+ * <p>Every rule is evaluated twice with the same logic: against the raise threshold
+ * while the alarm is clear, and against the clear threshold while it is raised, which
+ * gives hysteresis when the clear threshold is set lower.</p>
+ */
+@Getter
+public enum AlarmRuleTypeEnum {
+
+    /**
+     * The latest sample is at or above the threshold
+     */
+    INSTANT("instant"),
+
+    /**
+     * Every sample of the last {@code sustainedSeconds} is at or above the threshold
+     */
+    SUSTAINED("sustained"),
+
+    /**
+     * At least {@code windowPercent} of the samples of the last {@code windowSeconds}
+     * are at or above the threshold
+     */
+    WINDOW("window"),
+
+    /**
+     * The exponentially weighted moving average of the samples is at or above the threshold
+     */
+    EWMA("ewma");
+
+    private final String name;
+
+    AlarmRuleTypeEnum(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Resolve a rule by its configured name, defaulting to {@link #INSTANT}.
+     */
+    public static AlarmRuleTypeEnum of(String name) {
+        for (AlarmRuleTypeEnum rule : values()) {
+            if (rule.name.equalsIgnoreCase(name)) {
+                return rule;
+            }
+        }
+        return INSTANT;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.alarm;
+
+import lombok.Getter;
+
+/**
+ * Thread pool alarm types.
+ *
+ * <p>The name is what notifications show as the alarm type, the ordinal is used by
+ * {@link com.aston.cloudthread.core.notification.service.AlarmRateLimiter} to address
+ * the alarm type of a thread pool without building keys.</p>
+ */
+@Getter
+public enum AlarmTypeEnum {
+
+    /**
+     * Queue usage reached the queue threshold
+     */
+    CAPACITY("Capacity"),
+
+    /**
+     * Active threads reached the active thread threshold
+     */
+    ACTIVITY("Activity"),
+
+    /**
+     * Tasks were rejected since the previous check
+     */
+    REJECT("Reject"),
+
+    /**
+     * Queue wait p99 exceeded its budget
+     */
+    QUEUE_WAIT_P99("QueueWaitP99"),
+
+    /**
+     * Execution time p99 exceeded its budget
+     */
+    EXECUTION_P99("ExecutionP99"),
+
+    /**
+     * The latency SLO error budget burns faster than allowed
+     */
+    BURN_RATE("BurnRate");
+
+    private static final AlarmTypeEnum[] VALUES = values();
+
+    private final String name;
+
+    AlarmTypeEnum(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Resolve an alarm type by its name.
+     *
+     * @return the alarm type, or {@code null} if the name is unknown
+     */
+    public static AlarmTypeEnum of(String name) {
+        for (AlarmTypeEnum alarmType : VALUES) {
+            if (alarmType.name.equalsIgnoreCase(name)) {
+                return alarmType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return number of alarm types
+     */
+    public static int size() {
+        return VALUES.length;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.alarm;
+
+import com.aston.cloudthread.core.executor.CloudThreadExecutor;
+import com.aston.cloudthread.core.executor.support.LatencyHistogram;
+
+/**
+ * Latency SLO alarm state of one thread pool: the histogram counts seen at the end of
+ * the previous window, a scratch array for the window delta and one
+ * {@link AlarmRuleState} per latency alarm type. All arrays are allocated once.
+ */
+class LatencySloState {
+
+    final long[] lastQueueWait = new long[LatencyHistogram.BUCKET_COUNT];
+    final long[] lastExecution = new long[LatencyHistogram.BUCKET_COUNT];
+    final long[] lastSojourn = new long[LatencyHistogram.BUCKET_COUNT];
+    final long[] delta = new long[LatencyHistogram.BUCKET_COUNT];
+
+    final AlarmRuleState queueWait;
+    final AlarmRuleState execution;
+    final AlarmRuleState burnRate;
+
+    /**
+     * Window length the rule states were created for
+     */
+    final long windowMillis;
+
+    private long windowStart;
+
+    /**
+     * Start the first window now, tasks completed before do not count.
+     */
+    LatencySloState(CloudThreadExecutor executor, long now, long windowMillis) {
+        this.windowMillis = windowMillis;
+        this.queueWait = new AlarmRuleState(windowMillis);
+        this.execution = new AlarmRuleState(windowMillis);
+        this.burnRate = new AlarmRuleState(windowMillis);
+        this.windowStart = now;
+        executor.getQueueWaitHistogram().drainDelta(lastQueueWait, delta);
+        executor.getExecutionHistogram().drainDelta(lastExecution, delta);
+        executor.getSojournHistogram().drainDelta(lastSojourn, delta);
+    }
+
+    /**
+     * @return {@code true} once per window, when the window started by the previous
+     * {@code true} has elapsed
+     */
+    boolean windowElapsed(long now) {
+        if (now - windowStart < windowMillis) {
+            return false;
+        }
+        windowStart = now;
+        return true;
+    }
+}
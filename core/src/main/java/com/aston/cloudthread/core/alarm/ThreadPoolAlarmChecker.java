@@ -15,11 +15,17 @@ package com.aston.cloudthread.core.alarm;
 
 import cn.hutool.core.date.DateUtil;
 import com.aston.cloudthread.core.config.ApplicationProperties;
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
 import com.aston.cloudthread.core.executor.CloudThreadExecutor;
 import com.aston.cloudthread.core.executor.CloudThreadRegistry;
 import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
 import com.aston.cloudthread.core.executor.ThreadPoolExecutorWrapper;
+import com.aston.cloudthread.core.executor.support.LatencyHistogram;
+import com.aston.cloudthread.core.monitor.ThreadPoolRateRegistry;
+import com.aston.cloudthread.core.monitor.ThreadPoolRateTracker;
+import com.aston.cloudthread.core.monitor.ThreadPoolRuntimeHistoryRegistry;
 import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmNotifyDTO;
+import com.aston.cloudthread.core.notification.service.AlarmRateLimiter;
 import com.aston.cloudthread.core.notification.service.NotifierDispatcher;
 import com.aston.cloudthread.core.toolkit.ThreadFactoryBuilder;
 import lombok.RequiredArgsConstructor;
@@ -35,6 +41,8 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Thread Pool Alarm Checker
@@ -49,11 +57,22 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * Alarms are dispatched through a {@link NotifierDispatcher} to the configured
  * notification channels (e.g., DingTalk, Slack, WeChat). Rate-limiting is applied
- * to avoid sending repeated alarms too frequently.
+ * to avoid sending repeated alarms too frequently; it is checked by pool index and
+ * {@link AlarmTypeEnum} before an alarm message is built, so suppressed alarms cost
+ * no allocation. State kept per pool is dropped when the pool leaves the registry.
  * <p>
  * The class uses a scheduled executor service to run checks at fixed intervals.
  * It maintains a cache of last reject counts to determine if a new reject alarm
  * should be triggered.
+ * <p>
+ * Queue usage and activity rate samples are fed into a per pool {@link AlarmRuleState},
+ * which applies the configured {@link AlarmRuleTypeEnum} (instant, sustained, sliding
+ * window or EWMA) with separate raise and clear thresholds. A recovery notification is
+ * sent when a raised alarm clears.
+ * <p>
+ * Latency SLO alarms are evaluated once per latency window from the histograms recorded
+ * by {@link CloudThreadExecutor}: queue wait p99 and execution p99 against millisecond
+ * budgets, and the error budget burn rate of the end-to-end latency SLO.
  */
 
 @Slf4j
@@ -68,20 +87,44 @@ public class ThreadPoolAlarmChecker {
                     .namePrefix("scheduler_thread-pool_alarm_checker")
                     .build()
     );
-    private final Map<String, Long> lastRejectCountMap = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lastRejectCountMap = new ConcurrentHashMap<>();
+
+    private final Consumer<ThreadPoolExecutorWrapper> removalListener = this::onWrapperRemoved;
+
+    /**
+     * Rule states per thread pool, indexed by {@link #QUEUE_USAGE} and {@link #ACTIVE_RATE}
+     */
+    private final Map<String, AlarmRuleState[]> ruleStateMap = new ConcurrentHashMap<>();
+
+    /**
+     * Latency SLO states per thread pool
+     */
+    private final Map<String, LatencySloState> latencyStateMap = new ConcurrentHashMap<>();
+
+    private static final long CHECK_INTERVAL_MILLIS = 5000L;
+    private static final int DEFAULT_LATENCY_WINDOW_SECONDS = 60;
+    private static final int QUEUE_USAGE = 0;
+    private static final int ACTIVE_RATE = 1;
+
+    /**
+     * Rejection journal records attached to an alarm
+     */
+    private static final int ALARM_REJECTION_RECORDS = 5;
 
     /**
      * Setup scheduler alarm checking task
      */
     public void start() {
+        CloudThreadRegistry.addRemovalListener(removalListener);
         // delay 0 seconds, every 5 seconds
-        scheduler.scheduleWithFixedDelay(this::checkAlarm, 0, 5, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::checkAlarm, 0, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
     }
 
     /**
      * Stop
      */
     public void stop() {
+        CloudThreadRegistry.removeRemovalListener(removalListener);
         if (!scheduler.isShutdown()) {
             scheduler.shutdown();
         }
@@ -91,12 +134,21 @@ public class ThreadPoolAlarmChecker {
      * Alarm checking core logic
      */
     private void checkAlarm() {
+        checkAlarm(System.currentTimeMillis());
+    }
+
+    /**
+     * Check every registered pool at the given time
+     */
+    void checkAlarm(long now) {
         Collection<ThreadPoolExecutorWrapper> wrappers = CloudThreadRegistry.getAllWrappers();
         for (ThreadPoolExecutorWrapper wrapper : wrappers) {
-            if (wrapper.getExecutorProperties().getAlarm().getEnable()) {
-                checkQueueUsage(wrapper);
-                checkActiveRate(wrapper);
+            ThreadPoolExecutorProperties.AlarmConfig alarmConfig = wrapper.getExecutorProperties().getAlarm();
+            if (alarmConfig != null && Boolean.TRUE.equals(alarmConfig.getEnable())) {
+                checkQueueUsage(wrapper, now);
+                checkActiveRate(wrapper, now);
                 checkRejectCount(wrapper);
+                checkLatency(wrapper, now);
             }
         }
     }
@@ -104,7 +156,7 @@ public class ThreadPoolAlarmChecker {
     /**
      * check thread pool queue utility
      */
-    private void checkQueueUsage(ThreadPoolExecutorWrapper wrapper) {
+    private void checkQueueUsage(ThreadPoolExecutorWrapper wrapper, long now) {
         ThreadPoolExecutor executor = wrapper.getExecutor();
         ThreadPoolExecutorProperties properties = wrapper.getExecutorProperties();
 
@@ -117,17 +169,18 @@ public class ThreadPoolAlarmChecker {
         }
 
         int usageRate = (int) Math.round((queueSize * 100.0) / capacity);
-        int threshold = properties.getAlarm().getQueueThreshold();
+        ThreadPoolExecutorProperties.AlarmConfig alarmConfig = properties.getAlarm();
+        int threshold = alarmConfig.getQueueThreshold();
+        int clearThreshold = clearThreshold(threshold, alarmConfig.getQueueClearThreshold());
 
-        if (usageRate >= threshold) {
-            sendAlarmMessage("Capacity", wrapper);
-        }
+        evaluateRule(AlarmTypeEnum.CAPACITY, wrapper, ruleStates(wrapper)[QUEUE_USAGE], now, usageRate,
+                threshold, clearThreshold);
     }
 
     /**
      * check thread pool activity rate = (active thread cnt / maximum thread cnt)
      */
-    private void checkActiveRate(ThreadPoolExecutorWrapper wrapper) {
+    private void checkActiveRate(ThreadPoolExecutorWrapper wrapper, long now) {
         ThreadPoolExecutor executor = wrapper.getExecutor();
         ThreadPoolExecutorProperties properties = wrapper.getExecutorProperties();
 
@@ -139,13 +192,137 @@ public class ThreadPoolAlarmChecker {
         }
 
         int activeRate = (int) Math.round((activeCount * 100.0) / maximumPoolSize);
-        int threshold = properties.getAlarm().getActiveThreadThreshold();
+        ThreadPoolExecutorProperties.AlarmConfig alarmConfig = properties.getAlarm();
+        int threshold = alarmConfig.getActiveThreadThreshold();
+        int clearThreshold = clearThreshold(threshold, alarmConfig.getActiveThreadClearThreshold());
+
+        evaluateRule(AlarmTypeEnum.ACTIVITY, wrapper, ruleStates(wrapper)[ACTIVE_RATE], now, activeRate,
+                threshold, clearThreshold);
+    }
+
+    /**
+     * Feed a sample into the rule state and notify on raise, while firing (subject to the
+     * rate limiter) and on recovery of an alarm that was notified.
+     */
+    private void evaluateRule(AlarmTypeEnum alarmType,
+                              ThreadPoolExecutorWrapper wrapper,
+                              AlarmRuleState state,
+                              long now,
+                              double value,
+                              double threshold,
+                              double clearThreshold) {
+        ThreadPoolExecutorProperties.AlarmConfig alarmConfig = wrapper.getExecutorProperties().getAlarm();
+        switch (state.update(now, value, alarmConfig, threshold, clearThreshold)) {
+            case RAISED:
+            case FIRING:
+                if (!allowAlarm(wrapper, alarmType)) {
+                    break;
+                }
+                ThreadPoolAlarmNotifyDTO alarm = buildAlarmMessage(alarmType, wrapper);
+                alarm.setAlarmRule(AlarmRuleTypeEnum.of(alarmConfig.getRule()).getName())
+                        .setAlarmValue(state.getLastStatistic())
+                        .setAlarmThreshold(threshold);
+                notifierDispatcher.sendAlarmMessage(alarm);
+                state.markNotified();
+                break;
+            case CLEARED:
+                // Subscribers never saw a raise suppressed by the rate limiter, so no recovery either
+                if (Boolean.TRUE.equals(alarmConfig.getRecoveryNotify()) && state.isNotified()) {
+                    ThreadPoolAlarmNotifyDTO recovery = buildAlarmMessage(alarmType, wrapper);
+                    recovery.setAlarmRule(AlarmRuleTypeEnum.of(alarmConfig.getRule()).getName())
+                            .setAlarmValue(state.getLastStatistic())
+                            .setAlarmThreshold(clearThreshold)
+                            .setRecovered(Boolean.TRUE)
+                            .setAlarmDurationSeconds((now - state.getRaisedAt()) / 1000L);
+                    notifierDispatcher.sendRecoveryMessage(recovery);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * check latency SLOs, once per latency window
+     */
+    private void checkLatency(ThreadPoolExecutorWrapper wrapper, long now) {
+        ThreadPoolExecutorProperties.AlarmConfig alarmConfig = wrapper.getExecutorProperties().getAlarm();
+        if (alarmConfig.getQueueWaitP99Millis() == null
+                && alarmConfig.getExecutionP99Millis() == null
+                && alarmConfig.getSloLatencyMillis() == null) {
+            return;
+        }
+        if (!(wrapper.getExecutor() instanceof CloudThreadExecutor)) {
+            return;
+        }
+
+        CloudThreadExecutor executor = (CloudThreadExecutor) wrapper.getExecutor();
+        Integer windowSeconds = alarmConfig.getLatencyWindowSeconds();
+        long windowMillis = (windowSeconds == null ? DEFAULT_LATENCY_WINDOW_SECONDS : windowSeconds) * 1000L;
+        LatencySloState state = latencyStateMap.get(wrapper.getThreadPoolUID());
+        // A refreshed window length restarts the window, the rule states are sized for it
+        if (state == null || state.windowMillis != windowMillis) {
+            latencyStateMap.put(wrapper.getThreadPoolUID(), new LatencySloState(executor, now, windowMillis));
+            return;
+        }
+        if (!state.windowElapsed(now)) {
+            return;
+        }
+        int minSamples = alarmConfig.getLatencyMinSamples() == null ? 1 : alarmConfig.getLatencyMinSamples();
 
-        if (activeRate >= threshold) {
-            sendAlarmMessage("Activity", wrapper);
+        executor.getQueueWaitHistogram().drainDelta(state.lastQueueWait, state.delta);
+        if (alarmConfig.getQueueWaitP99Millis() != null) {
+            double p99Millis = p99Millis(state.delta, minSamples);
+            double budget = alarmConfig.getQueueWaitP99Millis();
+            evaluateRule(AlarmTypeEnum.QUEUE_WAIT_P99, wrapper, state.queueWait, now, p99Millis, budget, budget);
+        }
+
+        executor.getExecutionHistogram().drainDelta(state.lastExecution, state.delta);
+        if (alarmConfig.getExecutionP99Millis() != null) {
+            double p99Millis = p99Millis(state.delta, minSamples);
+            double budget = alarmConfig.getExecutionP99Millis();
+            evaluateRule(AlarmTypeEnum.EXECUTION_P99, wrapper, state.execution, now, p99Millis, budget, budget);
+        }
+
+        executor.getSojournHistogram().drainDelta(state.lastSojourn, state.delta);
+        if (alarmConfig.getSloLatencyMillis() != null) {
+            long total = LatencyHistogram.totalCount(state.delta);
+            double burnRate = 0.0;
+            double errorBudget = 1.0 - alarmConfig.getSloTarget() / 100.0;
+            if (total >= minSamples && errorBudget > 0.0) {
+                long bad = LatencyHistogram.countAbove(state.delta, alarmConfig.getSloLatencyMillis() * 1000L);
+                burnRate = ((double) bad / total) / errorBudget;
+            }
+            double threshold = alarmConfig.getBurnRateThreshold();
+            evaluateRule(AlarmTypeEnum.BURN_RATE, wrapper, state.burnRate, now, burnRate, threshold, threshold);
         }
     }
 
+    private static double p99Millis(long[] bucketCounts, int minSamples) {
+        if (LatencyHistogram.totalCount(bucketCounts) < minSamples) {
+            return 0.0;
+        }
+        return LatencyHistogram.percentileMicros(bucketCounts, 99.0) / 1000.0;
+    }
+
+    private AlarmRuleState[] ruleStates(ThreadPoolExecutorWrapper wrapper) {
+        AlarmRuleState[] states = ruleStateMap.get(wrapper.getThreadPoolUID());
+        if (states == null) {
+            states = ruleStateMap.computeIfAbsent(wrapper.getThreadPoolUID(), uid -> new AlarmRuleState[]{
+                    new AlarmRuleState(CHECK_INTERVAL_MILLIS),
+                    new AlarmRuleState(CHECK_INTERVAL_MILLIS)
+            });
+        }
+        return states;
+    }
+
+    /**
+     * The clear threshold defaults to the raise threshold and may not exceed it.
+     */
+    private static int clearThreshold(int threshold, Integer configured) {
+        return configured == null ? threshold : Math.min(threshold, configured);
+    }
+
     /**
      * check thread pool reject policy execute times
      */
@@ -159,20 +336,45 @@ public class ThreadPoolAlarmChecker {
 
         CloudThreadExecutor oneThreadExecutor = (CloudThreadExecutor) executor;
         long currentRejectCount = oneThreadExecutor.getRejectCount().get();
-        long lastRejectCount = lastRejectCountMap.getOrDefault(threadPoolUID, 0L);
+        AtomicLong lastRejectCount = lastRejectCountMap.get(threadPoolUID);
+        if (lastRejectCount == null) {
+            lastRejectCount = lastRejectCountMap.computeIfAbsent(threadPoolUID, uid -> new AtomicLong());
+        }
 
-        if (currentRejectCount > lastRejectCount) {
-            sendAlarmMessage("Reject", wrapper);
-            lastRejectCountMap.put(threadPoolUID, currentRejectCount);
+        if (currentRejectCount > lastRejectCount.get()) {
+            if (allowAlarm(wrapper, AlarmTypeEnum.REJECT)) {
+                notifierDispatcher.sendAlarmMessage(buildAlarmMessage(AlarmTypeEnum.REJECT, wrapper));
+            }
+            lastRejectCount.set(currentRejectCount);
         }
     }
 
-    private void sendAlarmMessage(String alarmType, ThreadPoolExecutorWrapper holder) {
+    /**
+     * Per pool and alarm type suppression, checked before any alarm message is built.
+     */
+    private static boolean allowAlarm(ThreadPoolExecutorWrapper wrapper, AlarmTypeEnum alarmType) {
+        return AlarmRateLimiter.allowAlarm(
+                wrapper.getPoolIndex(),
+                alarmType,
+                wrapper.getExecutorProperties().getNotify().getIntervalMinutes()
+        );
+    }
+
+    /**
+     * Release the state kept for a thread pool removed from the registry.
+     */
+    private void onWrapperRemoved(ThreadPoolExecutorWrapper wrapper) {
+        lastRejectCountMap.remove(wrapper.getThreadPoolUID());
+        ruleStateMap.remove(wrapper.getThreadPoolUID());
+        latencyStateMap.remove(wrapper.getThreadPoolUID());
+    }
+
+    private ThreadPoolAlarmNotifyDTO buildAlarmMessage(AlarmTypeEnum alarmType, ThreadPoolExecutorWrapper holder) {
         ThreadPoolExecutorProperties properties = holder.getExecutorProperties();
         String threadPoolUID = holder.getThreadPoolUID();
 
         ThreadPoolAlarmNotifyDTO alarm = ThreadPoolAlarmNotifyDTO.builder()
-                .alarmType(alarmType)
+                .alarmType(alarmType.getName())
                 .threadPoolUID(threadPoolUID)
                 .intervalMinutes(properties.getNotify().getIntervalMinutes())
                 .build();
@@ -189,9 +391,12 @@ public class ThreadPoolAlarmChecker {
 
             int size = queue.size();
             int remaining = queue.remainingCapacity();
-            long rejectCount = (executor instanceof CloudThreadExecutor)
-                    ? ((CloudThreadExecutor) executor).getRejectCount().get()
-                    : -1L;
+            long rejectCount = -1L;
+            if (executor instanceof CloudThreadExecutor) {
+                CloudThreadExecutor cloudThreadExecutor = (CloudThreadExecutor) executor;
+                rejectCount = cloudThreadExecutor.getRejectCount().get();
+                alarm.setRecentRejections(cloudThreadExecutor.getRejectionJournal().latest(ALARM_REJECTION_RECORDS));
+            }
 
             alarm.setCorePoolSize(executor.getCorePoolSize())
                     .setMaximumPoolSize(executor.getMaximumPoolSize())
@@ -208,10 +413,22 @@ public class ThreadPoolAlarmChecker {
                     .setCurrentTime(DateUtil.now())
                     .setApplicationName(ApplicationProperties.getApplicationName())
                     .setActiveProfile(ApplicationProperties.getActiveProfile())
-                    .setSubscribers(properties.getNotify().getSubscribers());
+                    .setSubscribers(properties.getNotify().getSubscribers())
+                    .setRecentSamples(ThreadPoolRuntimeHistoryRegistry.latest(threadPoolUID,
+                            BootstrapConfigProperties.getInstance().getMonitorConfig().getAlarmHistorySamples()));
+
+            ThreadPoolRateTracker rates = ThreadPoolRateRegistry.getTracker(threadPoolUID);
+            if (rates != null) {
+                alarm.setCompletedTaskDelta(rates.getCompletedTaskDelta())
+                        .setRejectDelta(rates.getRejectDelta())
+                        .setThroughput(rates.getThroughput())
+                        .setArrivalRate(rates.getArrivalRate())
+                        .setRejectRate(rates.getRejectRate())
+                        .setAvgBusyThreads(rates.getAvgBusyThreads())
+                        .setUtilization(rates.getUtilization());
+            }
             return alarm;
         });
-
-        notifierDispatcher.sendAlarmMessage(alarm);
+        return alarm;
     }
 }
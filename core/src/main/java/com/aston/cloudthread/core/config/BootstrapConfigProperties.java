@@ -20,6 +20,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Properties of CloudThread config center
@@ -43,6 +44,16 @@ public class BootstrapConfigProperties {
      */
     private ConsulConfig consulConfig;
 
+    /**
+     * Kubernetes ConfigMap watched for changes
+     */
+    private KubernetesConfig kubernetesConfig;
+
+    /**
+     * Local config files watched for changes
+     */
+    private LocalFileConfig localFile;
+
     /**
      * Web thread pool config
      */
@@ -63,6 +74,11 @@ public class BootstrapConfigProperties {
      */
     private MonitorConfig monitorConfig = new MonitorConfig();
 
+    /**
+     * Refresh config
+     */
+    private RefreshConfig refresh = new RefreshConfig();
+
 
     // --- static classes for configs ---
     @Data
@@ -99,6 +115,115 @@ public class BootstrapConfigProperties {
          * Consul configuration path or key
          */
         private String keyPrefix;
+
+        /**
+         * Consul HTTP API address
+         */
+        private String url = "http://127.0.0.1:8500";
+
+        /**
+         * ACL token sent with every request (optional)
+         */
+        private String token;
+
+        /**
+         * Longest time a blocking query waits for a change, Consul caps it at 10 minutes
+         */
+        private long waitSeconds = 55L;
+
+        /**
+         * Delay before retrying a failed query, doubled on every further failure
+         */
+        private long errorBackoffMillis = 1000L;
+
+        /**
+         * Upper bound of the retry delay
+         */
+        private long maxErrorBackoffMillis = 60000L;
+    }
+
+    @Data
+    public static class KubernetesConfig {
+        /**
+         * Kubernetes API server address, the in-cluster service by default
+         */
+        private String apiServer = "https://kubernetes.default.svc";
+
+        /**
+         * Namespace of the ConfigMap, the namespace of the pod when not set
+         */
+        private String namespace;
+
+        /**
+         * Name of the ConfigMap
+         */
+        private String configMapName;
+
+        /**
+         * Data entry holding the config, in the format of its extension or else
+         * {@code config-file-type}
+         */
+        private String dataKey = "application.yaml";
+
+        /**
+         * Service account token, read before every request as it is rotated
+         */
+        private String tokenFile = "/var/run/secrets/kubernetes.io/serviceaccount/token";
+
+        /**
+         * CA certificate of the API server, the JDK trust store is used when the file is missing
+         */
+        private String caFile = "/var/run/secrets/kubernetes.io/serviceaccount/ca.crt";
+
+        /**
+         * Watch duration the API server is asked for, the watch is resumed afterwards
+         */
+        private long watchTimeoutSeconds = 300L;
+
+        /**
+         * Delay before retrying a failed request, doubled on every further failure
+         */
+        private long errorBackoffMillis = 1000L;
+
+        /**
+         * Upper bound of the retry delay
+         */
+        private long maxErrorBackoffMillis = 60000L;
+    }
+
+    @Data
+    public static class LocalFileConfig {
+        /**
+         * Config file holding {@code cloudthread.executors}, in the format of its extension
+         * (yaml, yml, properties, json or toml)
+         */
+        private String path;
+
+        /**
+         * Directory of per thread pool config files, each holding the properties of one pool
+         * such as {@code thread-pool-uid} and {@code core-pool-size}
+         */
+        private String directory;
+
+        /**
+         * Files are read once no further file event arrived for this long, so writes in
+         * several steps are applied once
+         */
+        private long debounceMillis = 200L;
+    }
+
+    @Data
+    public static class RefreshConfig {
+        /**
+         * Changes arriving within this period are coalesced and applied once, 0 applies
+         * every change immediately
+         */
+        private long quietPeriodMillis = 500L;
+
+        /**
+         * Upper bound of the time a change waits while further changes keep arriving
+         */
+        private long maxDelayMillis = 5000L;
     }
 
     @Data
@@ -109,7 +234,7 @@ public class BootstrapConfigProperties {
         private Boolean enable = Boolean.TRUE;
 
         /**
-         * Monitor type
+         * Monitor type: log, structured-log, micrometer, prometheus or otlp
          */
         private String collectType = "micrometer";
 
@@ -117,6 +242,82 @@ public class BootstrapConfigProperties {
          * Metric collect intervals in Seconds
          */
         private long collectIntervalSeconds = 10L;
+
+        /**
+         * Number of recent runtime samples kept in memory per thread pool, 0 disables
+         * the history. Default keeps one hour at the default collect interval.
+         */
+        private int historySize = 360;
+
+        /**
+         * Number of most recent samples attached to each alarm notification
+         */
+        private int alarmHistorySamples = 6;
+
+        /**
+         * EWMA time constant in seconds of the throughput, arrival, reject and utilization rates
+         */
+        private long rateSmoothingSeconds = 60L;
+
+        /**
+         * Attach a capacity recommendation to every monitor sample
+         */
+        private Boolean capacityAdvisorEnable = Boolean.TRUE;
+
+        /**
+         * p99 queue wait target in milliseconds used by the capacity advisor
+         */
+        private long targetQueueWaitP99Millis = 100L;
+
+        /**
+         * Peak to average arrival rate ratio the recommended maximum pool size must absorb
+         */
+        private double capacityBurstFactor = 1.5;
+
+        /**
+         * Bind address of the embedded Prometheus endpoint, used by collect type prometheus
+         */
+        private String prometheusHost = "0.0.0.0";
+
+        /**
+         * Port of the embedded Prometheus endpoint
+         */
+        private int prometheusPort = 9464;
+
+        /**
+         * HTTP path of the embedded Prometheus endpoint
+         */
+        private String prometheusPath = "/metrics";
+
+        /**
+         * OTLP/HTTP metrics endpoint, used by collect type otlp
+         */
+        private String otlpEndpoint = "http://localhost:4318/v1/metrics";
+
+        /**
+         * Connect and request timeout of each OTLP export in milliseconds
+         */
+        private long otlpTimeoutMillis = 3000L;
+
+        /**
+         * Line format of collect type structured-log: json or kv
+         */
+        private String logFormat = "json";
+
+        /**
+         * Dedicated file for collect type structured-log, empty writes through the logger
+         */
+        private String logFile;
+
+        /**
+         * Roll the structured log file when it would exceed this size in megabytes
+         */
+        private long logFileMaxSizeMb = 100L;
+
+        /**
+         * Number of rolled structured log files to keep
+         */
+        private int logFileMaxHistory = 5;
     }
 
     @Data
@@ -143,10 +344,21 @@ public class BootstrapConfigProperties {
     }
 
     /**
-     * Thread pool properties collection
+     * Thread pool properties collection, each entry overriding its group and the defaults
      */
     private List<ThreadPoolExecutorProperties> executors;
 
+    /**
+     * Thread pool properties for every field neither a pool nor its group sets
+     */
+    private ThreadPoolExecutorProperties executorDefaults;
+
+    /**
+     * Named groups of thread pools, key: group name. Pools join a group with {@code group}
+     * and take every field they leave unset from it.
+     */
+    private Map<String, ThreadPoolExecutorProperties> executorGroups;
+
     @Data
     public static class NotifyPlatformsConfig {
 
@@ -159,6 +371,126 @@ public class BootstrapConfigProperties {
          * Notification web hook url address
          */
         private String url;
+
+        /**
+         * Alarms of the same application and alarm type raised within this window are sent
+         * as one digest message, 0 sends every alarm right away
+         */
+        private long alarmAggregateWindowSeconds = 10L;
+
+        /**
+         * Maximum messages per minute sent to each platform, 0 means unlimited
+         */
+        private int maxMessagesPerMinute = 20;
+
+        /**
+         * Delivery timeout per message in milliseconds, for channels not setting their own
+         */
+        private long timeoutMillis = 3000L;
+
+        /**
+         * Consecutive failed deliveries that open a channel's circuit breaker
+         */
+        private int circuitFailureThreshold = 5;
+
+        /**
+         * Seconds an open circuit breaker skips deliveries before letting a probe through
+         */
+        private long circuitOpenSeconds = 30L;
+
+        /**
+         * Platforms notified in parallel. When empty, {@code platform} and {@code url}
+         * configure a single channel
+         */
+        private List<NotifyChannelConfig> channels;
+
+        /**
+         * Directory of the notification outbox. When set, messages are recorded before
+         * delivery and the undelivered ones are sent again, also after a restart
+         */
+        private String outboxDir;
+
+        /**
+         * Size in megabytes after which the outbox starts a new segment file
+         */
+        private int outboxSegmentSizeMb = 16;
+
+        /**
+         * Maximum outbox segment files, the oldest is dropped with its undelivered messages
+         * when exceeded
+         */
+        private int outboxMaxSegments = 8;
+
+        /**
+         * Interval in seconds between retries of the undelivered outbox messages
+         */
+        private long outboxReplayIntervalSeconds = 30L;
+
+        /**
+         * Message templates by type, change, web-change, alarm, recovery or alarm-digest.
+         * A value is the template itself or {@code classpath:<path>}, types not set use the
+         * built-in templates
+         */
+        private Map<String, String> templates;
+    }
+
+    @Data
+    public static class NotifyChannelConfig {
+
+        /**
+         * Channel name used in logs, metrics and rate limiting, defaults to the platform
+         */
+        private String name;
+
+        /**
+         * Notification platform, slack, webhook, teams, discord, email
+         */
+        private String platform;
+
+        /**
+         * Web hook url address, for webhook based platforms
+         */
+        private String url;
+
+        /**
+         * Delivery timeout in milliseconds, defaults to the notify platforms timeout
+         */
+        private Long timeoutMillis;
+
+        /**
+         * SMTP server host, for email
+         */
+        private String smtpHost;
+
+        /**
+         * SMTP server port, for email, defaults to 465 with smtpSsl and 25 otherwise
+         */
+        private Integer smtpPort;
+
+        /**
+         * Connect to the SMTP server over TLS (smtps), for email; otherwise STARTTLS is used when offered
+         */
+        private Boolean smtpSsl = Boolean.FALSE;
+
+        /**
+         * SMTP user name, no authentication when empty; only sent over TLS
+         */
+        private String username;
+
+        /**
+         * SMTP password
+         */
+        private String password;
+
+        /**
+         * Sender address, for email
+         */
+        private String from;
+
+        /**
+         * Recipient addresses split by ',', for email
+         */
+        private String to;
     }
 
     @Data
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Thread pool settings of a parsed configuration, grouped by thread pool id with a content
+ * digest per pool.
+ *
+ * <p>Comparing two snapshots yields the pools whose settings changed and the fields that
+ * changed, so a file refresher can publish updates for just those pools, independent of
+ * their position in {@code cloudthread.executors} or of unrelated edits to the file.</p>
+ */
+public final class ExecutorConfigSnapshot {
+
+    private static final String THREAD_POOL_UID_FIELD = ExecutorPropertyKey.uniform("threadPoolUID");
+
+    private static final String EXECUTORS_KEY_PREFIX = BootstrapConfigProperties.PREFIX + ".executors[0].";
+
+    /**
+     * Key: thread pool unique ID, value: property path below the pool to its value
+     */
+    private final Map<String, SortedMap<String, String>> pools;
+
+    /**
+     * Key: thread pool unique ID, value: digest of its properties
+     */
+    private final Map<String, String> digests;
+
+    private ExecutorConfigSnapshot(Map<String, SortedMap<String, String>> pools) {
+        this.pools = pools;
+        this.digests = new HashMap<>(pools.size());
+        pools.forEach((threadPoolUID, values) -> digests.put(threadPoolUID, digest(values)));
+    }
+
+    public static ExecutorConfigSnapshot empty() {
+        return new ExecutorConfigSnapshot(Collections.emptyMap());
+    }
+
+    /**
+     * Snapshot the pools of a configuration, keys like {@code cloudthread.executors[0].core-pool-size}.
+     *
+     * @param config flattened configuration, e.g. parsed by {@code ConfigParserHandler}
+     * @return the snapshot, pools without a thread pool id are left out
+     */
+    public static ExecutorConfigSnapshot ofConfig(Map<Object, Object> config) {
+        Map<Integer, SortedMap<String, String>> byIndex = new TreeMap<>();
+        config.forEach((key, value) -> {
+            ExecutorPropertyKey executorKey = ExecutorPropertyKey.parse(String.valueOf(key));
+            if (executorKey != null) {
+                byIndex.computeIfAbsent(executorKey.getIndex(), index -> new TreeMap<>())
+                        .put(executorKey.getPath(), value == null ? null : String.valueOf(value));
+            }
+        });
+
+        Map<String, SortedMap<String, String>> pools = new LinkedHashMap<>();
+        for (SortedMap<String, String> values : byIndex.values()) {
+            String threadPoolUID = threadPoolUIDOf(values);
+            if (threadPoolUID != null) {
+                pools.put(threadPoolUID, values);
+            }
+        }
+        return new ExecutorConfigSnapshot(pools);
+    }
+
+    /**
+     * Snapshot pools configured one per file, keys like {@code core-pool-size}.
+     *
+     * @param poolConfigs flattened configuration of each pool
+     * @return the snapshot, pools without a thread pool id are left out, a later
+     * configuration of the same pool replaces an earlier one
+     */
+    public static ExecutorConfigSnapshot ofPools(Iterable<Map<Object, Object>> poolConfigs) {
+        Map<String, SortedMap<String, String>> pools = new LinkedHashMap<>();
+        for (Map<Object, Object> poolConfig : poolConfigs) {
+            SortedMap<String, String> values = new TreeMap<>();
+            poolConfig.forEach((key, value) -> {
+                // Reuse the key parser, which also checks the key names a pool property
+                ExecutorPropertyKey executorKey = ExecutorPropertyKey.parse(EXECUTORS_KEY_PREFIX + key);
+                if (executorKey != null) {
+                    values.put(executorKey.getPath(), value == null ? null : String.valueOf(value));
+                }
+            });
+            String threadPoolUID = threadPoolUIDOf(values);
+            if (threadPoolUID != null) {
+                pools.put(threadPoolUID, values);
+            }
+        }
+        return new ExecutorConfigSnapshot(pools);
+    }
+
+    /**
+     * @return ids of the pools in this snapshot
+     */
+    public Set<String> getThreadPoolUIDs() {
+        return Collections.unmodifiableSet(pools.keySet());
+    }
+
+    /**
+     * @param threadPoolUID thread pool unique id
+     * @return property paths below the pool to their values, {@code null} if the pool is not in this snapshot
+     */
+    public SortedMap<String, String> getPool(String threadPoolUID) {
+        SortedMap<String, String> values = pools.get(threadPoolUID);
+        return values == null ? null : Collections.unmodifiableSortedMap(values);
+    }
+
+    /**
+     * @param threadPoolUID thread pool unique id
+     * @return digest of the pool's properties, {@code null} if the pool is not in this snapshot
+     */
+    public String getDigest(String threadPoolUID) {
+        return digests.get(threadPoolUID);
+    }
+
+    /**
+     * Compare with an earlier snapshot.
+     *
+     * @param previous the earlier snapshot
+     * @return key: id of each pool whose digest changed or which is new, value: uniform names
+     * of its changed fields; pools only in the earlier snapshot are left out
+     */
+    public Map<String, Set<String>> changedFields(ExecutorConfigSnapshot previous) {
+        Map<String, Set<String>> changed = new LinkedHashMap<>();
+        pools.forEach((threadPoolUID, values) -> {
+            if (Objects.equals(digests.get(threadPoolUID), previous.digests.get(threadPoolUID))) {
+                return;
+            }
+            Map<String, String> before = previous.pools.getOrDefault(threadPoolUID, Collections.emptySortedMap());
+            Set<String> paths = new HashSet<>(values.keySet());
+            paths.addAll(before.keySet());
+
+            Set<String> fields = new HashSet<>();
+            for (String path : paths) {
+                if (!Objects.equals(values.get(path), before.get(path))) {
+                    fields.add(ExecutorPropertyKey.parse(EXECUTORS_KEY_PREFIX + path).getField());
+                }
+            }
+            changed.put(threadPoolUID, fields);
+        });
+        return changed;
+    }
+
+    private static String threadPoolUIDOf(Map<String, String> values) {
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (THREAD_POOL_UID_FIELD.equals(ExecutorPropertyKey.uniform(entry.getKey()))) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String digest(SortedMap<String, String> values) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+        values.forEach((path, value) -> {
+            messageDigest.update(path.getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) '=');
+            if (value != null) {
+                messageDigest.update(value.getBytes(StandardCharsets.UTF_8));
+            }
+            messageDigest.update((byte) '\n');
+        });
+        return HexFormat.of().formatHex(messageDigest.digest());
+    }
+}
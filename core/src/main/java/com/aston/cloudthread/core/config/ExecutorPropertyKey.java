@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.config;
+
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * A configuration key addressing one thread pool of {@code cloudthread.executors}, e.g.
+ * {@code cloudthread.executors[3].alarm.queue-threshold} with index 3 and field
+ * {@code alarm}.
+ *
+ * <p>The field is the first property below the pool, in the uniform form of relaxed
+ * binding (lower case without dashes and underscores), so {@code core-pool-size},
+ * {@code corePoolSize} and {@code core_pool_size} all name {@code corepoolsize}.</p>
+ */
+@Getter
+public final class ExecutorPropertyKey {
+
+    private static final String EXECUTORS_PREFIX = BootstrapConfigProperties.PREFIX + ".executors[";
+
+    /**
+     * Position of the pool in {@code cloudthread.executors}.
+     */
+    private final int index;
+
+    /**
+     * Uniform name of the pool property.
+     */
+    private final String field;
+
+    /**
+     * Property path below the pool as written in the key, e.g. {@code alarm.queue-threshold}.
+     */
+    private final String path;
+
+    private ExecutorPropertyKey(int index, String field, String path) {
+        this.index = index;
+        this.field = field;
+        this.path = path;
+    }
+
+    /**
+     * Parse a configuration key.
+     *
+     * @param key property key, e.g. from a changed property source
+     * @return the parsed key, or {@code null} if the key does not address a property of a single pool
+     */
+    public static ExecutorPropertyKey parse(String key) {
+        if (key == null || !key.startsWith(EXECUTORS_PREFIX)) {
+            return null;
+        }
+        int close = key.indexOf(']', EXECUTORS_PREFIX.length());
+        if (close < 0 || close + 1 >= key.length() || key.charAt(close + 1) != '.') {
+            return null;
+        }
+        int index;
+        try {
+            index = Integer.parseInt(key.substring(EXECUTORS_PREFIX.length(), close));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        int start = close + 2;
+        int end = start;
+        while (end < key.length() && key.charAt(end) != '.' && key.charAt(end) != '[') {
+            end++;
+        }
+        if (index < 0 || end == start) {
+            return null;
+        }
+        return new ExecutorPropertyKey(index, uniform(key.substring(start, end)), key.substring(start));
+    }
+
+    /**
+     * @return the relaxed binding uniform form of a property name
+     */
+    public static String uniform(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '-' && c != '_') {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return EXECUTORS_PREFIX + index + "]." + field;
+    }
+}
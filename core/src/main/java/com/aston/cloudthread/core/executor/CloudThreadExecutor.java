@@ -13,19 +13,50 @@
  */
 package com.aston.cloudthread.core.executor;
 
+import com.aston.cloudthread.core.executor.support.LatencyHistogram;
+import com.aston.cloudthread.core.executor.support.RejectedTaskStore;
+import com.aston.cloudthread.core.executor.support.RejectionJournal;
+import com.aston.cloudthread.core.executor.support.TaskTimingStats;
+import com.aston.cloudthread.core.executor.support.TimedRunnable;
+import com.aston.cloudthread.core.jfr.TaskExecutedEvent;
+import com.aston.cloudthread.core.jfr.TaskQueuedEvent;
+import com.aston.cloudthread.core.jfr.TaskRejectedEvent;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Dynamic thread pool executor managed by CloudThread.
  *
+ * <p>Besides the runtime-adjustable settings inherited from {@link ThreadPoolExecutor},
+ * every submitted task is wrapped in a {@link TimedRunnable} so that queue-wait and run
+ * time can be observed per task. The timings are published as JFR events
+ * ({@link TaskQueuedEvent}, {@link TaskExecutedEvent}, {@link TaskRejectedEvent}) which
+ * cost next to nothing while no recording has them enabled, summed up in
+ * {@link TaskTimingStats} for capacity planning and recorded in {@link LatencyHistogram}s
+ * for latency SLO alarms. The wrapper itself is paid on every task whether JFR records or
+ * not: one allocation and two {@link System#nanoTime()} reads.</p>
+ *
+ * <p>Rejection policies and {@code super.beforeExecute}/{@code super.afterExecute} get the
+ * task as submitted; subclasses overriding them receive the wrapper and unwrap it with
+ * {@link TimedRunnable#unwrap}, e.g. to find the {@code Future} of a {@code submit} call.</p>
+ *
+ * <p>Rejections are kept in a sampled {@link RejectionJournal}. With a persistent journal,
+ * rejected {@code Serializable} tasks that the policy silently discards are also written to a
+ * {@link RejectedTaskStore} and can be submitted again with {@link #replayRejectedTasks()}.</p>
  */
 @Slf4j
 public class CloudThreadExecutor extends ThreadPoolExecutor {
@@ -37,11 +68,55 @@ public class CloudThreadExecutor extends ThreadPoolExecutor {
     private final String threadPoolUID;
 
     /**
-     * Thread pool reject policy execute times.
+     * Tasks the pool rejected: the policy threw, discarded the task or ran it elsewhere.
+     * Tasks a blocking or retrying policy got back into the queue are not counted.
      */
     @Getter
     private final AtomicLong rejectCount = new AtomicLong();
 
+    /**
+     * Queue-wait and execution time totals of completed tasks.
+     */
+    @Getter
+    private final TaskTimingStats taskTimingStats = new TaskTimingStats();
+
+    /**
+     * Distribution of the time tasks spent waiting in the work queue.
+     */
+    @Getter
+    private final LatencyHistogram queueWaitHistogram = new LatencyHistogram();
+
+    /**
+     * Distribution of task execution times.
+     */
+    @Getter
+    private final LatencyHistogram executionHistogram = new LatencyHistogram();
+
+    /**
+     * Distribution of end-to-end task latency, queue wait plus execution.
+     */
+    @Getter
+    private final LatencyHistogram sojournHistogram = new LatencyHistogram();
+
+    /**
+     * Recent rejections, sampled under high rejection rates.
+     */
+    @Getter
+    private final RejectionJournal rejectionJournal = new RejectionJournal(256, 100);
+
+    /**
+     * Store of rejected tasks for replay, {@code null} unless the journal is persistent.
+     */
+    @Getter
+    private volatile RejectedTaskStore rejectedTaskStore;
+
+    /**
+     * Handler passed to {@link #setRejectedExecutionHandler}, the executor itself holds a
+     * counting and journaling wrapper around it.
+     */
+    @Getter
+    private volatile RejectedExecutionHandler delegateRejectedHandler;
+
     /**
      * Terminating await time in MS.
      */
@@ -116,8 +191,19 @@ public class CloudThreadExecutor extends ThreadPoolExecutor {
         RejectedExecutionHandler handlerWrapper = new RejectedExecutionHandler() {
             @Override
             public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
-                rejectCount.incrementAndGet();
-                handler.rejectedExecution(r, executor);
+                Runnable task = TimedRunnable.unwrap(r);
+                boolean requeued;
+                try {
+                    requeued = TimedRunnable.reject(handler, r, executor);
+                } catch (RuntimeException ex) {
+                    recordRejection(task, executor, handler, false);
+                    throw ex;
+                }
+                // tasks the policy got back into the queue were only delayed
+                if (!requeued) {
+                    RejectedTaskStore store = rejectedTaskStore;
+                    recordRejection(task, executor, handler, store != null && dropsTask(handler) && store.persist(task));
+                }
             }
 
             @Override
@@ -127,6 +213,187 @@ public class CloudThreadExecutor extends ThreadPoolExecutor {
         };
 
         super.setRejectedExecutionHandler(handlerWrapper);
+        delegateRejectedHandler = handler;
+    }
+
+    /**
+     * Count, journal and publish a rejection once the policy has handled the task.
+     */
+    private void recordRejection(Runnable task, ThreadPoolExecutor executor, RejectedExecutionHandler handler,
+                                 boolean persisted) {
+        rejectCount.incrementAndGet();
+
+        long now = System.currentTimeMillis();
+        if (rejectionJournal.sample(now)) {
+            rejectionJournal.record(now, task.getClass().getName(), Thread.currentThread().getName(),
+                    executor.getQueue().size(), executor.getActiveCount(),
+                    handler.getClass().getSimpleName(), persisted);
+        }
+
+        TaskRejectedEvent event = new TaskRejectedEvent();
+        if (event.shouldCommit()) {
+            event.threadPoolUID = threadPoolUID;
+            event.taskClass = task.getClass();
+            event.rejectedPolicy = handler.getClass().getSimpleName();
+            event.queueSize = executor.getQueue().size();
+            event.activeCount = executor.getActiveCount();
+            event.commit();
+        }
+    }
+
+    /**
+     * Apply the journal settings of the pool, opening or closing the rejected task store.
+     *
+     * @param config journal settings, {@code null} for the defaults
+     * @throws IllegalArgumentException if a persistent journal lacks its directory or task classes
+     */
+    public synchronized void configureRejectionJournal(ThreadPoolExecutorProperties.RejectJournalConfig config) {
+        ThreadPoolExecutorProperties.RejectJournalConfig defaults = new ThreadPoolExecutorProperties.RejectJournalConfig();
+        ThreadPoolExecutorProperties.RejectJournalConfig effective = config != null ? config : defaults;
+        rejectionJournal.reconfigure(
+                effective.getCapacity() != null ? effective.getCapacity() : defaults.getCapacity(),
+                effective.getSamplesPerSecond() != null ? effective.getSamplesPerSecond() : defaults.getSamplesPerSecond());
+
+        Path file = null;
+        List<String> taskClasses = null;
+        if (Boolean.TRUE.equals(effective.getPersistent())) {
+            if (effective.getPersistDir() == null) {
+                throw new IllegalArgumentException(
+                        "rejectJournal.persistDir is required to persist rejected tasks of thread pool " + threadPoolUID);
+            }
+            file = Paths.get(effective.getPersistDir()).resolve(threadPoolUID + ".rejected");
+            taskClasses = effective.getPersistTaskClasses();
+        }
+        RejectedTaskStore current = rejectedTaskStore;
+        if (current != null && !(current.getFile().equals(file) && current.getTaskClasses().equals(taskClasses))) {
+            current.close();
+            current = null;
+        }
+        if (file != null && current == null) {
+            int maxMb = effective.getPersistMaxMb() != null ? effective.getPersistMaxMb() : defaults.getPersistMaxMb();
+            current = new RejectedTaskStore(file, maxMb * 1024L * 1024L, taskClasses);
+        }
+        rejectedTaskStore = current;
+    }
+
+    /**
+     * Submit the tasks stored by a persistent rejection journal, e.g. once a load spike is
+     * over or after a restart. Find the pool by UID through {@link CloudThreadRegistry}.
+     *
+     * @return the number of tasks submitted
+     */
+    public int replayRejectedTasks() throws IOException {
+        RejectedTaskStore store = rejectedTaskStore;
+        if (store == null) {
+            return 0;
+        }
+        int replayed = store.replay(this);
+        log.info("[CloudThread] Replayed {} rejected tasks into thread pool {}", replayed, threadPoolUID);
+        return replayed;
+    }
+
+    /**
+     * Only tasks the policy silently discards are stored. Tasks run by the caller or retried
+     * must not run a second time, and a policy throwing to the caller leaves the task to it.
+     */
+    private static boolean dropsTask(RejectedExecutionHandler handler) {
+        return handler instanceof ThreadPoolExecutor.DiscardPolicy;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+
+        // priority queues order tasks by their own comparator, keep them unwrapped
+        Runnable task = command instanceof TimedRunnable || getQueue() instanceof PriorityBlockingQueue
+                ? command
+                : new TimedRunnable(command);
+
+        TaskQueuedEvent event = new TaskQueuedEvent();
+        if (event.shouldCommit()) {
+            event.threadPoolUID = threadPoolUID;
+            event.taskClass = TimedRunnable.unwrap(command).getClass();
+            event.queueSize = getQueue().size();
+            event.poolSize = getPoolSize();
+            event.commit();
+        }
+
+        super.execute(task);
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        if (r instanceof TimedRunnable) {
+            TimedRunnable timedTask = (TimedRunnable) r;
+            timedTask.setStartNanos(System.nanoTime());
+
+            TaskExecutedEvent event = new TaskExecutedEvent();
+            if (event.isEnabled()) {
+                event.begin();
+                timedTask.setExecutedEvent(event);
+            }
+        }
+        super.beforeExecute(t, TimedRunnable.unwrap(r));
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(TimedRunnable.unwrap(r), t);
+        if (r instanceof TimedRunnable) {
+            TimedRunnable timedTask = (TimedRunnable) r;
+            long queueWait = timedTask.getStartNanos() - timedTask.getSubmitNanos();
+            long execution = System.nanoTime() - timedTask.getStartNanos();
+            taskTimingStats.record(queueWait, execution);
+            queueWaitHistogram.recordNanos(queueWait);
+            executionHistogram.recordNanos(execution);
+            sojournHistogram.recordNanos(queueWait + execution);
+
+            TaskExecutedEvent event = timedTask.getExecutedEvent();
+            if (event != null) {
+                timedTask.setExecutedEvent(null);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.threadPoolUID = threadPoolUID;
+                    event.taskClass = timedTask.getDelegate().getClass();
+                    event.queueWait = timedTask.getStartNanos() - timedTask.getSubmitNanos();
+                    event.failed = t != null;
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the given task from the work queue, matching the original task against
+     * the {@link TimedRunnable} wrappers held by the queue.
+     */
+    @Override
+    public boolean remove(Runnable task) {
+        if (super.remove(task)) {
+            return true;
+        }
+        for (Runnable queued : getQueue()) {
+            if (queued instanceof TimedRunnable && ((TimedRunnable) queued).getDelegate() == task) {
+                return super.remove(queued);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the original tasks that never commenced execution, without the internal
+     * {@link TimedRunnable} wrappers.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> pending = super.shutdownNow();
+        List<Runnable> tasks = new ArrayList<>(pending.size());
+        for (Runnable runnable : pending) {
+            tasks.add(TimedRunnable.unwrap(runnable));
+        }
+        return tasks;
     }
 
     @Override
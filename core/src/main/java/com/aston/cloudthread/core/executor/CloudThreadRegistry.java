@@ -13,10 +13,17 @@
  */
 package com.aston.cloudthread.core.executor;
 
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Consumer;
 
 /**
  * Registry for managing dynamic thread pools in CloudThread.
@@ -30,6 +37,9 @@ import java.util.concurrent.ThreadPoolExecutor;
  *     <li>Register new thread pool executors with associated configuration.</li>
  *     <li>Provide lookup access to a specific thread pool by its ID.</li>
  *     <li>Expose all registered thread pools for monitoring and management. </li>
+ *     <li>Assign every registered pool a dense index, reused once the pool is removed,
+ *         so per-pool state can live in flat arrays.</li>
+ *     <li>Notify removal listeners so per-pool state kept elsewhere is released.</li>
  * </ul>
  *
  * <p>Typical usage scenarios: </p>
@@ -42,6 +52,7 @@ import java.util.concurrent.ThreadPoolExecutor;
  * <p>This class is a core building block for enabling cloud-native, dynamically
  * configurable thread pools.</p>
  */
+@Slf4j
 public class CloudThreadRegistry {
 
     /**
@@ -53,6 +64,17 @@ public class CloudThreadRegistry {
     private static final Map<String, ThreadPoolExecutorWrapper> WRAPPER_MAP =
             new ConcurrentHashMap<>();
 
+    /**
+     * Pool indexes in use, guarded by itself
+     */
+    private static final BitSet USED_INDEXES = new BitSet();
+
+    /**
+     * Callbacks invoked with each removed wrapper
+     */
+    private static final List<Consumer<ThreadPoolExecutorWrapper>> REMOVAL_LISTENERS =
+            new CopyOnWriteArrayList<>();
+
     /**
      * Register a new thread pool into the registry by wrapping it together with
      * its configuration properties.
@@ -66,7 +88,47 @@ public class CloudThreadRegistry {
                                   ThreadPoolExecutorProperties properties) {
         ThreadPoolExecutorWrapper executorWrapper =
                 new ThreadPoolExecutorWrapper(threadPoolUID, executor, properties);
-        WRAPPER_MAP.put(threadPoolUID, executorWrapper);
+        WRAPPER_MAP.compute(threadPoolUID, (key, previous) -> {
+            // a re-registered pool keeps its index
+            executorWrapper.setPoolIndex(previous != null ? previous.getPoolIndex() : allocateIndex());
+            return executorWrapper;
+        });
+    }
+
+    /**
+     * Remove a thread pool from the registry, notify the removal listeners and release
+     * its index. The executor itself is not shut down.
+     *
+     * @param threadPoolUID unique identifier for the thread pool
+     * @return the removed wrapper, or {@code null} if no thread pool is registered with the given ID
+     */
+    public static ThreadPoolExecutorWrapper removeWrapper(String threadPoolUID) {
+        ThreadPoolExecutorWrapper removed = WRAPPER_MAP.remove(threadPoolUID);
+        if (removed == null) {
+            return null;
+        }
+        for (Consumer<ThreadPoolExecutorWrapper> listener : REMOVAL_LISTENERS) {
+            try {
+                listener.accept(removed);
+            } catch (Throwable ex) {
+                log.error("[CloudThread] Removal listener failed for thread pool: {}", threadPoolUID, ex);
+            }
+        }
+        // released last, so a new pool cannot get the index before the listeners cleaned up
+        releaseIndex(removed.getPoolIndex());
+        return removed;
+    }
+
+    /**
+     * Register a callback invoked with each wrapper removed by {@link #removeWrapper(String)}
+     * or {@link #clear()}.
+     */
+    public static void addRemovalListener(Consumer<ThreadPoolExecutorWrapper> listener) {
+        REMOVAL_LISTENERS.add(listener);
+    }
+
+    public static void removeRemovalListener(Consumer<ThreadPoolExecutorWrapper> listener) {
+        REMOVAL_LISTENERS.remove(listener);
     }
 
     /**
@@ -91,6 +153,25 @@ public class CloudThreadRegistry {
     }
 
     public static void clear() {
-        WRAPPER_MAP.clear();
+        for (String threadPoolUID : new ArrayList<>(WRAPPER_MAP.keySet())) {
+            removeWrapper(threadPoolUID);
+        }
+    }
+
+    private static int allocateIndex() {
+        synchronized (USED_INDEXES) {
+            int index = USED_INDEXES.nextClearBit(0);
+            USED_INDEXES.set(index);
+            return index;
+        }
+    }
+
+    private static void releaseIndex(int index) {
+        if (index < 0) {
+            return;
+        }
+        synchronized (USED_INDEXES) {
+            USED_INDEXES.clear(index);
+        }
     }
 }
\ No newline at end of file
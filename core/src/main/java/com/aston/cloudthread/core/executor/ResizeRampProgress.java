@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of a gradual thread pool resize, see {@link ThreadPoolResizeRamp}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResizeRampProgress {
+
+    /**
+     * Ramp state
+     */
+    private State state;
+
+    /**
+     * Steps applied so far
+     */
+    private int step;
+
+    /**
+     * Total number of steps
+     */
+    private int steps;
+
+    /**
+     * Core pool size when the ramp started
+     */
+    private int startCorePoolSize;
+
+    /**
+     * Core pool size the ramp moves to
+     */
+    private int targetCorePoolSize;
+
+    /**
+     * Maximum pool size when the ramp started
+     */
+    private int startMaximumPoolSize;
+
+    /**
+     * Maximum pool size the ramp moves to
+     */
+    private int targetMaximumPoolSize;
+
+    /**
+     * Queue capacity when the ramp started, {@code null} if the capacity is not ramped
+     */
+    private Integer startQueueCapacity;
+
+    /**
+     * Queue capacity the ramp moves to, {@code null} if the capacity is not ramped
+     */
+    private Integer targetQueueCapacity;
+
+    /**
+     * Ramp start time in epoch milliseconds
+     */
+    private long startTime;
+
+    /**
+     * Time of the latest step or state change in epoch milliseconds
+     */
+    private long updateTime;
+
+    /**
+     * Why the ramp was aborted, {@code null} unless the state is {@link State#ABORTED}
+     */
+    private String abortReason;
+
+    public enum State {
+        /**
+         * Steps are still being applied
+         */
+        RUNNING,
+
+        /**
+         * The target values have been reached
+         */
+        COMPLETED,
+
+        /**
+         * Stopped because rejections or latency got worse, the pool keeps the values reached
+         */
+        ABORTED,
+
+        /**
+         * Replaced by a newer configuration change
+         */
+        CANCELLED
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor;
+
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory history of the thread pool configurations applied at runtime.
+ *
+ * <p>Every successful refresh records one {@link ConfigVersion} holding the properties of the
+ * changed thread pools before and after the refresh. The versions can be inspected, and the
+ * {@code before} side of a version is what a manual rollback applies. Only the latest
+ * {@link #MAX_VERSIONS} versions are kept.</p>
+ */
+public final class ThreadPoolConfigHistory {
+
+    /**
+     * Number of versions kept, older ones are dropped.
+     */
+    public static final int MAX_VERSIONS = 50;
+
+    /**
+     * Recorded versions, oldest first, guarded by itself.
+     */
+    private static final Deque<ConfigVersion> VERSIONS = new ArrayDeque<>();
+
+    private static long lastVersion;
+
+    private ThreadPoolConfigHistory() {
+    }
+
+    /**
+     * Record an applied configuration change.
+     *
+     * @param source what triggered the change, e.g. {@code refresh} or {@code rollback to 3}
+     * @param before properties of the changed thread pools before the change, by thread pool id
+     * @param after  properties of the changed thread pools after the change, by thread pool id
+     * @return the recorded version
+     */
+    public static ConfigVersion record(String source,
+                                       Map<String, ThreadPoolExecutorProperties> before,
+                                       Map<String, ThreadPoolExecutorProperties> after) {
+        synchronized (VERSIONS) {
+            ConfigVersion version = new ConfigVersion(++lastVersion, System.currentTimeMillis(), source,
+                    copyOf(before), copyOf(after));
+            VERSIONS.addLast(version);
+            while (VERSIONS.size() > MAX_VERSIONS) {
+                VERSIONS.removeFirst();
+            }
+            return version;
+        }
+    }
+
+    /**
+     * Get a recorded version.
+     *
+     * @param version version number
+     * @return the version, or {@code null} if it was never recorded or has been dropped
+     */
+    public static ConfigVersion get(long version) {
+        synchronized (VERSIONS) {
+            for (ConfigVersion each : VERSIONS) {
+                if (each.getVersion() == version) {
+                    return each;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Get the latest recorded version.
+     *
+     * @return the latest version, or {@code null} if none was recorded
+     */
+    public static ConfigVersion latest() {
+        synchronized (VERSIONS) {
+            return VERSIONS.peekLast();
+        }
+    }
+
+    /**
+     * Get all kept versions, oldest first.
+     *
+     * @return a snapshot of the kept versions
+     */
+    public static List<ConfigVersion> versions() {
+        synchronized (VERSIONS) {
+            return new ArrayList<>(VERSIONS);
+        }
+    }
+
+    /**
+     * Drop all recorded versions, version numbers keep increasing.
+     */
+    public static void clear() {
+        synchronized (VERSIONS) {
+            VERSIONS.clear();
+        }
+    }
+
+    private static Map<String, ThreadPoolExecutorProperties> copyOf(Map<String, ThreadPoolExecutorProperties> properties) {
+        Map<String, ThreadPoolExecutorProperties> copy = new LinkedHashMap<>();
+        properties.forEach((threadPoolUID, props) -> copy.put(threadPoolUID, ThreadPoolPropertyFields.copy(props)));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * One applied configuration change.
+     */
+    @Getter
+    public static final class ConfigVersion {
+
+        /**
+         * Version number, increasing with every recorded change.
+         */
+        private final long version;
+
+        /**
+         * Time the change was applied, in epoch milliseconds.
+         */
+        private final long timestamp;
+
+        /**
+         * What triggered the change.
+         */
+        private final String source;
+
+        /**
+         * Properties of the changed thread pools before the change, by thread pool id.
+         */
+        private final Map<String, ThreadPoolExecutorProperties> before;
+
+        /**
+         * Properties of the changed thread pools after the change, by thread pool id.
+         */
+        private final Map<String, ThreadPoolExecutorProperties> after;
+
+        ConfigVersion(long version, long timestamp, String source,
+                      Map<String, ThreadPoolExecutorProperties> before,
+                      Map<String, ThreadPoolExecutorProperties> after) {
+            this.version = version;
+            this.timestamp = timestamp;
+            this.source = source;
+            this.before = before;
+            this.after = after;
+        }
+    }
+}
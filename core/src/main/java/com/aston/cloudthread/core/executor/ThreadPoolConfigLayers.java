@@ -0,0 +1,261 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.config.ExecutorPropertyKey;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Layered thread pool configuration: global defaults, named groups and the pools themselves.
+ *
+ * <p>The effective value of a field is the first one set on the pool, on the group named by the
+ * pool's {@code group}, or on the defaults. {@code threadPoolUID} and {@code group} are only taken
+ * from the pool. Nested settings such as {@code alarm} are inherited as a whole.</p>
+ *
+ * <p>Instances are never modified. {@link #refresh(BootstrapConfigProperties)} builds the next
+ * layers, re-resolving only the pools whose own layer or whose inherited layers changed, and
+ * reports them as {@link #getChangedThreadPoolUIDs()}.</p>
+ */
+@Slf4j
+public final class ThreadPoolConfigLayers {
+
+    private static final String GROUP_FIELD = ExecutorPropertyKey.uniform("group");
+
+    private static final Set<String> POOL_ONLY_FIELDS = Set.of(
+            ExecutorPropertyKey.uniform("threadPoolUID"), GROUP_FIELD);
+
+    private final ThreadPoolExecutorProperties defaults;
+
+    private final Map<String, ThreadPoolExecutorProperties> groups;
+
+    /**
+     * Pool layer by thread pool id, in configuration order
+     */
+    private final Map<String, ThreadPoolExecutorProperties> pools;
+
+    /**
+     * Effective configuration by thread pool id, resolved on first access
+     */
+    private final Map<String, ThreadPoolExecutorProperties> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Ids of the thread pools whose effective configuration differs from the previous layers
+     */
+    private final Set<String> changedThreadPoolUIDs;
+
+    private ThreadPoolConfigLayers(ThreadPoolExecutorProperties defaults,
+                                   Map<String, ThreadPoolExecutorProperties> groups,
+                                   Map<String, ThreadPoolExecutorProperties> pools,
+                                   Set<String> changedThreadPoolUIDs) {
+        this.defaults = defaults;
+        this.groups = groups;
+        this.pools = pools;
+        this.changedThreadPoolUIDs = changedThreadPoolUIDs;
+    }
+
+    /**
+     * Build the layers of the bound configuration, all pools count as changed.
+     */
+    public static ThreadPoolConfigLayers of(BootstrapConfigProperties properties) {
+        return of(properties.getExecutorDefaults(), properties.getExecutorGroups(), properties.getExecutors());
+    }
+
+    /**
+     * Build the layers from their parts, all pools count as changed.
+     *
+     * @param defaults  defaults of every pool, may be {@code null}
+     * @param groups    group layers by group name, may be {@code null}
+     * @param executors pool layers, entries without a thread pool id are ignored
+     */
+    public static ThreadPoolConfigLayers of(ThreadPoolExecutorProperties defaults,
+                                            Map<String, ThreadPoolExecutorProperties> groups,
+                                            List<ThreadPoolExecutorProperties> executors) {
+        Map<String, ThreadPoolExecutorProperties> pools = copyPools(executors);
+        ThreadPoolConfigLayers layers = new ThreadPoolConfigLayers(copyOf(defaults), copyGroups(groups), pools,
+                new LinkedHashSet<>(pools.keySet()));
+        layers.warnUnknownGroups(pools.keySet());
+        return layers;
+    }
+
+    /**
+     * @return ids of all configured thread pools, in configuration order
+     */
+    public Set<String> getThreadPoolUIDs() {
+        return Collections.unmodifiableSet(pools.keySet());
+    }
+
+    /**
+     * @return ids of the thread pools whose effective configuration differs from the layers
+     * these were built from, all pools for layers built with {@code of}
+     */
+    public Set<String> getChangedThreadPoolUIDs() {
+        return Collections.unmodifiableSet(changedThreadPoolUIDs);
+    }
+
+    /**
+     * Resolve the effective configuration of a thread pool.
+     *
+     * @return a copy of the effective properties, or {@code null} if the pool is not configured
+     */
+    public ThreadPoolExecutorProperties resolve(String threadPoolUID) {
+        if (threadPoolUID == null || !pools.containsKey(threadPoolUID)) {
+            return null;
+        }
+        return ThreadPoolPropertyFields.copy(resolved.computeIfAbsent(threadPoolUID, this::doResolve));
+    }
+
+    /**
+     * Build the next layers from a newly bound configuration.
+     *
+     * <p>A pool is re-resolved when it is new, when its own layer changed, or when the defaults or
+     * its group changed a field it does not set itself. The cached resolutions of the other pools
+     * are carried over.</p>
+     */
+    public ThreadPoolConfigLayers refresh(BootstrapConfigProperties properties) {
+        ThreadPoolConfigLayers next = new ThreadPoolConfigLayers(copyOf(properties.getExecutorDefaults()),
+                copyGroups(properties.getExecutorGroups()), copyPools(properties.getExecutors()),
+                new LinkedHashSet<>());
+        Set<String> defaultFields = ThreadPoolPropertyFields.changedFields(defaults, next.defaults);
+        Set<String> candidates = new LinkedHashSet<>();
+        for (Map.Entry<String, ThreadPoolExecutorProperties> entry : next.pools.entrySet()) {
+            String threadPoolUID = entry.getKey();
+            ThreadPoolExecutorProperties pool = entry.getValue();
+            if (!pool.equals(pools.get(threadPoolUID))
+                    || inherits(pool, defaultFields)
+                    || inherits(pool, ThreadPoolPropertyFields.changedFields(
+                    groups.get(pool.getGroup()), next.groups.get(pool.getGroup())))) {
+                candidates.add(threadPoolUID);
+            } else {
+                next.carryOver(this, threadPoolUID);
+            }
+        }
+        for (String threadPoolUID : candidates) {
+            if (!Objects.equals(resolve(threadPoolUID), next.resolve(threadPoolUID))) {
+                next.changedThreadPoolUIDs.add(threadPoolUID);
+            }
+        }
+        next.warnUnknownGroups(candidates);
+        return next;
+    }
+
+    /**
+     * Build the next layers with some fields of one pool layer replaced.
+     *
+     * @param threadPoolUID id of the changed pool
+     * @param update        properties holding the new values
+     * @param fields        uniform names of the changed fields
+     */
+    public ThreadPoolConfigLayers withPoolFields(String threadPoolUID,
+                                                 ThreadPoolExecutorProperties update,
+                                                 Collection<String> fields) {
+        Map<String, ThreadPoolExecutorProperties> nextPools = new LinkedHashMap<>(pools);
+        ThreadPoolExecutorProperties pool = pools.getOrDefault(threadPoolUID,
+                new ThreadPoolExecutorProperties().setThreadPoolUID(threadPoolUID));
+        nextPools.put(threadPoolUID, ThreadPoolPropertyFields.merge(pool, update, fields));
+        Set<String> changed = new LinkedHashSet<>();
+        changed.add(threadPoolUID);
+        ThreadPoolConfigLayers next = new ThreadPoolConfigLayers(defaults, groups, nextPools, changed);
+        for (String other : pools.keySet()) {
+            if (!other.equals(threadPoolUID)) {
+                next.carryOver(this, other);
+            }
+        }
+        if (fields.contains(GROUP_FIELD)) {
+            next.warnUnknownGroups(changed);
+        }
+        return next;
+    }
+
+    private ThreadPoolExecutorProperties doResolve(String threadPoolUID) {
+        ThreadPoolExecutorProperties pool = pools.get(threadPoolUID);
+        ThreadPoolExecutorProperties group = pool.getGroup() == null ? null : groups.get(pool.getGroup());
+        ThreadPoolExecutorProperties effective = ThreadPoolPropertyFields.copy(pool);
+        for (String field : ThreadPoolPropertyFields.fields()) {
+            if (POOL_ONLY_FIELDS.contains(field) || ThreadPoolPropertyFields.get(pool, field) != null) {
+                continue;
+            }
+            ThreadPoolExecutorProperties source = ThreadPoolPropertyFields.get(group, field) != null ? group : defaults;
+            if (source != null) {
+                ThreadPoolPropertyFields.copyField(effective, source, field);
+            }
+        }
+        return effective;
+    }
+
+    /**
+     * @return whether the pool takes any of the fields from an inherited layer
+     */
+    private static boolean inherits(ThreadPoolExecutorProperties pool, Set<String> fields) {
+        for (String field : fields) {
+            if (!POOL_ONLY_FIELDS.contains(field) && ThreadPoolPropertyFields.get(pool, field) == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void carryOver(ThreadPoolConfigLayers previous, String threadPoolUID) {
+        ThreadPoolExecutorProperties effective = previous.resolved.get(threadPoolUID);
+        if (effective != null) {
+            resolved.put(threadPoolUID, effective);
+        }
+    }
+
+    private void warnUnknownGroups(Collection<String> threadPoolUIDs) {
+        for (String threadPoolUID : threadPoolUIDs) {
+            String group = pools.get(threadPoolUID).getGroup();
+            if (group != null && !groups.containsKey(group)) {
+                log.warn("[CloudThread] Thread pool {} refers to unknown group {}, using the defaults only.",
+                        threadPoolUID, group);
+            }
+        }
+    }
+
+    private static ThreadPoolExecutorProperties copyOf(ThreadPoolExecutorProperties properties) {
+        return properties == null ? null : ThreadPoolPropertyFields.copy(properties);
+    }
+
+    private static Map<String, ThreadPoolExecutorProperties> copyGroups(
+            Map<String, ThreadPoolExecutorProperties> groups) {
+        Map<String, ThreadPoolExecutorProperties> copy = new HashMap<>();
+        if (groups != null) {
+            groups.forEach((name, group) -> copy.put(name, copyOf(group)));
+        }
+        return copy;
+    }
+
+    private static Map<String, ThreadPoolExecutorProperties> copyPools(List<ThreadPoolExecutorProperties> executors) {
+        Map<String, ThreadPoolExecutorProperties> pools = new LinkedHashMap<>();
+        if (executors != null) {
+            for (ThreadPoolExecutorProperties executor : executors) {
+                if (executor != null && executor.getThreadPoolUID() != null) {
+                    pools.put(executor.getThreadPoolUID(), copyOf(executor));
+                }
+            }
+        }
+        return pools;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+
+/**
+ * The {@link ThreadPoolConfigLayers} applied last, shared by the code creating the dynamic
+ * thread pools and the code refreshing them.
+ *
+ * <p>The layers are built once from the configuration bound at startup. Refreshes bind their
+ * values into the same {@link BootstrapConfigProperties} instance, so the applied layers are
+ * kept here rather than rebuilt from it: they are what a refresh compares against, and they
+ * only move on with {@link #setLayers(ThreadPoolConfigLayers)} once a change was applied.</p>
+ */
+public class ThreadPoolConfigLayersHolder {
+
+    private volatile ThreadPoolConfigLayers layers;
+
+    public ThreadPoolConfigLayersHolder(BootstrapConfigProperties properties) {
+        this.layers = ThreadPoolConfigLayers.of(properties);
+    }
+
+    /**
+     * @return the layers applied last
+     */
+    public ThreadPoolConfigLayers getLayers() {
+        return layers;
+    }
+
+    /**
+     * Replace the layers after a change to them was applied to the thread pools.
+     */
+    public void setLayers(ThreadPoolConfigLayers layers) {
+        this.layers = layers;
+    }
+}
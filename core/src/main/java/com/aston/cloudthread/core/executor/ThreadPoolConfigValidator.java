@@ -0,0 +1,129 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor;
+
+import com.aston.cloudthread.core.executor.support.BlockingQueueTypeEnum;
+import com.aston.cloudthread.core.executor.support.RejectedPolicyTypeEnum;
+import com.aston.cloudthread.core.executor.support.ResizableCapacityLinkedBlockingQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates a thread pool configuration before it is applied to a running executor.
+ *
+ * <p>Null fields of the new properties keep the current setting, so sizes are checked against
+ * the values the executor would end up with. The checks cover:</p>
+ * <ul>
+ *     <li>core and maximum pool size, core must not exceed maximum.</li>
+ *     <li>keep-alive time, which must be positive while core threads may time out.</li>
+ *     <li>the working queue and rejected handler names, and the rejected handler parameters.</li>
+ *     <li>the queue capacity, which can only change on a
+ *         {@link ResizableCapacityLinkedBlockingQueue}.</li>
+ *     <li>the directory and task classes of a persistent rejection journal.</li>
+ *     <li>the step count and interval of an enabled resize ramp.</li>
+ * </ul>
+ */
+public final class ThreadPoolConfigValidator {
+
+    private ThreadPoolConfigValidator() {
+    }
+
+    /**
+     * Validate the properties about to replace the current ones of a thread pool.
+     *
+     * @param originalProps properties currently applied
+     * @param remoteProps   properties to apply
+     * @param executor      the running thread pool
+     * @return the problems found, empty if the properties can be applied
+     */
+    public static List<String> validate(ThreadPoolExecutorProperties originalProps,
+                                        ThreadPoolExecutorProperties remoteProps,
+                                        ThreadPoolExecutor executor) {
+        List<String> errors = new ArrayList<>();
+
+        int corePoolSize = remoteProps.getCorePoolSize() != null
+                ? remoteProps.getCorePoolSize() : executor.getCorePoolSize();
+        int maximumPoolSize = remoteProps.getMaximumPoolSize() != null
+                ? remoteProps.getMaximumPoolSize() : executor.getMaximumPoolSize();
+        if (corePoolSize < 0) {
+            errors.add("corePoolSize must not be negative: " + corePoolSize);
+        }
+        if (maximumPoolSize <= 0) {
+            errors.add("maximumPoolSize must be positive: " + maximumPoolSize);
+        }
+        if (corePoolSize > maximumPoolSize) {
+            errors.add("corePoolSize " + corePoolSize + " exceeds maximumPoolSize " + maximumPoolSize);
+        }
+
+        long keepAliveSeconds = remoteProps.getKeepAliveTimeSeconds() != null
+                ? remoteProps.getKeepAliveTimeSeconds()
+                : executor.getKeepAliveTime(TimeUnit.SECONDS);
+        boolean allowCoreThreadTimeout = remoteProps.getAllowCoreThreadTimeout() != null
+                ? remoteProps.getAllowCoreThreadTimeout() : executor.allowsCoreThreadTimeOut();
+        if (keepAliveSeconds < 0) {
+            errors.add("keepAliveTimeSeconds must not be negative: " + keepAliveSeconds);
+        } else if (keepAliveSeconds == 0 && allowCoreThreadTimeout) {
+            errors.add("keepAliveTimeSeconds must be positive when allowCoreThreadTimeout is enabled");
+        }
+
+        String workingQueue = remoteProps.getWorkingQueue();
+        if (workingQueue != null && BlockingQueueTypeEnum.findByName(workingQueue) == null) {
+            errors.add("unknown workingQueue: " + workingQueue);
+        }
+
+        if (remoteProps.getRejectedHandler() != null || remoteProps.getRejectedHandlerParams() != null) {
+            String rejectedHandler = remoteProps.getRejectedHandler() != null
+                    ? remoteProps.getRejectedHandler() : originalProps.getRejectedHandler();
+            try {
+                RejectedPolicyTypeEnum.createPolicy(rejectedHandler, remoteProps.getRejectedHandlerParams());
+            } catch (IllegalArgumentException ex) {
+                errors.add("invalid rejectedHandler " + rejectedHandler + ": " + ex.getMessage());
+            }
+        }
+
+        Integer queueCapacity = remoteProps.getQueueCapacity();
+        if (queueCapacity != null && !Objects.equals(queueCapacity, originalProps.getQueueCapacity())) {
+            if (queueCapacity <= 0) {
+                errors.add("queueCapacity must be positive: " + queueCapacity);
+            } else if (!(executor.getQueue() instanceof ResizableCapacityLinkedBlockingQueue)) {
+                errors.add("queueCapacity cannot change at runtime on "
+                        + executor.getQueue().getClass().getSimpleName() + ", use "
+                        + BlockingQueueTypeEnum.RESIZABLE_CAPACITY_LINKED_BLOCKING_QUEUE.getName());
+            }
+        }
+        ThreadPoolExecutorProperties.RejectJournalConfig journal = remoteProps.getRejectJournal();
+        if (journal != null && Boolean.TRUE.equals(journal.getPersistent())) {
+            if (journal.getPersistDir() == null) {
+                errors.add("rejectJournal.persistDir is required when rejectJournal.persistent is enabled");
+            }
+            if (journal.getPersistTaskClasses() == null || journal.getPersistTaskClasses().isEmpty()) {
+                errors.add("rejectJournal.persistTaskClasses is required when rejectJournal.persistent is enabled");
+            }
+        }
+        ThreadPoolExecutorProperties.RampConfig ramp = remoteProps.getRamp();
+        if (ramp != null && Boolean.TRUE.equals(ramp.getEnable())) {
+            if (ramp.getSteps() != null && ramp.getSteps() < 1) {
+                errors.add("ramp.steps must be positive: " + ramp.getSteps());
+            }
+            if (ramp.getStepIntervalMillis() != null && ramp.getStepIntervalMillis() <= 0) {
+                errors.add("ramp.stepIntervalMillis must be positive: " + ramp.getStepIntervalMillis());
+            }
+        }
+        return errors;
+    }
+}
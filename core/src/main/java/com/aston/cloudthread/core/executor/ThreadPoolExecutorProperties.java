@@ -19,6 +19,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Thread pool properties
  */
@@ -33,6 +36,11 @@ public class ThreadPoolExecutorProperties {
      */
     private String threadPoolUID;
 
+    /**
+     * Name of the group in {@code executor-groups} providing the fields left unset here.
+     */
+    private String group;
+
     /**
      * Core thread pool size.
      */
@@ -58,6 +66,11 @@ public class ThreadPoolExecutorProperties {
      */
     private String rejectedHandler;
 
+    /**
+     * Parameters of the reject strategy, e.g. {@code timeout-millis} of {@code BlockingPolicy}.
+     */
+    private Map<String, String> rejectedHandlerParams;
+
     /**
      * Thread idle alive time in seconds.
      */
@@ -78,6 +91,16 @@ public class ThreadPoolExecutorProperties {
      */
     private AlarmConfig alarm;
 
+    /**
+     * Rejected task journal configuration.
+     */
+    private RejectJournalConfig rejectJournal;
+
+    /**
+     * Gradual resize configuration.
+     */
+    private RampConfig ramp;
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -112,5 +135,168 @@ public class ThreadPoolExecutorProperties {
          * Alive thread threshold.
          */
         private Integer activeThreadThreshold = 80;
+
+        /**
+         * Rule deciding when a threshold counts as breached:
+         * instant, sustained, window or ewma, see {@code AlarmRuleTypeEnum}.
+         */
+        private String rule = "instant";
+
+        /**
+         * Rule sustained: seconds the value must stay at or above the threshold.
+         */
+        private Integer sustainedSeconds = 60;
+
+        /**
+         * Rule window: length of the sliding window in seconds.
+         */
+        private Integer windowSeconds = 60;
+
+        /**
+         * Rule window: percentage of samples in the window that must breach the threshold.
+         */
+        private Integer windowPercent = 50;
+
+        /**
+         * Rule ewma: smoothing factor of the exponentially weighted moving average, 0 to 1.
+         */
+        private Double ewmaAlpha = 0.3;
+
+        /**
+         * Queue threshold below which a raised queue alarm clears, defaults to queueThreshold.
+         */
+        private Integer queueClearThreshold;
+
+        /**
+         * Alive thread threshold below which a raised activity alarm clears,
+         * defaults to activeThreadThreshold.
+         */
+        private Integer activeThreadClearThreshold;
+
+        /**
+         * Send a recovery notification when a notified alarm clears, off by default.
+         */
+        private Boolean recoveryNotify = Boolean.FALSE;
+
+        /**
+         * Queue wait p99 budget in milliseconds, alarm type QueueWaitP99. Disabled when empty.
+         */
+        private Long queueWaitP99Millis;
+
+        /**
+         * Task execution time p99 budget in milliseconds, alarm type ExecutionP99.
+         * Disabled when empty.
+         */
+        private Long executionP99Millis;
+
+        /**
+         * End-to-end latency (queue wait plus execution) a task must stay within to count
+         * as good for the SLO, alarm type BurnRate. Disabled when empty.
+         */
+        private Long sloLatencyMillis;
+
+        /**
+         * SLO target in percent of good tasks, the error budget is {@code 100 - sloTarget}.
+         */
+        private Double sloTarget = 99.0;
+
+        /**
+         * Error budget burn rate raising the BurnRate alarm; 14.4 spends a 30 day budget
+         * in about two days.
+         */
+        private Double burnRateThreshold = 14.4;
+
+        /**
+         * Length in seconds of the window latency percentiles and burn rate are computed over.
+         */
+        private Integer latencyWindowSeconds = 60;
+
+        /**
+         * Windows with fewer tasks are evaluated as healthy.
+         */
+        private Integer latencyMinSamples = 10;
+
+        public AlarmConfig(Boolean enable, Integer queueThreshold, Integer activeThreadThreshold) {
+            this.enable = enable;
+            this.queueThreshold = queueThreshold;
+            this.activeThreadThreshold = activeThreadThreshold;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RejectJournalConfig {
+        /**
+         * Recent rejections kept in memory, rounded up to a power of two.
+         */
+        private Integer capacity = 256;
+
+        /**
+         * Rejections recorded per second before sampling starts, 0 records every rejection.
+         */
+        private Integer samplesPerSecond = 100;
+
+        /**
+         * Store rejected {@code Serializable} tasks silently dropped by the rejection policy
+         * in a local file for later replay into the pool. Requires {@code persistDir} and
+         * {@code persistTaskClasses}.
+         */
+        private Boolean persistent = Boolean.FALSE;
+
+        /**
+         * Directory of the stored tasks, one file per thread pool UID. Created readable by
+         * the owner only, use a directory no other user can write.
+         */
+        private String persistDir;
+
+        /**
+         * Task classes that may be stored and replayed, as {@link java.io.ObjectInputFilter}
+         * patterns such as {@code com.example.OrderTask} or {@code com.example.tasks.*}.
+         */
+        private List<String> persistTaskClasses;
+
+        /**
+         * Maximum size of the stored task file per thread pool in megabytes.
+         */
+        private Integer persistMaxMb = 64;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RampConfig {
+        /**
+         * Move pool sizes and queue capacity to new values in steps instead of at once.
+         */
+        private Boolean enable = Boolean.FALSE;
+
+        /**
+         * Number of steps from the current to the new values.
+         */
+        private Integer steps = 5;
+
+        /**
+         * Time between two steps in milliseconds. The ramp waits one interval before the
+         * first step to measure the rejection rate and latency it compares the steps against.
+         */
+        private Long stepIntervalMillis = 2000L;
+
+        /**
+         * Abort when the share of rejected tasks during a step exceeds the share before the
+         * ramp by more than this many percentage points.
+         */
+        private Double maxRejectRatioIncrease = 5.0;
+
+        /**
+         * Abort when the average task latency during a step exceeds the latency before the
+         * ramp by more than this percentage.
+         */
+        private Integer maxLatencyIncreasePercent = 50;
+
+        /**
+         * Intervals with fewer completed tasks are not compared for latency.
+         */
+        private Integer minSamples = 10;
     }
 }
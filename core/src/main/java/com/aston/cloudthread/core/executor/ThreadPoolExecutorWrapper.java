@@ -15,8 +15,11 @@ package com.aston.cloudthread.core.executor;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Thread pool's holder class.
@@ -39,4 +42,26 @@ public class ThreadPoolExecutorWrapper {
      * Thread pool config properties.
      */
     private ThreadPoolExecutorProperties executorProperties;
+
+    /**
+     * Dense index assigned by {@link CloudThreadRegistry}, reused after the pool is removed;
+     * -1 while the wrapper is not registered.
+     */
+    @EqualsAndHashCode.Exclude
+    private int poolIndex = -1;
+
+    /**
+     * Serializes configuration refreshes of this pool, refreshes of other pools do not wait.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    public ThreadPoolExecutorWrapper(String threadPoolUID,
+                                     ThreadPoolExecutor executor,
+                                     ThreadPoolExecutorProperties executorProperties) {
+        this.threadPoolUID = threadPoolUID;
+        this.executor = executor;
+        this.executorProperties = executorProperties;
+    }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor;
+
+import com.aston.cloudthread.core.config.ExecutorPropertyKey;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Field-level access to {@link ThreadPoolExecutorProperties}, used to apply only the
+ * properties a configuration change touched.
+ *
+ * <p>Fields are addressed by their uniform name, see {@link ExecutorPropertyKey#uniform(String)}.
+ * Nested settings such as {@code alarm} are copied as a whole, they are bound together
+ * from the same sub-tree.</p>
+ */
+public final class ThreadPoolPropertyFields {
+
+    /**
+     * Uniform field name to a copier writing the field of the source into the target
+     */
+    private static final Map<String, BiConsumer<ThreadPoolExecutorProperties, ThreadPoolExecutorProperties>> COPIERS =
+            new HashMap<>();
+
+    /**
+     * Uniform field name to the getter reading the field
+     */
+    private static final Map<String, Function<ThreadPoolExecutorProperties, ?>> GETTERS = new HashMap<>();
+
+    static {
+        register("threadPoolUID",
+                ThreadPoolExecutorProperties::getThreadPoolUID, ThreadPoolExecutorProperties::setThreadPoolUID);
+        register("group", ThreadPoolExecutorProperties::getGroup, ThreadPoolExecutorProperties::setGroup);
+        register("corePoolSize",
+                ThreadPoolExecutorProperties::getCorePoolSize, ThreadPoolExecutorProperties::setCorePoolSize);
+        register("maximumPoolSize",
+                ThreadPoolExecutorProperties::getMaximumPoolSize, ThreadPoolExecutorProperties::setMaximumPoolSize);
+        register("queueCapacity",
+                ThreadPoolExecutorProperties::getQueueCapacity, ThreadPoolExecutorProperties::setQueueCapacity);
+        register("workingQueue",
+                ThreadPoolExecutorProperties::getWorkingQueue, ThreadPoolExecutorProperties::setWorkingQueue);
+        register("rejectedHandler",
+                ThreadPoolExecutorProperties::getRejectedHandler, ThreadPoolExecutorProperties::setRejectedHandler);
+        register("rejectedHandlerParams",
+                ThreadPoolExecutorProperties::getRejectedHandlerParams,
+                ThreadPoolExecutorProperties::setRejectedHandlerParams);
+        register("keepAliveTimeSeconds",
+                ThreadPoolExecutorProperties::getKeepAliveTimeSeconds,
+                ThreadPoolExecutorProperties::setKeepAliveTimeSeconds);
+        register("allowCoreThreadTimeout",
+                ThreadPoolExecutorProperties::getAllowCoreThreadTimeout,
+                ThreadPoolExecutorProperties::setAllowCoreThreadTimeout);
+        register("notify", ThreadPoolExecutorProperties::getNotify, ThreadPoolExecutorProperties::setNotify);
+        register("alarm", ThreadPoolExecutorProperties::getAlarm, ThreadPoolExecutorProperties::setAlarm);
+        register("rejectJournal",
+                ThreadPoolExecutorProperties::getRejectJournal, ThreadPoolExecutorProperties::setRejectJournal);
+        register("ramp", ThreadPoolExecutorProperties::getRamp, ThreadPoolExecutorProperties::setRamp);
+    }
+
+    private ThreadPoolPropertyFields() {
+    }
+
+    private static <T> void register(String field,
+                                     Function<ThreadPoolExecutorProperties, T> getter,
+                                     BiConsumer<ThreadPoolExecutorProperties, T> setter) {
+        String uniform = ExecutorPropertyKey.uniform(field);
+        COPIERS.put(uniform, (target, source) -> setter.accept(target, getter.apply(source)));
+        GETTERS.put(uniform, getter);
+    }
+
+    /**
+     * @return uniform names of all thread pool fields
+     */
+    public static Set<String> fields() {
+        return Collections.unmodifiableSet(COPIERS.keySet());
+    }
+
+    /**
+     * @param field uniform field name
+     * @return whether the field is a property of a thread pool
+     */
+    public static boolean isKnown(String field) {
+        return COPIERS.containsKey(field);
+    }
+
+    /**
+     * @return a shallow copy of the given properties
+     */
+    public static ThreadPoolExecutorProperties copy(ThreadPoolExecutorProperties source) {
+        ThreadPoolExecutorProperties copy = new ThreadPoolExecutorProperties();
+        for (BiConsumer<ThreadPoolExecutorProperties, ThreadPoolExecutorProperties> copier : COPIERS.values()) {
+            copier.accept(copy, source);
+        }
+        return copy;
+    }
+
+    /**
+     * Copy the original properties, replacing the given fields with those of the update.
+     *
+     * @param original properties currently applied to the pool
+     * @param update   properties bound from the changed configuration
+     * @param fields   uniform names of the changed fields, unknown names are ignored
+     * @return new properties, neither argument is modified
+     */
+    public static ThreadPoolExecutorProperties merge(ThreadPoolExecutorProperties original,
+                                                     ThreadPoolExecutorProperties update,
+                                                     Collection<String> fields) {
+        ThreadPoolExecutorProperties merged = copy(original);
+        for (String field : fields) {
+            BiConsumer<ThreadPoolExecutorProperties, ThreadPoolExecutorProperties> copier = COPIERS.get(field);
+            if (copier != null) {
+                copier.accept(merged, update);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Write one field of the source into the target, unknown fields are ignored.
+     */
+    static void copyField(ThreadPoolExecutorProperties target, ThreadPoolExecutorProperties source, String field) {
+        BiConsumer<ThreadPoolExecutorProperties, ThreadPoolExecutorProperties> copier = COPIERS.get(field);
+        if (copier != null) {
+            copier.accept(target, source);
+        }
+    }
+
+    /**
+     * @param field uniform field name
+     * @return value of the field, {@code null} for unset or unknown fields
+     */
+    public static Object get(ThreadPoolExecutorProperties properties, String field) {
+        Function<ThreadPoolExecutorProperties, ?> getter = GETTERS.get(field);
+        return properties == null || getter == null ? null : getter.apply(properties);
+    }
+
+    /**
+     * @return uniform names of the fields whose values differ, a missing side counts as all fields unset
+     */
+    public static Set<String> changedFields(ThreadPoolExecutorProperties before, ThreadPoolExecutorProperties after) {
+        Set<String> changed = new HashSet<>();
+        for (String field : COPIERS.keySet()) {
+            if (!Objects.equals(get(before, field), get(after, field))) {
+                changed.add(field);
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor;
+
+import com.aston.cloudthread.core.executor.support.ResizableCapacityLinkedBlockingQueue;
+import com.aston.cloudthread.core.executor.support.TaskTimingStats;
+import com.aston.cloudthread.core.jfr.PoolResizedEvent;
+import com.aston.cloudthread.core.toolkit.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves the pool sizes and queue capacity of thread pools to new values in steps.
+ *
+ * <p>Growing a pool from 20 to 200 core threads at once starts 180 threads in one go, with the
+ * CPU and downstream connection spikes that come with them. A ramp instead applies the change
+ * in {@link ThreadPoolExecutorProperties.RampConfig#getSteps() steps}, one per step interval,
+ * all ramps driven by one shared scheduler thread.</p>
+ *
+ * <p>For a {@link CloudThreadExecutor}, the ramp measures the share of rejected tasks and the
+ * average task latency during the interval before the first step, and during each step. If
+ * either gets worse by more than the configured margin, the ramp is aborted and the pool keeps
+ * the values reached; its properties are updated to those values, so pushing the target again
+ * starts a new ramp.</p>
+ *
+ * <p>Steps hold the refresh lock of the pool's {@link ThreadPoolExecutorWrapper}, a refresh
+ * replacing the ramp cancels it under the same lock. The progress of the latest ramp per pool
+ * stays available through {@link #getProgress(String)}.</p>
+ */
+@Slf4j
+public final class ThreadPoolResizeRamp {
+
+    /**
+     * Key: thread pool unique ID, value: its latest ramp
+     */
+    private static final Map<String, Ramp> RAMP_MAP = new ConcurrentHashMap<>();
+
+    static {
+        CloudThreadRegistry.addRemovalListener(wrapper -> remove(wrapper.getThreadPoolUID()));
+    }
+
+    private ThreadPoolResizeRamp() {
+    }
+
+    /**
+     * Start moving a thread pool to new sizes, replacing a ramp still running on it.
+     *
+     * @param threadPoolUID             thread pool unique id
+     * @param executor                  the thread pool
+     * @param targetCorePoolSize        core pool size to reach, {@code null} keeps the current one
+     * @param targetMaximumPoolSize     maximum pool size to reach, {@code null} keeps the current one
+     * @param targetQueueCapacity       queue capacity to reach, {@code null} keeps the current one;
+     *                                  ignored unless the queue is resizable
+     * @param config                    ramp configuration, {@code null} for the defaults
+     * @return progress of the started ramp, or {@code null} if the pool already has the target values
+     */
+    public static ResizeRampProgress start(String threadPoolUID,
+                                           ThreadPoolExecutor executor,
+                                           Integer targetCorePoolSize,
+                                           Integer targetMaximumPoolSize,
+                                           Integer targetQueueCapacity,
+                                           ThreadPoolExecutorProperties.RampConfig config) {
+        cancel(threadPoolUID);
+
+        Ramp ramp = new Ramp(threadPoolUID, executor,
+                targetCorePoolSize != null ? targetCorePoolSize : executor.getCorePoolSize(),
+                targetMaximumPoolSize != null ? targetMaximumPoolSize : executor.getMaximumPoolSize(),
+                executor.getQueue() instanceof ResizableCapacityLinkedBlockingQueue ? targetQueueCapacity : null,
+                config, System.currentTimeMillis());
+        if (ramp.isNoop()) {
+            return null;
+        }
+
+        RAMP_MAP.put(threadPoolUID, ramp);
+        synchronized (ramp) {
+            ramp.future = SchedulerHolder.SCHEDULER.scheduleWithFixedDelay(
+                    ramp::step, ramp.stepIntervalMillis, ramp.stepIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        log.info("Started resize ramp of thread pool {}: core {} -> {}, max {} -> {}, {} steps every {}ms",
+                threadPoolUID, ramp.startCorePoolSize, ramp.targetCorePoolSize,
+                ramp.startMaximumPoolSize, ramp.targetMaximumPoolSize, ramp.steps, ramp.stepIntervalMillis);
+        return ramp.progress();
+    }
+
+    /**
+     * Stop the ramp running on a thread pool, the pool keeps the values reached.
+     *
+     * @param threadPoolUID thread pool unique id
+     */
+    public static void cancel(String threadPoolUID) {
+        Ramp ramp = RAMP_MAP.get(threadPoolUID);
+        if (ramp != null) {
+            ramp.finish(ResizeRampProgress.State.CANCELLED, null, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Retrieve the progress of the latest ramp of a thread pool.
+     *
+     * @param threadPoolUID thread pool unique id
+     * @return the progress, or {@code null} if the pool was never ramped
+     */
+    public static ResizeRampProgress getProgress(String threadPoolUID) {
+        Ramp ramp = RAMP_MAP.get(threadPoolUID);
+        return ramp != null ? ramp.progress() : null;
+    }
+
+    public static void remove(String threadPoolUID) {
+        cancel(threadPoolUID);
+        RAMP_MAP.remove(threadPoolUID);
+    }
+
+    public static void clear() {
+        for (String threadPoolUID : RAMP_MAP.keySet()) {
+            remove(threadPoolUID);
+        }
+    }
+
+    /**
+     * Shared scheduler, created with the first ramp.
+     */
+    private static final class SchedulerHolder {
+        static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder()
+                        .namePrefix("cloudthread_resize-ramp")
+                        .daemon(true)
+                        .build());
+    }
+
+    /**
+     * One ramp of one thread pool, guarded by itself.
+     */
+    static final class Ramp {
+
+        final String threadPoolUID;
+        final ThreadPoolExecutor executor;
+        final int startCorePoolSize;
+        final int targetCorePoolSize;
+        final int startMaximumPoolSize;
+        final int targetMaximumPoolSize;
+        final Integer startQueueCapacity;
+        final Integer targetQueueCapacity;
+        final int steps;
+        final long stepIntervalMillis;
+        final double maxRejectRatioIncrease;
+        final int maxLatencyIncreasePercent;
+        final int minSamples;
+        final long startTime;
+
+        ScheduledFuture<?> future;
+        ResizeRampProgress.State state = ResizeRampProgress.State.RUNNING;
+        int step;
+        long updateTime;
+        String abortReason;
+
+        // Counters at the end of the previous interval, and the measures before the first step
+        long lastRejects;
+        long lastCompleted;
+        long lastLatencyNanos;
+        double baselineRejectRatio;
+        double baselineLatencyNanos = Double.NaN;
+
+        Ramp(String threadPoolUID, ThreadPoolExecutor executor,
+             int targetCorePoolSize, int targetMaximumPoolSize, Integer targetQueueCapacity,
+             ThreadPoolExecutorProperties.RampConfig config, long now) {
+            ThreadPoolExecutorProperties.RampConfig defaults = new ThreadPoolExecutorProperties.RampConfig();
+            ThreadPoolExecutorProperties.RampConfig effective = config != null ? config : defaults;
+            this.threadPoolUID = threadPoolUID;
+            this.executor = executor;
+            this.startCorePoolSize = executor.getCorePoolSize();
+            this.targetCorePoolSize = targetCorePoolSize;
+            this.startMaximumPoolSize = executor.getMaximumPoolSize();
+            this.targetMaximumPoolSize = targetMaximumPoolSize;
+            this.startQueueCapacity = targetQueueCapacity != null ? queueCapacityOf(executor) : null;
+            this.targetQueueCapacity = targetQueueCapacity;
+            this.steps = Math.max(1, effective.getSteps() != null ? effective.getSteps() : defaults.getSteps());
+            this.stepIntervalMillis = Math.max(1L, effective.getStepIntervalMillis() != null
+                    ? effective.getStepIntervalMillis() : defaults.getStepIntervalMillis());
+            this.maxRejectRatioIncrease = (effective.getMaxRejectRatioIncrease() != null
+                    ? effective.getMaxRejectRatioIncrease() : defaults.getMaxRejectRatioIncrease()) / 100D;
+            this.maxLatencyIncreasePercent = effective.getMaxLatencyIncreasePercent() != null
+                    ? effective.getMaxLatencyIncreasePercent() : defaults.getMaxLatencyIncreasePercent();
+            this.minSamples = effective.getMinSamples() != null ? effective.getMinSamples() : defaults.getMinSamples();
+            this.startTime = now;
+            this.updateTime = now;
+
+            if (executor instanceof CloudThreadExecutor) {
+                CloudThreadExecutor cloudThreadExecutor = (CloudThreadExecutor) executor;
+                TaskTimingStats stats = cloudThreadExecutor.getTaskTimingStats();
+                lastRejects = cloudThreadExecutor.getRejectCount().get();
+                lastCompleted = stats.getTaskCount();
+                lastLatencyNanos = stats.getQueueWaitNanos() + stats.getExecutionNanos();
+            }
+        }
+
+        boolean isNoop() {
+            return startCorePoolSize == targetCorePoolSize
+                    && startMaximumPoolSize == targetMaximumPoolSize
+                    && (targetQueueCapacity == null || targetQueueCapacity.equals(startQueueCapacity));
+        }
+
+        /**
+         * Compare the past interval with the one before the ramp, then apply the next step.
+         */
+        void step() {
+            ThreadPoolExecutorWrapper wrapper = CloudThreadRegistry.getWrapper(threadPoolUID);
+            ReentrantLock refreshLock = wrapper != null ? wrapper.getRefreshLock() : null;
+            if (refreshLock != null) {
+                refreshLock.lock();
+            }
+            try {
+                step(wrapper, System.currentTimeMillis());
+            } catch (RuntimeException ex) {
+                log.error("Resize ramp of thread pool {} failed at step {}/{}", threadPoolUID, step, steps, ex);
+                finish(ResizeRampProgress.State.ABORTED, String.valueOf(ex.getMessage()), System.currentTimeMillis());
+            } finally {
+                if (refreshLock != null) {
+                    refreshLock.unlock();
+                }
+            }
+        }
+
+        synchronized void step(ThreadPoolExecutorWrapper wrapper, long now) {
+            if (state != ResizeRampProgress.State.RUNNING) {
+                return;
+            }
+
+            if (executor instanceof CloudThreadExecutor) {
+                CloudThreadExecutor cloudThreadExecutor = (CloudThreadExecutor) executor;
+                TaskTimingStats stats = cloudThreadExecutor.getTaskTimingStats();
+                long rejects = cloudThreadExecutor.getRejectCount().get();
+                long completed = stats.getTaskCount();
+                long latencyNanos = stats.getQueueWaitNanos() + stats.getExecutionNanos();
+
+                long rejectDelta = rejects - lastRejects;
+                long completedDelta = completed - lastCompleted;
+                double rejectRatio = rejectDelta + completedDelta > 0
+                        ? (double) rejectDelta / (rejectDelta + completedDelta) : 0D;
+                double avgLatencyNanos = completedDelta >= minSamples
+                        ? (double) (latencyNanos - lastLatencyNanos) / completedDelta : Double.NaN;
+                lastRejects = rejects;
+                lastCompleted = completed;
+                lastLatencyNanos = latencyNanos;
+
+                if (step == 0) {
+                    baselineRejectRatio = rejectRatio;
+                    baselineLatencyNanos = avgLatencyNanos;
+                } else {
+                    String reason = degradation(rejectRatio, avgLatencyNanos);
+                    if (reason != null) {
+                        abort(wrapper, reason, now);
+                        return;
+                    }
+                }
+            }
+
+            step++;
+            apply();
+            updateTime = now;
+            if (step >= steps) {
+                finish(ResizeRampProgress.State.COMPLETED, null, now);
+                log.info("Completed resize ramp of thread pool {}: core {}, max {}",
+                        threadPoolUID, executor.getCorePoolSize(), executor.getMaximumPoolSize());
+            }
+        }
+
+        private String degradation(double rejectRatio, double avgLatencyNanos) {
+            if (rejectRatio - baselineRejectRatio > maxRejectRatioIncrease) {
+                return String.format("reject ratio rose from %.1f%% to %.1f%%",
+                        baselineRejectRatio * 100, rejectRatio * 100);
+            }
+            if (!Double.isNaN(baselineLatencyNanos) && !Double.isNaN(avgLatencyNanos) && baselineLatencyNanos > 0
+                    && avgLatencyNanos > baselineLatencyNanos * (1 + maxLatencyIncreasePercent / 100D)) {
+                return String.format("average latency rose from %.1fms to %.1fms",
+                        baselineLatencyNanos / 1_000_000D, avgLatencyNanos / 1_000_000D);
+            }
+            return null;
+        }
+
+        private void apply() {
+            PoolResizedEvent resizedEvent = new PoolResizedEvent();
+            if (resizedEvent.isEnabled()) {
+                resizedEvent.threadPoolUID = threadPoolUID;
+                resizedEvent.corePoolSizeBefore = executor.getCorePoolSize();
+                resizedEvent.maximumPoolSizeBefore = executor.getMaximumPoolSize();
+                resizedEvent.queueCapacityBefore = queueCapacityOf(executor);
+            }
+
+            int maximumPoolSize = interpolate(startMaximumPoolSize, targetMaximumPoolSize);
+            int corePoolSize = Math.min(interpolate(startCorePoolSize, targetCorePoolSize), maximumPoolSize);
+            if (corePoolSize > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(maximumPoolSize);
+                executor.setCorePoolSize(corePoolSize);
+            } else {
+                executor.setCorePoolSize(corePoolSize);
+                executor.setMaximumPoolSize(maximumPoolSize);
+            }
+            if (targetQueueCapacity != null) {
+                ((ResizableCapacityLinkedBlockingQueue<Runnable>) executor.getQueue())
+                        .setCapacity(interpolate(startQueueCapacity, targetQueueCapacity));
+            }
+
+            if (resizedEvent.shouldCommit()) {
+                resizedEvent.corePoolSizeAfter = executor.getCorePoolSize();
+                resizedEvent.maximumPoolSizeAfter = executor.getMaximumPoolSize();
+                resizedEvent.queueCapacityAfter = queueCapacityOf(executor);
+                resizedEvent.commit();
+            }
+        }
+
+        private int interpolate(int start, int target) {
+            return start + (int) Math.round((double) (target - start) * step / steps);
+        }
+
+        private void abort(ThreadPoolExecutorWrapper wrapper, String reason, long now) {
+            finish(ResizeRampProgress.State.ABORTED, reason, now);
+            if (wrapper != null && wrapper.getExecutorProperties() != null) {
+                ThreadPoolExecutorProperties reached = ThreadPoolPropertyFields.copy(wrapper.getExecutorProperties())
+                        .setCorePoolSize(executor.getCorePoolSize())
+                        .setMaximumPoolSize(executor.getMaximumPoolSize());
+                if (targetQueueCapacity != null) {
+                    reached.setQueueCapacity(queueCapacityOf(executor));
+                }
+                wrapper.setExecutorProperties(reached);
+            }
+            log.warn("Aborted resize ramp of thread pool {} at step {}/{}, {}: core {}, max {}",
+                    threadPoolUID, step, steps, reason, executor.getCorePoolSize(), executor.getMaximumPoolSize());
+        }
+
+        synchronized void finish(ResizeRampProgress.State finalState, String reason, long now) {
+            if (state != ResizeRampProgress.State.RUNNING) {
+                return;
+            }
+            state = finalState;
+            abortReason = reason;
+            updateTime = now;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        synchronized ResizeRampProgress progress() {
+            return ResizeRampProgress.builder()
+                    .state(state)
+                    .step(step)
+                    .steps(steps)
+                    .startCorePoolSize(startCorePoolSize)
+                    .targetCorePoolSize(targetCorePoolSize)
+                    .startMaximumPoolSize(startMaximumPoolSize)
+                    .targetMaximumPoolSize(targetMaximumPoolSize)
+                    .startQueueCapacity(startQueueCapacity)
+                    .targetQueueCapacity(targetQueueCapacity)
+                    .startTime(startTime)
+                    .updateTime(updateTime)
+                    .abortReason(abortReason)
+                    .build();
+        }
+
+        private static int queueCapacityOf(ThreadPoolExecutor executor) {
+            BlockingQueue<Runnable> queue = executor.getQueue();
+            return queue.size() + queue.remainingCapacity();
+        }
+    }
+}
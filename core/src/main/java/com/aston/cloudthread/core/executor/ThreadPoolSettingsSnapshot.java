@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor;
+
+import com.aston.cloudthread.core.executor.support.ResizableCapacityLinkedBlockingQueue;
+import lombok.Getter;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runtime settings of a thread pool, captured before a refresh so a failed refresh can be
+ * undone.
+ *
+ * <p>Only the settings a refresh can change are kept: pool sizes, keep-alive, core thread
+ * timeout, the rejected handler, the queue capacity of a resizable queue and the rejected task
+ * journal configuration of a {@link CloudThreadExecutor}.</p>
+ */
+@Getter
+public final class ThreadPoolSettingsSnapshot {
+
+    private final int corePoolSize;
+
+    private final int maximumPoolSize;
+
+    private final long keepAliveNanos;
+
+    private final boolean allowCoreThreadTimeOut;
+
+    /**
+     * Handler as configured, without the counting wrapper of {@link CloudThreadExecutor}.
+     */
+    private final RejectedExecutionHandler rejectedHandler;
+
+    /**
+     * Capacity of a resizable queue, {@code null} for queues with a fixed capacity.
+     */
+    private final Integer queueCapacity;
+
+    private final ThreadPoolExecutorProperties.RejectJournalConfig rejectJournal;
+
+    private ThreadPoolSettingsSnapshot(ThreadPoolExecutor executor,
+                                       ThreadPoolExecutorProperties.RejectJournalConfig rejectJournal) {
+        this.corePoolSize = executor.getCorePoolSize();
+        this.maximumPoolSize = executor.getMaximumPoolSize();
+        this.keepAliveNanos = executor.getKeepAliveTime(TimeUnit.NANOSECONDS);
+        this.allowCoreThreadTimeOut = executor.allowsCoreThreadTimeOut();
+        this.rejectedHandler = executor instanceof CloudThreadExecutor
+                ? ((CloudThreadExecutor) executor).getDelegateRejectedHandler()
+                : executor.getRejectedExecutionHandler();
+        BlockingQueue<Runnable> queue = executor.getQueue();
+        this.queueCapacity = queue instanceof ResizableCapacityLinkedBlockingQueue
+                ? queue.size() + queue.remainingCapacity()
+                : null;
+        this.rejectJournal = rejectJournal;
+    }
+
+    /**
+     * Capture the current settings of a thread pool.
+     *
+     * @param executor   the thread pool
+     * @param properties properties currently applied to it, may be {@code null}
+     * @return the snapshot
+     */
+    public static ThreadPoolSettingsSnapshot capture(ThreadPoolExecutor executor,
+                                                     ThreadPoolExecutorProperties properties) {
+        return new ThreadPoolSettingsSnapshot(executor, properties == null ? null : properties.getRejectJournal());
+    }
+
+    /**
+     * Put the captured settings back onto the thread pool.
+     *
+     * <p>Pool sizes are set in the order that keeps core at or below maximum at every step,
+     * keep-alive before core thread timeout, which requires a positive keep-alive.</p>
+     *
+     * @param executor the thread pool the snapshot was captured from
+     */
+    public void restore(ThreadPoolExecutor executor) {
+        if (corePoolSize > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(maximumPoolSize);
+            executor.setCorePoolSize(corePoolSize);
+        } else {
+            executor.setCorePoolSize(corePoolSize);
+            executor.setMaximumPoolSize(maximumPoolSize);
+        }
+
+        if (keepAliveNanos > 0) {
+            executor.setKeepAliveTime(keepAliveNanos, TimeUnit.NANOSECONDS);
+        }
+        executor.allowCoreThreadTimeOut(allowCoreThreadTimeOut);
+
+        if (rejectedHandler != null) {
+            executor.setRejectedExecutionHandler(rejectedHandler);
+        }
+
+        if (queueCapacity != null && executor.getQueue() instanceof ResizableCapacityLinkedBlockingQueue) {
+            ((ResizableCapacityLinkedBlockingQueue<Runnable>) executor.getQueue()).setCapacity(queueCapacity);
+        }
+
+        if (executor instanceof CloudThreadExecutor) {
+            ((CloudThreadExecutor) executor).configureRejectionJournal(rejectJournal);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejection policy blocking the submitting thread until the work queue has space.
+ *
+ * <p>The submitter waits at most {@code timeoutMillis} (param {@code timeout-millis},
+ * default 1000) and gets a {@link RejectedExecutionException} afterwards, so the
+ * back pressure of a full pool is bounded instead of moving the task onto the caller
+ * like {@link ThreadPoolExecutor.CallerRunsPolicy}.</p>
+ */
+public class BlockingPolicy implements RejectedExecutionHandler {
+
+    @Getter
+    private final long timeoutMillis;
+
+    public BlockingPolicy(long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("timeout-millis must not be negative: " + timeoutMillis);
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    static BlockingPolicy of(Map<String, String> params) {
+        return new BlockingPolicy(new RejectedPolicyParams(params).getLong("timeout-millis", 1000L));
+    }
+
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Task " + r + " rejected from " + executor + ", executor is shut down");
+        }
+        BlockingQueue<Runnable> queue = executor.getQueue();
+        Runnable queuedTask = TimedRunnable.requeueable(r);
+        boolean queued;
+        try {
+            queued = queue.offer(queuedTask, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for queue space for task " + r, ex);
+        }
+        if (!queued) {
+            throw new RejectedExecutionException("Task " + r + " rejected from " + executor
+                    + ", no queue space within " + timeoutMillis + "ms");
+        }
+        requeued(queuedTask, executor);
+    }
+
+    /**
+     * Mirror the checks {@link ThreadPoolExecutor#execute} does after queueing a task:
+     * withdraw it if the pool was shut down meanwhile and make sure a worker takes it.
+     * A task that stays queued is not counted as rejected by {@code CloudThreadExecutor}.
+     */
+    static void requeued(Runnable queued, ThreadPoolExecutor executor) {
+        if (executor.isShutdown() && executor.remove(queued)) {
+            throw new RejectedExecutionException("Task " + TimedRunnable.unwrap(queued) + " rejected from " + executor
+                    + ", executor is shut down");
+        }
+        TimedRunnable.requeued(queued);
+        if (executor.getPoolSize() == 0) {
+            executor.prestartCoreThread();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BlockingPolicy(timeoutMillis=" + timeoutMillis + ")";
+    }
+}
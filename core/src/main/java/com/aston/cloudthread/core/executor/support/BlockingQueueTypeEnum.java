@@ -204,6 +204,16 @@ public enum BlockingQueueTypeEnum {
         }
     }
 
+    /**
+     * Finds the queue type with the given {@link BlockingQueueTypeEnum#name BlockingQueueTypeEnum.name}.
+     *
+     * @param blockingQueueName {@link BlockingQueueTypeEnum#name BlockingQueueTypeEnum.name}
+     * @return the queue type, or {@code null} if no matching queue type is found
+     */
+    public static BlockingQueueTypeEnum findByName(String blockingQueueName) {
+        return NAME_TO_ENUM_MAP.get(blockingQueueName);
+    }
+
     /**
      * Creates a BlockingQueue with the given {@link BlockingQueueTypeEnum#name BlockingQueueTypeEnum.name}
      * and capacity.
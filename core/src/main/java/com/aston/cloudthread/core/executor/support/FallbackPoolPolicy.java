@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import com.aston.cloudthread.core.executor.CloudThreadRegistry;
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorWrapper;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Rejection policy redirecting the task to another thread pool registered in
+ * {@link CloudThreadRegistry}.
+ *
+ * <p>The fallback pool is named by the param {@code fallback-pool} and looked up on each
+ * rejection, so it may be registered after this pool or replaced at runtime. A task the
+ * fallback pool rejects in turn is handled by the fallback pool's own policy. Redirecting
+ * again from there, e.g. with two pools naming each other, is rejected instead of looping.</p>
+ */
+public class FallbackPoolPolicy implements RejectedExecutionHandler {
+
+    private static final ThreadLocal<Boolean> REDIRECTING = new ThreadLocal<>();
+
+    @Getter
+    private final String fallbackPoolUID;
+
+    public FallbackPoolPolicy(String fallbackPoolUID) {
+        this.fallbackPoolUID = fallbackPoolUID;
+    }
+
+    static FallbackPoolPolicy of(Map<String, String> params) {
+        return new FallbackPoolPolicy(new RejectedPolicyParams(params).getString("fallback-pool", null));
+    }
+
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+        ThreadPoolExecutorWrapper wrapper = fallbackPoolUID != null ? CloudThreadRegistry.getWrapper(fallbackPoolUID) : null;
+        ThreadPoolExecutor fallback = wrapper != null ? wrapper.getExecutor() : null;
+        if (fallback == null || fallback == executor || fallback.isShutdown()) {
+            throw new RejectedExecutionException("Task " + r + " rejected from " + executor
+                    + ", fallback pool unavailable: " + fallbackPoolUID);
+        }
+        if (REDIRECTING.get() != null) {
+            throw new RejectedExecutionException("Task " + r + " rejected from " + executor
+                    + ", already redirected to a fallback pool");
+        }
+        REDIRECTING.set(Boolean.TRUE);
+        try {
+            // hand over the user task, the fallback pool times it on its own
+            fallback.execute(TimedRunnable.unwrap(r));
+        } finally {
+            REDIRECTING.remove();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FallbackPoolPolicy(fallbackPool=" + fallbackPoolUID + ")";
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, log-linear latency histogram with microsecond resolution.
+ *
+ * <p>Values below 8us get a bucket each, every power of two above is split into 8
+ * linear sub-buckets, so any recorded value is off by at most 12.5%. Values up to
+ * 2^41us (about 25 days) fit into {@value #BUCKET_COUNT} counters held in a single
+ * {@link AtomicLongArray}; recording is one array increment and never allocates.</p>
+ *
+ * <p>Counts are cumulative. Readers take interval views with
+ * {@link #drainDelta(long[], long[])} into arrays they own and evaluate those with the
+ * static helpers, so percentiles are always computed over a recent window.</p>
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+
+    /**
+     * Number of buckets, the length of the arrays used with {@link #drainDelta(long[], long[])}
+     */
+    public static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Record one latency.
+     *
+     * @param nanos latency in nanoseconds, negative values count as 0
+     */
+    public void recordNanos(long nanos) {
+        counts.incrementAndGet(bucketIndex(nanos / 1000L));
+    }
+
+    /**
+     * Write the counts recorded since the previous call into {@code delta} and remember the
+     * current counts in {@code last}. Both arrays must have {@link #BUCKET_COUNT} elements
+     * and are owned by the caller.
+     */
+    public void drainDelta(long[] last, long[] delta) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long current = counts.get(i);
+            // counts never decrease, unless the caller switched to another executor
+            delta[i] = Math.max(0L, current - last[i]);
+            last[i] = current;
+        }
+    }
+
+    /**
+     * @return the total number of values in the given bucket counts
+     */
+    public static long totalCount(long[] bucketCounts) {
+        long total = 0L;
+        for (long count : bucketCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Value at the given percentile of the bucket counts, reported as the upper bound of
+     * the bucket it falls into.
+     *
+     * @param bucketCounts counts per bucket, e.g. from {@link #drainDelta(long[], long[])}
+     * @param percentile   percentile between 0 and 100
+     * @return latency in microseconds, 0 if the counts are empty
+     */
+    public static long percentileMicros(long[] bucketCounts, double percentile) {
+        long total = totalCount(bucketCounts);
+        if (total == 0L) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0L;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return bucketUpperBoundMicros(i);
+            }
+        }
+        return bucketUpperBoundMicros(bucketCounts.length - 1);
+    }
+
+    /**
+     * Number of values in buckets entirely above {@code thresholdMicros}; values sharing
+     * the bucket of the threshold are not counted.
+     */
+    public static long countAbove(long[] bucketCounts, long thresholdMicros) {
+        long above = 0L;
+        for (int i = bucketIndex(thresholdMicros) + 1; i < bucketCounts.length; i++) {
+            above += bucketCounts[i];
+        }
+        return above;
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) Math.max(0L, micros);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) ((micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBoundMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + subBucket * width + width - 1;
+    }
+}
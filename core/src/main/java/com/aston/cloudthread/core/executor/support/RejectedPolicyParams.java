@@ -0,0 +1,57 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import java.util.Map;
+
+/**
+ * Typed access to the {@code rejected-handler-params} of a thread pool.
+ */
+final class RejectedPolicyParams {
+
+    private final Map<String, String> params;
+
+    RejectedPolicyParams(Map<String, String> params) {
+        this.params = params;
+    }
+
+    String getString(String key, String defaultValue) {
+        String value = params != null ? params.get(key) : null;
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Rejected handler param [" + key + "] is not a number: " + value);
+        }
+    }
+
+    double getDouble(String key, double defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Rejected handler param [" + key + "] is not a number: " + value);
+        }
+    }
+}
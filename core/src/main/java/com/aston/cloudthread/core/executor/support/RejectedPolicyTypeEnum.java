@@ -19,6 +19,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
 
 /**
  * Enumeration of thread pool rejection policies.
@@ -33,11 +34,18 @@ import java.util.concurrent.ThreadPoolExecutor;
  *    <li>{@link ThreadPoolExecutor.AbortPolicy}</li>
  *    <li>{@link ThreadPoolExecutor.DiscardPolicy}</li>
  *    <li>{@link ThreadPoolExecutor.DiscardOldestPolicy}</li>
+ *    <li>{@link BlockingPolicy}</li>
+ *    <li>{@link RetryPolicy}</li>
+ *    <li>{@link FallbackPoolPolicy}</li>
+ *    <li>{@link VirtualThreadPolicy}</li>
  * </ul>
  *
  * <p>
- * The enum also provides a utility method {@link #createPolicy(String)} to instantiate the
- * appropriate {@link RejectedExecutionHandler} based on a policy name string.
+ * The stateless JDK policies are shared singletons, every other policy is created anew for
+ * each pool. The enum also provides a utility method {@link #createPolicy(String)} to instantiate the
+ * appropriate {@link RejectedExecutionHandler} based on a policy name string, and
+ * {@link #createPolicy(String, Map)} for policies configured with
+ * {@code rejected-handler-params}.
  */
 public enum RejectedPolicyTypeEnum {
     /**
@@ -58,17 +66,63 @@ public enum RejectedPolicyTypeEnum {
     /**
      * {@link ThreadPoolExecutor.DiscardOldestPolicy}
      */
-    DISCARD_OLDEST_POLICY("DiscardOldestPolicy", new ThreadPoolExecutor.DiscardOldestPolicy());
+    DISCARD_OLDEST_POLICY("DiscardOldestPolicy", new ThreadPoolExecutor.DiscardOldestPolicy()),
+
+    /**
+     * {@link BlockingPolicy}
+     */
+    BLOCKING_POLICY("BlockingPolicy", BlockingPolicy::of),
+
+    /**
+     * {@link RetryPolicy}
+     */
+    RETRY_POLICY("RetryPolicy", RetryPolicy::of),
+
+    /**
+     * {@link FallbackPoolPolicy}
+     */
+    FALLBACK_POOL_POLICY("FallbackPoolPolicy", FallbackPoolPolicy::of),
+
+    /**
+     * {@link VirtualThreadPolicy}
+     */
+    VIRTUAL_THREAD_POLICY("VirtualThreadPolicy", VirtualThreadPolicy::of);
 
     @Getter
     private String name;
 
-    @Getter
+    /**
+     * Shared handler of the stateless JDK policies, {@code null} for factory-backed policies.
+     */
     private RejectedExecutionHandler rejectedHandler;
 
+    /**
+     * Creates a handler from {@code rejected-handler-params}, {@code null} for the stateless
+     * JDK policies. Factory-backed handlers hold per-pool state (counters, a bound executor),
+     * so they are never shared between pools.
+     */
+    private final Function<Map<String, String>, RejectedExecutionHandler> factory;
+
     RejectedPolicyTypeEnum(String rejectedPolicyName, RejectedExecutionHandler rejectedHandler) {
         this.name = rejectedPolicyName;
         this.rejectedHandler = rejectedHandler;
+        this.factory = null;
+    }
+
+    RejectedPolicyTypeEnum(String rejectedPolicyName,
+                           Function<Map<String, String>, RejectedExecutionHandler> factory) {
+        this.name = rejectedPolicyName;
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the shared handler of a JDK policy, or a new handler with the default
+     * parameters for a factory-backed policy.
+     *
+     * @return the {@link RejectedExecutionHandler} of this policy
+     */
+    public RejectedExecutionHandler getRejectedHandler() {
+        return factory != null ? factory.apply(Map.of()) : rejectedHandler;
     }
 
     private static final Map<String, RejectedPolicyTypeEnum> NAME_TO_ENUM_MAP;
@@ -92,9 +146,31 @@ public enum RejectedPolicyTypeEnum {
     public static RejectedExecutionHandler createPolicy(String rejectedPolicyName) {
         RejectedPolicyTypeEnum rejectedPolicyTypeEnum = NAME_TO_ENUM_MAP.get(rejectedPolicyName);
         if (rejectedPolicyTypeEnum != null) {
-            return rejectedPolicyTypeEnum.rejectedHandler;
+            return rejectedPolicyTypeEnum.getRejectedHandler();
         }
 
         throw new IllegalArgumentException("No matching type of rejected execution was found: " + rejectedPolicyName);
     }
+
+    /**
+     * Creates a {@link RejectedExecutionHandler} configured with the given parameters.
+     * Policies that take no parameters return their shared handler, factory-backed policies
+     * always return a new handler, with the defaults when no parameters are given.
+     *
+     * @param rejectedPolicyName the {@link RejectedPolicyTypeEnum#name RejectedPolicyTypeEnum.name}
+     * @param params             policy parameters, may be {@code null}
+     * @return the corresponding {@link RejectedExecutionHandler} instance
+     * @throws IllegalArgumentException if no matching rejected policy type is found or a
+     *                                  parameter is invalid
+     */
+    public static RejectedExecutionHandler createPolicy(String rejectedPolicyName, Map<String, String> params) {
+        RejectedPolicyTypeEnum rejectedPolicyTypeEnum = NAME_TO_ENUM_MAP.get(rejectedPolicyName);
+        if (rejectedPolicyTypeEnum == null) {
+            throw new IllegalArgumentException("No matching type of rejected execution was found: " + rejectedPolicyName);
+        }
+        if (rejectedPolicyTypeEnum.factory == null) {
+            return rejectedPolicyTypeEnum.rejectedHandler;
+        }
+        return rejectedPolicyTypeEnum.factory.apply(params == null ? Map.of() : params);
+    }
 }
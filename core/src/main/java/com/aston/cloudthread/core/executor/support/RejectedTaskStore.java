@@ -0,0 +1,300 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local file keeping the rejected {@link Serializable} tasks of one thread pool so they can
+ * be replayed into the pool later, e.g. after the load spike or a restart.
+ *
+ * <p>Each task is Java-serialized and appended as {@code [int length][bytes]}. The file is
+ * bounded by {@code maxBytes}; tasks rejected while it is full are counted as dropped.
+ * {@link #replay(Executor)} moves the file aside, submits every task it can read and
+ * deletes it, so tasks rejected again during the replay are stored anew rather than
+ * replayed in a loop.</p>
+ *
+ * <p>Only the configured task classes are stored, and an {@link ObjectInputFilter} limits
+ * what the replay deserializes to those classes and the JDK classes they reference. The
+ * directory and the file are created readable by the owner only where the file system
+ * supports POSIX permissions.</p>
+ */
+@Slf4j
+public class RejectedTaskStore implements Closeable {
+
+    private static final String REPLAY_SUFFIX = ".replaying";
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+    @Getter
+    private final Path file;
+
+    private final long maxBytes;
+
+    @Getter
+    private final List<String> taskClasses;
+
+    /**
+     * Accepts the configured task classes and the JDK classes they reference, nothing else
+     */
+    private final ObjectInputFilter filter;
+
+    @Getter
+    private final AtomicLong persistedCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * Guarded by this
+     */
+    private FileChannel channel;
+    private long size = -1L;
+    private boolean closed;
+
+    /**
+     * @param file        file of the stored tasks
+     * @param maxBytes    maximum size of the file
+     * @param taskClasses task classes that may be stored, as {@link ObjectInputFilter} patterns
+     * @throws IllegalArgumentException if no task class is given or a pattern is invalid
+     */
+    public RejectedTaskStore(Path file, long maxBytes, List<String> taskClasses) {
+        if (taskClasses == null || taskClasses.isEmpty()) {
+            throw new IllegalArgumentException("At least one task class pattern is required to store rejected tasks");
+        }
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.taskClasses = List.copyOf(taskClasses);
+        this.filter = ObjectInputFilter.Config.createFilter(String.join(";", taskClasses) + ";java.base/*;!*");
+    }
+
+    /**
+     * Store a rejected task.
+     *
+     * @return {@code true} if the task was written
+     */
+    public boolean persist(Runnable task) {
+        if (!(task instanceof Serializable) || !allows(task.getClass())) {
+            return false;
+        }
+        byte[] bytes;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+            try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+                out.writeObject(task);
+            }
+            bytes = buffer.toByteArray();
+        } catch (IOException ex) {
+            // e.g. a captured field is not serializable
+            log.warn("[CloudThread] Rejected task {} could not be serialized: {}", task.getClass().getName(), ex.toString());
+            return false;
+        }
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            try {
+                openChannel();
+                if (size + 4 + bytes.length > maxBytes) {
+                    droppedCount.incrementAndGet();
+                    return false;
+                }
+                ByteBuffer frame = ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes);
+                frame.flip();
+                while (frame.hasRemaining()) {
+                    size += channel.write(frame);
+                }
+                persistedCount.incrementAndGet();
+                return true;
+            } catch (IOException ex) {
+                droppedCount.incrementAndGet();
+                log.warn("[CloudThread] Failed to store rejected task in {}", file, ex);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Submit the stored tasks to {@code executor}.
+     *
+     * @return the number of tasks submitted
+     */
+    public int replay(Executor executor) throws IOException {
+        Path replayFile = file.resolveSibling(file.getFileName() + REPLAY_SUFFIX);
+        synchronized (this) {
+            closeChannel();
+            if (Files.exists(file)) {
+                // a replay file left by an interrupted replay is retried first
+                if (Files.exists(replayFile)) {
+                    Files.write(replayFile, Files.readAllBytes(file), StandardOpenOption.APPEND);
+                    Files.delete(file);
+                } else {
+                    Files.move(file, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        }
+        if (!Files.exists(replayFile)) {
+            return 0;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(replayFile));
+        int submitted = 0;
+        while (buffer.remaining() >= 4) {
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                log.warn("[CloudThread] Truncated rejected task record in {}", replayFile);
+                break;
+            }
+            Runnable task;
+            try (ObjectInputStream in = new TaskObjectInputStream(buffer.array(), buffer.position(), length, filter)) {
+                task = (Runnable) in.readObject();
+            } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+                log.warn("[CloudThread] Skipped unreadable rejected task in {}: {}", replayFile, ex.toString());
+                buffer.position(buffer.position() + length);
+                continue;
+            }
+            buffer.position(buffer.position() + length);
+            try {
+                executor.execute(task);
+                submitted++;
+            } catch (RejectedExecutionException ex) {
+                // the rejection handler stored it again when persistence is on
+                log.warn("[CloudThread] Replayed task {} rejected again.", task.getClass().getName());
+            }
+        }
+        Files.delete(replayFile);
+        return submitted;
+    }
+
+    /**
+     * Stop storing tasks, the file is kept for {@link #replay(Executor)}.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        closeChannel();
+    }
+
+    private void openChannel() throws IOException {
+        if (channel == null) {
+            Path directory = file.toAbsolutePath().getParent();
+            Set<OpenOption> options = Set.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                if (!Files.isDirectory(directory)) {
+                    Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+                } else if (!OWNER_ONLY_DIRECTORY.containsAll(Files.getPosixFilePermissions(directory))) {
+                    log.warn("[CloudThread] Rejected task directory {} is accessible by other users.", directory);
+                }
+                channel = FileChannel.open(file, options, PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE));
+            } else {
+                Files.createDirectories(directory);
+                channel = FileChannel.open(file, options);
+            }
+            size = channel.size();
+        }
+    }
+
+    private boolean allows(Class<?> taskClass) {
+        ObjectInputFilter.Status status = filter.checkInput(new ObjectInputFilter.FilterInfo() {
+            @Override
+            public Class<?> serialClass() {
+                return taskClass;
+            }
+
+            @Override
+            public long arrayLength() {
+                return -1L;
+            }
+
+            @Override
+            public long depth() {
+                return 1L;
+            }
+
+            @Override
+            public long references() {
+                return 0L;
+            }
+
+            @Override
+            public long streamBytes() {
+                return 0L;
+            }
+        });
+        return status == ObjectInputFilter.Status.ALLOWED;
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                log.warn("[CloudThread] Failed to close {}", file, ex);
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Resolves task classes through the context class loader, which sees the application
+     * classes in containers where this library is loaded by a parent loader.
+     */
+    private static final class TaskObjectInputStream extends ObjectInputStream {
+
+        TaskObjectInputStream(byte[] bytes, int offset, int length, ObjectInputFilter filter) throws IOException {
+            super(new ByteArrayInputStream(bytes, offset, length));
+            setObjectInputFilter(filter);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            if (loader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, loader);
+                } catch (ClassNotFoundException ignored) {
+                    // fall back to the default resolution
+                }
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
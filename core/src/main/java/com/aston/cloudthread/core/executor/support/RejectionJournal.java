@@ -0,0 +1,158 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free journal of the most recent task rejections of a thread pool.
+ *
+ * <p>Records live in a ring of {@code capacity} slots, rounded up to a power of two. A
+ * writer claims the next sequence with one atomic increment and publishes its record into
+ * slot {@code sequence & mask}, overwriting the oldest one; readers walk back from the
+ * latest sequence and skip slots already reused by a newer sequence, so neither side ever
+ * blocks.</p>
+ *
+ * <p>Under rejection storms only a sample is recorded: the first {@code samplesPerSecond}
+ * rejections of each second are kept, later ones with probability
+ * {@code samplesPerSecond / rejectionsSoFar}. Sampled out rejections allocate nothing and
+ * are only counted. {@code samplesPerSecond <= 0} records every rejection.</p>
+ */
+public class RejectionJournal {
+
+    private static final long SAMPLE_WINDOW_MILLIS = 1000L;
+
+    private volatile Ring ring;
+    private volatile int samplesPerSecond;
+
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicInteger windowCount = new AtomicInteger();
+    private final AtomicLong sampledOutCount = new AtomicLong();
+
+    public RejectionJournal(int capacity, int samplesPerSecond) {
+        this.ring = new Ring(capacity);
+        this.samplesPerSecond = samplesPerSecond;
+    }
+
+    /**
+     * Decide whether the current rejection is recorded, counting it otherwise.
+     *
+     * @return {@code true} if the caller should build and {@link #record} a record
+     */
+    public boolean sample(long now) {
+        int budget = samplesPerSecond;
+        if (budget <= 0) {
+            return true;
+        }
+        long start = windowStart.get();
+        if (now - start >= SAMPLE_WINDOW_MILLIS && windowStart.compareAndSet(start, now)) {
+            windowCount.set(0);
+        }
+        int count = windowCount.incrementAndGet();
+        if (count <= budget || ThreadLocalRandom.current().nextInt(count) < budget) {
+            return true;
+        }
+        sampledOutCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Append a record, overwriting the oldest one when the ring is full.
+     */
+    public RejectionRecord record(long timestamp, String taskClass, String submitterThread,
+                                  int queueSize, int activeCount, String rejectedPolicy, boolean persisted) {
+        Ring current = ring;
+        long sequence = current.next.getAndIncrement();
+        RejectionRecord record = new RejectionRecord(sequence, timestamp, taskClass, submitterThread,
+                queueSize, activeCount, rejectedPolicy, persisted);
+        current.slots.set((int) (sequence & current.mask), record);
+        return record;
+    }
+
+    /**
+     * @param limit maximum number of records
+     * @return the latest records, oldest first
+     */
+    public List<RejectionRecord> latest(int limit) {
+        Ring current = ring;
+        long end = current.next.get();
+        long begin = Math.max(0L, end - Math.min(limit, current.slots.length()));
+        if (begin >= end) {
+            return Collections.emptyList();
+        }
+        List<RejectionRecord> result = new ArrayList<>((int) (end - begin));
+        for (long sequence = begin; sequence < end; sequence++) {
+            RejectionRecord record = current.slots.get((int) (sequence & current.mask));
+            // null or another sequence: not yet published or already overwritten
+            if (record != null && record.getSequence() == sequence) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return rejections recorded since the journal was created or resized
+     */
+    public long getRecordedCount() {
+        return ring.next.get();
+    }
+
+    /**
+     * @return rejections skipped by sampling
+     */
+    public long getSampledOutCount() {
+        return sampledOutCount.get();
+    }
+
+    public int getCapacity() {
+        return ring.slots.length();
+    }
+
+    /**
+     * Apply new settings. A capacity change starts an empty ring.
+     */
+    public void reconfigure(int capacity, int samplesPerSecond) {
+        this.samplesPerSecond = samplesPerSecond;
+        if (Ring.sizeFor(capacity) != ring.slots.length()) {
+            this.ring = new Ring(capacity);
+        }
+    }
+
+    private static final class Ring {
+
+        private final AtomicReferenceArray<RejectionRecord> slots;
+        private final int mask;
+        private final AtomicLong next = new AtomicLong();
+
+        Ring(int capacity) {
+            int size = sizeFor(capacity);
+            this.slots = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+
+        static int sizeFor(int capacity) {
+            if (capacity <= 1) {
+                return 1;
+            }
+            return Integer.highestOneBit(Math.min(capacity, 1 << 20) - 1) << 1;
+        }
+    }
+}
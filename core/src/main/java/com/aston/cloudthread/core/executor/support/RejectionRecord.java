@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * One task rejection kept by the {@link RejectionJournal}.
+ */
+@Getter
+@ToString
+public class RejectionRecord {
+
+    /**
+     * Position of the record in the journal, increasing per recorded rejection
+     */
+    private final long sequence;
+
+    /**
+     * Rejection time in epoch milliseconds
+     */
+    private final long timestamp;
+
+    /**
+     * Class of the rejected task, without the internal timing wrapper
+     */
+    private final String taskClass;
+
+    /**
+     * Name of the thread that submitted the task
+     */
+    private final String submitterThread;
+
+    /**
+     * Work queue size when the task was rejected
+     */
+    private final int queueSize;
+
+    /**
+     * Threads executing tasks when the task was rejected
+     */
+    private final int activeCount;
+
+    /**
+     * Rejection policy handling the task
+     */
+    private final String rejectedPolicy;
+
+    /**
+     * Whether the task was written to the {@link RejectedTaskStore} for replay
+     */
+    private final boolean persisted;
+
+    RejectionRecord(long sequence, long timestamp, String taskClass, String submitterThread,
+                    int queueSize, int activeCount, String rejectedPolicy, boolean persisted) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.taskClass = taskClass;
+        this.submitterThread = submitterThread;
+        this.queueSize = queueSize;
+        this.activeCount = activeCount;
+        this.rejectedPolicy = rejectedPolicy;
+        this.persisted = persisted;
+    }
+}
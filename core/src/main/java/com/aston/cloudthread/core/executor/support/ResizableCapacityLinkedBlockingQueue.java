@@ -13,6 +13,9 @@
  */
 package com.aston.cloudthread.core.executor.support;
 
+import com.aston.cloudthread.core.jfr.ProducerBlockedEvent;
+import com.aston.cloudthread.core.jfr.QueueCapacityChangedEvent;
+
 import java.util.AbstractQueue;
 import java.util.Collection;
 import java.util.Iterator;
@@ -256,6 +259,14 @@ public class ResizableCapacityLinkedBlockingQueue<E> extends AbstractQueue<E> im
         if (capacity > size && size >= oldCapacity) {
             signalNotFull();
         }
+
+        QueueCapacityChangedEvent event = new QueueCapacityChangedEvent();
+        if (event.shouldCommit()) {
+            event.capacityBefore = oldCapacity;
+            event.capacityAfter = capacity;
+            event.queueSize = size;
+            event.commit();
+        }
     }
 
     // this doc comment is a modified copy of the inherited doc comment,
@@ -302,8 +313,17 @@ public class ResizableCapacityLinkedBlockingQueue<E> extends AbstractQueue<E> im
              * some other waiting put) are signalled if it ever changes from capacity. Similarly for all other uses of count in other wait guards.
              */
             try {
-                while (count.get() >= capacity) {
-                    notFull.await();
+                if (count.get() >= capacity) {
+                    ProducerBlockedEvent blocked = new ProducerBlockedEvent();
+                    blocked.begin();
+                    while (count.get() >= capacity) {
+                        notFull.await();
+                    }
+                    blocked.end();
+                    if (blocked.shouldCommit()) {
+                        blocked.capacity = capacity;
+                        blocked.commit();
+                    }
                 }
             } catch (InterruptedException ie) {
                 notFull.signal(); // propagate to a non-interrupted thread
@@ -346,6 +366,7 @@ public class ResizableCapacityLinkedBlockingQueue<E> extends AbstractQueue<E> im
         int c = -1;
         final ReentrantLock putLock = this.putLock;
         final AtomicInteger count = this.count;
+        ProducerBlockedEvent blocked = null;
         putLock.lockInterruptibly();
         try {
             for (; ; ) {
@@ -358,8 +379,13 @@ public class ResizableCapacityLinkedBlockingQueue<E> extends AbstractQueue<E> im
                     break;
                 }
                 if (nanos <= 0) {
+                    commitProducerBlocked(blocked, true);
                     return false;
                 }
+                if (blocked == null) {
+                    blocked = new ProducerBlockedEvent();
+                    blocked.begin();
+                }
                 try {
                     nanos = notFull.awaitNanos(nanos);
                 } catch (InterruptedException ie) {
@@ -370,12 +396,31 @@ public class ResizableCapacityLinkedBlockingQueue<E> extends AbstractQueue<E> im
         } finally {
             putLock.unlock();
         }
+        commitProducerBlocked(blocked, false);
         if (c == 0) {
             signalNotEmpty();
         }
         return true;
     }
 
+    /**
+     * Commit a {@link ProducerBlockedEvent} started by a timed offer, if any.
+     *
+     * @param blocked  the event, or <tt>null</tt> if the producer never waited
+     * @param timedOut whether the producer gave up because the timeout elapsed
+     */
+    private void commitProducerBlocked(ProducerBlockedEvent blocked, boolean timedOut) {
+        if (blocked == null) {
+            return;
+        }
+        blocked.end();
+        if (blocked.shouldCommit()) {
+            blocked.capacity = capacity;
+            blocked.timedOut = timedOut;
+            blocked.commit();
+        }
+    }
+
     /**
      * Inserts the specified element at the tail of this queue if possible,
      * returning immediately if this queue is full.
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejection policy retrying to queue the task with jittered exponential backoff.
+ *
+ * <p>Params:</p>
+ * <ul>
+ *     <li>{@code max-retries}: attempts after the rejection, default 3</li>
+ *     <li>{@code initial-backoff-millis}: backoff before the first attempt, default 10</li>
+ *     <li>{@code max-backoff-millis}: upper bound of a single backoff, default 1000</li>
+ *     <li>{@code multiplier}: growth of the backoff per attempt, default 2.0</li>
+ * </ul>
+ *
+ * <p>Each backoff is drawn uniformly from its upper half ("equal jitter"), so that
+ * submitters rejected at the same moment do not retry in lockstep. The task is
+ * rejected with a {@link RejectedExecutionException} once all attempts failed.</p>
+ */
+@Getter
+public class RetryPolicy implements RejectedExecutionHandler {
+
+    private final int maxRetries;
+
+    private final long initialBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private final double multiplier;
+
+    public RetryPolicy(int maxRetries, long initialBackoffMillis, long maxBackoffMillis, double multiplier) {
+        if (maxRetries < 0 || initialBackoffMillis < 0 || maxBackoffMillis < initialBackoffMillis || multiplier < 1.0) {
+            throw new IllegalArgumentException("Invalid retry policy: maxRetries=" + maxRetries
+                    + ", initialBackoffMillis=" + initialBackoffMillis + ", maxBackoffMillis=" + maxBackoffMillis
+                    + ", multiplier=" + multiplier);
+        }
+        this.maxRetries = maxRetries;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.multiplier = multiplier;
+    }
+
+    static RetryPolicy of(Map<String, String> params) {
+        RejectedPolicyParams p = new RejectedPolicyParams(params);
+        return new RetryPolicy(
+                (int) p.getLong("max-retries", 3L),
+                p.getLong("initial-backoff-millis", 10L),
+                p.getLong("max-backoff-millis", 1000L),
+                p.getDouble("multiplier", 2.0));
+    }
+
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+        Runnable queuedTask = TimedRunnable.requeueable(r);
+        double backoff = initialBackoffMillis;
+        for (int attempt = 0; attempt < maxRetries; attempt++) {
+            if (executor.isShutdown()) {
+                break;
+            }
+            long bound = (long) Math.min(backoff, maxBackoffMillis);
+            long half = bound / 2;
+            long sleepMillis = half + ThreadLocalRandom.current().nextLong(bound - half + 1);
+            try {
+                TimeUnit.MILLISECONDS.sleep(sleepMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while retrying task " + r, ex);
+            }
+            if (executor.getQueue().offer(queuedTask)) {
+                BlockingPolicy.requeued(queuedTask, executor);
+                return;
+            }
+            backoff *= multiplier;
+        }
+        throw new RejectedExecutionException("Task " + r + " rejected from " + executor
+                + " after " + maxRetries + " retries");
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy(maxRetries=" + maxRetries + ", initialBackoffMillis=" + initialBackoffMillis
+                + ", maxBackoffMillis=" + maxBackoffMillis + ", multiplier=" + multiplier + ")";
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative queue-wait and execution time totals of the tasks run by one executor.
+ *
+ * <p>Updated by worker threads after every task with striped adders, so recording is
+ * contention free. Readers compute interval means from the difference of two reads.
+ * The sum of squared execution times allows the variance, and with it the shape of the
+ * service time distribution, to be estimated.</p>
+ */
+public class TaskTimingStats {
+
+    private final LongAdder taskCount = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder executionNanos = new LongAdder();
+    private final DoubleAdder executionMicrosSquared = new DoubleAdder();
+
+    /**
+     * Record one finished task.
+     *
+     * @param queueWait nanoseconds between submission and start
+     * @param execution nanoseconds between start and completion
+     */
+    public void record(long queueWait, long execution) {
+        taskCount.increment();
+        queueWaitNanos.add(Math.max(0L, queueWait));
+        executionNanos.add(Math.max(0L, execution));
+        double micros = execution / 1000.0;
+        executionMicrosSquared.add(micros * micros);
+    }
+
+    public long getTaskCount() {
+        return taskCount.sum();
+    }
+
+    public long getQueueWaitNanos() {
+        return queueWaitNanos.sum();
+    }
+
+    public long getExecutionNanos() {
+        return executionNanos.sum();
+    }
+
+    public double getExecutionMicrosSquared() {
+        return executionMicrosSquared.sum();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import com.aston.cloudthread.core.jfr.TaskExecutedEvent;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Lightweight task wrapper used by {@code CloudThreadExecutor} to carry timing
+ * information of a single task from submission to completion.
+ *
+ * <p>The wrapper records the submission timestamp when it is created, and the worker
+ * thread stamps the start of execution in {@code beforeExecute}. Both values are plain
+ * {@code long} fields since a task is only ever touched by the submitting thread and
+ * then by exactly one worker thread, with the work queue providing the happens-before
+ * edge between them.</p>
+ *
+ * <p>Rejection policies get the original task through {@link #reject}; the policies of this
+ * package that put it back into the queue take the wrapper it was rejected with, so the
+ * task keeps its submission time.</p>
+ */
+public class TimedRunnable implements Runnable {
+
+    /**
+     * Rejection being handled by a policy on the current thread
+     */
+    private static final ThreadLocal<Rejection> REJECTING = new ThreadLocal<>();
+
+    /**
+     * The original task submitted by the user.
+     */
+    @Getter
+    private final Runnable delegate;
+
+    /**
+     * {@link System#nanoTime()} at which the task was handed to the executor.
+     */
+    @Getter
+    private final long submitNanos;
+
+    /**
+     * {@link System#nanoTime()} at which a worker thread started to run the task.
+     */
+    @Getter
+    @Setter
+    private long startNanos;
+
+    /**
+     * In-flight JFR event, only set while a recording has the event enabled.
+     */
+    @Getter
+    @Setter
+    private TaskExecutedEvent executedEvent;
+
+    public TimedRunnable(Runnable delegate) {
+        this.delegate = delegate;
+        this.submitNanos = System.nanoTime();
+    }
+
+    @Override
+    public void run() {
+        delegate.run();
+    }
+
+    /**
+     * Returns the user task behind the given runnable, unwrapping it if it is a
+     * {@link TimedRunnable}.
+     *
+     * @param runnable runnable taken from an executor or its work queue
+     * @return the original submitted task
+     */
+    public static Runnable unwrap(Runnable runnable) {
+        return runnable instanceof TimedRunnable ? ((TimedRunnable) runnable).delegate : runnable;
+    }
+
+    /**
+     * Hand a rejected runnable to the policy as the task the user submitted.
+     *
+     * @param handler  policy to run
+     * @param runnable runnable the executor rejected, possibly a {@link TimedRunnable}
+     * @param executor executor that rejected it
+     * @return {@code true} if the policy put the task back into the executor's queue, so it
+     * was not rejected after all
+     */
+    public static boolean reject(RejectedExecutionHandler handler, Runnable runnable, ThreadPoolExecutor executor) {
+        Rejection outer = REJECTING.get();
+        Rejection rejection = new Rejection(runnable);
+        REJECTING.set(rejection);
+        try {
+            handler.rejectedExecution(unwrap(runnable), executor);
+        } finally {
+            // a policy executing the task again may be rejected again, e.g. DiscardOldestPolicy
+            if (outer == null) {
+                REJECTING.remove();
+            } else {
+                REJECTING.set(outer);
+            }
+        }
+        return rejection.requeued;
+    }
+
+    /**
+     * @param task task a policy got from {@link #reject}
+     * @return the wrapper the task was rejected with, to be queued instead of the task
+     */
+    static Runnable requeueable(Runnable task) {
+        Rejection rejection = REJECTING.get();
+        return rejection != null && unwrap(rejection.runnable) == task ? rejection.runnable : task;
+    }
+
+    /**
+     * Note that a policy got the task being rejected back into the queue.
+     *
+     * @param queued what {@link #requeueable} returned
+     */
+    static void requeued(Runnable queued) {
+        Rejection rejection = REJECTING.get();
+        if (rejection != null && rejection.runnable == queued) {
+            rejection.requeued = true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    private static final class Rejection {
+
+        private final Runnable runnable;
+
+        private boolean requeued;
+
+        private Rejection(Runnable runnable) {
+            this.runnable = runnable;
+        }
+    }
+}
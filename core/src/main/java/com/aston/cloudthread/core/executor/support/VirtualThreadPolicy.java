@@ -0,0 +1,141 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Consumer;
+
+/**
+ * Rejection policy running the task on a new virtual thread.
+ *
+ * <p>The project targets Java 17, so {@code Thread.startVirtualThread} is resolved
+ * reflectively once. On runtimes without virtual threads the task runs on the
+ * submitting thread like {@link ThreadPoolExecutor.CallerRunsPolicy}.</p>
+ *
+ * <p>The param {@code max-concurrency} (default 10000) bounds the number of virtual
+ * threads running rejected tasks of this pool, beyond which tasks are rejected with a
+ * {@link RejectedExecutionException}. Use 0 for no bound.</p>
+ */
+@Slf4j
+public class VirtualThreadPolicy implements RejectedExecutionHandler {
+
+    private static final MethodHandle START_VIRTUAL_THREAD = lookupStartVirtualThread();
+
+    @Getter
+    private final int maxConcurrency;
+
+    /**
+     * Permits for running virtual threads, {@code null} if unbounded
+     */
+    private final Semaphore permits;
+
+    /**
+     * Starts a virtual thread running the task, {@code null} to run tasks on the caller
+     */
+    private final Consumer<Runnable> threadStarter;
+
+    public VirtualThreadPolicy(int maxConcurrency) {
+        this(maxConcurrency, START_VIRTUAL_THREAD == null ? null : VirtualThreadPolicy::startVirtualThread);
+    }
+
+    VirtualThreadPolicy(int maxConcurrency, Consumer<Runnable> threadStarter) {
+        if (maxConcurrency < 0) {
+            throw new IllegalArgumentException("max-concurrency must not be negative: " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.permits = maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+        this.threadStarter = threadStarter;
+    }
+
+    static VirtualThreadPolicy of(Map<String, String> params) {
+        return new VirtualThreadPolicy((int) new RejectedPolicyParams(params).getLong("max-concurrency", 10000L));
+    }
+
+    /**
+     * @return whether the runtime supports virtual threads
+     */
+    public static boolean isSupported() {
+        return START_VIRTUAL_THREAD != null;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Task " + r + " rejected from " + executor + ", executor is shut down");
+        }
+        Runnable task = TimedRunnable.unwrap(r);
+        if (threadStarter == null) {
+            task.run();
+            return;
+        }
+        if (permits != null && !permits.tryAcquire()) {
+            throw new RejectedExecutionException("Task " + r + " rejected from " + executor
+                    + ", " + maxConcurrency + " virtual threads already running");
+        }
+        Runnable guarded = permits == null ? task : () -> {
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        };
+        try {
+            threadStarter.accept(guarded);
+        } catch (UnsupportedOperationException ex) {
+            // Java 19 and 20 without --enable-preview
+            guarded.run();
+        } catch (RuntimeException | Error ex) {
+            if (permits != null) {
+                permits.release();
+            }
+            throw new RejectedExecutionException("Failed to start a virtual thread for task " + r, ex);
+        }
+    }
+
+    private static void startVirtualThread(Runnable task) {
+        try {
+            START_VIRTUAL_THREAD.invoke(task);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            // Thread.startVirtualThread declares no checked exceptions
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static MethodHandle lookupStartVirtualThread() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Thread.class, "startVirtualThread",
+                    MethodType.methodType(Thread.class, Runnable.class));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            log.info("[CloudThread] Virtual threads are not available, VirtualThreadPolicy runs tasks on the caller thread");
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualThreadPolicy(maxConcurrency=" + maxConcurrency + ")";
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted when a dynamic thread pool is reconfigured from the config center.
+ */
+@Name(PoolResizedEvent.NAME)
+@Label("Pool Resized")
+@Category({"CloudThread", "Refresh"})
+@Description("A CloudThread pool was resized by a configuration refresh")
+@StackTrace(false)
+public class PoolResizedEvent extends jdk.jfr.Event {
+    public static final String NAME = "com.aston.cloudthread.PoolResized";
+
+    @Label("Thread Pool UID")
+    public String threadPoolUID;
+
+    @Label("Core Pool Size Before")
+    public int corePoolSizeBefore;
+
+    @Label("Core Pool Size After")
+    public int corePoolSizeAfter;
+
+    @Label("Maximum Pool Size Before")
+    public int maximumPoolSizeBefore;
+
+    @Label("Maximum Pool Size After")
+    public int maximumPoolSizeAfter;
+
+    @Label("Queue Capacity Before")
+    public int queueCapacityBefore;
+
+    @Label("Queue Capacity After")
+    public int queueCapacityAfter;
+}
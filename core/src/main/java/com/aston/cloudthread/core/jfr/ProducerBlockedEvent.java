@@ -0,0 +1,43 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR duration event spanning the time a producer waited for free space in a
+ * {@code ResizableCapacityLinkedBlockingQueue}.
+ *
+ * <p>Only emitted by the blocking {@code put} and timed {@code offer} paths, the
+ * plain {@code offer} used by {@link java.util.concurrent.ThreadPoolExecutor} never
+ * waits. Stack traces are kept so the blocked call site is visible.</p>
+ */
+@Name(ProducerBlockedEvent.NAME)
+@Label("Producer Blocked")
+@Category({"CloudThread", "Queue"})
+@Description("A producer waited for space in a resizable CloudThread work queue")
+@Threshold("10 ms")
+public class ProducerBlockedEvent extends jdk.jfr.Event {
+    public static final String NAME = "com.aston.cloudthread.ProducerBlocked";
+
+    @Label("Capacity")
+    public int capacity;
+
+    @Label("Timed Out")
+    public boolean timedOut;
+}
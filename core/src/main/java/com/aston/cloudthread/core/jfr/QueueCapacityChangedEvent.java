@@ -0,0 +1,42 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted when the capacity of a
+ * {@code ResizableCapacityLinkedBlockingQueue} is changed at runtime.
+ */
+@Name(QueueCapacityChangedEvent.NAME)
+@Label("Queue Capacity Changed")
+@Category({"CloudThread", "Queue"})
+@Description("The capacity of a resizable CloudThread work queue was changed")
+@StackTrace(false)
+public class QueueCapacityChangedEvent extends jdk.jfr.Event {
+    public static final String NAME = "com.aston.cloudthread.QueueCapacityChanged";
+
+    @Label("Capacity Before")
+    public int capacityBefore;
+
+    @Label("Capacity After")
+    public int capacityAfter;
+
+    @Label("Queue Size")
+    public int queueSize;
+}
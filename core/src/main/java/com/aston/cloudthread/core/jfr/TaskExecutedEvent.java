@@ -0,0 +1,52 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR duration event spanning the execution of a single task on a worker thread.
+ *
+ * <p>The event duration is the run time of the task, {@link #queueWait} carries the
+ * time the task spent in the work queue before a worker picked it up. The default
+ * threshold keeps fast tasks out of the recording.</p>
+ */
+@Name(TaskExecutedEvent.NAME)
+@Label("Task Executed")
+@Category({"CloudThread", "Executor"})
+@Description("A task was executed by a CloudThread executor")
+@Threshold("20 ms")
+@StackTrace(false)
+public class TaskExecutedEvent extends jdk.jfr.Event {
+    public static final String NAME = "com.aston.cloudthread.TaskExecuted";
+
+    @Label("Thread Pool UID")
+    public String threadPoolUID;
+
+    @Label("Task Class")
+    public Class<?> taskClass;
+
+    @Label("Queue Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueWait;
+
+    @Label("Failed")
+    public boolean failed;
+}
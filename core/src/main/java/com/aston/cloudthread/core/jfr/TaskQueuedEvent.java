@@ -0,0 +1,49 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted when a task is handed to a {@code CloudThreadExecutor}.
+ *
+ * <p>Disabled by default because it fires once per submitted task; enable it
+ * explicitly in a recording profile when the submission pattern itself matters.</p>
+ */
+@Name(TaskQueuedEvent.NAME)
+@Label("Task Queued")
+@Category({"CloudThread", "Executor"})
+@Description("A task was submitted to a CloudThread executor")
+@Enabled(false)
+@StackTrace(false)
+public class TaskQueuedEvent extends jdk.jfr.Event {
+    public static final String NAME = "com.aston.cloudthread.TaskQueued";
+
+    @Label("Thread Pool UID")
+    public String threadPoolUID;
+
+    @Label("Task Class")
+    public Class<?> taskClass;
+
+    @Label("Queue Size")
+    public int queueSize;
+
+    @Label("Pool Size")
+    public int poolSize;
+}
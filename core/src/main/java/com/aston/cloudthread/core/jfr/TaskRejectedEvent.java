@@ -0,0 +1,48 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted each time the rejection policy of a {@code CloudThreadExecutor}
+ * is invoked.
+ */
+@Name(TaskRejectedEvent.NAME)
+@Label("Task Rejected")
+@Category({"CloudThread", "Executor"})
+@Description("A task was rejected by a CloudThread executor")
+@StackTrace(false)
+public class TaskRejectedEvent extends jdk.jfr.Event {
+    public static final String NAME = "com.aston.cloudthread.TaskRejected";
+
+    @Label("Thread Pool UID")
+    public String threadPoolUID;
+
+    @Label("Task Class")
+    public Class<?> taskClass;
+
+    @Label("Rejected Policy")
+    public String rejectedPolicy;
+
+    @Label("Queue Size")
+    public int queueSize;
+
+    @Label("Active Count")
+    public int activeCount;
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pool sizing advice computed by {@link ThreadPoolCapacityAdvisor}. Advisory only, nothing
+ * is applied to the thread pool.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapacityRecommendation {
+    /**
+     * Thread pool context Unique Id (UID)
+     */
+    private String threadPoolUID;
+
+    /**
+     * Measured arrival rate in tasks per second
+     */
+    private double arrivalRate;
+
+    /**
+     * Measured mean task execution time in milliseconds
+     */
+    private double meanServiceMillis;
+
+    /**
+     * Squared coefficient of variation of the execution time, 1 for exponential service
+     */
+    private double serviceTimeScv;
+
+    /**
+     * Offered load in Erlangs, the average number of threads the workload keeps busy
+     */
+    private double offeredLoad;
+
+    /**
+     * Measured mean queue wait in milliseconds
+     */
+    private double measuredMeanQueueWaitMillis;
+
+    /**
+     * Predicted p99 queue wait at the current maximum pool size, -1 when saturated
+     */
+    private double predictedP99QueueWaitMillis;
+
+    /**
+     * Offered load divided by the current maximum pool size
+     */
+    private double utilization;
+
+    /**
+     * Share of the current capacity still unused, {@code 1 - utilization}, negative when overloaded
+     */
+    private double saturationHeadroom;
+
+    /**
+     * Seconds until the arrival rate reaches the current capacity if the recent trend holds,
+     * 0 when already saturated, -1 when the load is not growing
+     */
+    private double timeToSaturationSeconds;
+
+    private int currentCorePoolSize;
+
+    private int currentMaximumPoolSize;
+
+    private int currentQueueCapacity;
+
+    /**
+     * Threads needed to meet the p99 queue wait target at the measured arrival rate
+     */
+    private int recommendedCorePoolSize;
+
+    /**
+     * Threads needed to meet the target at the arrival rate scaled by the burst factor
+     */
+    private int recommendedMaximumPoolSize;
+
+    /**
+     * Queue length the recommended maximum pool size drains within the wait target
+     */
+    private int recommendedQueueCapacity;
+}
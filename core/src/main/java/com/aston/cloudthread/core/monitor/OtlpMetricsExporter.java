@@ -0,0 +1,229 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pushes thread pool metrics to an OpenTelemetry collector using OTLP/HTTP with the
+ * JSON encoding, so no OpenTelemetry SDK or protobuf runtime is needed.
+ *
+ * <p>Every call to {@link #export(Collection, long)} sends one request carrying a data point
+ * per {@link ThreadPoolMetricEnum} and thread pool: a gauge, or a monotonic cumulative sum
+ * for counters. A sum starts when the exporter first sees the pool and starts over when one
+ * of its counters went backwards, i.e. the executor was replaced. The payload is streamed
+ * with a Jackson {@link JsonGenerator} into a buffer that is reused between exports.
+ * Failures are logged and reported through the return value; they never propagate into
+ * the monitor loop.</p>
+ */
+@Slf4j
+public class OtlpMetricsExporter {
+
+    public static final String CONTENT_TYPE = "application/json";
+
+    private static final String SCOPE_NAME = "cloudthread";
+    private static final String THREAD_POOL_ID_ATTRIBUTE = ThreadPoolMetricEnum.METRIC_NAME_PREFIX + ".id";
+    private static final ThreadPoolMetricEnum[] METRICS = ThreadPoolMetricEnum.values();
+
+    private final URI endpoint;
+    private final Duration timeout;
+    private final String applicationName;
+    private final HttpClient httpClient;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+
+    /**
+     * Start of the cumulative sums per thread pool id, pools no longer exported are dropped
+     */
+    private final Map<String, CounterStart> counterStarts = new HashMap<>();
+
+    public OtlpMetricsExporter(String endpoint, long timeoutMillis, String applicationName) {
+        this.endpoint = URI.create(endpoint);
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.applicationName = applicationName == null ? "" : applicationName;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    /**
+     * Export one batch of runtime samples.
+     *
+     * @param contexts        samples of all thread pools collected in this tick
+     * @param timestampMillis sample time in epoch milliseconds
+     * @return {@code true} if the collector accepted the request
+     */
+    public synchronized boolean export(Collection<ThreadPoolRuntimeContext> contexts, long timestampMillis) {
+        if (contexts.isEmpty()) {
+            return true;
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                    .timeout(timeout)
+                    .header("Content-Type", CONTENT_TYPE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(encode(contexts, timestampMillis)))
+                    .build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 != 2) {
+                log.warn("[CloudThread] OTLP export rejected by {}, status: {}", endpoint, response.statusCode());
+                return false;
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception ex) {
+            log.warn("[CloudThread] OTLP export to {} failed: {}", endpoint, ex.toString());
+            return false;
+        }
+    }
+
+    /**
+     * Encode an {@code ExportMetricsServiceRequest} in the OTLP JSON mapping. 64-bit
+     * integers are written as strings as required by the protobuf JSON mapping.
+     */
+    byte[] encode(Collection<ThreadPoolRuntimeContext> contexts, long timestampMillis) throws IOException {
+        buffer.reset();
+        String timeUnixNano = Long.toString(timestampMillis * 1_000_000L);
+        Map<String, String> startTimeUnixNanos = new HashMap<>();
+        for (ThreadPoolRuntimeContext ctx : contexts) {
+            long startMillis = counterStarts.computeIfAbsent(ctx.getThreadPoolUID(), uid -> new CounterStart(timestampMillis))
+                    .advance(ctx, timestampMillis);
+            startTimeUnixNanos.put(ctx.getThreadPoolUID(), Long.toString(startMillis * 1_000_000L));
+        }
+        counterStarts.keySet().retainAll(startTimeUnixNanos.keySet());
+        try (JsonGenerator gen = jsonFactory.createGenerator(buffer, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("resourceMetrics");
+            gen.writeStartObject();
+
+            gen.writeObjectFieldStart("resource");
+            gen.writeArrayFieldStart("attributes");
+            writeStringAttribute(gen, "service.name", applicationName);
+            gen.writeEndArray();
+            gen.writeEndObject();
+
+            gen.writeArrayFieldStart("scopeMetrics");
+            gen.writeStartObject();
+            gen.writeObjectFieldStart("scope");
+            gen.writeStringField("name", SCOPE_NAME);
+            gen.writeEndObject();
+
+            gen.writeArrayFieldStart("metrics");
+            for (ThreadPoolMetricEnum metric : METRICS) {
+                gen.writeStartObject();
+                gen.writeStringField("name", metric.getMetricName());
+                gen.writeStringField("description", metric.getDescription());
+                gen.writeStringField("unit", "1");
+                boolean counter = metric.getType() == ThreadPoolMetricEnum.MetricType.COUNTER;
+                if (counter) {
+                    gen.writeObjectFieldStart("sum");
+                    // AGGREGATION_TEMPORALITY_CUMULATIVE
+                    gen.writeNumberField("aggregationTemporality", 2);
+                    gen.writeBooleanField("isMonotonic", true);
+                } else {
+                    gen.writeObjectFieldStart("gauge");
+                }
+                gen.writeArrayFieldStart("dataPoints");
+                for (ThreadPoolRuntimeContext ctx : contexts) {
+                    long value = metric.valueOf(ctx);
+                    if (value < 0) {
+                        continue;
+                    }
+                    gen.writeStartObject();
+                    gen.writeArrayFieldStart("attributes");
+                    writeStringAttribute(gen, THREAD_POOL_ID_ATTRIBUTE, ctx.getThreadPoolUID());
+                    gen.writeEndArray();
+                    if (counter) {
+                        gen.writeStringField("startTimeUnixNano", startTimeUnixNanos.get(ctx.getThreadPoolUID()));
+                    }
+                    gen.writeStringField("timeUnixNano", timeUnixNano);
+                    gen.writeStringField("asInt", Long.toString(value));
+                    gen.writeEndObject();
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+
+            gen.writeEndObject();
+            gen.writeEndArray();
+
+            gen.writeEndObject();
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+        return buffer.toByteArray();
+    }
+
+    private static void writeStringAttribute(JsonGenerator gen, String key, String value) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("key", key);
+        gen.writeObjectFieldStart("value");
+        gen.writeStringField("stringValue", value);
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    /**
+     * Start time of the cumulative sums of one thread pool, with the last exported counters.
+     */
+    private static final class CounterStart {
+
+        private long startMillis;
+
+        private final long[] lastValues = new long[METRICS.length];
+
+        private CounterStart(long startMillis) {
+            this.startMillis = startMillis;
+        }
+
+        /**
+         * @return the start time, moved to {@code timestampMillis} when a counter went backwards
+         */
+        private long advance(ThreadPoolRuntimeContext ctx, long timestampMillis) {
+            boolean reset = false;
+            for (ThreadPoolMetricEnum metric : METRICS) {
+                if (metric.getType() != ThreadPoolMetricEnum.MetricType.COUNTER) {
+                    continue;
+                }
+                long value = metric.valueOf(ctx);
+                if (value < 0) {
+                    continue;
+                }
+                reset |= value < lastValues[metric.ordinal()];
+                lastValues[metric.ordinal()] = value;
+            }
+            if (reset) {
+                startMillis = timestampMillis;
+            }
+            return startMillis;
+        }
+    }
+}
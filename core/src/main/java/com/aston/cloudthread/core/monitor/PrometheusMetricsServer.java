@@ -0,0 +1,246 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import com.aston.cloudthread.core.toolkit.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Serves thread pool metrics in the Prometheus text exposition format (version 0.0.4)
+ * from an embedded JDK {@link HttpServer}, without Spring Actuator or a metrics registry.
+ *
+ * <p>Metrics are read on every scrape through the given snapshot supplier, so values are
+ * always current and nothing runs between scrapes. To keep a scrape cheap:</p>
+ * <ul>
+ *     <li>The {@code # HELP}/{@code # TYPE} lines and metric names are encoded once.</li>
+ *     <li>The label block of each pool is encoded once and cached by thread pool id.</li>
+ *     <li>Numbers are written as ASCII digits straight into a response buffer that is
+ *     reused across scrapes; scrapes are serialized on that buffer.</li>
+ * </ul>
+ */
+@Slf4j
+public class PrometheusMetricsServer {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String THREAD_POOL_ID_LABEL = "dynamic_thread_pool_id";
+    private static final String APPLICATION_NAME_LABEL = "application_name";
+    private static final ThreadPoolMetricEnum[] METRICS = ThreadPoolMetricEnum.values();
+
+    private final String host;
+    private final int port;
+    private final String path;
+    private final String applicationName;
+    private final Supplier<Collection<ThreadPoolRuntimeContext>> snapshotSupplier;
+
+    /**
+     * Pre-encoded {@code # HELP} and {@code # TYPE} lines, indexed by metric ordinal
+     */
+    private final byte[][] familyHeaders = new byte[METRICS.length][];
+
+    /**
+     * Pre-encoded metric names, indexed by metric ordinal
+     */
+    private final byte[][] familyNames = new byte[METRICS.length][];
+
+    /**
+     * Pre-encoded {@code {labels} } block per thread pool id
+     */
+    private final Map<String, byte[]> labelCache = new ConcurrentHashMap<>();
+
+    private final ReusableByteBuffer buffer = new ReusableByteBuffer(4096);
+    private final byte[] digits = new byte[20];
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    public PrometheusMetricsServer(String host,
+                                   int port,
+                                   String path,
+                                   String applicationName,
+                                   Supplier<Collection<ThreadPoolRuntimeContext>> snapshotSupplier) {
+        this.host = host;
+        this.port = port;
+        this.path = path;
+        this.applicationName = applicationName == null ? "" : applicationName;
+        this.snapshotSupplier = snapshotSupplier;
+        for (ThreadPoolMetricEnum metric : METRICS) {
+            String name = metric.getPrometheusName();
+            familyHeaders[metric.ordinal()] = ("# HELP " + name + " " + metric.getDescription() + "\n"
+                    + "# TYPE " + name + " " + metric.getType().getPrometheusType() + "\n").getBytes(StandardCharsets.UTF_8);
+            familyNames[metric.ordinal()] = name.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Bind the HTTP server and start serving scrapes.
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext(path, this::handle);
+        serverExecutor = Executors.newSingleThreadExecutor(
+                ThreadFactoryBuilder.builder()
+                        .namePrefix("cloudthread_prometheus_server")
+                        .daemon(true)
+                        .build()
+        );
+        server.setExecutor(serverExecutor);
+        server.start();
+        log.info("[CloudThread] Prometheus metrics available at http://{}:{}{}", host, getPort(), path);
+    }
+
+    /**
+     * Stop the HTTP server, in-flight scrapes get one second to complete.
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        serverExecutor.shutdownNow();
+        server = null;
+        serverExecutor = null;
+    }
+
+    /**
+     * @return the bound port, useful when the server was created with port {@code 0}
+     */
+    public synchronized int getPort() {
+        return server == null ? port : server.getAddress().getPort();
+    }
+
+    /**
+     * Render the current metrics in the text exposition format.
+     *
+     * @return a copy of the encoded response body
+     */
+    public byte[] scrape() {
+        synchronized (buffer) {
+            render(snapshotSupplier.get());
+            return buffer.toByteArray();
+        }
+    }
+
+    /**
+     * Drop the cached labels of a removed thread pool.
+     */
+    public void evict(String threadPoolUID) {
+        labelCache.remove(threadPoolUID);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        boolean headersSent = false;
+        try {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                headersSent = true;
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            synchronized (buffer) {
+                // Render completely before committing to a status, a failure can still answer 500
+                render(snapshotSupplier.get());
+                headersSent = true;
+                exchange.sendResponseHeaders(200, buffer.size());
+                try (OutputStream body = exchange.getResponseBody()) {
+                    buffer.writeTo(body);
+                }
+            }
+        } catch (Exception ex) {
+            log.error("[CloudThread] Prometheus scrape failed", ex);
+            if (!headersSent) {
+                exchange.sendResponseHeaders(500, -1);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void render(Collection<ThreadPoolRuntimeContext> contexts) {
+        buffer.reset();
+        for (ThreadPoolMetricEnum metric : METRICS) {
+            buffer.write(familyHeaders[metric.ordinal()]);
+            for (ThreadPoolRuntimeContext ctx : contexts) {
+                long value = metric.valueOf(ctx);
+                // negative values mark metrics that are unknown for this pool
+                if (value < 0) {
+                    continue;
+                }
+                buffer.write(familyNames[metric.ordinal()]);
+                buffer.write(labelCache.computeIfAbsent(ctx.getThreadPoolUID(), this::encodeLabels));
+                writeLong(value);
+                buffer.write('\n');
+            }
+        }
+    }
+
+    private byte[] encodeLabels(String threadPoolUID) {
+        String labels = "{" + THREAD_POOL_ID_LABEL + "=\"" + escapeLabelValue(threadPoolUID) + "\","
+                + APPLICATION_NAME_LABEL + "=\"" + escapeLabelValue(applicationName) + "\"} ";
+        return labels.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void writeLong(long value) {
+        if (value == 0) {
+            buffer.write('0');
+            return;
+        }
+        int pos = digits.length;
+        while (value > 0) {
+            digits[--pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        buffer.write(digits, pos, digits.length - pos);
+    }
+
+    static String escapeLabelValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * {@link ByteArrayOutputStream} reused by the exporters: the backing array survives
+ * {@link #reset()} and is exposed through {@link #array()} so the encoded bytes can be
+ * written out without the copy made by {@link #toByteArray()}.
+ */
+class ReusableByteBuffer extends ByteArrayOutputStream {
+
+    ReusableByteBuffer(int size) {
+        super(size);
+    }
+
+    /**
+     * @return the backing array, valid from index 0 to {@link #size()}
+     */
+    byte[] array() {
+        return buf;
+    }
+
+    @Override
+    public void write(byte[] b) {
+        write(b, 0, b.length);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only file writer on a NIO {@link FileChannel} with size based rolling.
+ *
+ * <p>When the active file would grow beyond {@code maxFileSizeBytes} it is renamed to
+ * {@code <name>.1}, older files shift up by one ({@code .1} to {@code .2} and so on) and
+ * files beyond {@code maxHistory} are deleted. Not thread safe, callers write from a
+ * single thread.</p>
+ */
+public class RollingFileChannelWriter implements Closeable {
+
+    private final Path file;
+    private final long maxFileSizeBytes;
+    private final int maxHistory;
+    private FileChannel channel;
+    private long size;
+
+    public RollingFileChannelWriter(Path file, long maxFileSizeBytes, int maxHistory) throws IOException {
+        if (maxFileSizeBytes <= 0) {
+            throw new IllegalArgumentException("maxFileSizeBytes must be greater than 0");
+        }
+        this.file = file;
+        this.maxFileSizeBytes = maxFileSizeBytes;
+        this.maxHistory = Math.max(0, maxHistory);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        open();
+    }
+
+    /**
+     * Append {@code length} bytes of {@code bytes}, rolling the file first if needed.
+     */
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (size > 0 && size + length > maxFileSizeBytes) {
+            roll();
+        }
+        ByteBuffer src = ByteBuffer.wrap(bytes, offset, length);
+        while (src.hasRemaining()) {
+            size += channel.write(src);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = channel.size();
+    }
+
+    private void roll() throws IOException {
+        close();
+        if (maxHistory == 0) {
+            Files.deleteIfExists(file);
+        } else {
+            Files.deleteIfExists(rolled(maxHistory));
+            for (int i = maxHistory - 1; i >= 1; i--) {
+                Path source = rolled(i);
+                if (Files.exists(source)) {
+                    Files.move(source, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        open();
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import com.aston.cloudthread.core.toolkit.ThreadFactoryBuilder;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous structured log collector for thread pool runtime samples.
+ *
+ * <p>All pools sampled in one monitor tick are written as a single line, either compact
+ * JSON or {@code key=value} pairs:</p>
+ * <pre>
+ * {"ts":1700000000000,"pools":[{"id":"order","core":2,"max":4,...},{"id":"pay",...}]}
+ * ts=1700000000000 pools=2 [id=order core=2 max=4 ...] [id=pay ...]
+ * </pre>
+ *
+ * <p>The monitor thread only enqueues the batch. A dedicated writer thread encodes it with
+ * a long-lived {@link JsonGenerator} and pre-encoded field names into a buffer that is
+ * reused for every record, then hands the line to the logger or, when a file is
+ * configured, appends it through a {@link RollingFileChannelWriter}. If the writer falls
+ * behind, new batches are dropped and counted rather than blocking the monitor.</p>
+ */
+@Slf4j
+public class StructuredLogCollector implements Closeable {
+
+    /**
+     * Supported line formats
+     */
+    public enum Format {
+        JSON,
+        KV;
+
+        public static Format of(String value) {
+            return "kv".equalsIgnoreCase(value) ? KV : JSON;
+        }
+    }
+
+    private static final int PENDING_BATCHES = 16;
+    private static final ThreadPoolMetricEnum[] METRICS = ThreadPoolMetricEnum.values();
+
+    /**
+     * Short field names, indexed by {@link ThreadPoolMetricEnum} ordinal
+     */
+    private static final String[] FIELD_NAMES = {
+            "core", "max", "current", "largest", "active", "queueSize",
+            "queueCapacity", "queueRemaining", "completed", "rejects", "rejectsPersisted",
+            "rejectsSampledOut"
+    };
+
+    private static final SerializedString TS = new SerializedString("ts");
+    private static final SerializedString POOLS = new SerializedString("pools");
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString QUEUE = new SerializedString("queue");
+    private static final SerializedString REJECTED_HANDLER = new SerializedString("rejectedHandler");
+    private static final SerializedString THROUGHPUT = new SerializedString("throughput");
+    private static final SerializedString ARRIVAL_RATE = new SerializedString("arrivalRate");
+    private static final SerializedString REJECT_RATE = new SerializedString("rejectRate");
+    private static final SerializedString UTILIZATION = new SerializedString("utilization");
+    private static final SerializedString[] JSON_FIELDS = new SerializedString[FIELD_NAMES.length];
+    private static final byte[][] KV_FIELDS = new byte[FIELD_NAMES.length][];
+
+    static {
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            JSON_FIELDS[i] = new SerializedString(FIELD_NAMES[i]);
+            KV_FIELDS[i] = (" " + FIELD_NAMES[i] + "=").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final Format format;
+    private final RollingFileChannelWriter fileWriter;
+    private final ThreadPoolExecutor writerExecutor;
+    private final ReusableByteBuffer buffer = new ReusableByteBuffer(8192);
+    private JsonGenerator generator;
+
+    /**
+     * Number of batches dropped because the writer thread fell behind
+     */
+    @Getter
+    private final LongAdder droppedBatches = new LongAdder();
+
+    /**
+     * @param format           line format
+     * @param file             target file, or {@code null} to write through the logger
+     * @param maxFileSizeBytes roll the file when it would exceed this size
+     * @param maxHistory       number of rolled files to keep
+     */
+    public StructuredLogCollector(Format format, Path file, long maxFileSizeBytes, int maxHistory) throws IOException {
+        this.format = format;
+        this.fileWriter = file == null ? null : new RollingFileChannelWriter(file, maxFileSizeBytes, maxHistory);
+        this.generator = newGenerator();
+        this.writerExecutor = new ThreadPoolExecutor(
+                1,
+                1,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(PENDING_BATCHES),
+                ThreadFactoryBuilder.builder()
+                        .namePrefix("cloudthread_monitor_log_writer")
+                        .daemon(true)
+                        .build(),
+                (task, executor) -> droppedBatches.increment()
+        );
+    }
+
+    /**
+     * Enqueue the samples of one monitor tick. Never blocks.
+     *
+     * @param contexts  samples of all thread pools, must not be modified afterwards
+     * @param timestamp sample time in epoch milliseconds
+     */
+    public void collect(List<ThreadPoolRuntimeContext> contexts, long timestamp) {
+        if (contexts.isEmpty() || writerExecutor.isShutdown()) {
+            return;
+        }
+        writerExecutor.execute(() -> write(contexts, timestamp));
+    }
+
+    /**
+     * Write pending batches and release the file.
+     */
+    @Override
+    public void close() throws IOException {
+        writerExecutor.shutdown();
+        try {
+            writerExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (fileWriter != null) {
+            fileWriter.close();
+        }
+    }
+
+    private void write(List<ThreadPoolRuntimeContext> contexts, long timestamp) {
+        try {
+            buffer.reset();
+            if (format == Format.KV) {
+                encodeKeyValue(contexts, timestamp);
+            } else {
+                encodeJson(contexts, timestamp);
+            }
+            if (fileWriter != null) {
+                buffer.write('\n');
+                fileWriter.write(buffer.array(), 0, buffer.size());
+            } else {
+                log.info("{}", buffer.toString(StandardCharsets.UTF_8));
+            }
+        } catch (Exception ex) {
+            log.error("[ThreadPool Monitor] Failed to write structured monitor log", ex);
+            // a half written record leaves the generator in an unusable state
+            resetGenerator();
+        }
+    }
+
+    private JsonGenerator newGenerator() throws IOException {
+        JsonGenerator jsonGenerator = new JsonFactory().createGenerator(buffer, JsonEncoding.UTF8);
+        // records are separated by our own newline, not by the generator
+        jsonGenerator.setRootValueSeparator(null);
+        return jsonGenerator;
+    }
+
+    private void resetGenerator() {
+        try {
+            generator = newGenerator();
+        } catch (IOException ignored) {
+            // in-memory buffer, cannot fail
+        }
+    }
+
+    private void encodeJson(List<ThreadPoolRuntimeContext> contexts, long timestamp) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(TS);
+        generator.writeNumber(timestamp);
+        generator.writeFieldName(POOLS);
+        generator.writeStartArray();
+        for (ThreadPoolRuntimeContext ctx : contexts) {
+            generator.writeStartObject();
+            generator.writeFieldName(ID);
+            generator.writeString(ctx.getThreadPoolUID());
+            for (ThreadPoolMetricEnum metric : METRICS) {
+                long value = metric.valueOf(ctx);
+                if (value >= 0) {
+                    generator.writeFieldName(JSON_FIELDS[metric.ordinal()]);
+                    generator.writeNumber(value);
+                }
+            }
+            generator.writeFieldName(THROUGHPUT);
+            generator.writeNumber(round(ctx.getThroughput()));
+            generator.writeFieldName(ARRIVAL_RATE);
+            generator.writeNumber(round(ctx.getArrivalRate()));
+            generator.writeFieldName(REJECT_RATE);
+            generator.writeNumber(round(ctx.getRejectRate()));
+            generator.writeFieldName(UTILIZATION);
+            generator.writeNumber(round(ctx.getUtilization()));
+            if (ctx.getWorkQueueName() != null) {
+                generator.writeFieldName(QUEUE);
+                generator.writeString(ctx.getWorkQueueName());
+            }
+            if (ctx.getRejectedHandlerName() != null) {
+                generator.writeFieldName(REJECTED_HANDLER);
+                generator.writeString(ctx.getRejectedHandlerName());
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    private void encodeKeyValue(List<ThreadPoolRuntimeContext> contexts, long timestamp) {
+        writeAscii("ts=");
+        writeAscii(Long.toString(timestamp));
+        writeAscii(" pools=");
+        writeAscii(Integer.toString(contexts.size()));
+        for (ThreadPoolRuntimeContext ctx : contexts) {
+            writeAscii(" [id=");
+            writeUtf8(ctx.getThreadPoolUID());
+            for (ThreadPoolMetricEnum metric : METRICS) {
+                long value = metric.valueOf(ctx);
+                if (value >= 0) {
+                    buffer.write(KV_FIELDS[metric.ordinal()]);
+                    writeAscii(Long.toString(value));
+                }
+            }
+            writeAscii(" throughput=");
+            writeAscii(Double.toString(round(ctx.getThroughput())));
+            writeAscii(" arrivalRate=");
+            writeAscii(Double.toString(round(ctx.getArrivalRate())));
+            writeAscii(" rejectRate=");
+            writeAscii(Double.toString(round(ctx.getRejectRate())));
+            writeAscii(" utilization=");
+            writeAscii(Double.toString(round(ctx.getUtilization())));
+            if (ctx.getWorkQueueName() != null) {
+                writeAscii(" queue=");
+                writeUtf8(ctx.getWorkQueueName());
+            }
+            if (ctx.getRejectedHandlerName() != null) {
+                writeAscii(" rejectedHandler=");
+                writeUtf8(ctx.getRejectedHandlerName());
+            }
+            buffer.write(']');
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private void writeAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            buffer.write(value.charAt(i));
+        }
+    }
+
+    private void writeUtf8(String value) {
+        if (value != null) {
+            buffer.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
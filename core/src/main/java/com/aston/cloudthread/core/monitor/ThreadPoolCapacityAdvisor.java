@@ -0,0 +1,300 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.executor.CloudThreadExecutor;
+import com.aston.cloudthread.core.executor.CloudThreadRegistry;
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorWrapper;
+import com.aston.cloudthread.core.executor.support.TaskTimingStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Queueing theory based capacity advisor for the thread pools in {@link CloudThreadRegistry}.
+ *
+ * <p>Each pool is modelled as an M/G/c queue: the arrival rate comes from the
+ * {@link ThreadPoolRateTracker} of the pool, the mean and variance of the execution time
+ * from the {@link TaskTimingStats} of its {@link CloudThreadExecutor}. From these:</p>
+ * <ul>
+ *     <li>Little's law gives the offered load {@code a = arrivalRate * meanServiceTime},
+ *     the number of threads the workload keeps busy on average.</li>
+ *     <li>The Erlang-C formula gives the probability that a task has to wait and, with the
+ *     exponential wait tail of M/M/c, the p99 queue wait for a given number of threads.
+ *     The Allen-Cunneen factor {@code (1 + scv) / 2} corrects it for non exponential
+ *     execution times.</li>
+ *     <li>The recommended core size is the smallest thread count meeting the p99 target at
+ *     the measured rate, the maximum size the same at the rate times the burst factor, and
+ *     the queue capacity the backlog those threads drain within the target.</li>
+ * </ul>
+ *
+ * <p>Recommendations are advisory and never applied. Pools that are not a
+ * {@link CloudThreadExecutor}, or that have not completed a task yet, get none.</p>
+ *
+ * <p>Only the monitor tick evaluates pools through {@link #evaluate(ThreadPoolExecutorWrapper, long)},
+ * which advances the sampling window. Queries such as {@link #advise(String)} return the
+ * recommendation of the latest tick and never touch that window.</p>
+ */
+public class ThreadPoolCapacityAdvisor {
+
+    private static final int MAX_RECOMMENDED_THREADS = 4096;
+    private static final double P99 = 0.99;
+    private static final double TREND_SMOOTHING = 0.5;
+
+    /**
+     * Key: thread pool unique ID, value: counters seen by the previous evaluation
+     */
+    private static final Map<String, AdvisorState> STATE_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * Key: thread pool unique ID, value: recommendation of the latest evaluation
+     */
+    private static final Map<String, CapacityRecommendation> RECOMMENDATION_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * Get the latest recommendation for one registered thread pool.
+     *
+     * @param threadPoolUID unique identifier for the thread pool
+     * @return the recommendation, or {@code null} if there is not enough data yet
+     */
+    public static CapacityRecommendation advise(String threadPoolUID) {
+        return CloudThreadRegistry.getWrapper(threadPoolUID) == null ? null : RECOMMENDATION_MAP.get(threadPoolUID);
+    }
+
+    /**
+     * Get the latest recommendations of all registered thread pools that have enough data.
+     */
+    public static List<CapacityRecommendation> adviseAll() {
+        List<CapacityRecommendation> recommendations = new ArrayList<>();
+        for (ThreadPoolExecutorWrapper wrapper : CloudThreadRegistry.getAllWrappers()) {
+            CapacityRecommendation recommendation = RECOMMENDATION_MAP.get(wrapper.getThreadPoolUID());
+            if (recommendation != null) {
+                recommendations.add(recommendation);
+            }
+        }
+        return recommendations;
+    }
+
+    /**
+     * Compute a recommendation for the given thread pool, advancing its sampling window.
+     * Called once per monitor tick.
+     *
+     * @param wrapper   registered thread pool
+     * @param timestamp evaluation time in epoch milliseconds
+     * @return the recommendation, or {@code null} if there is not enough data yet
+     */
+    public static CapacityRecommendation evaluate(ThreadPoolExecutorWrapper wrapper, long timestamp) {
+        CapacityRecommendation recommendation = compute(wrapper, timestamp);
+        if (recommendation != null) {
+            RECOMMENDATION_MAP.put(wrapper.getThreadPoolUID(), recommendation);
+        }
+        return recommendation;
+    }
+
+    private static CapacityRecommendation compute(ThreadPoolExecutorWrapper wrapper, long timestamp) {
+        ThreadPoolExecutor executor = wrapper.getExecutor();
+        if (!(executor instanceof CloudThreadExecutor)) {
+            return null;
+        }
+        TaskTimingStats stats = ((CloudThreadExecutor) executor).getTaskTimingStats();
+        AdvisorState state = STATE_MAP.computeIfAbsent(wrapper.getThreadPoolUID(), uid -> new AdvisorState());
+        ThreadPoolRateTracker tracker = ThreadPoolRateRegistry.getTracker(wrapper.getThreadPoolUID());
+
+        BootstrapConfigProperties.MonitorConfig config = BootstrapConfigProperties.getInstance().getMonitorConfig();
+        double targetSeconds = config.getTargetQueueWaitP99Millis() / 1000.0;
+
+        synchronized (state) {
+            if (!state.update(stats, timestamp)) {
+                return null;
+            }
+            double arrivalRate = tracker != null ? tracker.getArrivalRate() : state.throughput;
+            double serviceRate = 1e9 / state.meanServiceNanos;
+            double waitFactor = (1.0 + state.scv) / 2.0;
+            int maximumPoolSize = executor.getMaximumPoolSize();
+            double capacity = maximumPoolSize * serviceRate;
+
+            state.updateTrend(arrivalRate, timestamp);
+            double timeToSaturation;
+            if (arrivalRate >= capacity) {
+                timeToSaturation = 0.0;
+            } else if (state.arrivalSlope > 0.0) {
+                timeToSaturation = (capacity - arrivalRate) / state.arrivalSlope;
+            } else {
+                timeToSaturation = -1.0;
+            }
+
+            int recommendedCore = minThreads(arrivalRate, serviceRate, P99, targetSeconds, waitFactor);
+            int recommendedMaximum = Math.max(recommendedCore, minThreads(
+                    arrivalRate * config.getCapacityBurstFactor(), serviceRate, P99, targetSeconds, waitFactor));
+            long recommendedQueue = (long) Math.ceil(targetSeconds * recommendedMaximum * serviceRate);
+
+            double predictedWait = waitQuantile(maximumPoolSize, arrivalRate, serviceRate, P99, waitFactor);
+            double utilization = arrivalRate / capacity;
+            BlockingQueue<?> queue = executor.getQueue();
+            return CapacityRecommendation.builder()
+                    .threadPoolUID(wrapper.getThreadPoolUID())
+                    .arrivalRate(arrivalRate)
+                    .meanServiceMillis(state.meanServiceNanos / 1e6)
+                    .serviceTimeScv(state.scv)
+                    .offeredLoad(arrivalRate / serviceRate)
+                    .measuredMeanQueueWaitMillis(state.meanQueueWaitNanos / 1e6)
+                    .predictedP99QueueWaitMillis(Double.isInfinite(predictedWait) ? -1.0 : predictedWait * 1000.0)
+                    .utilization(utilization)
+                    .saturationHeadroom(1.0 - utilization)
+                    .timeToSaturationSeconds(timeToSaturation)
+                    .currentCorePoolSize(executor.getCorePoolSize())
+                    .currentMaximumPoolSize(maximumPoolSize)
+                    .currentQueueCapacity(queue.size() + queue.remainingCapacity())
+                    .recommendedCorePoolSize(recommendedCore)
+                    .recommendedMaximumPoolSize(recommendedMaximum)
+                    .recommendedQueueCapacity((int) Math.max(1L, Math.min(Integer.MAX_VALUE, recommendedQueue)))
+                    .build();
+        }
+    }
+
+    public static void remove(String threadPoolUID) {
+        STATE_MAP.remove(threadPoolUID);
+        RECOMMENDATION_MAP.remove(threadPoolUID);
+    }
+
+    public static void clear() {
+        STATE_MAP.clear();
+        RECOMMENDATION_MAP.clear();
+    }
+
+    /**
+     * Smallest number of threads whose {@code quantile} queue wait does not exceed
+     * {@code targetSeconds}, capped at {@value #MAX_RECOMMENDED_THREADS}.
+     */
+    static int minThreads(double arrivalRate, double serviceRate, double quantile,
+                          double targetSeconds, double waitFactor) {
+        if (arrivalRate <= 0.0) {
+            return 1;
+        }
+        int threads = Math.max(1, (int) Math.floor(arrivalRate / serviceRate) + 1);
+        while (threads < MAX_RECOMMENDED_THREADS
+                && waitQuantile(threads, arrivalRate, serviceRate, quantile, waitFactor) > targetSeconds) {
+            threads++;
+        }
+        return threads;
+    }
+
+    /**
+     * Queue wait in seconds not exceeded by the given share of tasks in an M/M/c queue
+     * scaled by {@code waitFactor}: {@code P(W > t) = C(c, a) * e^(-(c * mu - lambda) * t)}.
+     *
+     * @return the wait, or {@link Double#POSITIVE_INFINITY} if the queue is unstable
+     */
+    static double waitQuantile(int threads, double arrivalRate, double serviceRate,
+                               double quantile, double waitFactor) {
+        double load = arrivalRate / serviceRate;
+        if (load >= threads) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double waitProbability = erlangC(threads, load);
+        double tail = 1.0 - quantile;
+        if (waitProbability <= tail) {
+            return 0.0;
+        }
+        return waitFactor * Math.log(waitProbability / tail) / (threads * serviceRate - arrivalRate);
+    }
+
+    /**
+     * Probability that an arriving task has to wait, computed through the numerically
+     * stable Erlang-B recursion {@code B(k) = a * B(k-1) / (k + a * B(k-1))}.
+     *
+     * @param threads number of threads {@code c}
+     * @param load    offered load {@code a} in Erlangs, must be below {@code c}
+     */
+    static double erlangC(int threads, double load) {
+        if (load <= 0.0) {
+            return 0.0;
+        }
+        double erlangB = 1.0;
+        for (int k = 1; k <= threads; k++) {
+            erlangB = load * erlangB / (k + load * erlangB);
+        }
+        return threads * erlangB / (threads - load * (1.0 - erlangB));
+    }
+
+    /**
+     * Timing counters of the previous evaluation and the estimates derived from them.
+     */
+    private static final class AdvisorState {
+        private long lastTimestamp = -1L;
+        private long lastTaskCount;
+        private long lastExecutionNanos;
+        private long lastQueueWaitNanos;
+        private double lastExecutionMicrosSquared;
+
+        private double meanServiceNanos;
+        private double meanQueueWaitNanos;
+        private double scv = 1.0;
+        private double throughput;
+
+        private long trendTimestamp = -1L;
+        private double lastArrivalRate;
+        private double arrivalSlope;
+
+        /**
+         * @return {@code false} while no task has completed yet
+         */
+        boolean update(TaskTimingStats stats, long timestamp) {
+            long taskCount = stats.getTaskCount();
+            long executionNanos = stats.getExecutionNanos();
+            long queueWaitNanos = stats.getQueueWaitNanos();
+            double executionMicrosSquared = stats.getExecutionMicrosSquared();
+
+            long tasks = taskCount - lastTaskCount;
+            if (tasks > 0) {
+                // only the tasks finished since the previous evaluation, fall back to the
+                // lifetime totals on the first one
+                double meanNanos = (double) (executionNanos - lastExecutionNanos) / tasks;
+                double meanMicros = meanNanos / 1000.0;
+                double secondMoment = (executionMicrosSquared - lastExecutionMicrosSquared) / tasks;
+                meanServiceNanos = Math.max(1.0, meanNanos);
+                meanQueueWaitNanos = (double) (queueWaitNanos - lastQueueWaitNanos) / tasks;
+                scv = meanMicros > 0.0
+                        ? Math.max(0.0, secondMoment - meanMicros * meanMicros) / (meanMicros * meanMicros)
+                        : 1.0;
+            }
+            if (lastTimestamp >= 0 && timestamp > lastTimestamp) {
+                throughput = Math.max(0L, tasks) * 1000.0 / (timestamp - lastTimestamp);
+            }
+
+            lastTimestamp = timestamp;
+            lastTaskCount = taskCount;
+            lastExecutionNanos = executionNanos;
+            lastQueueWaitNanos = queueWaitNanos;
+            lastExecutionMicrosSquared = executionMicrosSquared;
+            return meanServiceNanos > 0.0;
+        }
+
+        void updateTrend(double arrivalRate, long timestamp) {
+            if (trendTimestamp >= 0 && timestamp - trendTimestamp >= 1000L) {
+                double slope = (arrivalRate - lastArrivalRate) * 1000.0 / (timestamp - trendTimestamp);
+                arrivalSlope += TREND_SMOOTHING * (slope - arrivalSlope);
+            }
+            if (trendTimestamp < 0 || timestamp - trendTimestamp >= 1000L) {
+                trendTimestamp = timestamp;
+                lastArrivalRate = arrivalRate;
+            }
+        }
+    }
+}
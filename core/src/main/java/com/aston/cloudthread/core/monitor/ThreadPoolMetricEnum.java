@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import lombok.Getter;
+
+import java.util.function.Function;
+
+/**
+ * Thread pool metrics exported by the built-in exporters.
+ *
+ * <p>Each constant carries the dotted metric name used by micrometer and OTLP, the
+ * Prometheus counterpart derived from it, its {@link MetricType} and how to read the value
+ * from a {@link ThreadPoolRuntimeContext}. Names and types match the meters registered by
+ * {@link ThreadPoolMonitor#micrometerMonitor(ThreadPoolRuntimeContext)} so dashboards
+ * work unchanged whichever collect type is selected.</p>
+ */
+@Getter
+public enum ThreadPoolMetricEnum {
+
+    CORE_SIZE("core.size", "Configured core pool size",
+            MetricType.GAUGE, ThreadPoolRuntimeContext::getCorePoolSize),
+
+    MAXIMUM_SIZE("maximum.size", "Configured maximum pool size",
+            MetricType.GAUGE, ThreadPoolRuntimeContext::getMaximumPoolSize),
+
+    CURRENT_SIZE("current.size", "Current number of threads in the pool",
+            MetricType.GAUGE, ThreadPoolRuntimeContext::getCurrentPoolSize),
+
+    LARGEST_SIZE("largest.size", "Largest number of threads that have ever been in the pool",
+            MetricType.GAUGE, ThreadPoolRuntimeContext::getLargestPoolSize),
+
+    ACTIVE_SIZE("active.size", "Number of threads actively executing tasks",
+            MetricType.GAUGE, ThreadPoolRuntimeContext::getActivePoolSize),
+
+    QUEUE_SIZE("queue.size", "Number of tasks waiting in the work queue",
+            MetricType.GAUGE, ThreadPoolRuntimeContext::getWorkQueueSize),
+
+    QUEUE_CAPACITY("queue.capacity", "Work queue capacity",
+            MetricType.GAUGE, ThreadPoolRuntimeContext::getWorkQueueCapacity),
+
+    QUEUE_REMAINING_CAPACITY("queue.remaining.capacity", "Remaining work queue capacity",
+            MetricType.GAUGE, ThreadPoolRuntimeContext::getWorkQueueRemainingCapacity),
+
+    COMPLETED_TASK_COUNT("completed.task.count", "Total number of completed tasks",
+            MetricType.COUNTER, ThreadPoolRuntimeContext::getCompletedTaskCount),
+
+    REJECT_COUNT("reject.count", "Total number of rejected tasks",
+            MetricType.COUNTER, ThreadPoolRuntimeContext::getRejectCount),
+
+    REJECT_PERSISTED_COUNT("reject.persisted.count", "Total number of rejected tasks stored for replay",
+            MetricType.COUNTER, ThreadPoolRuntimeContext::getRejectPersistedCount),
+
+    REJECT_SAMPLED_OUT_COUNT("reject.sampled.out.count", "Total number of rejections skipped by journal sampling",
+            MetricType.COUNTER, ThreadPoolRuntimeContext::getRejectSampledOutCount);
+
+    /**
+     * Common prefix of all thread pool metric names
+     */
+    public static final String METRIC_NAME_PREFIX = "dynamic.thread-pool";
+
+    /**
+     * Dotted metric name, e.g. {@code dynamic.thread-pool.core.size}
+     */
+    private final String metricName;
+
+    /**
+     * Prometheus compatible metric name, e.g. {@code dynamic_thread_pool_core_size}, counters
+     * end with {@code _total}
+     */
+    private final String prometheusName;
+
+    private final String description;
+
+    private final MetricType type;
+
+    private final Function<ThreadPoolRuntimeContext, Number> extractor;
+
+    ThreadPoolMetricEnum(String name, String description, MetricType type,
+                         Function<ThreadPoolRuntimeContext, Number> extractor) {
+        this.metricName = METRIC_NAME_PREFIX + "." + name;
+        this.prometheusName = toPrometheusName(this.metricName) + (type == MetricType.COUNTER ? "_total" : "");
+        this.description = description;
+        this.type = type;
+        this.extractor = extractor;
+    }
+
+    /**
+     * Read the metric value from a runtime context.
+     *
+     * @param ctx runtime context
+     * @return the value, or {@code -1} when it is unknown for this pool
+     */
+    public long valueOf(ThreadPoolRuntimeContext ctx) {
+        Number value = extractor.apply(ctx);
+        return value == null ? -1L : value.longValue();
+    }
+
+    /**
+     * Convert a dotted name into the Prometheus character set {@code [a-zA-Z0-9_:]}.
+     */
+    public static String toPrometheusName(String name) {
+        StringBuilder builder = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                    || (c >= '0' && c <= '9') || c == '_' || c == ':';
+            builder.append(valid ? c : '_');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * How a metric value behaves over time.
+     */
+    @Getter
+    public enum MetricType {
+
+        /**
+         * Current value that goes up and down
+         */
+        GAUGE("gauge"),
+
+        /**
+         * Cumulative total that only goes up, restarting from 0 when the executor is replaced
+         */
+        COUNTER("counter");
+
+        /**
+         * Type name in the Prometheus {@code # TYPE} line
+         */
+        private final String prometheusType;
+
+        MetricType(String prometheusType) {
+            this.prometheusType = prometheusType;
+        }
+    }
+}
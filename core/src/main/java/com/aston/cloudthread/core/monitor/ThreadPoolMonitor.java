@@ -15,15 +15,22 @@ package com.aston.cloudthread.core.monitor;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.util.StrUtil;
 import com.aston.cloudthread.core.config.ApplicationProperties;
 import com.aston.cloudthread.core.config.BootstrapConfigProperties;
 import com.aston.cloudthread.core.executor.CloudThreadExecutor;
 import com.aston.cloudthread.core.executor.CloudThreadRegistry;
 import com.aston.cloudthread.core.executor.ThreadPoolExecutorWrapper;
+import com.aston.cloudthread.core.executor.ThreadPoolResizeRamp;
+import com.aston.cloudthread.core.executor.support.RejectedTaskStore;
+import com.aston.cloudthread.core.executor.support.RejectionJournal;
+import com.aston.cloudthread.core.executor.support.RejectionRecord;
 import com.aston.cloudthread.core.toolkit.ThreadFactoryBuilder;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
 import lombok.Getter;
@@ -31,7 +38,11 @@ import lombok.Setter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.BlockingQueue;
@@ -40,6 +51,8 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Slf4j
 @Getter
@@ -47,6 +60,10 @@ import java.util.concurrent.TimeUnit;
 public class ThreadPoolMonitor {
     private ScheduledExecutorService scheduler;
     private Map<String, ThreadPoolRuntimeContext> micrometerMonitorCache;
+    private PrometheusMetricsServer prometheusServer;
+    private OtlpMetricsExporter otlpExporter;
+    private StructuredLogCollector structuredLogCollector;
+    private final Consumer<ThreadPoolExecutorWrapper> removalListener = this::onWrapperRemoved;
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
             .enable(SerializationFeature.INDENT_OUTPUT);
@@ -54,6 +71,11 @@ public class ThreadPoolMonitor {
     private static final String DYNAMIC_THREAD_POOL_ID_TAG = METRIC_NAME_PREFIX + ".id";
     private static final String APPLICATION_NAME_TAG = "application.name";
 
+    /**
+     * Journal records attached to each runtime context
+     */
+    private static final int RECENT_REJECTIONS = 5;
+
     /**
      * Setup scheduled checking tasks.
      */
@@ -66,6 +88,7 @@ public class ThreadPoolMonitor {
 
         // init monitor config
         micrometerMonitorCache = new ConcurrentHashMap<>();
+        CloudThreadRegistry.addRemovalListener(removalListener);
         scheduler = Executors.newScheduledThreadPool(
                 1,
                 ThreadFactoryBuilder.builder()
@@ -73,21 +96,50 @@ public class ThreadPoolMonitor {
                         .build()
         );
 
+        if (Objects.equals(monitorConfig.getCollectType(), "prometheus")) {
+            startPrometheusServer(monitorConfig);
+        } else if (Objects.equals(monitorConfig.getCollectType(), "otlp")) {
+            otlpExporter = new OtlpMetricsExporter(
+                    monitorConfig.getOtlpEndpoint(),
+                    monitorConfig.getOtlpTimeoutMillis(),
+                    ApplicationProperties.getApplicationName());
+        } else if (Objects.equals(monitorConfig.getCollectType(), "structured-log")) {
+            startStructuredLogCollector(monitorConfig);
+        }
+
         // setup delay 0 seconds
         scheduler.scheduleWithFixedDelay(() -> {
             Collection<ThreadPoolExecutorWrapper> wrappers =
                     CloudThreadRegistry.getAllWrappers();
+            long timestamp = System.currentTimeMillis();
+            List<ThreadPoolRuntimeContext> batch = new ArrayList<>(wrappers.size());
             for (ThreadPoolExecutorWrapper wrapper : wrappers) {
                 ThreadPoolRuntimeContext runtimeContext =
                         buildThreadPoolRuntimeContext(wrapper);
+                runtimeContext.setTimestamp(timestamp);
+                ThreadPoolRateRegistry.update(timestamp, runtimeContext);
+                if (monitorConfig.getCapacityAdvisorEnable()) {
+                    runtimeContext.setCapacityRecommendation(ThreadPoolCapacityAdvisor.evaluate(wrapper, timestamp));
+                }
+
+                // keep recent samples for alarms and history queries
+                ThreadPoolRuntimeHistoryRegistry.record(timestamp, runtimeContext);
 
                 // check metric collect type
                 if (Objects.equals(monitorConfig.getCollectType(), "log")) {
                     logMonitor(runtimeContext);
                 } else if (Objects.equals(monitorConfig.getCollectType(), "micrometer")) {
                     micrometerMonitor(runtimeContext);
+                } else {
+                    batch.add(runtimeContext);
                 }
             }
+            if (otlpExporter != null) {
+                otlpExporter.export(batch, timestamp);
+            }
+            if (structuredLogCollector != null) {
+                structuredLogCollector.collect(batch, timestamp);
+            }
         }, 0, monitorConfig.getCollectIntervalSeconds(), TimeUnit.SECONDS);
     }
 
@@ -95,9 +147,81 @@ public class ThreadPoolMonitor {
      * Disable monitor scheduled validation
      */
     public void stop() {
+        CloudThreadRegistry.removeRemovalListener(removalListener);
         if (scheduler != null && !scheduler.isShutdown()) {
             scheduler.shutdown();
         }
+        if (prometheusServer != null) {
+            prometheusServer.stop();
+        }
+        if (structuredLogCollector != null) {
+            try {
+                structuredLogCollector.close();
+            } catch (IOException ex) {
+                log.warn("[ThreadPool Monitor] Failed to close structured log file", ex);
+            }
+        }
+    }
+
+    /**
+     * Release the samples, rates, advisor state and meters of a thread pool removed from
+     * the registry.
+     */
+    private void onWrapperRemoved(ThreadPoolExecutorWrapper wrapper) {
+        String threadPoolUID = wrapper.getThreadPoolUID();
+        ThreadPoolRuntimeHistoryRegistry.remove(threadPoolUID);
+        ThreadPoolRateRegistry.remove(threadPoolUID);
+        ThreadPoolCapacityAdvisor.remove(threadPoolUID);
+        if (prometheusServer != null) {
+            prometheusServer.evict(threadPoolUID);
+        }
+        if (micrometerMonitorCache != null && micrometerMonitorCache.remove(threadPoolUID) != null) {
+            for (Meter meter : Metrics.globalRegistry.getMeters()) {
+                if (threadPoolUID.equals(meter.getId().getTag(DYNAMIC_THREAD_POOL_ID_TAG))) {
+                    Metrics.globalRegistry.remove(meter);
+                }
+            }
+        }
+    }
+
+    private void startStructuredLogCollector(BootstrapConfigProperties.MonitorConfig monitorConfig) {
+        try {
+            structuredLogCollector = new StructuredLogCollector(
+                    StructuredLogCollector.Format.of(monitorConfig.getLogFormat()),
+                    StrUtil.isBlank(monitorConfig.getLogFile()) ? null : Paths.get(monitorConfig.getLogFile()),
+                    monitorConfig.getLogFileMaxSizeMb() * 1024L * 1024L,
+                    monitorConfig.getLogFileMaxHistory());
+        } catch (IOException ex) {
+            log.error("[ThreadPool Monitor] Failed to open structured log file {}", monitorConfig.getLogFile(), ex);
+        }
+    }
+
+    private void startPrometheusServer(BootstrapConfigProperties.MonitorConfig monitorConfig) {
+        prometheusServer = new PrometheusMetricsServer(
+                monitorConfig.getPrometheusHost(),
+                monitorConfig.getPrometheusPort(),
+                monitorConfig.getPrometheusPath(),
+                ApplicationProperties.getApplicationName(),
+                this::collectRuntimeContexts);
+        try {
+            prometheusServer.start();
+        } catch (IOException ex) {
+            log.error("[ThreadPool Monitor] Failed to start Prometheus endpoint on port {}",
+                    monitorConfig.getPrometheusPort(), ex);
+        }
+    }
+
+    /**
+     * Build a fresh runtime context for every registered thread pool, used by scrape
+     * based exporters that read the registry on demand.
+     */
+    public List<ThreadPoolRuntimeContext> collectRuntimeContexts() {
+        Collection<ThreadPoolExecutorWrapper> wrappers = CloudThreadRegistry.getAllWrappers();
+        List<ThreadPoolRuntimeContext> contexts = new ArrayList<>(wrappers.size());
+        for (ThreadPoolExecutorWrapper wrapper : wrappers) {
+            contexts.add(buildThreadPoolRuntimeContext(wrapper));
+        }
+        return contexts;
     }
 
     public void logMonitor(ThreadPoolRuntimeContext runtimeContext) {
@@ -135,8 +259,40 @@ public class ThreadPoolMonitor {
         Metrics.gauge(metricName("queue.size"), tags, ctx, ThreadPoolRuntimeContext::getWorkQueueSize);
         Metrics.gauge(metricName("queue.capacity"), tags, ctx, ThreadPoolRuntimeContext::getWorkQueueCapacity);
         Metrics.gauge(metricName("queue.remaining.capacity"), tags, ctx, ThreadPoolRuntimeContext::getWorkQueueRemainingCapacity);
-        Metrics.gauge(metricName("completed.task.count"), tags, ctx, ThreadPoolRuntimeContext::getCompletedTaskCount);
-        Metrics.gauge(metricName("reject.count"), tags, ctx, ThreadPoolRuntimeContext::getRejectCount);
+        // cumulative totals are counters, so rate() and increase() see executor replacements as resets
+        counter(metricName("completed.task.count"), tags, ctx, ThreadPoolRuntimeContext::getCompletedTaskCount);
+        counter(metricName("reject.count"), tags, ctx, ThreadPoolRuntimeContext::getRejectCount);
+        counter(metricName("reject.persisted.count"), tags, ctx, ThreadPoolRuntimeContext::getRejectPersistedCount);
+        counter(metricName("reject.sampled.out.count"), tags, ctx, ThreadPoolRuntimeContext::getRejectSampledOutCount);
+        Metrics.gauge(metricName("throughput"), tags, ctx, ThreadPoolRuntimeContext::getThroughput);
+        Metrics.gauge(metricName("arrival.rate"), tags, ctx, ThreadPoolRuntimeContext::getArrivalRate);
+        Metrics.gauge(metricName("reject.rate"), tags, ctx, ThreadPoolRuntimeContext::getRejectRate);
+        Metrics.gauge(metricName("busy.threads"), tags, ctx, ThreadPoolRuntimeContext::getAvgBusyThreads);
+        Metrics.gauge(metricName("utilization"), tags, ctx, ThreadPoolRuntimeContext::getUtilization);
+        Metrics.gauge(metricName("recommended.core.size"), tags, ctx,
+                c -> c.getCapacityRecommendation() == null ? Double.NaN : c.getCapacityRecommendation().getRecommendedCorePoolSize());
+        Metrics.gauge(metricName("recommended.maximum.size"), tags, ctx,
+                c -> c.getCapacityRecommendation() == null ? Double.NaN : c.getCapacityRecommendation().getRecommendedMaximumPoolSize());
+        Metrics.gauge(metricName("recommended.queue.capacity"), tags, ctx,
+                c -> c.getCapacityRecommendation() == null ? Double.NaN : c.getCapacityRecommendation().getRecommendedQueueCapacity());
+        Metrics.gauge(metricName("saturation.headroom"), tags, ctx,
+                c -> c.getCapacityRecommendation() == null ? Double.NaN : c.getCapacityRecommendation().getSaturationHeadroom());
+        Metrics.gauge(metricName("resize.ramp.progress"), tags, ctx,
+                c -> c.getResizeRamp() == null ? Double.NaN : (double) c.getResizeRamp().getStep() / c.getResizeRamp().getSteps());
+    }
+
+    /**
+     * Register a counter unless the value is unknown for this pool, e.g. rejections of a plain executor.
+     */
+    private void counter(String name, Iterable<Tag> tags, ThreadPoolRuntimeContext ctx,
+                         Function<ThreadPoolRuntimeContext, Long> value) {
+        Long current = value.apply(ctx);
+        if (current == null || current < 0) {
+            return;
+        }
+        FunctionCounter.builder(name, ctx, c -> Objects.requireNonNullElse(value.apply(c), 0L))
+                .tags(tags)
+                .register(Metrics.globalRegistry);
     }
 
     private String metricName(String name) {
@@ -150,8 +306,17 @@ public class ThreadPoolMonitor {
         BlockingQueue<?> queue = executor.getQueue();
 
         long rejectCount = -1L;
+        long rejectPersistedCount = -1L;
+        long rejectSampledOutCount = -1L;
+        List<RejectionRecord> recentRejections = null;
         if (executor instanceof CloudThreadExecutor) {
-            rejectCount = ((CloudThreadExecutor) executor).getRejectCount().get();
+            CloudThreadExecutor cloudThreadExecutor = (CloudThreadExecutor) executor;
+            rejectCount = cloudThreadExecutor.getRejectCount().get();
+            RejectionJournal journal = cloudThreadExecutor.getRejectionJournal();
+            rejectSampledOutCount = journal.getSampledOutCount();
+            recentRejections = journal.latest(RECENT_REJECTIONS);
+            RejectedTaskStore store = cloudThreadExecutor.getRejectedTaskStore();
+            rejectPersistedCount = store != null ? store.getPersistedCount().get() : 0L;
         }
 
         int workQueueSize = queue.size(); // API supports lock, avoid high frequency invoke
@@ -170,6 +335,11 @@ public class ThreadPoolMonitor {
                 .workQueueCapacity(workQueueSize + remainingCapacity)
                 .rejectedHandlerName(executor.getRejectedExecutionHandler().toString())
                 .rejectCount(rejectCount)
+                .rejectPersistedCount(rejectPersistedCount)
+                .rejectSampledOutCount(rejectSampledOutCount)
+                .recentRejections(recentRejections)
+                .taskCount(executor.getTaskCount())  // API supports lock, avoid high frequency invoke
+                .resizeRamp(ThreadPoolResizeRamp.getProgress(wrapper.getThreadPoolUID()))
                 .build();
     }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of per thread pool {@link ThreadPoolRateTracker}s, fed by the
+ * {@link ThreadPoolMonitor} on every sample and read by alarms.
+ */
+public class ThreadPoolRateRegistry {
+
+    /**
+     * Key: thread pool unique ID, value: its rate tracker
+     */
+    private static final Map<String, ThreadPoolRateTracker> TRACKER_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * Fold a sample into the rates of its thread pool and write them into the context.
+     *
+     * @param timestamp sample time in epoch milliseconds
+     * @param ctx       runtime context collected by the monitor
+     */
+    public static void update(long timestamp, ThreadPoolRuntimeContext ctx) {
+        TRACKER_MAP.computeIfAbsent(ctx.getThreadPoolUID(), uid -> new ThreadPoolRateTracker(
+                        BootstrapConfigProperties.getInstance().getMonitorConfig().getRateSmoothingSeconds()))
+                .update(timestamp, ctx);
+    }
+
+    /**
+     * Retrieve the rate tracker of a thread pool.
+     *
+     * @param threadPoolUID unique identifier for the thread pool
+     * @return the tracker, or {@code null} if the pool was not sampled yet
+     */
+    public static ThreadPoolRateTracker getTracker(String threadPoolUID) {
+        return TRACKER_MAP.get(threadPoolUID);
+    }
+
+    public static void remove(String threadPoolUID) {
+        TRACKER_MAP.remove(threadPoolUID);
+    }
+
+    public static void clear() {
+        TRACKER_MAP.clear();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import lombok.Getter;
+
+/**
+ * Turns the cumulative counters of consecutive monitor samples of one thread pool into
+ * per-interval deltas and EWMA smoothed rates.
+ *
+ * <p>The smoothing factor is derived from the elapsed time, {@code alpha = 1 - e^(-dt/tau)},
+ * so the rates behave the same whatever the collect interval is and survive missed
+ * ticks. State is kept in primitive fields only; {@link #update(long, ThreadPoolRuntimeContext)}
+ * writes the results straight into the given context.</p>
+ *
+ * <ul>
+ *     <li><b>throughput</b> - completed tasks per second</li>
+ *     <li><b>arrivalRate</b> - submitted tasks per second, accepted plus rejected</li>
+ *     <li><b>rejectRate</b> - rejected tasks per second</li>
+ *     <li><b>avgBusyThreads</b> - smoothed number of threads executing tasks</li>
+ *     <li><b>utilization</b> - {@code avgBusyThreads / maximumPoolSize}, 0 to 1</li>
+ * </ul>
+ */
+public class ThreadPoolRateTracker {
+
+    private final double smoothingMillis;
+
+    private long lastTimestamp = -1L;
+    private long lastCompletedTaskCount;
+    private long lastTaskCount;
+    private long lastRejectCount;
+    private boolean ratesInitialized;
+
+    @Getter
+    private volatile long completedTaskDelta;
+
+    @Getter
+    private volatile long rejectDelta;
+
+    @Getter
+    private volatile double throughput;
+
+    @Getter
+    private volatile double arrivalRate;
+
+    @Getter
+    private volatile double rejectRate;
+
+    @Getter
+    private volatile double avgBusyThreads;
+
+    @Getter
+    private volatile double utilization;
+
+    /**
+     * @param smoothingSeconds EWMA time constant, larger values react slower
+     */
+    public ThreadPoolRateTracker(long smoothingSeconds) {
+        this.smoothingMillis = Math.max(1L, smoothingSeconds) * 1000.0;
+    }
+
+    /**
+     * Fold a new sample into the rates and write deltas and rates into {@code ctx}.
+     *
+     * @param timestamp sample time in epoch milliseconds
+     * @param ctx       sample collected by the monitor
+     */
+    public synchronized void update(long timestamp, ThreadPoolRuntimeContext ctx) {
+        long completed = valueOf(ctx.getCompletedTaskCount());
+        long tasks = valueOf(ctx.getTaskCount());
+        long rejects = valueOf(ctx.getRejectCount());
+        int active = ctx.getActivePoolSize() == null ? 0 : ctx.getActivePoolSize();
+        int maximum = ctx.getMaximumPoolSize() == null ? 0 : ctx.getMaximumPoolSize();
+
+        if (lastTimestamp < 0 || timestamp <= lastTimestamp) {
+            if (lastTimestamp < 0) {
+                avgBusyThreads = active;
+            }
+        } else {
+            long elapsedMillis = timestamp - lastTimestamp;
+            double seconds = elapsedMillis / 1000.0;
+            // counters only go backwards when the executor was replaced, start over from 0
+            long completedDelta = Math.max(0L, completed - lastCompletedTaskCount);
+            long taskDelta = Math.max(0L, tasks - lastTaskCount);
+            long rejectedDelta = Math.max(0L, rejects - lastRejectCount);
+            double alpha = 1.0 - Math.exp(-elapsedMillis / smoothingMillis);
+
+            completedTaskDelta = completedDelta;
+            rejectDelta = rejectedDelta;
+            if (ratesInitialized) {
+                throughput = ewma(throughput, completedDelta / seconds, alpha);
+                arrivalRate = ewma(arrivalRate, (taskDelta + rejectedDelta) / seconds, alpha);
+                rejectRate = ewma(rejectRate, rejectedDelta / seconds, alpha);
+            } else {
+                throughput = completedDelta / seconds;
+                arrivalRate = (taskDelta + rejectedDelta) / seconds;
+                rejectRate = rejectedDelta / seconds;
+                ratesInitialized = true;
+            }
+            avgBusyThreads = ewma(avgBusyThreads, active, alpha);
+        }
+        utilization = maximum > 0 ? Math.min(1.0, avgBusyThreads / maximum) : 0.0;
+
+        lastTimestamp = timestamp;
+        lastCompletedTaskCount = completed;
+        lastTaskCount = tasks;
+        lastRejectCount = rejects;
+
+        ctx.setCompletedTaskDelta(completedTaskDelta);
+        ctx.setRejectDelta(rejectDelta);
+        ctx.setThroughput(throughput);
+        ctx.setArrivalRate(arrivalRate);
+        ctx.setRejectRate(rejectRate);
+        ctx.setAvgBusyThreads(avgBusyThreads);
+        ctx.setUtilization(utilization);
+    }
+
+    private static double ewma(double previous, double sample, double alpha) {
+        return previous + alpha * (sample - previous);
+    }
+
+    private static long valueOf(Long value) {
+        return value == null || value < 0 ? 0L : value;
+    }
+}
@@ -13,11 +13,15 @@
  */
 package com.aston.cloudthread.core.monitor;
 
+import com.aston.cloudthread.core.executor.ResizeRampProgress;
+import com.aston.cloudthread.core.executor.support.RejectionRecord;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * Thread pool runtime context metadata holder class
  */
@@ -31,6 +35,11 @@ public class ThreadPoolRuntimeContext {
      */
     private String threadPoolUID;
 
+    /**
+     * Sample collect time in epoch milliseconds
+     */
+    private Long timestamp;
+
     /**
      * Thread pool configured inner core thread size
      */
@@ -90,4 +99,69 @@ public class ThreadPoolRuntimeContext {
      * Thread pool reject policy handler invoke time counter
      */
     private Long rejectCount;
+
+    /**
+     * Rejected tasks stored for replay by a persistent rejection journal
+     */
+    private Long rejectPersistedCount;
+
+    /**
+     * Rejections not recorded in the rejection journal because of sampling
+     */
+    private Long rejectSampledOutCount;
+
+    /**
+     * Latest rejections of the rejection journal, oldest first
+     */
+    private List<RejectionRecord> recentRejections;
+
+    /**
+     * Approximate total number of tasks ever scheduled for execution
+     */
+    private Long taskCount;
+
+    /**
+     * Tasks completed since the previous sample
+     */
+    private long completedTaskDelta;
+
+    /**
+     * Tasks rejected since the previous sample
+     */
+    private long rejectDelta;
+
+    /**
+     * EWMA smoothed completed tasks per second
+     */
+    private double throughput;
+
+    /**
+     * EWMA smoothed submitted tasks per second, accepted plus rejected
+     */
+    private double arrivalRate;
+
+    /**
+     * EWMA smoothed rejected tasks per second
+     */
+    private double rejectRate;
+
+    /**
+     * EWMA smoothed number of threads executing tasks
+     */
+    private double avgBusyThreads;
+
+    /**
+     * Average busy threads divided by maximum pool size, 0 to 1
+     */
+    private double utilization;
+
+    /**
+     * Pool sizing advice, {@code null} when the advisor is disabled or lacks data
+     */
+    private CapacityRecommendation capacityRecommendation;
+
+    /**
+     * Progress of the latest gradual resize, {@code null} if the pool was never ramped
+     */
+    private ResizeRampProgress resizeRamp;
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fixed-size ring buffer of recent {@link ThreadPoolRuntimeContext} samples of a
+ * single thread pool.
+ *
+ * <p>Samples are stored column by column in primitive arrays, so recording a sample
+ * allocates nothing and the memory used by a pool is bounded by
+ * {@code capacity * 52} bytes regardless of how long the application runs. Contexts are
+ * only materialized when the history is queried, e.g. when an alarm attaches the
+ * samples leading up to it.</p>
+ *
+ * <p>The monitor thread is the only writer; queries may come from any thread and see
+ * a consistent set of samples.</p>
+ */
+public class ThreadPoolRuntimeHistory {
+
+    /**
+     * Thread pool unique id (UID)
+     */
+    @Getter
+    private final String threadPoolUID;
+
+    /**
+     * Maximum number of samples kept
+     */
+    @Getter
+    private final int capacity;
+
+    private final long[] timestamps;
+    private final int[] corePoolSizes;
+    private final int[] maximumPoolSizes;
+    private final int[] currentPoolSizes;
+    private final int[] activePoolSizes;
+    private final int[] largestPoolSizes;
+    private final int[] workQueueSizes;
+    private final int[] workQueueCapacities;
+    private final long[] completedTaskCounts;
+    private final long[] rejectCounts;
+
+    /**
+     * Latest queue type and rejected policy names, these rarely change and are not
+     * worth a column each.
+     */
+    private String workQueueName;
+    private String rejectedHandlerName;
+
+    /**
+     * Index the next sample is written to
+     */
+    private int head;
+
+    /**
+     * Number of valid samples, at most {@link #capacity}
+     */
+    private int size;
+
+    public ThreadPoolRuntimeHistory(String threadPoolUID, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("History capacity must be greater than 0: " + capacity);
+        }
+        this.threadPoolUID = threadPoolUID;
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.corePoolSizes = new int[capacity];
+        this.maximumPoolSizes = new int[capacity];
+        this.currentPoolSizes = new int[capacity];
+        this.activePoolSizes = new int[capacity];
+        this.largestPoolSizes = new int[capacity];
+        this.workQueueSizes = new int[capacity];
+        this.workQueueCapacities = new int[capacity];
+        this.completedTaskCounts = new long[capacity];
+        this.rejectCounts = new long[capacity];
+    }
+
+    /**
+     * Append a sample, overwriting the oldest one once the buffer is full.
+     *
+     * @param timestamp sample time in epoch milliseconds
+     * @param ctx       runtime context collected by the monitor
+     */
+    public synchronized void record(long timestamp, ThreadPoolRuntimeContext ctx) {
+        int i = head;
+        timestamps[i] = timestamp;
+        corePoolSizes[i] = intValue(ctx.getCorePoolSize());
+        maximumPoolSizes[i] = intValue(ctx.getMaximumPoolSize());
+        currentPoolSizes[i] = intValue(ctx.getCurrentPoolSize());
+        activePoolSizes[i] = intValue(ctx.getActivePoolSize());
+        largestPoolSizes[i] = intValue(ctx.getLargestPoolSize());
+        workQueueSizes[i] = intValue(ctx.getWorkQueueSize());
+        workQueueCapacities[i] = intValue(ctx.getWorkQueueCapacity());
+        completedTaskCounts[i] = longValue(ctx.getCompletedTaskCount());
+        rejectCounts[i] = longValue(ctx.getRejectCount());
+        workQueueName = ctx.getWorkQueueName();
+        rejectedHandlerName = ctx.getRejectedHandlerName();
+
+        head = (i + 1) % capacity;
+        if (size < capacity) {
+            size++;
+        }
+    }
+
+    /**
+     * @return number of samples currently held
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Return the latest samples in chronological order.
+     *
+     * @param limit maximum number of samples to return
+     * @return up to {@code limit} most recent samples, oldest first
+     */
+    public synchronized List<ThreadPoolRuntimeContext> latest(int limit) {
+        int count = Math.min(Math.max(limit, 0), size);
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        List<ThreadPoolRuntimeContext> result = new ArrayList<>(count);
+        for (int n = size - count; n < size; n++) {
+            result.add(toContext(indexOf(n)));
+        }
+        return result;
+    }
+
+    /**
+     * Return all samples taken within the given time range, in chronological order.
+     *
+     * @param fromMillis range start in epoch milliseconds, inclusive
+     * @param toMillis   range end in epoch milliseconds, inclusive
+     * @return matching samples, oldest first
+     */
+    public synchronized List<ThreadPoolRuntimeContext> query(long fromMillis, long toMillis) {
+        if (size == 0 || fromMillis > toMillis) {
+            return Collections.emptyList();
+        }
+        int start = lowerBound(fromMillis);
+        List<ThreadPoolRuntimeContext> result = new ArrayList<>();
+        for (int n = start; n < size; n++) {
+            int i = indexOf(n);
+            if (timestamps[i] > toMillis) {
+                break;
+            }
+            result.add(toContext(i));
+        }
+        return result;
+    }
+
+    /**
+     * Binary search over the logical (chronological) order for the first sample not
+     * older than {@code fromMillis}. Samples are appended with non-decreasing timestamps.
+     */
+    private int lowerBound(long fromMillis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[indexOf(mid)] < fromMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Map a logical position (0 = oldest sample) to a physical array index.
+     */
+    private int indexOf(int logical) {
+        int oldest = size < capacity ? 0 : head;
+        return (oldest + logical) % capacity;
+    }
+
+    private ThreadPoolRuntimeContext toContext(int i) {
+        return ThreadPoolRuntimeContext.builder()
+                .threadPoolUID(threadPoolUID)
+                .timestamp(timestamps[i])
+                .corePoolSize(corePoolSizes[i])
+                .maximumPoolSize(maximumPoolSizes[i])
+                .currentPoolSize(currentPoolSizes[i])
+                .activePoolSize(activePoolSizes[i])
+                .largestPoolSize(largestPoolSizes[i])
+                .workQueueName(workQueueName)
+                .workQueueSize(workQueueSizes[i])
+                .workQueueCapacity(workQueueCapacities[i])
+                .workQueueRemainingCapacity(workQueueCapacities[i] - workQueueSizes[i])
+                .completedTaskCount(completedTaskCounts[i])
+                .rejectedHandlerName(rejectedHandlerName)
+                .rejectCount(rejectCounts[i])
+                .build();
+    }
+
+    private static int intValue(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static long longValue(Long value) {
+        return value != null ? value : 0L;
+    }
+}
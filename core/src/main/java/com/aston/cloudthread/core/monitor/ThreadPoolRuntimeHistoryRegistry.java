@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of per thread pool {@link ThreadPoolRuntimeHistory} ring buffers.
+ *
+ * <p>Histories are created lazily by the {@link ThreadPoolMonitor} on the first sample
+ * of a pool, sized by {@link BootstrapConfigProperties.MonitorConfig#getHistorySize()}.
+ * Alarms and user code read the recent samples through the static query methods.</p>
+ */
+public class ThreadPoolRuntimeHistoryRegistry {
+
+    /**
+     * Key: thread pool unique ID, value: its sample history
+     */
+    private static final Map<String, ThreadPoolRuntimeHistory> HISTORY_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * Record a sample for the thread pool of the given context.
+     *
+     * @param timestamp sample time in epoch milliseconds
+     * @param ctx       runtime context collected by the monitor
+     */
+    public static void record(long timestamp, ThreadPoolRuntimeContext ctx) {
+        ThreadPoolRuntimeHistory history = HISTORY_MAP.get(ctx.getThreadPoolUID());
+        if (history == null) {
+            int capacity = BootstrapConfigProperties.getInstance().getMonitorConfig().getHistorySize();
+            if (capacity <= 0) {
+                return;
+            }
+            history = HISTORY_MAP.computeIfAbsent(ctx.getThreadPoolUID(),
+                    uid -> new ThreadPoolRuntimeHistory(uid, capacity));
+        }
+        history.record(timestamp, ctx);
+    }
+
+    /**
+     * Retrieve the sample history of a thread pool.
+     *
+     * @param threadPoolUID unique identifier for the thread pool
+     * @return the history, or {@code null} if no sample was recorded yet
+     */
+    public static ThreadPoolRuntimeHistory getHistory(String threadPoolUID) {
+        return HISTORY_MAP.get(threadPoolUID);
+    }
+
+    /**
+     * Return the latest samples of a thread pool, oldest first.
+     *
+     * @param threadPoolUID unique identifier for the thread pool
+     * @param limit         maximum number of samples to return
+     * @return recent samples, empty if the pool has no history
+     */
+    public static List<ThreadPoolRuntimeContext> latest(String threadPoolUID, int limit) {
+        ThreadPoolRuntimeHistory history = HISTORY_MAP.get(threadPoolUID);
+        return history != null ? history.latest(limit) : Collections.emptyList();
+    }
+
+    /**
+     * Return the samples of a thread pool taken within a time range, oldest first.
+     *
+     * @param threadPoolUID unique identifier for the thread pool
+     * @param fromMillis    range start in epoch milliseconds, inclusive
+     * @param toMillis      range end in epoch milliseconds, inclusive
+     * @return matching samples, empty if the pool has no history
+     */
+    public static List<ThreadPoolRuntimeContext> query(String threadPoolUID, long fromMillis, long toMillis) {
+        ThreadPoolRuntimeHistory history = HISTORY_MAP.get(threadPoolUID);
+        return history != null ? history.query(fromMillis, toMillis) : Collections.emptyList();
+    }
+
+    /**
+     * Drop the history of a thread pool.
+     *
+     * @param threadPoolUID unique identifier for the thread pool
+     */
+    public static void remove(String threadPoolUID) {
+        HISTORY_MAP.remove(threadPoolUID);
+    }
+
+    public static void clear() {
+        HISTORY_MAP.clear();
+    }
+}
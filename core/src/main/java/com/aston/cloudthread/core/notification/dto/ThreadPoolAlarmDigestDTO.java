@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Thread pool alarm digest entity, the alarms of one application and alarm type raised
+ * within an aggregation window.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThreadPoolAlarmDigestDTO {
+    /**
+     * Application Name
+     */
+    private String applicationName;
+
+    /**
+     * Application active profile
+     */
+    private String activeProfile;
+
+    /**
+     * Application identify (App UID)
+     */
+    private String identify;
+
+    /**
+     * Alarm type shared by all alarms of the digest
+     */
+    private String alarmType;
+
+    /**
+     * Alarm subscriber list in string, split by ','
+     */
+    private String subscribers;
+
+    /**
+     * Time the first alarm of the digest was raised, epoch millis
+     */
+    private long windowStart;
+
+    /**
+     * Time the digest was flushed, epoch millis
+     */
+    private long windowEnd;
+
+    /**
+     * Alarms of the digest, the latest one per thread pool
+     */
+    private List<ThreadPoolAlarmNotifyDTO> alarms;
+}
@@ -13,6 +13,8 @@
  */
 package com.aston.cloudthread.core.notification.dto;
 
+import com.aston.cloudthread.core.executor.support.RejectionRecord;
+import com.aston.cloudthread.core.monitor.ThreadPoolRuntimeContext;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +22,7 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.experimental.Accessors;
 
+import java.util.List;
 import java.util.function.Supplier;
 
 
@@ -58,7 +61,7 @@ public class ThreadPoolAlarmNotifyDTO {
     private String subscribers;
 
     /**
-     * Alarm type: Capacity, Activity, Reject
+     * Alarm type: Capacity, Activity, Reject, QueueWaitP99, ExecutionP99, BurnRate
      */
     private String alarmType;
 
@@ -122,6 +125,41 @@ public class ThreadPoolAlarmNotifyDTO {
      */
     private Long rejectCount;
 
+    /**
+     * Tasks completed since the previous sample
+     */
+    private long completedTaskDelta;
+
+    /**
+     * Tasks rejected since the previous sample
+     */
+    private long rejectDelta;
+
+    /**
+     * EWMA smoothed completed tasks per second
+     */
+    private double throughput;
+
+    /**
+     * EWMA smoothed submitted tasks per second, accepted plus rejected
+     */
+    private double arrivalRate;
+
+    /**
+     * EWMA smoothed rejected tasks per second
+     */
+    private double rejectRate;
+
+    /**
+     * EWMA smoothed number of threads executing tasks
+     */
+    private double avgBusyThreads;
+
+    /**
+     * Average busy threads divided by maximum pool size, 0 to 1
+     */
+    private double utilization;
+
     /**
      * Current timestamp
      */
@@ -132,6 +170,42 @@ public class ThreadPoolAlarmNotifyDTO {
      */
     private Integer intervalMinutes;
 
+    /**
+     * Alarm rule that evaluated the threshold: instant, sustained, window or ewma
+     */
+    private String alarmRule;
+
+    /**
+     * Rule statistic compared with the threshold, e.g. the usage percentage, its EWMA or
+     * the breaching share of the window
+     */
+    private Double alarmValue;
+
+    /**
+     * Threshold the statistic was compared with, the clear threshold for recoveries
+     */
+    private Double alarmThreshold;
+
+    /**
+     * Whether this message reports the recovery of a raised alarm
+     */
+    private Boolean recovered;
+
+    /**
+     * Seconds the alarm was raised for, set on recoveries
+     */
+    private Long alarmDurationSeconds;
+
+    /**
+     * Most recent monitor samples of the thread pool leading up to the alarm, oldest first
+     */
+    private List<ThreadPoolRuntimeContext> recentSamples;
+
+    /**
+     * Latest rejections of the rejection journal, oldest first
+     */
+    private List<RejectionRecord> recentRejections;
+
     @ToString.Exclude
     private transient Supplier<ThreadPoolAlarmNotifyDTO> supplier;
 
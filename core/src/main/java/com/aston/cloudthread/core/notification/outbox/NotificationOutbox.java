@@ -0,0 +1,336 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, append-only outbox for rendered notifications.
+ *
+ * <p>Every notification is appended before its delivery and acknowledged after the
+ * platform accepted it; whatever is not acknowledged is replayed, which gives
+ * at-least-once delivery across endpoint outages and restarts.</p>
+ *
+ * <p>Storage is a directory of segment files {@code outbox-<sequence>.log} written through
+ * a NIO {@link FileChannel} in append mode. Each record is framed as
+ * {@code [int length][int crc32][body]}, the body being either a message
+ * {@code [1][long id][long timestamp][channel][title][text]} or an acknowledgement
+ * {@code [2][long id]}; strings are {@code [int length][utf-8 bytes]}. A segment is rolled
+ * when it reaches {@code segmentBytes}. Segments are deleted oldest first once all their
+ * messages are acknowledged, and when more than {@code maxSegments} exist the oldest one is
+ * dropped together with its pending messages, which bounds disk usage.</p>
+ *
+ * <p>On open, all segments are scanned to rebuild the pending messages; a torn record at
+ * the end of a segment ends the scan of that segment. New records always go to a fresh
+ * segment. Writes are not forced to disk, so pending messages survive process restarts
+ * but an operating system crash may lose the latest ones.</p>
+ */
+@Slf4j
+public class NotificationOutbox implements Closeable {
+
+    private static final byte MESSAGE = 1;
+    private static final byte ACK = 2;
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "outbox-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxSegments;
+
+    /**
+     * Pending records by id, in append order
+     */
+    private final Map<Long, OutboxRecord> pending = new ConcurrentSkipListMap<>();
+
+    /**
+     * Segments by sequence, guarded by this
+     */
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    private Segment active;
+    private FileChannel activeChannel;
+    private long nextId = 1L;
+
+    public NotificationOutbox(Path directory, long segmentBytes, int maxSegments) throws IOException {
+        if (segmentBytes <= 0) {
+            throw new IllegalArgumentException("segmentBytes must be greater than 0");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = Math.max(2, maxSegments);
+        Files.createDirectories(directory);
+        recover();
+        synchronized (this) {
+            openSegment(segments.isEmpty() ? 1L : segments.lastKey() + 1);
+            deleteAcknowledgedSegments();
+        }
+        if (!pending.isEmpty()) {
+            log.info("[CloudThread] Notification outbox recovered {} undelivered messages from {}", pending.size(), directory);
+        }
+    }
+
+    /**
+     * Record a notification before it is delivered. The returned record is claimed by
+     * the caller.
+     *
+     * @return the record, or {@code null} if it could not be written
+     */
+    public synchronized OutboxRecord append(String channel, String title, String text) {
+        long id = nextId++;
+        long timestamp = System.currentTimeMillis();
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(64 + title.length() + text.length() * 2);
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeByte(MESSAGE);
+            out.writeLong(id);
+            out.writeLong(timestamp);
+            writeString(out, channel);
+            writeString(out, title);
+            writeString(out, text);
+            if (active.size > 0 && active.size + FRAME_HEADER_BYTES + body.size() > segmentBytes) {
+                rollSegment();
+            }
+            writeFrame(body.toByteArray());
+        } catch (IOException ex) {
+            log.error("[CloudThread] Failed to append to notification outbox {}", directory, ex);
+            return null;
+        }
+        OutboxRecord record = new OutboxRecord(id, active.sequence, channel, title, text, timestamp, true);
+        active.pending++;
+        pending.put(id, record);
+        return record;
+    }
+
+    /**
+     * Mark a record as delivered.
+     */
+    public synchronized void ack(OutboxRecord record) {
+        if (pending.remove(record.getId()) == null) {
+            return;
+        }
+        try {
+            ByteBuffer body = ByteBuffer.allocate(9).put(ACK).putLong(record.getId());
+            writeFrame(body.array());
+        } catch (IOException ex) {
+            // worst case the record is delivered again after a restart
+            log.warn("[CloudThread] Failed to write outbox acknowledgement for record {}", record.getId(), ex);
+        }
+        Segment segment = segments.get(record.getSegment());
+        if (segment != null) {
+            segment.pending--;
+        }
+        deleteAcknowledgedSegments();
+    }
+
+    /**
+     * @return the pending records of a channel, oldest first
+     */
+    public List<OutboxRecord> pending(String channel) {
+        List<OutboxRecord> result = new ArrayList<>();
+        for (OutboxRecord record : pending.values()) {
+            if (record.getChannel().equals(channel)) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    public boolean hasPending(String channel) {
+        for (OutboxRecord record : pending.values()) {
+            if (record.getChannel().equals(channel)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (activeChannel != null) {
+            activeChannel.close();
+            activeChannel = null;
+        }
+    }
+
+    private void recover() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    long sequence = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(sequence, new Segment(sequence, path));
+                } catch (NumberFormatException ignored) {
+                    // not a segment
+                }
+            }
+        }
+        for (Segment segment : segments.values()) {
+            scan(segment);
+        }
+    }
+
+    private void scan(Segment segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment.path));
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= FRAME_HEADER_BYTES) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 9 || length > buffer.remaining()) {
+                log.warn("[CloudThread] Truncated record in notification outbox segment {}", segment.path);
+                return;
+            }
+            crc.reset();
+            crc.update(buffer.array(), buffer.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                log.warn("[CloudThread] Corrupt record in notification outbox segment {}", segment.path);
+                return;
+            }
+            int end = buffer.position() + length;
+            byte type = buffer.get();
+            long id = buffer.getLong();
+            nextId = Math.max(nextId, id + 1);
+            if (type == MESSAGE) {
+                long timestamp = buffer.getLong();
+                String channel = readString(buffer);
+                String title = readString(buffer);
+                String text = readString(buffer);
+                pending.put(id, new OutboxRecord(id, segment.sequence, channel, title, text, timestamp, false));
+                segment.pending++;
+            } else if (type == ACK) {
+                OutboxRecord record = pending.remove(id);
+                if (record != null) {
+                    Segment owner = segments.get(record.getSegment());
+                    if (owner != null) {
+                        owner.pending--;
+                    }
+                }
+            }
+            buffer.position(end);
+        }
+    }
+
+    private void writeFrame(byte[] body) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + body.length)
+                .putInt(body.length)
+                .putInt((int) crc.getValue())
+                .put(body);
+        frame.flip();
+        while (frame.hasRemaining()) {
+            active.size += activeChannel.write(frame);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        activeChannel.close();
+        openSegment(active.sequence + 1);
+        while (segments.size() > maxSegments) {
+            dropOldestSegment();
+        }
+    }
+
+    private void openSegment(long sequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        activeChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        active = new Segment(sequence, path);
+        active.size = activeChannel.size();
+        segments.put(sequence, active);
+    }
+
+    private void dropOldestSegment() throws IOException {
+        Segment oldest = segments.pollFirstEntry().getValue();
+        int dropped = 0;
+        Iterator<OutboxRecord> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getSegment() == oldest.sequence) {
+                iterator.remove();
+                dropped++;
+            }
+        }
+        Files.deleteIfExists(oldest.path);
+        if (dropped > 0) {
+            log.warn("[CloudThread] Notification outbox is full, dropped {} undelivered messages", dropped);
+        }
+    }
+
+    /**
+     * Delete fully acknowledged segments from the oldest on, so acknowledgements never
+     * outlive the messages they refer to.
+     */
+    private void deleteAcknowledgedSegments() {
+        while (!segments.isEmpty()) {
+            Segment oldest = segments.firstEntry().getValue();
+            if (oldest == active || oldest.pending > 0) {
+                return;
+            }
+            segments.pollFirstEntry();
+            try {
+                Files.deleteIfExists(oldest.path);
+            } catch (IOException ex) {
+                log.warn("[CloudThread] Failed to delete notification outbox segment {}", oldest.path, ex);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static final class Segment {
+
+        private final long sequence;
+        private final Path path;
+        private long size;
+        private int pending;
+
+        Segment(long sequence, Path path) {
+            this.sequence = sequence;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.outbox;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One rendered notification kept by the {@link NotificationOutbox} until its channel
+ * accepted it.
+ */
+@Getter
+public class OutboxRecord {
+
+    /**
+     * Id, increasing in append order
+     */
+    private final long id;
+
+    /**
+     * Sequence of the segment file holding the record
+     */
+    private final long segment;
+
+    /**
+     * Name of the notification channel the record is for
+     */
+    private final String channel;
+
+    private final String title;
+
+    private final String text;
+
+    /**
+     * Append time, epoch millis
+     */
+    private final long timestamp;
+
+    /**
+     * Set while a thread is delivering the record, so first attempts and replays do
+     * not send it twice concurrently
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean claimed;
+
+    OutboxRecord(long id, long segment, String channel, String title, String text, long timestamp, boolean claimed) {
+        this.id = id;
+        this.segment = segment;
+        this.channel = channel;
+        this.title = title;
+        this.text = text;
+        this.timestamp = timestamp;
+        this.claimed = new AtomicBoolean(claimed);
+    }
+
+    /**
+     * @return {@code true} if the caller now owns the delivery of the record
+     */
+    public boolean claim() {
+        return claimed.compareAndSet(false, true);
+    }
+
+    /**
+     * Give up the delivery after a failed attempt, the record stays pending.
+     */
+    public void release() {
+        claimed.set(false);
+    }
+}
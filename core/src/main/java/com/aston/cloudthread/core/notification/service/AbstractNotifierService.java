@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmDigestDTO;
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmNotifyDTO;
+import com.aston.cloudthread.core.notification.dto.ThreadPoolConfigChangeDTO;
+import com.aston.cloudthread.core.notification.dto.WebThreadPoolConfigChangeDTO;
+import com.aston.cloudthread.core.notification.template.NotificationTemplates;
+import com.aston.cloudthread.core.notification.template.TemplateMarkup;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Base class of the notification platforms.
+ *
+ * <p>Renders configuration changes, alarms, recoveries and alarm digests into a title and
+ * a text body through the shared {@link NotificationTemplates}, and leaves the delivery to
+ * the platform through {@link #deliver(String, String)}. Platforms adjust the markup with
+ * {@link #bold(String)} and {@link #codeBlock(String)}.</p>
+ *
+ * <p>A {@link #setSink(BiConsumer) sink} can take over the rendered messages, e.g. to record
+ * them in a notification outbox before calling {@link #deliverRendered(String, String)}.</p>
+ */
+public abstract class AbstractNotifierService implements NotifierService {
+
+    private final TemplateMarkup markup = new TemplateMarkup() {
+        @Override
+        public String bold(String text) {
+            return AbstractNotifierService.this.bold(text);
+        }
+
+        @Override
+        public String codeBlock(String text) {
+            return AbstractNotifierService.this.codeBlock(text);
+        }
+    };
+
+    private volatile BiConsumer<String, String> sink = this::deliver;
+
+    @Override
+    public void sendChangeMessage(ThreadPoolConfigChangeDTO configChangeDTO) {
+        String text = NotificationTemplates.change().render(configChangeDTO, markup);
+        sink.accept("Thread Pool Configuration Change Notification", text);
+    }
+
+    @Override
+    public void sendWebChangeMessage(WebThreadPoolConfigChangeDTO configChangeDTO) {
+        String text = NotificationTemplates.webChange().render(configChangeDTO, markup);
+        sink.accept(configChangeDTO.getWebContainerName() + " Thread Pool Notification", text);
+    }
+
+    @Override
+    public void sendAlarmMessage(ThreadPoolAlarmNotifyDTO alarm) {
+        String text = NotificationTemplates.alarm().render(alarm, markup);
+        sink.accept("Thread Pool Alarm Notification", text);
+    }
+
+    @Override
+    public void sendRecoveryMessage(ThreadPoolAlarmNotifyDTO recovery) {
+        String text = NotificationTemplates.recovery().render(recovery, markup);
+        sink.accept("Thread Pool Alarm Recovery Notification", text);
+    }
+
+    @Override
+    public void sendAlarmDigestMessage(ThreadPoolAlarmDigestDTO digest) {
+        String text = NotificationTemplates.alarmDigest().render(digest, markup);
+        sink.accept("Thread Pool Alarm Digest Notification", text);
+    }
+
+    /**
+     * Deliver one rendered message to the platform.
+     *
+     * @param title message title
+     * @param text  rendered message body
+     * @throws RuntimeException if the platform did not accept the message, so the
+     *                          dispatcher can count the failure
+     */
+    protected abstract void deliver(String title, String text);
+
+    /**
+     * Route rendered messages to {@code sink} instead of delivering them directly.
+     */
+    public void setSink(BiConsumer<String, String> sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Deliver an already rendered message, bypassing the sink.
+     */
+    public void deliverRendered(String title, String text) {
+        deliver(title, text);
+    }
+
+    /**
+     * Emphasize a message header, Slack style by default.
+     */
+    protected String bold(String text) {
+        return "*" + text + "*";
+    }
+
+    /**
+     * Render fixed-width text such as the digest table.
+     */
+    protected String codeBlock(String text) {
+        return "```\n" + text + "```";
+    }
+}
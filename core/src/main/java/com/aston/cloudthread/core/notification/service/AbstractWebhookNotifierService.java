@@ -0,0 +1,80 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Base class of the platforms reached through an incoming webhook.
+ *
+ * <p>Posts the JSON payload built by {@link #buildPayload(String, String)} to the webhook
+ * URL. Connecting and waiting for the response are both bounded by the configured
+ * timeout, and any non-2xx response counts as a failed delivery.</p>
+ */
+public abstract class AbstractWebhookNotifierService extends AbstractNotifierService {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final URI url;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    protected AbstractWebhookNotifierService(String url, long timeoutMillis) {
+        this.url = URI.create(url);
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    /**
+     * Build the platform's JSON payload for one message.
+     */
+    protected abstract Map<String, Object> buildPayload(String title, String text);
+
+    @Override
+    protected void deliver(String title, String text) {
+        byte[] body;
+        try {
+            body = OBJECT_MAPPER.writeValueAsBytes(buildPayload(title, text));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to encode notification payload", ex);
+        }
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException ex) {
+            throw new IllegalStateException("Webhook request to " + url.getHost() + " failed: " + ex, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Webhook request interrupted", ex);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Webhook responded with HTTP " + response.statusCode() + ": " + response.body());
+        }
+    }
+}
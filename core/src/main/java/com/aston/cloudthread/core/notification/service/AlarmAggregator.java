@@ -0,0 +1,146 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmDigestDTO;
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmNotifyDTO;
+import com.aston.cloudthread.core.toolkit.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Thread Pool Alarm Aggregator
+ *
+ * <p>Groups alarms by application and alarm type. The first alarm of a group opens a
+ * window, alarms arriving until the window closes join the group, and the group is then
+ * handed to the flusher as one {@link ThreadPoolAlarmDigestDTO}. A pool alarming more than
+ * once within a window only keeps its latest alarm, so a digest has one row per pool.</p>
+ *
+ * <p>Alarms should be resolved before they are added, the digest is flushed from the
+ * aggregator's own scheduler thread.</p>
+ */
+@Slf4j
+public class AlarmAggregator {
+
+    private final Consumer<ThreadPoolAlarmDigestDTO> flusher;
+
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            ThreadFactoryBuilder.builder()
+                    .namePrefix("scheduler_thread-pool_alarm_aggregator")
+                    .daemon(true)
+                    .build()
+    );
+
+    public AlarmAggregator(Consumer<ThreadPoolAlarmDigestDTO> flusher) {
+        this.flusher = flusher;
+    }
+
+    /**
+     * Add an alarm to the group of its application and alarm type, opening a new window
+     * of {@code windowMillis} if the group has none.
+     */
+    public void add(ThreadPoolAlarmNotifyDTO alarm, long windowMillis) {
+        String key = alarm.getApplicationName() + "|" + alarm.getAlarmType();
+        long now = System.currentTimeMillis();
+        boolean[] opened = new boolean[1];
+        Group group = groups.compute(key, (k, existing) -> {
+            Group target = existing;
+            if (target == null) {
+                target = new Group(now);
+                opened[0] = true;
+            }
+            // runs under the map's lock for this key, so a flush sees every added alarm
+            target.alarms.put(alarm.getThreadPoolUID(), alarm);
+            return target;
+        });
+        if (opened[0]) {
+            scheduler.schedule(() -> flush(key, group), windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Flush all open groups right away, e.g. on shutdown.
+     */
+    public void flushAll() {
+        for (Map.Entry<String, Group> entry : groups.entrySet()) {
+            flush(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public void shutdown() {
+        flushAll();
+        scheduler.shutdownNow();
+    }
+
+    private void flush(String key, Group group) {
+        if (!groups.remove(key, group)) {
+            return;
+        }
+        try {
+            flusher.accept(toDigest(group));
+        } catch (Throwable ex) {
+            log.error("[CloudThread] Failed to send alarm digest: {}", key, ex);
+        }
+    }
+
+    private ThreadPoolAlarmDigestDTO toDigest(Group group) {
+        ThreadPoolAlarmNotifyDTO first = group.alarms.values().iterator().next();
+        Set<String> subscribers = new LinkedHashSet<>();
+        for (ThreadPoolAlarmNotifyDTO alarm : group.alarms.values()) {
+            if (alarm.getSubscribers() != null) {
+                for (String subscriber : alarm.getSubscribers().split(",")) {
+                    if (!subscriber.trim().isEmpty()) {
+                        subscribers.add(subscriber.trim());
+                    }
+                }
+            }
+        }
+        return ThreadPoolAlarmDigestDTO.builder()
+                .applicationName(first.getApplicationName())
+                .activeProfile(first.getActiveProfile())
+                .identify(first.getIdentify())
+                .alarmType(first.getAlarmType())
+                .subscribers(String.join(",", subscribers))
+                .windowStart(group.windowStart)
+                .windowEnd(System.currentTimeMillis())
+                .alarms(new ArrayList<>(group.alarms.values()))
+                .build();
+    }
+
+    private static class Group {
+
+        private final long windowStart;
+
+        /**
+         * Latest alarm per thread pool, guarded by the aggregator map's per-key lock
+         */
+        private final Map<String, ThreadPoolAlarmNotifyDTO> alarms = new LinkedHashMap<>();
+
+        Group(long windowStart) {
+            this.windowStart = windowStart;
+        }
+    }
+}
@@ -13,8 +13,10 @@
  */
 package com.aston.cloudthread.core.notification.service;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import com.aston.cloudthread.core.alarm.AlarmTypeEnum;
+import com.aston.cloudthread.core.executor.CloudThreadRegistry;
+
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Thread Pool Alarm Rate Limiter
@@ -22,34 +24,94 @@ import java.util.concurrent.ConcurrentHashMap;
  * This class provides a simple rate-limiting mechanism for thread pool alarms.
  * It ensures that repeated alarms of the same type for a specific thread pool
  * are suppressed if they occur within a configured interval.
+ * <p>
+ * The last alarm time of every pool and alarm type is kept in one flat
+ * {@link AtomicLongArray}, addressed by the pool index assigned by
+ * {@link CloudThreadRegistry} and the ordinal of the {@link AlarmTypeEnum}. Checks are a
+ * single compare-and-set and allocate nothing. The array grows with the highest pool
+ * index and the slots of a pool are reset when it is removed from the registry, so a
+ * pool reusing the index starts unsuppressed.
  */
 public class AlarmRateLimiter {
+
+    private static final int INITIAL_POOL_CAPACITY = 64;
+
     /**
-     * Alarm record cache. Key format: threadPoolUID + "|" + alarmType
+     * Last alarm time in epoch millis per slot, 0 if the alarm has not fired yet.
+     * Slot: poolIndex * alarm type count + alarm type ordinal
      */
-    private static final Map<String, Long> ALARM_RECORD = new ConcurrentHashMap<>();
+    private static volatile AtomicLongArray lastAlarmTimes =
+            new AtomicLongArray(INITIAL_POOL_CAPACITY * AlarmTypeEnum.size());
+
+    static {
+        CloudThreadRegistry.addRemovalListener(wrapper -> reset(wrapper.getPoolIndex()));
+    }
 
     /**
      * Checks whether an alarm is allowed to be sent based on the configured interval.
      *
-     * @param threadPoolUID    Thread pool ID
+     * @param poolIndex       Thread pool index, see {@code ThreadPoolExecutorWrapper#getPoolIndex()}
      * @param alarmType       Type of the alarm
      * @param intervalMinutes Minimum interval between alarms in minutes
      * @return true if sending is allowed; false if it should be suppressed
      */
-    public static boolean allowAlarm(String threadPoolUID, String alarmType, int intervalMinutes) {
-        String key = buildKey(threadPoolUID, alarmType);
-        long currentTime = System.currentTimeMillis();
+    public static boolean allowAlarm(int poolIndex, AlarmTypeEnum alarmType, int intervalMinutes) {
+        return allowAlarm(poolIndex, alarmType, intervalMinutes, System.currentTimeMillis());
+    }
 
-        return ALARM_RECORD.compute(key, (k, lastTime) -> {
-            if (lastTime == null || (currentTime - lastTime) > intervalMinutes * 60 * 1000L) {
-                return currentTime; // Update to current time
+    static boolean allowAlarm(int poolIndex, AlarmTypeEnum alarmType, int intervalMinutes, long currentTime) {
+        if (poolIndex < 0) {
+            // not registered, nothing to key the suppression on
+            return true;
+        }
+        int slot = poolIndex * AlarmTypeEnum.size() + alarmType.ordinal();
+        AtomicLongArray times = ensureCapacity(slot);
+        long intervalMillis = intervalMinutes * 60 * 1000L;
+        while (true) {
+            long lastTime = times.get(slot);
+            if (lastTime != 0L && (currentTime - lastTime) <= intervalMillis) {
+                return false;
             }
-            return lastTime; // Keep original time
-        }) == currentTime; // Equal to current time means sending is allowed
+            if (times.compareAndSet(slot, lastTime, currentTime)) {
+                return true;
+            }
+        }
     }
 
-    private static String buildKey(String threadPoolUID, String alarmType) {
-        return threadPoolUID + "|" + alarmType;
+    /**
+     * Forget the alarm times of a thread pool.
+     *
+     * @param poolIndex Thread pool index
+     */
+    public static void reset(int poolIndex) {
+        AtomicLongArray times = lastAlarmTimes;
+        int from = poolIndex * AlarmTypeEnum.size();
+        if (poolIndex < 0 || from >= times.length()) {
+            return;
+        }
+        for (int i = 0; i < AlarmTypeEnum.size(); i++) {
+            times.set(from + i, 0L);
+        }
+    }
+
+    private static AtomicLongArray ensureCapacity(int slot) {
+        AtomicLongArray times = lastAlarmTimes;
+        if (slot < times.length()) {
+            return times;
+        }
+        synchronized (AlarmRateLimiter.class) {
+            times = lastAlarmTimes;
+            if (slot >= times.length()) {
+                // an alarm recorded into the old array while copying is lost, which at
+                // worst lets one duplicate alarm through
+                AtomicLongArray grown = new AtomicLongArray(Math.max(times.length() * 2, slot + AlarmTypeEnum.size()));
+                for (int i = 0; i < times.length(); i++) {
+                    grown.set(i, times.get(i));
+                }
+                lastAlarmTimes = grown;
+                times = grown;
+            }
+            return times;
+        }
     }
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Discord notification service via channel webhook.
+ */
+public class DiscordMessageService extends AbstractWebhookNotifierService {
+
+    /**
+     * Discord rejects message contents longer than this
+     */
+    private static final int MAX_CONTENT_LENGTH = 2000;
+
+    public DiscordMessageService(String url, long timeoutMillis) {
+        super(url, timeoutMillis);
+    }
+
+    @Override
+    protected Map<String, Object> buildPayload(String title, String text) {
+        String content = "**" + title + "**\n" + text;
+        if (content.length() > MAX_CONTENT_LENGTH) {
+            content = content.substring(0, MAX_CONTENT_LENGTH - 3) + "...";
+        }
+        return Collections.singletonMap("content", content);
+    }
+
+    @Override
+    protected String bold(String text) {
+        return "**" + text + "**";
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Email notification service, talks SMTP directly so no mail library is needed.
+ *
+ * <p>Supports SMTP over TLS ({@code smtps}, port 465 unless configured otherwise) and plain SMTP,
+ * which is upgraded with {@code STARTTLS} whenever the server offers it. The server certificate
+ * must match the configured host. {@code AUTH LOGIN} is only sent over TLS: credentials on a
+ * server without {@code STARTTLS} fail the delivery instead of going out in cleartext. The
+ * message is sent as UTF-8 plain text with a base64 body; every socket operation is bounded
+ * by the configured timeout.</p>
+ */
+public class EmailMessageService extends AbstractNotifierService {
+
+    private static final int SMTP_PORT = 25;
+    private static final int SMTPS_PORT = 465;
+
+    private final String host;
+    private final int port;
+    private final boolean ssl;
+    private final String username;
+    private final String password;
+    private final String from;
+    private final List<String> recipients = new ArrayList<>();
+    private final int timeoutMillis;
+
+    public EmailMessageService(String host,
+                               Integer port,
+                               boolean ssl,
+                               String username,
+                               String password,
+                               String from,
+                               String to,
+                               long timeoutMillis) {
+        if (host == null || from == null || to == null) {
+            throw new IllegalArgumentException("Email notification requires smtpHost, from and to");
+        }
+        this.host = host;
+        this.port = port != null ? port : (ssl ? SMTPS_PORT : SMTP_PORT);
+        this.ssl = ssl;
+        this.username = username;
+        this.password = password;
+        this.from = from;
+        for (String recipient : to.split(",")) {
+            if (!recipient.trim().isEmpty()) {
+                recipients.add(recipient.trim());
+            }
+        }
+        this.timeoutMillis = (int) timeoutMillis;
+    }
+
+    @Override
+    protected void deliver(String title, String text) {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            if (ssl) {
+                socket = startTls(socket);
+            }
+            BufferedReader in = reader(socket);
+            OutputStream out = socket.getOutputStream();
+
+            expect(in, 220);
+            List<String> extensions = command(out, in, "EHLO " + localHostName(), 250);
+            if (!ssl && extensions.contains("STARTTLS")) {
+                command(out, in, "STARTTLS", 220);
+                socket = startTls(socket);
+                // a fresh reader, nothing the server sent before the handshake is trusted
+                in = reader(socket);
+                out = socket.getOutputStream();
+                command(out, in, "EHLO " + localHostName(), 250);
+            }
+            if (username != null && !username.isEmpty()) {
+                if (!(socket instanceof SSLSocket)) {
+                    throw new IOException("server offers no STARTTLS, refusing to send credentials in cleartext");
+                }
+                command(out, in, "AUTH LOGIN", 334);
+                command(out, in, base64(username), 334);
+                command(out, in, base64(password == null ? "" : password), 235);
+            }
+            command(out, in, "MAIL FROM:<" + from + ">", 250);
+            for (String recipient : recipients) {
+                command(out, in, "RCPT TO:<" + recipient + ">", 250);
+            }
+            command(out, in, "DATA", 354);
+            out.write(buildMessage(title, text).getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            expect(in, 250);
+            write(out, "QUIT");
+        } catch (IOException ex) {
+            throw new IllegalStateException("SMTP delivery to " + host + ":" + port + " failed: " + ex, ex);
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // connection is gone either way
+            }
+        }
+    }
+
+    /**
+     * Layer TLS over the connected socket, checking the certificate against the configured host.
+     */
+    private Socket startTls(Socket socket) throws IOException {
+        SSLSocket tls = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault()).createSocket(socket, host, port, true);
+        SSLParameters parameters = tls.getSSLParameters();
+        parameters.setEndpointIdentificationAlgorithm("HTTPS");
+        tls.setSSLParameters(parameters);
+        tls.startHandshake();
+        return tls;
+    }
+
+    @Override
+    protected String bold(String text) {
+        return text;
+    }
+
+    @Override
+    protected String codeBlock(String text) {
+        return text;
+    }
+
+    private String buildMessage(String title, String text) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("From: ").append(from).append("\r\n")
+                .append("To: ").append(String.join(", ", recipients)).append("\r\n")
+                .append("Subject: =?UTF-8?B?").append(base64(title)).append("?=\r\n")
+                .append("Date: ").append(DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now())).append("\r\n")
+                .append("MIME-Version: 1.0\r\n")
+                .append("Content-Type: text/plain; charset=UTF-8\r\n")
+                .append("Content-Transfer-Encoding: base64\r\n")
+                .append("\r\n");
+        // MIME lines never start with a dot, so no dot-stuffing is needed
+        String body = Base64.getMimeEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+        return sb.append(body).append("\r\n.\r\n").toString();
+    }
+
+    private static List<String> command(OutputStream out, BufferedReader in, String line, int expectedCode) throws IOException {
+        write(out, line);
+        return expect(in, expectedCode);
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+    }
+
+    private static void write(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    /**
+     * Read a possibly multi-line reply and check its code.
+     *
+     * @return text of every reply line in upper case, e.g. the extensions answering {@code EHLO}
+     */
+    private static List<String> expect(BufferedReader in, int expectedCode) throws IOException {
+        List<String> texts = new ArrayList<>();
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null) {
+                throw new IOException("SMTP connection closed, expected " + expectedCode);
+            }
+            texts.add(line.length() > 4 ? line.substring(4).trim().toUpperCase(Locale.ROOT) : "");
+        } while (line.length() > 3 && line.charAt(3) == '-');
+        int code;
+        try {
+            code = Integer.parseInt(line.substring(0, Math.min(3, line.length())));
+        } catch (NumberFormatException ex) {
+            throw new IOException("Malformed SMTP reply: " + line);
+        }
+        // RCPT TO may answer 251 (user not local, will forward)
+        if (code != expectedCode && !(expectedCode == 250 && code == 251)) {
+            throw new IOException("SMTP expected " + expectedCode + " but got: " + line);
+        }
+        return texts;
+    }
+
+    private static String base64(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException ex) {
+            return "localhost";
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import com.aston.cloudthread.core.notification.outbox.NotificationOutbox;
+import com.aston.cloudthread.core.notification.outbox.OutboxRecord;
+import com.aston.cloudthread.core.toolkit.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * One configured notification target: a platform service guarded by its own circuit
+ * breaker, with delivery metrics.
+ *
+ * <p>Metrics, tagged with {@code platform} (the channel name):</p>
+ * <ul>
+ *     <li>{@code dynamic.thread-pool.notify.latency}: delivery time, tagged
+ *         {@code outcome=success|failure}, so its count per outcome is the delivery count</li>
+ *     <li>{@code dynamic.thread-pool.notify.short.circuit}: deliveries skipped while the
+ *         circuit breaker was open</li>
+ *     <li>{@code dynamic.thread-pool.notify.render.failure}: messages that failed to render with
+ *         an outbox, before any delivery; the platform is not to blame, so the circuit breaker
+ *         is left alone</li>
+ * </ul>
+ *
+ * <p>Each channel delivers on its own small bounded executor, a bulkhead: a slow endpoint
+ * whose circuit has not opened yet only ties up the threads and queue of its own channel.</p>
+ *
+ * <p>With a {@link NotificationOutbox}, every message rendered by an
+ * {@link AbstractNotifierService} is recorded before its delivery and acknowledged once the
+ * platform accepted it. Messages that failed or were short-circuited stay in the outbox
+ * and are sent again by {@link #replay()}, oldest first.</p>
+ */
+@Slf4j
+public class NotifierChannel {
+
+    private static final String LATENCY_METRIC = "dynamic.thread-pool.notify.latency";
+    private static final String SHORT_CIRCUIT_METRIC = "dynamic.thread-pool.notify.short.circuit";
+    private static final String RENDER_FAILURE_METRIC = "dynamic.thread-pool.notify.render.failure";
+
+    private static final int DELIVERY_THREADS = 2;
+    private static final int DELIVERY_QUEUE_CAPACITY = 256;
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final NotifierService service;
+
+    @Getter
+    private final NotifierCircuitBreaker circuitBreaker;
+
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Counter shortCircuitCounter;
+    private final Counter renderFailureCounter;
+
+    /**
+     * Outbox recording the rendered messages, null when disabled or not supported by the service
+     */
+    private final NotificationOutbox outbox;
+    private final AbstractNotifierService renderer;
+    private final AtomicBoolean replaying = new AtomicBoolean();
+
+    /**
+     * Delivery threads of this channel only, idle threads time out
+     */
+    private final ThreadPoolExecutor deliveryExecutor;
+
+    public NotifierChannel(String name, NotifierService service, NotifierCircuitBreaker circuitBreaker) {
+        this(name, service, circuitBreaker, null);
+    }
+
+    public NotifierChannel(String name, NotifierService service, NotifierCircuitBreaker circuitBreaker,
+                           NotificationOutbox outbox) {
+        this.name = name;
+        this.service = service;
+        this.circuitBreaker = circuitBreaker;
+        if (outbox != null && service instanceof AbstractNotifierService) {
+            this.outbox = outbox;
+            this.renderer = (AbstractNotifierService) service;
+            this.renderer.setSink(this::deliverRecorded);
+        } else {
+            this.outbox = null;
+            this.renderer = null;
+        }
+        this.successTimer = Timer.builder(LATENCY_METRIC)
+                .tag("platform", name)
+                .tag("outcome", "success")
+                .register(Metrics.globalRegistry);
+        this.failureTimer = Timer.builder(LATENCY_METRIC)
+                .tag("platform", name)
+                .tag("outcome", "failure")
+                .register(Metrics.globalRegistry);
+        this.shortCircuitCounter = Counter.builder(SHORT_CIRCUIT_METRIC)
+                .tag("platform", name)
+                .register(Metrics.globalRegistry);
+        this.renderFailureCounter = Counter.builder(RENDER_FAILURE_METRIC)
+                .tag("platform", name)
+                .register(Metrics.globalRegistry);
+        this.deliveryExecutor = new ThreadPoolExecutor(
+                DELIVERY_THREADS,
+                DELIVERY_THREADS,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(DELIVERY_QUEUE_CAPACITY),
+                ThreadFactoryBuilder.builder()
+                        .namePrefix("notifier_delivery_" + name)
+                        .daemon(true)
+                        .build(),
+                (task, executor) -> log.warn("[CloudThread] Notification dropped, delivery queue of {} is full.", name));
+        this.deliveryExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Deliver a message on the delivery threads of this channel, the caller never waits.
+     */
+    public void submit(Consumer<NotifierService> message) {
+        deliveryExecutor.execute(() -> deliver(message));
+    }
+
+    /**
+     * Run {@link #replay()} on the delivery threads of this channel.
+     */
+    public void submitReplay() {
+        deliveryExecutor.execute(this::replay);
+    }
+
+    /**
+     * Stop accepting messages, the queued ones are still delivered.
+     */
+    public void shutdown() {
+        deliveryExecutor.shutdown();
+    }
+
+    /**
+     * Wait for the queued and running deliveries after {@link #shutdown()}.
+     *
+     * @return {@code true} if they all finished in time
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return deliveryExecutor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Deliver a message unless the circuit breaker is open. Failures are logged and counted,
+     * never thrown.
+     */
+    public void deliver(Consumer<NotifierService> message) {
+        if (outbox != null) {
+            // the service renders the message and hands it to deliverRecorded, which handles delivery failures
+            try {
+                message.accept(service);
+            } catch (RuntimeException ex) {
+                renderFailureCounter.increment();
+                log.error("[CloudThread] Failed to render notification for {}", name, ex);
+            }
+        } else {
+            attempt(() -> message.accept(service));
+        }
+    }
+
+    /**
+     * Send the messages of this channel still pending in the outbox, oldest first, until
+     * one fails. Concurrent calls return right away.
+     */
+    public void replay() {
+        if (outbox == null || !replaying.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (OutboxRecord record : outbox.pending(name)) {
+                if (!record.claim()) {
+                    // being delivered by another thread
+                    continue;
+                }
+                if (!attempt(() -> renderer.deliverRendered(record.getTitle(), record.getText()))) {
+                    record.release();
+                    return;
+                }
+                outbox.ack(record);
+            }
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    private void deliverRecorded(String title, String text) {
+        OutboxRecord record = outbox.append(name, title, text);
+        boolean delivered = attempt(() -> renderer.deliverRendered(title, text));
+        if (record == null) {
+            return;
+        }
+        if (!delivered) {
+            record.release();
+            return;
+        }
+        outbox.ack(record);
+        if (outbox.hasPending(name)) {
+            // the platform is back, catch up on what it missed
+            replay();
+        }
+    }
+
+    /**
+     * @return {@code true} if the platform accepted the message
+     */
+    private boolean attempt(Runnable delivery) {
+        if (!circuitBreaker.tryAcquire(System.currentTimeMillis())) {
+            shortCircuitCounter.increment();
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            delivery.run();
+            successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            circuitBreaker.onSuccess();
+            return true;
+        } catch (Throwable ex) {
+            failureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            circuitBreaker.onFailure(System.currentTimeMillis());
+            log.warn("[CloudThread] Notification to {} failed, circuit breaker {}: {}",
+                    name, circuitBreaker.getState(), ex.getMessage());
+            return false;
+        }
+    }
+}
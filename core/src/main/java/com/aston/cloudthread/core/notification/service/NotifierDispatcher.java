@@ -14,38 +14,55 @@
 package com.aston.cloudthread.core.notification.service;
 
 import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmDigestDTO;
 import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmNotifyDTO;
 import com.aston.cloudthread.core.notification.dto.ThreadPoolConfigChangeDTO;
 import com.aston.cloudthread.core.notification.dto.WebThreadPoolConfigChangeDTO;
+import com.aston.cloudthread.core.notification.outbox.NotificationOutbox;
+import com.aston.cloudthread.core.toolkit.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * NotifierDispatcher
  *
  * <p>A unified notification dispatcher that hides the implementation details
- * of different notification platforms (e.g., DingTalk, Slack, WeCom, Email),
+ * of different notification platforms (e.g., Slack, Teams, Discord, Email),
  * and provides a consistent {@link NotifierService} entry point for upper layers.</p>
  *
  * <p>Main responsibilities:</p>
  * <ul>
- *     <li>Initialize various notifier service implementations using a simple factory pattern
- *         and keep them in a local cache</li>
- *     <li>Dynamically select the target notification platform based on configuration,
- *         achieving decoupling and flexible extension</li>
- *     <li>Add rate limiting to alarm messages to avoid duplicate or excessive notifications</li>
+ *     <li>Create a {@link NotifierChannel} per configured platform through
+ *         {@link NotifierPlatformEnum} and fan every message out to all of them in parallel</li>
+ *     <li>Isolate the channels: each has its own timeout, circuit breaker and bounded
+ *         delivery threads, so a dead or slow endpoint never delays the others</li>
+ *     <li>Expect alarm messages already filtered by {@link AlarmRateLimiter}, which the
+ *         alarm checker applies before building them</li>
+ *     <li>Aggregate alarms of the same application and type raised within a window into
+ *         one digest message, see {@link AlarmAggregator}</li>
+ *     <li>Cap the messages sent to a channel per minute, see {@link PlatformRateLimiter}</li>
+ *     <li>Optionally record every message in a {@link NotificationOutbox} and send the
+ *         undelivered ones again periodically and after a restart</li>
  * </ul>
  *
  * <p>Extensibility:</p>
- * <p>To add a new notification channel, simply implement {@link NotifierService}
- * and register it in the static initializer block.</p>
+ * <p>To add a new notification platform, extend {@link AbstractNotifierService} (or
+ * {@link AbstractWebhookNotifierService}) and add it to {@link NotifierPlatformEnum}.</p>
  *
  * <p>Thread-safety:</p>
- * <p>Different platform implementations are stored in an immutable
- * {@code Map<String, NotifierService>}, and dispatch logic uses {@link Optional}
- * to ensure safe invocations.</p>
+ * <p>Deliveries run on the daemon threads of each channel, callers never wait for a platform. Channels
+ * are built once per {@link BootstrapConfigProperties.NotifyPlatformsConfig} instance and
+ * published through a volatile field.</p>
  *
  * <p>Example usage:</p>
  * <pre>{@code
@@ -53,44 +70,214 @@ import java.util.Optional;
  * dispatcher.sendAlarmMessage(alarmDTO);
  * }</pre>
  */
+@Slf4j
 public class NotifierDispatcher implements NotifierService {
 
-    private static final Map<String, NotifierService> NOTIFIER_SERVICE_MAP = new HashMap<>();
+    private final AlarmAggregator alarmAggregator = new AlarmAggregator(this::sendAlarmDigestMessage);
 
-    static {
-        NOTIFIER_SERVICE_MAP.put("SLACK", new SlackMessageService());
-        // EMAIL, WECHAT, DING, DISCORD, TEAMS
-    }
+    private volatile BootstrapConfigProperties.NotifyPlatformsConfig channelsConfig;
+    private volatile List<NotifierChannel> channels = Collections.emptyList();
+
+    /**
+     * Opened with the first config setting {@code outboxDir}, guarded by this
+     */
+    private NotificationOutbox outbox;
+    private ScheduledExecutorService replayScheduler;
 
     @Override
     public void sendChangeMessage(ThreadPoolConfigChangeDTO configChange) {
-        getNotifierService().ifPresent(service -> service.sendChangeMessage(configChange));
+        send(service -> service.sendChangeMessage(configChange));
     }
 
     @Override
     public void sendWebChangeMessage(WebThreadPoolConfigChangeDTO configChange) {
-        getNotifierService().ifPresent(service -> service.sendWebChangeMessage(configChange));
+        send(service -> service.sendWebChangeMessage(configChange));
     }
 
     @Override
     public void sendAlarmMessage(ThreadPoolAlarmNotifyDTO alarm) {
-        getNotifierService().ifPresent(service -> {
-            // Alarm frequency check
-            boolean allowSend = AlarmRateLimiter.allowAlarm(
-                    alarm.getThreadPoolUID(),
-                    alarm.getAlarmType(),
-                    alarm.getIntervalMinutes()
-            );
-
-            if (allowSend) {
-                service.sendAlarmMessage(alarm.resolve());
+        // per pool and alarm type suppression is done by the caller, see AlarmRateLimiter
+        if (getChannels().isEmpty()) {
+            return;
+        }
+        // resolve once, channels render the same instance concurrently
+        ThreadPoolAlarmNotifyDTO resolved = alarm.resolve();
+        long windowSeconds = BootstrapConfigProperties.getInstance()
+                .getNotifyPlatforms()
+                .getAlarmAggregateWindowSeconds();
+        if (windowSeconds > 0) {
+            alarmAggregator.add(resolved, windowSeconds * 1000L);
+        } else {
+            send(service -> service.sendAlarmMessage(resolved));
+        }
+    }
+
+    @Override
+    public void sendAlarmDigestMessage(ThreadPoolAlarmDigestDTO digest) {
+        if (digest.getAlarms().size() == 1) {
+            // nothing to aggregate, keep the detailed single alarm message
+            send(service -> service.sendAlarmMessage(digest.getAlarms().get(0)));
+        } else {
+            send(service -> service.sendAlarmDigestMessage(digest));
+        }
+    }
+
+    @Override
+    public void sendRecoveryMessage(ThreadPoolAlarmNotifyDTO recovery) {
+        // recoveries are sent once per notified alarm and are not rate limited per alarm key
+        ThreadPoolAlarmNotifyDTO resolved = recovery.resolve();
+        send(service -> service.sendRecoveryMessage(resolved));
+    }
+
+    /**
+     * Send the alarms still waiting for their aggregation window and stop the aggregator,
+     * the delivery threads and the outbox.
+     */
+    public void shutdown() {
+        alarmAggregator.shutdown();
+        List<NotifierChannel> stopped;
+        NotificationOutbox opened;
+        synchronized (this) {
+            if (replayScheduler != null) {
+                replayScheduler.shutdownNow();
             }
-        });
+            stopped = channels;
+            opened = outbox;
+        }
+        stopped.forEach(NotifierChannel::shutdown);
+        if (opened != null) {
+            try {
+                // let running deliveries record their acknowledgements
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                for (NotifierChannel channel : stopped) {
+                    channel.awaitTermination(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                }
+                opened.close();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ex) {
+                log.warn("[CloudThread] Failed to close notification outbox.", ex);
+            }
+        }
     }
 
-    private Optional<NotifierService> getNotifierService() {
-        return Optional.ofNullable(BootstrapConfigProperties.getInstance().getNotifyPlatforms())
-                .map(BootstrapConfigProperties.NotifyPlatformsConfig::getPlatform)
-                .map(platform -> NOTIFIER_SERVICE_MAP.get(platform));
+    /**
+     * @return the channels of the current notify platforms config
+     */
+    public List<NotifierChannel> getChannels() {
+        BootstrapConfigProperties.NotifyPlatformsConfig config =
+                BootstrapConfigProperties.getInstance().getNotifyPlatforms();
+        if (config != channelsConfig) {
+            synchronized (this) {
+                if (config != channelsConfig) {
+                    List<NotifierChannel> replaced = channels;
+                    channels = buildChannels(config, openOutbox(config));
+                    channelsConfig = config;
+                    // limits of the channels kept carry over, those of removed channels are dropped
+                    PlatformRateLimiter.retainAll(channels.stream()
+                            .map(NotifierChannel::getName)
+                            .collect(Collectors.toSet()));
+                    // queued messages of the replaced channels are still delivered
+                    replaced.forEach(NotifierChannel::shutdown);
+                    // send what a previous run or the replaced channels left undelivered
+                    replayAll();
+                }
+            }
+        }
+        return channels;
+    }
+
+    /**
+     * Hand a message to every channel, subject to the channel's messages per minute limit.
+     */
+    private void send(Consumer<NotifierService> message) {
+        List<NotifierChannel> targets = getChannels();
+        if (targets.isEmpty()) {
+            return;
+        }
+        int maxMessagesPerMinute = channelsConfig.getMaxMessagesPerMinute();
+        for (NotifierChannel channel : targets) {
+            if (PlatformRateLimiter.tryAcquire(channel.getName(), maxMessagesPerMinute)) {
+                channel.submit(message);
+            } else {
+                log.warn("[CloudThread] Notification dropped, platform {} exceeded {} messages per minute.",
+                        channel.getName(), maxMessagesPerMinute);
+            }
+        }
+    }
+
+    private void replayAll() {
+        for (NotifierChannel channel : channels) {
+            channel.submitReplay();
+        }
+    }
+
+    /**
+     * Open the outbox once and start its periodic replay, the directory is not reloaded
+     * on refresh.
+     */
+    private NotificationOutbox openOutbox(BootstrapConfigProperties.NotifyPlatformsConfig config) {
+        if (outbox != null || config == null || config.getOutboxDir() == null) {
+            return outbox;
+        }
+        try {
+            outbox = new NotificationOutbox(
+                    Paths.get(config.getOutboxDir()),
+                    config.getOutboxSegmentSizeMb() * 1024L * 1024L,
+                    config.getOutboxMaxSegments());
+        } catch (IOException | RuntimeException ex) {
+            log.error("[CloudThread] Failed to open notification outbox {}, messages are sent without it.",
+                    config.getOutboxDir(), ex);
+            return null;
+        }
+        long interval = Math.max(1L, config.getOutboxReplayIntervalSeconds());
+        replayScheduler = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder()
+                        .namePrefix("notifier_outbox_replay")
+                        .daemon(true)
+                        .build());
+        replayScheduler.scheduleWithFixedDelay(this::replayAll, interval, interval, TimeUnit.SECONDS);
+        return outbox;
+    }
+
+    private static List<NotifierChannel> buildChannels(BootstrapConfigProperties.NotifyPlatformsConfig config,
+                                                       NotificationOutbox outbox) {
+        if (config == null) {
+            return Collections.emptyList();
+        }
+        List<BootstrapConfigProperties.NotifyChannelConfig> channelConfigs = config.getChannels();
+        if (channelConfigs == null || channelConfigs.isEmpty()) {
+            if (config.getPlatform() == null) {
+                return Collections.emptyList();
+            }
+            BootstrapConfigProperties.NotifyChannelConfig single = new BootstrapConfigProperties.NotifyChannelConfig();
+            single.setPlatform(config.getPlatform());
+            single.setUrl(config.getUrl());
+            channelConfigs = Collections.singletonList(single);
+        }
+
+        List<NotifierChannel> result = new ArrayList<>(channelConfigs.size());
+        for (BootstrapConfigProperties.NotifyChannelConfig channelConfig : channelConfigs) {
+            NotifierPlatformEnum platform = NotifierPlatformEnum.of(channelConfig.getPlatform());
+            if (platform == null) {
+                log.warn("[CloudThread] Unsupported notification platform: {}", channelConfig.getPlatform());
+                continue;
+            }
+            String name = channelConfig.getName() != null ? channelConfig.getName() : platform.getName();
+            long timeoutMillis = channelConfig.getTimeoutMillis() != null
+                    ? channelConfig.getTimeoutMillis()
+                    : config.getTimeoutMillis();
+            try {
+                result.add(new NotifierChannel(
+                        name,
+                        platform.create(channelConfig, timeoutMillis),
+                        new NotifierCircuitBreaker(config.getCircuitFailureThreshold(),
+                                config.getCircuitOpenSeconds() * 1000L),
+                        outbox));
+            } catch (RuntimeException ex) {
+                log.warn("[CloudThread] Invalid notification channel {}: {}", name, ex.getMessage());
+            }
+        }
+        return Collections.unmodifiableList(result);
     }
 }
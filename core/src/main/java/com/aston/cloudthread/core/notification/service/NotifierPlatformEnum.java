@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import lombok.Getter;
+
+import java.util.function.BiFunction;
+
+/**
+ * Supported notification platforms and how to create their service from a channel config.
+ */
+public enum NotifierPlatformEnum {
+
+    SLACK("slack", (config, timeoutMillis) -> new SlackMessageService(config.getUrl(), timeoutMillis)),
+
+    WEBHOOK("webhook", (config, timeoutMillis) -> new WebhookMessageService(config.getUrl(), timeoutMillis)),
+
+    TEAMS("teams", (config, timeoutMillis) -> new TeamsMessageService(config.getUrl(), timeoutMillis)),
+
+    DISCORD("discord", (config, timeoutMillis) -> new DiscordMessageService(config.getUrl(), timeoutMillis)),
+
+    EMAIL("email", (config, timeoutMillis) -> new EmailMessageService(
+            config.getSmtpHost(),
+            config.getSmtpPort(),
+            Boolean.TRUE.equals(config.getSmtpSsl()),
+            config.getUsername(),
+            config.getPassword(),
+            config.getFrom(),
+            config.getTo(),
+            timeoutMillis));
+
+    @Getter
+    private final String name;
+
+    private final BiFunction<BootstrapConfigProperties.NotifyChannelConfig, Long, NotifierService> factory;
+
+    NotifierPlatformEnum(String name,
+                         BiFunction<BootstrapConfigProperties.NotifyChannelConfig, Long, NotifierService> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    /**
+     * Create the platform's service for a channel.
+     */
+    public NotifierService create(BootstrapConfigProperties.NotifyChannelConfig config, long timeoutMillis) {
+        return factory.apply(config, timeoutMillis);
+    }
+
+    /**
+     * Resolve a platform by name, ignoring case.
+     *
+     * @return the platform, or {@code null} if the name is unknown
+     */
+    public static NotifierPlatformEnum of(String name) {
+        for (NotifierPlatformEnum platform : values()) {
+            if (platform.name.equalsIgnoreCase(name)) {
+                return platform;
+            }
+        }
+        return null;
+    }
+}
@@ -13,6 +13,7 @@
  */
 package com.aston.cloudthread.core.notification.service;
 
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmDigestDTO;
 import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmNotifyDTO;
 import com.aston.cloudthread.core.notification.dto.ThreadPoolConfigChangeDTO;
 import com.aston.cloudthread.core.notification.dto.WebThreadPoolConfigChangeDTO;
@@ -28,6 +29,8 @@ import com.aston.cloudthread.core.notification.dto.WebThreadPoolConfigChangeDTO;
  *     <li>Send notifications when thread pool configurations change</li>
  *     <li>Send notifications for web thread pool configuration changes</li>
  *     <li>Send runtime alarm alerts for thread pools</li>
+ *     <li>Send digests of alarms several thread pools raised at once</li>
+ *     <li>Send recovery notices when those alarms clear</li>
  * </ul>
  *
  * <p>Extensibility:</p>
@@ -56,4 +59,19 @@ public interface NotifierService {
      * @param alarm alarm message entity
      */
     void sendAlarmMessage(ThreadPoolAlarmNotifyDTO alarm);
+
+    /**
+     * Send thread pool alarm digest message, one message for the alarms of the same type
+     * raised by several thread pools within the aggregation window.
+     *
+     * @param digest alarm digest entity
+     */
+    void sendAlarmDigestMessage(ThreadPoolAlarmDigestDTO digest);
+
+    /**
+     * Send thread pool alarm recovery notify message, sent once when a raised alarm clears.
+     *
+     * @param recovery alarm message entity with {@code recovered} set
+     */
+    void sendRecoveryMessage(ThreadPoolAlarmNotifyDTO recovery);
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Notification Platform Rate Limiter
+ * <p>
+ * Caps the number of messages sent to one notification platform per minute, on top of
+ * the per thread pool and alarm type suppression of {@link AlarmRateLimiter}. Each
+ * platform gets a token bucket holding up to a minute's worth of messages that refills
+ * continuously, so short bursts pass while sustained floods are cut down to the limit.
+ * Buckets are kept by platform name across channel rebuilds, those of platforms no longer
+ * configured are dropped with {@link #retainAll(Collection)}.
+ */
+public class PlatformRateLimiter {
+    /**
+     * Token buckets. Key: platform name
+     */
+    private static final Map<String, TokenBucket> BUCKETS = new ConcurrentHashMap<>();
+
+    /**
+     * Checks whether one more message may be sent to the platform now.
+     *
+     * @param platform             Notification platform
+     * @param maxMessagesPerMinute Maximum messages per minute, 0 or less means unlimited
+     * @return true if sending is allowed; false if the message should be dropped
+     */
+    public static boolean tryAcquire(String platform, int maxMessagesPerMinute) {
+        return tryAcquire(platform, maxMessagesPerMinute, System.currentTimeMillis());
+    }
+
+    static boolean tryAcquire(String platform, int maxMessagesPerMinute, long now) {
+        if (maxMessagesPerMinute <= 0) {
+            return true;
+        }
+        return BUCKETS.computeIfAbsent(platform, key -> new TokenBucket(now))
+                .tryAcquire(maxMessagesPerMinute, now);
+    }
+
+    /**
+     * Drop the buckets of all platforms but the given ones.
+     *
+     * @param platforms Names of the notification platforms still configured
+     */
+    public static void retainAll(Collection<String> platforms) {
+        BUCKETS.keySet().retainAll(platforms);
+    }
+
+    static void clear() {
+        BUCKETS.clear();
+    }
+
+    private static class TokenBucket {
+
+        private double tokens = -1.0;
+        private long lastRefill;
+
+        TokenBucket(long now) {
+            this.lastRefill = now;
+        }
+
+        synchronized boolean tryAcquire(int capacity, long now) {
+            if (tokens < 0.0) {
+                tokens = capacity;
+            } else if (now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * capacity / 60_000.0);
+            }
+            lastRefill = Math.max(lastRefill, now);
+            if (tokens >= 1.0) {
+                tokens -= 1.0;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Microsoft Teams notification service via Incoming Webhook, sends a MessageCard.
+ */
+public class TeamsMessageService extends AbstractWebhookNotifierService {
+
+    public TeamsMessageService(String url, long timeoutMillis) {
+        super(url, timeoutMillis);
+    }
+
+    @Override
+    protected Map<String, Object> buildPayload(String title, String text) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("@type", "MessageCard");
+        payload.put("@context", "http://schema.org/extensions");
+        payload.put("summary", title);
+        payload.put("title", title);
+        // MessageCard text collapses single newlines
+        payload.put("text", text.replace("\n", "<br>"));
+        return payload;
+    }
+
+    @Override
+    protected String bold(String text) {
+        return "**" + text + "**";
+    }
+
+    @Override
+    protected String codeBlock(String text) {
+        return "<pre>" + text + "</pre>";
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Generic webhook notification service, posts {@code {"title": ..., "text": ...}} as plain
+ * text for receivers that forward or store notifications themselves.
+ */
+public class WebhookMessageService extends AbstractWebhookNotifierService {
+
+    public WebhookMessageService(String url, long timeoutMillis) {
+        super(url, timeoutMillis);
+    }
+
+    @Override
+    protected Map<String, Object> buildPayload(String title, String text) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("title", title);
+        payload.put("text", text);
+        return payload;
+    }
+
+    @Override
+    protected String bold(String text) {
+        return text;
+    }
+
+    @Override
+    protected String codeBlock(String text) {
+        return text;
+    }
+}
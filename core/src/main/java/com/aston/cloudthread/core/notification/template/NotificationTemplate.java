@@ -0,0 +1,180 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Notification template compiled once into a sequence of segments.
+ *
+ * <p>The source is plain text with {@code ${name}} placeholders, {@code $$} writes a literal
+ * {@code $}. Compiling resolves every placeholder against the fields of the message type, so
+ * an unknown field fails when the template is loaded rather than when an alarm is sent.
+ * Rendering then walks the segments and appends literals and field values into a reused
+ * {@link StringBuilder}, without parsing a format string or boxing arguments per message
+ * as {@link String#format(String, Object...)} does.</p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ *
+ * <pre>{@code
+ * NotificationTemplate<ThreadPoolAlarmNotifyDTO> template =
+ *         NotificationTemplate.compile("Thread Pool ID: ${threadPoolUID}", NotificationTemplates.ALARM_FIELDS);
+ * String text = template.render(alarm, markup);
+ * }</pre>
+ *
+ * @param <T> message model
+ */
+public final class NotificationTemplate<T> {
+
+    /**
+     * Builders grown past this size are not kept by the rendering thread
+     */
+    private static final int MAX_REUSED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private final String source;
+    private final Segment<T>[] segments;
+    private final int literalLength;
+
+    private NotificationTemplate(String source, Segment<T>[] segments, int literalLength) {
+        this.source = source;
+        this.segments = segments;
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Compile a template.
+     *
+     * @param source template text
+     * @param fields fields of the message type by placeholder name
+     * @throws IllegalArgumentException if the template uses an unknown field or is malformed
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> NotificationTemplate<T> compile(String source, Map<String, TemplateField<T>> fields) {
+        List<Segment<T>> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int literalLength = 0;
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c != '$' || i + 1 >= source.length()) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            char next = source.charAt(i + 1);
+            if (next == '$') {
+                literal.append('$');
+                i += 2;
+                continue;
+            }
+            if (next != '{') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            int end = source.indexOf('}', i + 2);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at index " + i + " of notification template");
+            }
+            String name = source.substring(i + 2, end).trim();
+            TemplateField<T> field = fields.get(name);
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown notification template field: " + name
+                        + ", supported fields: " + fields.keySet());
+            }
+            if (literal.length() > 0) {
+                literalLength += literal.length();
+                segments.add(new LiteralSegment<>(literal.toString()));
+                literal.setLength(0);
+            }
+            segments.add(new FieldSegment<>(field));
+            i = end + 1;
+        }
+        if (literal.length() > 0) {
+            literalLength += literal.length();
+            segments.add(new LiteralSegment<>(literal.toString()));
+        }
+        return new NotificationTemplate<>(source, segments.toArray(new Segment[0]), literalLength);
+    }
+
+    /**
+     * Render a message into {@code out}.
+     */
+    public void render(T model, TemplateMarkup markup, StringBuilder out) {
+        out.ensureCapacity(out.length() + literalLength + 16 * segments.length);
+        for (Segment<T> segment : segments) {
+            segment.write(model, markup, out);
+        }
+    }
+
+    /**
+     * Render a message using a builder reused by the calling thread.
+     */
+    public String render(T model, TemplateMarkup markup) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        try {
+            render(model, markup, out);
+            return out.toString();
+        } finally {
+            if (out.capacity() > MAX_REUSED_CAPACITY) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the template text this template was compiled from
+     */
+    public String getSource() {
+        return source;
+    }
+
+    private interface Segment<T> {
+
+        void write(T model, TemplateMarkup markup, StringBuilder out);
+    }
+
+    private static final class LiteralSegment<T> implements Segment<T> {
+
+        private final String text;
+
+        LiteralSegment(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void write(T model, TemplateMarkup markup, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    private static final class FieldSegment<T> implements Segment<T> {
+
+        private final TemplateField<T> field;
+
+        FieldSegment(TemplateField<T> field) {
+            this.field = field;
+        }
+
+        @Override
+        public void write(T model, TemplateMarkup markup, StringBuilder out) {
+            field.write(model, markup, out);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.template;
+
+import lombok.Getter;
+
+/**
+ * Notification message types having a template.
+ *
+ * <p>The key names the template in {@code notify-platforms.templates} and the default
+ * template on the classpath, {@code cloudthread/templates/<key>.tpl}.</p>
+ */
+@Getter
+public enum NotificationTemplateTypeEnum {
+
+    /**
+     * Thread pool configuration change
+     */
+    CHANGE("change"),
+
+    /**
+     * Web container thread pool configuration change
+     */
+    WEB_CHANGE("web-change"),
+
+    /**
+     * Thread pool alarm
+     */
+    ALARM("alarm"),
+
+    /**
+     * Thread pool alarm recovery
+     */
+    RECOVERY("recovery"),
+
+    /**
+     * Alarms of one application and alarm type aggregated within a window
+     */
+    ALARM_DIGEST("alarm-digest");
+
+    private final String key;
+
+    NotificationTemplateTypeEnum(String key) {
+        this.key = key;
+    }
+
+    public static NotificationTemplateTypeEnum of(String key) {
+        for (NotificationTemplateTypeEnum typeEnum : NotificationTemplateTypeEnum.values()) {
+            if (typeEnum.key.equalsIgnoreCase(key)) {
+                return typeEnum;
+            }
+        }
+        return null;
+    }
+}
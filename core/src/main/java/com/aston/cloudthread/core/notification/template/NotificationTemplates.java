@@ -0,0 +1,438 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.template;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.executor.support.RejectionRecord;
+import com.aston.cloudthread.core.monitor.ThreadPoolRuntimeContext;
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmDigestDTO;
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmNotifyDTO;
+import com.aston.cloudthread.core.notification.dto.ThreadPoolConfigChangeDTO;
+import com.aston.cloudthread.core.notification.dto.WebThreadPoolConfigChangeDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Fields and compiled templates of the notification messages, shared by all notification
+ * platforms.
+ *
+ * <p>The template of a message type is taken from {@code notify-platforms.templates.<key>}
+ * when configured, either inline or as {@code classpath:<path>}, and from
+ * {@code cloudthread/templates/<key>.tpl} on the classpath otherwise, see
+ * {@link NotificationTemplateTypeEnum}. Templates are compiled on first use and again only
+ * when the configured value changes. A configured template that cannot be loaded or uses an
+ * unknown field is logged and replaced by the default one.</p>
+ */
+@Slf4j
+public final class NotificationTemplates {
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final String DEFAULT_TEMPLATE_LOCATION = "cloudthread/templates/";
+    private static final DateTimeFormatter SAMPLE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    /**
+     * Fields of {@link NotificationTemplateTypeEnum#CHANGE}
+     */
+    public static final Map<String, TemplateField<ThreadPoolConfigChangeDTO>> CHANGE_FIELDS = changeFields();
+
+    /**
+     * Fields of {@link NotificationTemplateTypeEnum#WEB_CHANGE}
+     */
+    public static final Map<String, TemplateField<WebThreadPoolConfigChangeDTO>> WEB_CHANGE_FIELDS = webChangeFields();
+
+    /**
+     * Fields of {@link NotificationTemplateTypeEnum#ALARM}
+     */
+    public static final Map<String, TemplateField<ThreadPoolAlarmNotifyDTO>> ALARM_FIELDS =
+            alarmFields("[Thread Pool Alarm]");
+
+    /**
+     * Fields of {@link NotificationTemplateTypeEnum#RECOVERY}
+     */
+    public static final Map<String, TemplateField<ThreadPoolAlarmNotifyDTO>> RECOVERY_FIELDS =
+            alarmFields("[Thread Pool Alarm Recovered]");
+
+    /**
+     * Fields of {@link NotificationTemplateTypeEnum#ALARM_DIGEST}
+     */
+    public static final Map<String, TemplateField<ThreadPoolAlarmDigestDTO>> ALARM_DIGEST_FIELDS = alarmDigestFields();
+
+    private static final Map<NotificationTemplateTypeEnum, CompiledTemplate> COMPILED_TEMPLATES = new ConcurrentHashMap<>();
+
+    private NotificationTemplates() {
+    }
+
+    public static NotificationTemplate<ThreadPoolConfigChangeDTO> change() {
+        return get(NotificationTemplateTypeEnum.CHANGE, CHANGE_FIELDS);
+    }
+
+    public static NotificationTemplate<WebThreadPoolConfigChangeDTO> webChange() {
+        return get(NotificationTemplateTypeEnum.WEB_CHANGE, WEB_CHANGE_FIELDS);
+    }
+
+    public static NotificationTemplate<ThreadPoolAlarmNotifyDTO> alarm() {
+        return get(NotificationTemplateTypeEnum.ALARM, ALARM_FIELDS);
+    }
+
+    public static NotificationTemplate<ThreadPoolAlarmNotifyDTO> recovery() {
+        return get(NotificationTemplateTypeEnum.RECOVERY, RECOVERY_FIELDS);
+    }
+
+    public static NotificationTemplate<ThreadPoolAlarmDigestDTO> alarmDigest() {
+        return get(NotificationTemplateTypeEnum.ALARM_DIGEST, ALARM_DIGEST_FIELDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> NotificationTemplate<T> get(NotificationTemplateTypeEnum type,
+                                                   Map<String, TemplateField<T>> fields) {
+        String configured = configuredTemplate(type);
+        CompiledTemplate compiled = COMPILED_TEMPLATES.get(type);
+        if (compiled == null || !Objects.equals(compiled.configured, configured)) {
+            compiled = new CompiledTemplate(configured, load(type, configured, fields));
+            COMPILED_TEMPLATES.put(type, compiled);
+        }
+        return (NotificationTemplate<T>) compiled.template;
+    }
+
+    private static <T> NotificationTemplate<T> load(NotificationTemplateTypeEnum type, String configured,
+                                                    Map<String, TemplateField<T>> fields) {
+        if (configured != null) {
+            try {
+                return NotificationTemplate.compile(resolve(configured), fields);
+            } catch (IOException | RuntimeException ex) {
+                log.warn("[CloudThread] Invalid {} notification template, using the default one: {}",
+                        type.getKey(), ex.getMessage());
+            }
+        }
+        try {
+            return NotificationTemplate.compile(
+                    readClasspath(DEFAULT_TEMPLATE_LOCATION + type.getKey() + ".tpl"), fields);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Default notification template not found: " + type.getKey(), ex);
+        }
+    }
+
+    private static String configuredTemplate(NotificationTemplateTypeEnum type) {
+        BootstrapConfigProperties.NotifyPlatformsConfig config = BootstrapConfigProperties.getInstance().getNotifyPlatforms();
+        if (config == null || config.getTemplates() == null) {
+            return null;
+        }
+        return config.getTemplates().get(type.getKey());
+    }
+
+    private static String resolve(String configured) throws IOException {
+        if (configured.startsWith(CLASSPATH_PREFIX)) {
+            return readClasspath(configured.substring(CLASSPATH_PREFIX.length()));
+        }
+        return configured;
+    }
+
+    private static String readClasspath(String location) throws IOException {
+        String path = location.startsWith("/") ? location.substring(1) : location;
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null || classLoader.getResource(path) == null) {
+            classLoader = NotificationTemplates.class.getClassLoader();
+        }
+        try (InputStream in = classLoader.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IOException("Classpath resource not found: " + path);
+            }
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            // template files end with a line break the message should not
+            return text.endsWith("\n") ? text.substring(0, text.length() - 1) : text;
+        }
+    }
+
+    private static Map<String, TemplateField<ThreadPoolConfigChangeDTO>> changeFields() {
+        Map<String, TemplateField<ThreadPoolConfigChangeDTO>> fields = new LinkedHashMap<>();
+        fields.put("header", header("[Thread Pool Configuration Change]"));
+        fields.put("environment", (dto, markup, out) -> appendUpperCase(out, dto.getActiveProfile()));
+        fields.put("threadPoolUID", value(ThreadPoolConfigChangeDTO::getThreadPoolUID));
+        fields.put("application", (dto, markup, out) -> out.append(dto.getIdentify()).append(':').append(dto.getApplicationName()));
+        fields.put("workQueue", value(ThreadPoolConfigChangeDTO::getWorkQueue));
+        fields.put("subscribers", value(ThreadPoolConfigChangeDTO::getSubscribers));
+        fields.put("updateTime", value(ThreadPoolConfigChangeDTO::getUpdateTime));
+        for (String key : List.of("corePoolSize", "maximumPoolSize", "keepAliveTime", "queueCapacity", "rejectedHandler")) {
+            fields.put(key + ".before", (dto, markup, out) -> {
+                ThreadPoolConfigChangeDTO.ChangePair<?> pair = dto.getChanges().get(key);
+                appendValue(out, pair == null ? "-" : pair.getBefore());
+            });
+            fields.put(key + ".after", (dto, markup, out) -> {
+                ThreadPoolConfigChangeDTO.ChangePair<?> pair = dto.getChanges().get(key);
+                appendValue(out, pair == null ? "-" : pair.getAfter());
+            });
+        }
+        return Collections.unmodifiableMap(fields);
+    }
+
+    private static Map<String, TemplateField<WebThreadPoolConfigChangeDTO>> webChangeFields() {
+        Map<String, TemplateField<WebThreadPoolConfigChangeDTO>> fields = new LinkedHashMap<>();
+        fields.put("header", header("[Web Container Thread Pool Configuration Change]"));
+        fields.put("environment", (dto, markup, out) -> appendUpperCase(out, dto.getActiveProfile()));
+        fields.put("webContainerName", value(WebThreadPoolConfigChangeDTO::getWebContainerName));
+        fields.put("application", (dto, markup, out) -> out.append(dto.getIdentify()).append(':').append(dto.getApplicationName()));
+        fields.put("subscribers", value(WebThreadPoolConfigChangeDTO::getReceives));
+        fields.put("updateTime", value(WebThreadPoolConfigChangeDTO::getUpdateTime));
+        for (String key : List.of("corePoolSize", "maximumPoolSize", "keepAliveTime")) {
+            fields.put(key + ".before", (dto, markup, out) -> {
+                WebThreadPoolConfigChangeDTO.ChangePair<?> pair = dto.getChanges().get(key);
+                appendValue(out, pair == null ? "-" : pair.getBefore());
+            });
+            fields.put(key + ".after", (dto, markup, out) -> {
+                WebThreadPoolConfigChangeDTO.ChangePair<?> pair = dto.getChanges().get(key);
+                appendValue(out, pair == null ? "-" : pair.getAfter());
+            });
+        }
+        return Collections.unmodifiableMap(fields);
+    }
+
+    private static Map<String, TemplateField<ThreadPoolAlarmNotifyDTO>> alarmFields(String header) {
+        Map<String, TemplateField<ThreadPoolAlarmNotifyDTO>> fields = new LinkedHashMap<>();
+        fields.put("header", header(header));
+        fields.put("environment", (dto, markup, out) -> appendUpperCase(out, dto.getActiveProfile()));
+        fields.put("threadPoolUID", value(ThreadPoolAlarmNotifyDTO::getThreadPoolUID));
+        fields.put("application", (dto, markup, out) -> out.append(dto.getIdentify()).append(':').append(dto.getApplicationName()));
+        fields.put("alarmType", value(ThreadPoolAlarmNotifyDTO::getAlarmType));
+        fields.put("alarmRule", valueOrDash(ThreadPoolAlarmNotifyDTO::getAlarmRule));
+        fields.put("alarmValue", (dto, markup, out) -> {
+            if (dto.getAlarmValue() == null) {
+                out.append('-');
+            } else {
+                appendFixed(out, dto.getAlarmValue(), 1);
+            }
+        });
+        fields.put("alarmThreshold", valueOrDash(ThreadPoolAlarmNotifyDTO::getAlarmThreshold));
+        fields.put("alarmDurationSeconds", valueOrDash(ThreadPoolAlarmNotifyDTO::getAlarmDurationSeconds));
+        fields.put("corePoolSize", value(ThreadPoolAlarmNotifyDTO::getCorePoolSize));
+        fields.put("maximumPoolSize", value(ThreadPoolAlarmNotifyDTO::getMaximumPoolSize));
+        fields.put("currentPoolSize", value(ThreadPoolAlarmNotifyDTO::getCurrentPoolSize));
+        fields.put("activePoolSize", value(ThreadPoolAlarmNotifyDTO::getActivePoolSize));
+        fields.put("largestPoolSize", value(ThreadPoolAlarmNotifyDTO::getLargestPoolSize));
+        fields.put("completedTaskCount", value(ThreadPoolAlarmNotifyDTO::getCompletedTaskCount));
+        fields.put("workQueueName", value(ThreadPoolAlarmNotifyDTO::getWorkQueueName));
+        fields.put("workQueueCapacity", value(ThreadPoolAlarmNotifyDTO::getWorkQueueCapacity));
+        fields.put("workQueueSize", value(ThreadPoolAlarmNotifyDTO::getWorkQueueSize));
+        fields.put("workQueueRemainingCapacity", value(ThreadPoolAlarmNotifyDTO::getWorkQueueRemainingCapacity));
+        fields.put("rejectedHandlerName", value(ThreadPoolAlarmNotifyDTO::getRejectedHandlerName));
+        fields.put("rejectCount", value(ThreadPoolAlarmNotifyDTO::getRejectCount));
+        fields.put("throughput", fixed(ThreadPoolAlarmNotifyDTO::getThroughput, 2));
+        fields.put("arrivalRate", fixed(ThreadPoolAlarmNotifyDTO::getArrivalRate, 2));
+        fields.put("rejectRate", fixed(ThreadPoolAlarmNotifyDTO::getRejectRate, 2));
+        fields.put("utilization", fixed(dto -> dto.getUtilization() * 100, 0));
+        fields.put("avgBusyThreads", fixed(ThreadPoolAlarmNotifyDTO::getAvgBusyThreads, 1));
+        fields.put("recentSamples", (dto, markup, out) -> appendRecentSamples(out, dto.getRecentSamples()));
+        fields.put("recentRejections", (dto, markup, out) -> appendRecentRejections(out, dto.getRecentRejections()));
+        fields.put("subscribers", value(ThreadPoolAlarmNotifyDTO::getSubscribers));
+        fields.put("intervalMinutes", value(ThreadPoolAlarmNotifyDTO::getIntervalMinutes));
+        fields.put("currentTime", value(ThreadPoolAlarmNotifyDTO::getCurrentTime));
+        return Collections.unmodifiableMap(fields);
+    }
+
+    private static Map<String, TemplateField<ThreadPoolAlarmDigestDTO>> alarmDigestFields() {
+        Map<String, TemplateField<ThreadPoolAlarmDigestDTO>> fields = new LinkedHashMap<>();
+        fields.put("header", header("[Thread Pool Alarm Digest]"));
+        fields.put("environment", (dto, markup, out) -> appendUpperCase(out, dto.getActiveProfile()));
+        fields.put("application", (dto, markup, out) -> out.append(dto.getIdentify()).append(':').append(dto.getApplicationName()));
+        fields.put("alarmType", value(ThreadPoolAlarmDigestDTO::getAlarmType));
+        fields.put("poolCount", (dto, markup, out) -> out.append(dto.getAlarms().size()));
+        fields.put("windowStart", (dto, markup, out) -> SAMPLE_TIME_FORMATTER.formatTo(Instant.ofEpochMilli(dto.getWindowStart()), out));
+        fields.put("windowEnd", (dto, markup, out) -> SAMPLE_TIME_FORMATTER.formatTo(Instant.ofEpochMilli(dto.getWindowEnd()), out));
+        fields.put("alarmTable", (dto, markup, out) -> out.append(markup.codeBlock(alarmTable(dto.getAlarms()))));
+        fields.put("subscribers", value(ThreadPoolAlarmDigestDTO::getSubscribers));
+        return Collections.unmodifiableMap(fields);
+    }
+
+    private static <T> TemplateField<T> header(String header) {
+        return (dto, markup, out) -> out.append(markup.bold(header));
+    }
+
+    private static <T> TemplateField<T> value(Function<T, ?> getter) {
+        return (dto, markup, out) -> appendValue(out, getter.apply(dto));
+    }
+
+    private static <T> TemplateField<T> valueOrDash(Function<T, ?> getter) {
+        return (dto, markup, out) -> {
+            Object value = getter.apply(dto);
+            appendValue(out, value == null ? "-" : value);
+        };
+    }
+
+    private static <T> TemplateField<T> fixed(ToDoubleFunction<T> getter, int fractionDigits) {
+        return (dto, markup, out) -> appendFixed(out, getter.applyAsDouble(dto), fractionDigits);
+    }
+
+    /**
+     * Append a value, integral numbers without an intermediate string.
+     */
+    static void appendValue(StringBuilder out, Object value) {
+        if (value instanceof Integer) {
+            out.append(((Integer) value).intValue());
+        } else if (value instanceof Long) {
+            out.append(((Long) value).longValue());
+        } else {
+            out.append(value);
+        }
+    }
+
+    /**
+     * Append a number rounded half up to {@code fractionDigits} decimals, like {@code %.Nf}
+     * but without a formatter. Values too large to scale fall back to {@link String#format}.
+     */
+    static void appendFixed(StringBuilder out, double value, int fractionDigits) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append(value);
+            return;
+        }
+        long scale = 1L;
+        for (int i = 0; i < fractionDigits; i++) {
+            scale *= 10L;
+        }
+        double abs = Math.abs(value);
+        if (abs * scale >= 1e15) {
+            out.append(String.format("%." + fractionDigits + "f", value));
+            return;
+        }
+        long scaled = Math.round(abs * scale);
+        if (value < 0) {
+            out.append('-');
+        }
+        out.append(scaled / scale);
+        if (fractionDigits > 0) {
+            out.append('.');
+            String fraction = Long.toString(scaled % scale);
+            for (int i = fraction.length(); i < fractionDigits; i++) {
+                out.append('0');
+            }
+            out.append(fraction);
+        }
+    }
+
+    private static void appendUpperCase(StringBuilder out, String value) {
+        out.append(value == null ? null : value.toUpperCase());
+    }
+
+    private static void appendRecentSamples(StringBuilder out, List<ThreadPoolRuntimeContext> samples) {
+        if (samples == null || samples.isEmpty()) {
+            out.append(" -");
+            return;
+        }
+        for (ThreadPoolRuntimeContext sample : samples) {
+            out.append("\n  ");
+            SAMPLE_TIME_FORMATTER.formatTo(Instant.ofEpochMilli(sample.getTimestamp()), out);
+            out.append("  ");
+            appendValue(out, sample.getWorkQueueSize());
+            out.append(" / ");
+            appendValue(out, sample.getActivePoolSize());
+            out.append(" / ");
+            appendValue(out, sample.getRejectCount());
+        }
+    }
+
+    private static void appendRecentRejections(StringBuilder out, List<RejectionRecord> rejections) {
+        if (rejections == null || rejections.isEmpty()) {
+            out.append(" -");
+            return;
+        }
+        for (RejectionRecord rejection : rejections) {
+            out.append("\n  ");
+            SAMPLE_TIME_FORMATTER.formatTo(Instant.ofEpochMilli(rejection.getTimestamp()), out);
+            out.append("  ").append(rejection.getTaskClass())
+                    .append(" / ").append(rejection.getSubmitterThread())
+                    .append(" / ").append(rejection.getQueueSize());
+            if (rejection.isPersisted()) {
+                out.append(" (stored for replay)");
+            }
+        }
+    }
+
+    /**
+     * Render the alarms of a digest as a fixed-width table with one row per thread pool.
+     */
+    private static String alarmTable(List<ThreadPoolAlarmNotifyDTO> alarms) {
+        int idWidth = "Thread Pool ID".length();
+        for (ThreadPoolAlarmNotifyDTO alarm : alarms) {
+            idWidth = Math.max(idWidth, alarm.getThreadPoolUID().length());
+        }
+        StringBuilder table = new StringBuilder((idWidth + 60) * (alarms.size() + 1));
+        appendRow(table, idWidth, "Thread Pool ID", "Active / Max", "Queue / Cap", "Rejects", "Value");
+        StringBuilder value = new StringBuilder(16);
+        for (ThreadPoolAlarmNotifyDTO alarm : alarms) {
+            value.setLength(0);
+            if (alarm.getAlarmValue() == null) {
+                value.append('-');
+            } else {
+                appendFixed(value, alarm.getAlarmValue(), 1);
+            }
+            appendRow(table, idWidth,
+                    alarm.getThreadPoolUID(),
+                    alarm.getActivePoolSize() + " / " + alarm.getMaximumPoolSize(),
+                    alarm.getWorkQueueSize() + " / " + alarm.getWorkQueueCapacity(),
+                    String.valueOf(alarm.getRejectCount()),
+                    value);
+        }
+        return table.toString();
+    }
+
+    private static void appendRow(StringBuilder out, int idWidth, CharSequence id, CharSequence active,
+                                  CharSequence queue, CharSequence rejects, CharSequence value) {
+        pad(out, id, idWidth, false);
+        out.append("  ");
+        pad(out, active, 13, true);
+        out.append("  ");
+        pad(out, queue, 15, true);
+        out.append("  ");
+        pad(out, rejects, 8, true);
+        out.append("  ");
+        pad(out, value, 10, true);
+        out.append('\n');
+    }
+
+    private static void pad(StringBuilder out, CharSequence text, int width, boolean left) {
+        if (!left) {
+            out.append(text);
+        }
+        for (int i = text.length(); i < width; i++) {
+            out.append(' ');
+        }
+        if (left) {
+            out.append(text);
+        }
+    }
+
+    private static final class CompiledTemplate {
+
+        private final String configured;
+        private final NotificationTemplate<?> template;
+
+        CompiledTemplate(String configured, NotificationTemplate<?> template) {
+            this.configured = configured;
+            this.template = template;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.template;
+
+/**
+ * Accessor of one {@code ${name}} placeholder, appending the value of the field straight
+ * into the message being rendered.
+ *
+ * @param <T> message model, e.g. {@code ThreadPoolAlarmNotifyDTO}
+ */
+@FunctionalInterface
+public interface TemplateField<T> {
+
+    /**
+     * Append the value of the field.
+     *
+     * @param model  message being rendered
+     * @param markup markup of the notification platform
+     * @param out    rendered message
+     */
+    void write(T model, TemplateMarkup markup, StringBuilder out);
+}
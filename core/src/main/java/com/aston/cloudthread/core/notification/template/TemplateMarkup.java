@@ -0,0 +1,31 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.template;
+
+/**
+ * Platform specific markup available to template fields, e.g. Slack {@code *bold*} versus
+ * Teams {@code <b>bold</b>}.
+ */
+public interface TemplateMarkup {
+
+    /**
+     * Emphasize a message header.
+     */
+    String bold(String text);
+
+    /**
+     * Render fixed-width text such as a table.
+     */
+    String codeBlock(String text);
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parser for formats Jackson reads as a token stream, such as JSON and TOML.
+ *
+ * <p>The tokens are flattened into {@code a.b[0].c} keys on a single path buffer without
+ * building a tree. With a key prefix, objects and arrays off the path to the prefix are
+ * skipped as a whole.</p>
+ */
+public abstract class AbstractJacksonConfigParser extends AbstractConfigParser {
+    private static final char INDEX_PREFIX = '[';
+    private static final char INDEX_SUFFIX = ']';
+    private static final char PATH_SEPARATOR = '.';
+
+    /**
+     * Thread-safe once configured, creates a parser per document
+     */
+    private final JsonFactory factory;
+
+    protected AbstractJacksonConfigParser(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public Map<Object, Object> doParse(String content) throws IOException {
+        return doParse(content, null);
+    }
+
+    @Override
+    public Map<Object, Object> doParse(String content, String keyPrefix) throws IOException {
+        if (content == null || content.isBlank()) {
+            return Collections.emptyMap();
+        }
+        Map<Object, Object> result = new LinkedHashMap<>();
+        try (JsonParser parser = factory.createParser(content)) {
+            JsonToken root = parser.nextToken();
+            if (root == JsonToken.START_OBJECT || root == JsonToken.START_ARRAY) {
+                read(parser, root, new StringBuilder(), keyPrefix, result);
+            }
+        }
+        return result;
+    }
+
+    private void read(JsonParser parser,
+                      JsonToken token,
+                      StringBuilder path,
+                      String keyPrefix,
+                      Map<Object, Object> target) throws IOException {
+        int length = path.length();
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                if (length > 0) {
+                    path.append(PATH_SEPARATOR);
+                }
+                path.append(parser.currentName());
+                child(parser, parser.nextToken(), path, keyPrefix, target);
+                path.setLength(length);
+            }
+        } else if (token == JsonToken.START_ARRAY) {
+            int index = 0;
+            for (JsonToken item = parser.nextToken(); item != JsonToken.END_ARRAY; item = parser.nextToken()) {
+                path.append(INDEX_PREFIX).append(index++).append(INDEX_SUFFIX);
+                child(parser, item, path, keyPrefix, target);
+                path.setLength(length);
+            }
+        } else if (length > 0) {
+            target.put(path.toString(), token == JsonToken.VALUE_NULL ? null : parser.getText());
+        }
+    }
+
+    private void child(JsonParser parser,
+                       JsonToken token,
+                       StringBuilder path,
+                       String keyPrefix,
+                       Map<Object, Object> target) throws IOException {
+        if (ConfigParser.isOnPrefixPath(path, keyPrefix)) {
+            read(parser, token, path, keyPrefix, target);
+        } else {
+            parser.skipChildren();
+        }
+    }
+}
@@ -20,7 +20,7 @@ import lombok.Getter;
  *
  * <p>
  * This enum defines the file formats that can be used for configuration:
- * PROPERTIES, YML and YAML. It provides a utility method {@link #of(String)}
+ * PROPERTIES, YML, YAML, JSON and TOML. It provides a utility method {@link #of(String)}
  * to map a string value to the corresponding enum, defaulting to PROPERTIES
  * if the input is unrecognized.
  * </p>
@@ -41,7 +41,17 @@ public enum ConfigFileTypeEnum {
     /**
      * YAML fiel with .yaml extension
      */
-    YAML("yaml");
+    YAML("yaml"),
+
+    /**
+     * JSON file
+     */
+    JSON("json"),
+
+    /**
+     * TOML file
+     */
+    TOML("toml");
 
     private final String value;
 
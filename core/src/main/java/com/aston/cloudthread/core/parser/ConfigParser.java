@@ -14,6 +14,7 @@
 package com.aston.cloudthread.core.parser;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -38,10 +39,69 @@ public interface ConfigParser {
      */
     Map<Object, Object> doParse(String content) throws IOException;
 
+    /**
+     * Parse only the entries whose key is {@code keyPrefix} or lies below it, e.g.
+     * {@code cloudthread.executors[0].core-pool-size} for {@code cloudthread}. Parsers able
+     * to skip the other parts of the content while reading override this.
+     *
+     * @param content   config file content
+     * @param keyPrefix prefix of the keys to keep, all keys when {@code null} or empty
+     * @return parsed key,value pair in map
+     * @throws IOException throw exception when parse failed
+     */
+    default Map<Object, Object> doParse(String content, String keyPrefix) throws IOException {
+        Map<Object, Object> parsed = doParse(content);
+        if (keyPrefix == null || keyPrefix.isEmpty()) {
+            return parsed;
+        }
+        Map<Object, Object> result = new LinkedHashMap<>();
+        parsed.forEach((key, value) -> {
+            if (isUnderPrefix(key.toString(), keyPrefix)) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
     /**
      * Fetch current parser supports config file type list
      *
      * @return collection of enums of supported parsed types of config files.
      */
     List<ConfigFileTypeEnum> getConfigFileTypes();
+
+    /**
+     * @return whether the key is the prefix itself or continues it with {@code .} or {@code [}
+     */
+    static boolean isUnderPrefix(CharSequence key, String keyPrefix) {
+        int length = keyPrefix.length();
+        if (key.length() < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != keyPrefix.charAt(i)) {
+                return false;
+            }
+        }
+        return key.length() == length || key.charAt(length) == '.' || key.charAt(length) == '[';
+    }
+
+    /**
+     * @return whether entries below the key may lie below the prefix: the key is below the
+     * prefix, or the prefix continues the key with {@code .}; always for no prefix
+     */
+    static boolean isOnPrefixPath(CharSequence key, String keyPrefix) {
+        if (keyPrefix == null || keyPrefix.isEmpty() || key.length() >= keyPrefix.length()) {
+            return keyPrefix == null || keyPrefix.isEmpty() || isUnderPrefix(key, keyPrefix);
+        }
+        if (keyPrefix.charAt(key.length()) != '.') {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != keyPrefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -14,24 +14,40 @@
 package com.aston.cloudthread.core.parser;
 
 import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 
 /**
  * ConfigParserHandler is a centralized handler for parsing configuration content
  * into a normalized Map representation based on the configuration file type.
  *
  * <p>
- * It maintains a list of supported parsers (e.g., YAML and Properties parsers)
+ * It maintains a list of supported parsers (e.g., YAML, Properties, JSON and TOML parsers)
  * and delegates parsing to the appropriate parser based on the specified
  * {@link ConfigFileTypeEnum}.
  * </p>
  *
  * <p>
+ * Parsers are discovered once, when the instance is created, through {@link ServiceLoader}
+ * from {@code META-INF/services/com.aston.cloudthread.core.parser.ConfigParser}. A jar can
+ * add a parser by listing its implementation there; for each type the first parser found
+ * that supports it is used.
+ * </p>
+ *
+ * <p>
  * This class follows the singleton pattern, providing a globally accessible
  * instance via {@link #getInstance()}.
  * </p>
@@ -58,20 +74,47 @@ import java.util.Map;
  * a {@link ThreadPoolConfigUpdateEvent} to notify relevant listeners of configuration changes.
  * </p>
  */
+@Slf4j
 public class ConfigParserHandler {
-    private static final List<ConfigParser> PARSERS = new ArrayList<>();
+
+    /**
+     * Parse results kept for identical content
+     */
+    private static final int CACHE_SIZE = 32;
+
+    /**
+     * Key: type, key prefix and content hash; least recently used results are dropped first
+     */
+    private final Map<String, Map<Object, Object>> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<Object, Object>> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    private final List<ConfigParser> parsers;
 
     private ConfigParserHandler() {
-        PARSERS.add(new YamlConfigParser());
-        PARSERS.add(new PropsConfigParser());
+        List<ConfigParser> loaded = new ArrayList<>();
+        Iterator<ConfigParser> iterator =
+                ServiceLoader.load(ConfigParser.class, ConfigParserHandler.class.getClassLoader()).iterator();
+        while (iterator.hasNext()) {
+            try {
+                loaded.add(iterator.next());
+            } catch (ServiceConfigurationError ex) {
+                log.warn("[CloudThread] Skipping config parser that failed to load: {}", ex.getMessage());
+            }
+        }
+        this.parsers = Collections.unmodifiableList(loaded);
     }
 
     public Map<Object, Object> parseConfig(String content, ConfigFileTypeEnum type) throws IOException {
-        if (type == null || PARSERS.isEmpty()) {
+        if (type == null || parsers.isEmpty()) {
             return Collections.emptyMap();
         }
 
-        for (ConfigParser parser : PARSERS) {
+        for (ConfigParser parser : parsers) {
             if (parser != null && parser.supports(type)) {
                 if (content == null) {
                     return Collections.emptyMap();
@@ -82,6 +125,49 @@ public class ConfigParserHandler {
         return Collections.emptyMap();
     }
 
+    /**
+     * Parse the entries whose key is {@code keyPrefix} or lies below it, e.g.
+     * {@link BootstrapConfigProperties#PREFIX}, skipping the rest of a shared config file
+     * where the parser supports it.
+     *
+     * <p>Results are cached by the SHA-256 of the content, so a config server pushing the
+     * same content again gets the previous result without parsing. The returned map is
+     * shared and read-only.</p>
+     *
+     * @param content   raw configuration content
+     * @param type      format of the content
+     * @param keyPrefix prefix of the keys to keep, all keys when {@code null} or empty
+     * @return parsed key,value pairs below the prefix
+     * @throws IOException if the content cannot be parsed
+     */
+    public Map<Object, Object> parseConfig(String content, ConfigFileTypeEnum type, String keyPrefix) throws IOException {
+        if (type == null || content == null) {
+            return Collections.emptyMap();
+        }
+        for (ConfigParser parser : parsers) {
+            if (parser != null && parser.supports(type)) {
+                String cacheKey = type.name() + ':' + keyPrefix + ':' + digest(content);
+                Map<Object, Object> cached = cache.get(cacheKey);
+                if (cached != null) {
+                    return cached;
+                }
+                Map<Object, Object> parsed = Collections.unmodifiableMap(parser.doParse(content, keyPrefix));
+                cache.put(cacheKey, parsed);
+                return parsed;
+            }
+        }
+        return Collections.emptyMap();
+    }
+
+    private static String digest(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
     public static ConfigParserHandler getInstance() {
         return ConfigParserHandlerHolder.INSTANCE;
     }
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import java.util.List;
+
+/**
+ * JSON config files parser, streaming through a Jackson {@link com.fasterxml.jackson.core.JsonParser}.
+ */
+public class JsonConfigParser extends AbstractJacksonConfigParser {
+
+    public JsonConfigParser() {
+        super(new JsonFactory());
+    }
+
+    @Override
+    public List<ConfigFileTypeEnum> getConfigFileTypes() {
+        return List.of(ConfigFileTypeEnum.JSON);
+    }
+}
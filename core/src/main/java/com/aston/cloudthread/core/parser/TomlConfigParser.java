@@ -0,0 +1,34 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.parser;
+
+import com.fasterxml.jackson.dataformat.toml.TomlFactory;
+
+import java.util.List;
+
+/**
+ * TOML config files parser, e.g. {@code [[cloudthread.executors]]} tables become
+ * {@code cloudthread.executors[0].*} keys. Dates and times are kept as written.
+ */
+public class TomlConfigParser extends AbstractJacksonConfigParser {
+
+    public TomlConfigParser() {
+        super(new TomlFactory());
+    }
+
+    @Override
+    public List<ConfigFileTypeEnum> getConfigFileTypes() {
+        return List.of(ConfigFileTypeEnum.TOML);
+    }
+}
@@ -13,35 +13,89 @@
  */
 package com.aston.cloudthread.core.parser;
 
-import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.StrUtil;
+import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
-
-import java.io.IOException;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.StringReader;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.StreamSupport;
+import java.util.regex.Pattern;
 
 /**
  * YAML config files parser class.
+ *
+ * <p>Documents are flattened into {@code a.b[0].c} keys on a single path buffer that is
+ * extended and cut back while walking the tree. With a key prefix, the document is read
+ * as a stream of parser events and only the subtree below the prefix is turned into
+ * entries; other parts of a large shared config file are skipped without building any
+ * objects or keys for them.</p>
  */
 public class YamlConfigParser extends AbstractConfigParser {
-    private static final String INDEX_PREFIX = "[";
-    private static final String INDEX_SUFFIX = "]";
-    private static final String PATH_SEPARATOR = ".";
+    private static final char INDEX_PREFIX = '[';
+    private static final char INDEX_SUFFIX = ']';
+    private static final char PATH_SEPARATOR = '.';
+
+    private static final String MERGE_KEY = "<<";
+
+    private static final Pattern PLAIN_DECIMAL = Pattern.compile("-?(0|[1-9][0-9]*)");
+
+    /**
+     * SnakeYAML instances are not thread-safe, each thread keeps and reuses its own.
+     * The safe constructor only builds standard types.
+     */
+    private static final ThreadLocal<Yaml> YAML =
+            ThreadLocal.withInitial(() -> new Yaml(new SafeConstructor(new LoaderOptions())));
+
+    /**
+     * Implicit tag resolution of plain scalars, read-only after construction
+     */
+    private static final Resolver RESOLVER = new Resolver();
 
     @Override
     public Map<Object, Object> doParse(String configuration) {
-        return Optional.ofNullable(configuration)
-                .filter(StrUtil::isNotEmpty)
-                .map(this::parseYamlDocument)
-                .map(this::normalizeHierarchy)
-                .orElseGet(Collections::emptyMap);
+        if (StrUtil.isEmpty(configuration)) {
+            return Collections.emptyMap();
+        }
+        Object root = YAML.get().load(configuration);
+        Map<Object, Object> result = new LinkedHashMap<>();
+        if (root instanceof Map || root instanceof Iterable) {
+            flatten(result, root, new StringBuilder());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Object, Object> doParse(String configuration, String keyPrefix) {
+        if (StrUtil.isEmpty(keyPrefix)) {
+            return doParse(configuration);
+        }
+        if (StrUtil.isEmpty(configuration)) {
+            return Collections.emptyMap();
+        }
+        try {
+            Map<Object, Object> result = new LinkedHashMap<>();
+            new PrefixStream(keyPrefix, result).read(YAML.get().parse(new StringReader(configuration)).iterator());
+            return result;
+        } catch (UnsupportedStructureException ex) {
+            // aliases, merge keys, explicit tags or several documents: left to the full parse
+            Map<Object, Object> result = new LinkedHashMap<>();
+            doParse(configuration).forEach((key, value) -> {
+                if (ConfigParser.isUnderPrefix(key.toString(), keyPrefix)) {
+                    result.put(key, value);
+                }
+            });
+            return result;
+        }
     }
 
     @Override
@@ -49,71 +103,150 @@ public class YamlConfigParser extends AbstractConfigParser {
         return List.of(ConfigFileTypeEnum.YAML, ConfigFileTypeEnum.YML);
     }
 
-    private Map<Object, Object> parseYamlDocument(String content) {
-        Object root = new Yaml().load(content);
-
-        Map<Object, Object> result = new LinkedHashMap<>();
+    private void flatten(Map<Object, Object> target, Object current, StringBuilder path) {
+        int length = path.length();
+        if (current instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) current).entrySet()) {
+                if (length > 0) {
+                    path.append(PATH_SEPARATOR);
+                }
+                flatten(target, entry.getValue(), path.append(entry.getKey()));
+                path.setLength(length);
+            }
+        } else if (current instanceof Iterable) {
+            int index = 0;
+            for (Object item : (Iterable<?>) current) {
+                flatten(target, item, path.append(INDEX_PREFIX).append(index++).append(INDEX_SUFFIX));
+                path.setLength(length);
+            }
+        } else if (length > 0) {
+            target.put(path.toString(), current != null ? current.toString() : null);
+        }
+    }
 
-        if (root instanceof Map) {
-            result = normalizeHierarchy((Map<Object, Object>) root);
-        } else if (root instanceof Iterable) {
-            // Flatten root list
-            processNestedElements(result, root, null);
+    /**
+     * Walks the parser events of one document and keeps the entries below a key prefix.
+     */
+    private static class PrefixStream {
+        private final String keyPrefix;
+        private final Map<Object, Object> target;
+        private final StringBuilder path = new StringBuilder();
+
+        PrefixStream(String keyPrefix, Map<Object, Object> target) {
+            this.keyPrefix = keyPrefix;
+            this.target = target;
         }
 
-        return result;
-    }
+        void read(Iterator<Event> events) {
+            int documents = 0;
+            while (events.hasNext()) {
+                Event event = events.next();
+                if (event.is(Event.ID.DocumentStart) && ++documents > 1) {
+                    throw new UnsupportedStructureException();
+                }
+                if (isNodeStart(event)) {
+                    node(event, events);
+                }
+            }
+        }
 
-    private Map<Object, Object> normalizeHierarchy(Map<Object, Object> nestedData) {
-        Map<Object, Object> flattenedData = new LinkedHashMap<>();
-        processNestedElements(flattenedData, nestedData, null);
-        return flattenedData;
-    }
+        /**
+         * Read the node starting with the given event, {@link #path} holds its key.
+         */
+        private void node(Event first, Iterator<Event> events) {
+            int length = path.length();
+            switch (first.getEventId()) {
+                case Scalar:
+                    if (length > 0) {
+                        target.put(path.toString(), scalarValue((ScalarEvent) first));
+                    }
+                    break;
+                case MappingStart:
+                    for (Event key = events.next(); !key.is(Event.ID.MappingEnd); key = events.next()) {
+                        if (!(key instanceof ScalarEvent) || MERGE_KEY.equals(((ScalarEvent) key).getValue())) {
+                            throw new UnsupportedStructureException();
+                        }
+                        if (length > 0) {
+                            path.append(PATH_SEPARATOR);
+                        }
+                        path.append(((ScalarEvent) key).getValue());
+                        child(events.next(), events);
+                        path.setLength(length);
+                    }
+                    break;
+                case SequenceStart:
+                    int index = 0;
+                    for (Event item = events.next(); !item.is(Event.ID.SequenceEnd); item = events.next()) {
+                        path.append(INDEX_PREFIX).append(index++).append(INDEX_SUFFIX);
+                        child(item, events);
+                        path.setLength(length);
+                    }
+                    break;
+                default:
+                    // an alias may point to a node outside the prefix
+                    throw new UnsupportedStructureException();
+            }
+        }
 
-    private void processNestedElements(Map<Object, Object> target, Object current, String currentPath) {
-        if (current instanceof Map) {
-            handleMapEntries(target, (Map<?, ?>) current, currentPath);
-        } else if (current instanceof Iterable) {
-            handleCollectionItems(target, (Iterable<?>) current, currentPath);
-        } else {
-            persistLeafValue(target, currentPath, current);
+        private void child(Event first, Iterator<Event> events) {
+            if (ConfigParser.isOnPrefixPath(path, keyPrefix)) {
+                node(first, events);
+            } else {
+                skip(first, events);
+            }
         }
-    }
 
-    private void handleMapEntries(Map<Object, Object> target, Map<?, ?> entries, String parentPath) {
-        entries.forEach((key, value) ->
-                processNestedElements(target, value, buildPathSegment(parentPath, key))
-        );
-    }
+        private static void skip(Event first, Iterator<Event> events) {
+            int depth = isCollectionStart(first) ? 1 : 0;
+            while (depth > 0) {
+                Event event = events.next();
+                if (isCollectionStart(event)) {
+                    depth++;
+                } else if (event.is(Event.ID.MappingEnd) || event.is(Event.ID.SequenceEnd)) {
+                    depth--;
+                }
+            }
+        }
 
-    private void handleCollectionItems(Map<Object, Object> target, Iterable<?> items, String basePath) {
-        List<?> elements = StreamSupport.stream(items.spliterator(), false)
-                .collect(Collectors.toList());
-        IntStream.range(0, elements.size())
-                .forEach(index -> processNestedElements(
-                        target,
-                        elements.get(index),
-                        createIndexedPath(basePath, index)
-                ));
-    }
+        private static boolean isNodeStart(Event event) {
+            return isCollectionStart(event) || event.is(Event.ID.Scalar) || event.is(Event.ID.Alias);
+        }
 
-    private String buildPathSegment(String existingPath, Object key) {
-        return existingPath == null ?
-                key.toString() :
-                existingPath + PATH_SEPARATOR + key;
-    }
+        private static boolean isCollectionStart(Event event) {
+            return event.is(Event.ID.MappingStart) || event.is(Event.ID.SequenceStart);
+        }
 
-    private String createIndexedPath(String basePath, int index) {
-        if (basePath == null || basePath.isEmpty()) {
-            return INDEX_PREFIX + index + INDEX_SUFFIX;
+        /**
+         * @return the scalar as the full parse renders it, plain decimals and strings
+         * without constructing a value
+         */
+        private static String scalarValue(ScalarEvent scalar) {
+            if (scalar.getTag() != null) {
+                // explicitly tagged, e.g. !!binary
+                throw new UnsupportedStructureException();
+            }
+            if (!scalar.isPlain()) {
+                return scalar.getValue();
+            }
+            String value = scalar.getValue();
+            Tag tag = RESOLVER.resolve(NodeId.scalar, value, true);
+            if (Tag.STR.equals(tag) || (Tag.INT.equals(tag) && PLAIN_DECIMAL.matcher(value).matches())) {
+                return value;
+            }
+            if (Tag.NULL.equals(tag)) {
+                return null;
+            }
+            Object constructed = YAML.get().load(value);
+            return constructed != null ? constructed.toString() : null;
         }
-        return basePath + INDEX_PREFIX + index + INDEX_SUFFIX;
     }
 
-    private void persistLeafValue(Map<Object, Object> target, String path, Object value) {
-        if (path != null) {
-            String normalizedPath = path.replace(PATH_SEPARATOR + INDEX_PREFIX, INDEX_PREFIX);
-            target.put(normalizedPath, value != null ? value.toString() : null);
+    /**
+     * Raised for constructs the event stream does not resolve on its own.
+     */
+    private static class UnsupportedStructureException extends RuntimeException {
+        UnsupportedStructureException() {
+            super(null, null, false, false);
         }
     }
 }
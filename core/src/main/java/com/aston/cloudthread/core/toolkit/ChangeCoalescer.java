@@ -0,0 +1,155 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.toolkit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects changes arriving in bursts and hands them to a flusher once per burst.
+ *
+ * <p>A burst ends when no change arrived for the quiet period, or at the latest the
+ * maximum delay after its first change, so a steady stream of changes cannot postpone the
+ * flush indefinitely. Duplicate changes within a burst are merged.</p>
+ *
+ * <p>The flusher runs on the coalescer's own daemon thread. Flushes never overlap, bursts
+ * are applied in the order they were collected.</p>
+ *
+ * @param <T> change type, e.g. a changed configuration key
+ */
+@Slf4j
+public class ChangeCoalescer<T> implements AutoCloseable {
+
+    private final long quietPeriodNanos;
+
+    private final long maxDelayNanos;
+
+    private final Consumer<Set<T>> flusher;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Serializes flushes, held while the flusher runs
+     */
+    private final Object flushLock = new Object();
+
+    /**
+     * Guards the fields below, never held while the flusher runs
+     */
+    private final Object lock = new Object();
+
+    private Set<T> pending = new LinkedHashSet<>();
+
+    private long burstStartNanos;
+
+    private ScheduledFuture<?> scheduledFlush;
+
+    private boolean closed;
+
+    public ChangeCoalescer(String name, long quietPeriodMillis, long maxDelayMillis, Consumer<Set<T>> flusher) {
+        if (quietPeriodMillis < 0 || maxDelayMillis < quietPeriodMillis) {
+            throw new IllegalArgumentException("Invalid coalescing delays: quiet period " + quietPeriodMillis
+                    + "ms, max delay " + maxDelayMillis + "ms");
+        }
+        this.quietPeriodNanos = TimeUnit.MILLISECONDS.toNanos(quietPeriodMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.flusher = flusher;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder()
+                        .namePrefix(name)
+                        .daemon(true)
+                        .build()
+        );
+    }
+
+    /**
+     * Add changes to the current burst, starting one if none is pending, and push the
+     * flush back to the end of the quiet period or the burst's maximum delay.
+     */
+    public void submit(Collection<T> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Change coalescer is closed");
+            }
+            long now = System.nanoTime();
+            if (pending.isEmpty()) {
+                burstStartNanos = now;
+            }
+            pending.addAll(changes);
+
+            long delay = Math.min(quietPeriodNanos, burstStartNanos + maxDelayNanos - now);
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+            }
+            scheduledFlush = scheduler.schedule(this::flush, Math.max(0L, delay), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Flush the pending burst now on the calling thread.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Set<T> changes;
+            synchronized (lock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                changes = pending;
+                pending = new LinkedHashSet<>();
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+            }
+            try {
+                flusher.accept(changes);
+            } catch (Throwable ex) {
+                log.error("[CloudThread] Failed to apply {} coalesced changes.", changes.size(), ex);
+            }
+        }
+    }
+
+    /**
+     * @return number of distinct changes waiting for the next flush
+     */
+    public int pendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Flush the pending burst and stop the scheduler thread.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        flush();
+        scheduler.shutdownNow();
+    }
+}
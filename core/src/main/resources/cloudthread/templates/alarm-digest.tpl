@@ -0,0 +1,7 @@
+${header}
+Environment: ${environment}
+Application: ${application}
+Alarm Type: ${alarmType}
+Thread Pools: ${poolCount} (${windowStart} - ${windowEnd})
+${alarmTable}
+Recipients: ${subscribers}
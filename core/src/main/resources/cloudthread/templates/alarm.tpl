@@ -0,0 +1,25 @@
+${header}
+Environment: ${environment}
+Thread Pool ID: ${threadPoolUID}
+Application: ${application}
+Alarm Type: ${alarmType}
+Rule: ${alarmRule} (value ${alarmValue}, threshold ${alarmThreshold})
+Core Threads: ${corePoolSize}
+Maximum Threads: ${maximumPoolSize}
+Current Threads: ${currentPoolSize}
+Active Threads: ${activePoolSize}
+Largest Threads: ${largestPoolSize}
+Completed Task Count: ${completedTaskCount}
+Queue: ${workQueueName}
+Queue Capacity: ${workQueueCapacity}
+Current Queue Size: ${workQueueSize}
+Remaining Capacity: ${workQueueRemainingCapacity}
+Rejection Policy: ${rejectedHandlerName}
+Rejection Count: ${rejectCount}
+Rates (tasks/s): throughput ${throughput} / arrival ${arrivalRate} / rejects ${rejectRate}
+Utilization: ${utilization}% (avg busy threads ${avgBusyThreads})
+Recent Samples (queue size / active threads / rejects):${recentSamples}
+Recent Rejections (task / submitter thread / queue size):${recentRejections}
+Recipients: ${subscribers}
+Interval: ${intervalMinutes}
+Time: ${currentTime}
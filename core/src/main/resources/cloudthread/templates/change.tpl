@@ -0,0 +1,12 @@
+${header}
+Environment: ${environment}
+Thread Pool ID: ${threadPoolUID}
+Application: ${application}
+Core Threads: ${corePoolSize.before} → ${corePoolSize.after}
+Maximum Threads: ${maximumPoolSize.before} → ${maximumPoolSize.after}
+Keep-Alive Time: ${keepAliveTime.before} → ${keepAliveTime.after}
+Queue: ${workQueue}
+Queue Capacity: ${queueCapacity.before} → ${queueCapacity.after}
+Rejection Policy: ${rejectedHandler.before} → ${rejectedHandler.after}
+Recipients: ${subscribers}
+Update Time: ${updateTime}
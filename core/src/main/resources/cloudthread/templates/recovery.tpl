@@ -0,0 +1,12 @@
+${header}
+Environment: ${environment}
+Thread Pool ID: ${threadPoolUID}
+Application: ${application}
+Alarm Type: ${alarmType}
+Rule: ${alarmRule}
+Current Value: ${alarmValue} (clear threshold ${alarmThreshold})
+Alarm Duration: ${alarmDurationSeconds}s
+Active Threads: ${activePoolSize} / ${maximumPoolSize}
+Current Queue Size: ${workQueueSize} / ${workQueueCapacity}
+Recipients: ${subscribers}
+Time: ${currentTime}
@@ -0,0 +1,9 @@
+${header}
+Environment: ${environment}
+Web Container: ${webContainerName}
+Application: ${application}
+Core Threads: ${corePoolSize.before} → ${corePoolSize.after}
+Maximum Threads: ${maximumPoolSize.before} → ${maximumPoolSize.after}
+Keep-Alive Time: ${keepAliveTime.before} → ${keepAliveTime.after}
+Recipients: ${subscribers}
+Update Time: ${updateTime}
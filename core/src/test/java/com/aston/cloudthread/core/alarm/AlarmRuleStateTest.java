@@ -0,0 +1,141 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.alarm;
+
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
+import org.junit.jupiter.api.Test;
+
+import static com.aston.cloudthread.core.alarm.AlarmRuleState.Transition.CLEARED;
+import static com.aston.cloudthread.core.alarm.AlarmRuleState.Transition.FIRING;
+import static com.aston.cloudthread.core.alarm.AlarmRuleState.Transition.NONE;
+import static com.aston.cloudthread.core.alarm.AlarmRuleState.Transition.RAISED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlarmRuleStateTest {
+    private static final long INTERVAL = 5000L;
+
+    private ThreadPoolExecutorProperties.AlarmConfig config(String rule) {
+        ThreadPoolExecutorProperties.AlarmConfig config = new ThreadPoolExecutorProperties.AlarmConfig(true, 80, 80);
+        config.setRule(rule);
+        config.setSustainedSeconds(20);
+        config.setWindowSeconds(20);
+        config.setWindowPercent(50);
+        config.setEwmaAlpha(0.5);
+        return config;
+    }
+
+    @Test
+    void testInstantRuleRaisesAndClears() {
+        AlarmRuleState state = new AlarmRuleState(INTERVAL);
+        ThreadPoolExecutorProperties.AlarmConfig config = config("instant");
+
+        assertEquals(NONE, state.update(0L, 50, config, 80, 80));
+        assertEquals(RAISED, state.update(5000L, 90, config, 80, 80));
+        assertTrue(state.isRaised());
+        assertEquals(FIRING, state.update(10000L, 85, config, 80, 80));
+        assertEquals(CLEARED, state.update(15000L, 10, config, 80, 80));
+        assertFalse(state.isRaised());
+    }
+
+    @Test
+    void testNotifiedIsResetByTheNextRaise() {
+        AlarmRuleState state = new AlarmRuleState(INTERVAL);
+        ThreadPoolExecutorProperties.AlarmConfig config = config("instant");
+
+        assertEquals(RAISED, state.update(0L, 90, config, 80, 80));
+        assertFalse(state.isNotified());
+        state.markNotified();
+        assertEquals(CLEARED, state.update(5000L, 10, config, 80, 80));
+        assertTrue(state.isNotified());
+
+        assertEquals(RAISED, state.update(10000L, 90, config, 80, 80));
+        assertFalse(state.isNotified(), "a raise suppressed by the rate limiter gets no recovery");
+    }
+
+    @Test
+    void testSustainedRuleIgnoresSpikes() {
+        AlarmRuleState state = new AlarmRuleState(INTERVAL);
+        ThreadPoolExecutorProperties.AlarmConfig config = config("sustained");
+
+        // one-tick spike does not alarm
+        assertEquals(NONE, state.update(0L, 95, config, 80, 80));
+        assertEquals(NONE, state.update(5000L, 20, config, 80, 80));
+        // 20 seconds of continuous breach does
+        assertEquals(NONE, state.update(10000L, 90, config, 80, 80));
+        assertEquals(NONE, state.update(15000L, 90, config, 80, 80));
+        assertEquals(NONE, state.update(20000L, 90, config, 80, 80));
+        assertEquals(NONE, state.update(25000L, 90, config, 80, 80));
+        assertEquals(RAISED, state.update(30000L, 90, config, 80, 80));
+        assertEquals(90.0, state.getLastStatistic());
+        assertEquals(30000L, state.getRaisedAt());
+    }
+
+    @Test
+    void testWindowRuleCountsBreachingShare() {
+        AlarmRuleState state = new AlarmRuleState(INTERVAL);
+        ThreadPoolExecutorProperties.AlarmConfig config = config("window");
+        config.setWindowPercent(60);
+
+        assertEquals(NONE, state.update(0L, 90, config, 80, 80));
+        assertEquals(NONE, state.update(5000L, 10, config, 80, 80));
+        assertEquals(NONE, state.update(10000L, 10, config, 80, 80));
+        assertEquals(NONE, state.update(15000L, 90, config, 80, 80));
+        // 2 of 4 samples are not enough, 3 of 5 samples in the last 20 seconds are
+        assertEquals(RAISED, state.update(20000L, 90, config, 80, 80));
+        assertEquals(60.0, state.getLastStatistic());
+    }
+
+    @Test
+    void testEwmaRuleSmoothsSamples() {
+        AlarmRuleState state = new AlarmRuleState(INTERVAL);
+        ThreadPoolExecutorProperties.AlarmConfig config = config("ewma");
+
+        assertEquals(NONE, state.update(0L, 40, config, 80, 80));
+        // ewma: 40 -> 70 -> 85
+        assertEquals(NONE, state.update(5000L, 100, config, 80, 80));
+        assertEquals(RAISED, state.update(10000L, 100, config, 80, 80));
+        assertEquals(85.0, state.getLastStatistic());
+    }
+
+    @Test
+    void testHysteresisKeepsAlarmRaisedBetweenThresholds() {
+        AlarmRuleState state = new AlarmRuleState(INTERVAL);
+        ThreadPoolExecutorProperties.AlarmConfig config = config("instant");
+
+        assertEquals(RAISED, state.update(0L, 85, config, 80, 60));
+        // below the raise threshold but above the clear threshold: no flapping
+        assertEquals(FIRING, state.update(5000L, 75, config, 80, 60));
+        assertEquals(FIRING, state.update(10000L, 65, config, 80, 60));
+        assertEquals(CLEARED, state.update(15000L, 55, config, 80, 60));
+        // and it has to reach the raise threshold again
+        assertEquals(NONE, state.update(20000L, 75, config, 80, 60));
+    }
+
+    @Test
+    void testRingGrowsWhenWindowIsRefreshed() {
+        AlarmRuleState state = new AlarmRuleState(INTERVAL);
+        ThreadPoolExecutorProperties.AlarmConfig config = config("sustained");
+        for (long t = 0; t <= 20000L; t += INTERVAL) {
+            state.update(t, 90, config, 80, 80);
+        }
+        assertTrue(state.isRaised());
+
+        config.setSustainedSeconds(60);
+        state.update(25000L, 90, config, 80, 80);
+        // old samples survive the resize, 25 seconds of history do not cover 60 seconds
+        assertFalse(state.isRaised());
+    }
+}
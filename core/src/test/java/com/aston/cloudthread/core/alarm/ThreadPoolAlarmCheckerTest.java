@@ -0,0 +1,209 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.alarm;
+
+import com.aston.cloudthread.core.executor.CloudThreadExecutor;
+import com.aston.cloudthread.core.executor.CloudThreadRegistry;
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
+import com.aston.cloudthread.core.executor.support.LatencyHistogram;
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmNotifyDTO;
+import com.aston.cloudthread.core.notification.service.NotifierDispatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadPoolAlarmCheckerTest {
+    private static final String POOL = "alarm-checker-test-pool";
+    private static final long MILLIS = 1_000_000L;
+
+    private final List<ThreadPoolAlarmNotifyDTO> alarms = new ArrayList<>();
+    private final List<ThreadPoolAlarmNotifyDTO> recoveries = new ArrayList<>();
+
+    private CloudThreadExecutor executor;
+    private ThreadPoolExecutorProperties.AlarmConfig alarmConfig;
+    private ThreadPoolAlarmChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        executor = new CloudThreadExecutor(
+                POOL,
+                1,
+                1,
+                1,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(10),
+                Executors.defaultThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy(),
+                1000
+        );
+        alarmConfig = new ThreadPoolExecutorProperties.AlarmConfig(true, 100, 100);
+        alarmConfig.setRecoveryNotify(true);
+        alarmConfig.setLatencyWindowSeconds(10);
+        alarmConfig.setLatencyMinSamples(10);
+        ThreadPoolExecutorProperties properties = ThreadPoolExecutorProperties.builder()
+                .threadPoolUID(POOL)
+                .alarm(alarmConfig)
+                .notify(new ThreadPoolExecutorProperties.NotifyConfig(null, 0))
+                .build();
+        CloudThreadRegistry.putWrapper(POOL, executor, properties);
+
+        checker = new ThreadPoolAlarmChecker(new NotifierDispatcher() {
+            @Override
+            public void sendAlarmMessage(ThreadPoolAlarmNotifyDTO alarm) {
+                alarms.add(alarm);
+            }
+
+            @Override
+            public void sendRecoveryMessage(ThreadPoolAlarmNotifyDTO recovery) {
+                recoveries.add(recovery);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Removal also resets the pool's rate limiter slots
+        CloudThreadRegistry.removeWrapper(POOL);
+        executor.shutdownNow();
+    }
+
+    private static void record(LatencyHistogram histogram, int count, long millis) {
+        for (int i = 0; i < count; i++) {
+            histogram.recordNanos(millis * MILLIS);
+        }
+    }
+
+    /**
+     * The first check only starts the latency window, samples recorded before do not count.
+     */
+    private void startWindow() {
+        checker.checkAlarm(0L);
+    }
+
+    @Test
+    void testQueueWaitP99RaisesAndClears() {
+        alarmConfig.setQueueWaitP99Millis(50L);
+        startWindow();
+
+        record(executor.getQueueWaitHistogram(), 100, 200);
+        checker.checkAlarm(5000L);
+        assertTrue(alarms.isEmpty(), "evaluated only once the window has elapsed");
+
+        checker.checkAlarm(11000L);
+        assertEquals(1, alarms.size());
+        assertEquals(AlarmTypeEnum.QUEUE_WAIT_P99.getName(), alarms.get(0).getAlarmType());
+        assertTrue(alarms.get(0).getAlarmValue() >= 200.0);
+
+        record(executor.getQueueWaitHistogram(), 100, 1);
+        checker.checkAlarm(22000L);
+        assertEquals(1, recoveries.size());
+        assertEquals(AlarmTypeEnum.QUEUE_WAIT_P99.getName(), recoveries.get(0).getAlarmType());
+        assertEquals(11L, recoveries.get(0).getAlarmDurationSeconds());
+    }
+
+    @Test
+    void testExecutionP99RaisesAndClears() {
+        alarmConfig.setExecutionP99Millis(50L);
+        startWindow();
+
+        // one slow task in a hundred is below the p99
+        record(executor.getExecutionHistogram(), 99, 1);
+        record(executor.getExecutionHistogram(), 1, 200);
+        checker.checkAlarm(11000L);
+        assertTrue(alarms.isEmpty());
+
+        record(executor.getExecutionHistogram(), 95, 1);
+        record(executor.getExecutionHistogram(), 5, 200);
+        checker.checkAlarm(22000L);
+        assertEquals(1, alarms.size());
+        assertEquals(AlarmTypeEnum.EXECUTION_P99.getName(), alarms.get(0).getAlarmType());
+
+        record(executor.getExecutionHistogram(), 100, 1);
+        checker.checkAlarm(33000L);
+        assertEquals(1, recoveries.size());
+        assertEquals(AlarmTypeEnum.EXECUTION_P99.getName(), recoveries.get(0).getAlarmType());
+    }
+
+    @Test
+    void testBurnRateRaisesAndClears() {
+        alarmConfig.setSloLatencyMillis(100L);
+        alarmConfig.setSloTarget(99.0);
+        alarmConfig.setBurnRateThreshold(10.0);
+        startWindow();
+
+        // 5% slow against a 1% error budget burns at 5x
+        record(executor.getSojournHistogram(), 95, 10);
+        record(executor.getSojournHistogram(), 5, 500);
+        checker.checkAlarm(11000L);
+        assertTrue(alarms.isEmpty());
+
+        // 20% slow burns at 20x
+        record(executor.getSojournHistogram(), 80, 10);
+        record(executor.getSojournHistogram(), 20, 500);
+        checker.checkAlarm(22000L);
+        assertEquals(1, alarms.size());
+        assertEquals(AlarmTypeEnum.BURN_RATE.getName(), alarms.get(0).getAlarmType());
+        assertEquals(20.0, alarms.get(0).getAlarmValue(), 1e-6);
+
+        record(executor.getSojournHistogram(), 100, 10);
+        checker.checkAlarm(33000L);
+        assertEquals(1, recoveries.size());
+        assertEquals(AlarmTypeEnum.BURN_RATE.getName(), recoveries.get(0).getAlarmType());
+        assertEquals(0.0, recoveries.get(0).getAlarmValue(), 1e-6);
+    }
+
+    @Test
+    void testWindowBelowMinSamplesDoesNotAlarm() {
+        alarmConfig.setQueueWaitP99Millis(50L);
+        alarmConfig.setSloLatencyMillis(100L);
+        startWindow();
+
+        record(executor.getQueueWaitHistogram(), 9, 200);
+        record(executor.getSojournHistogram(), 9, 500);
+        checker.checkAlarm(11000L);
+        assertTrue(alarms.isEmpty());
+    }
+
+    @Test
+    void testWindowLengthChangeRestartsTheWindow() {
+        alarmConfig.setQueueWaitP99Millis(50L);
+        startWindow();
+
+        record(executor.getQueueWaitHistogram(), 100, 200);
+        alarmConfig.setLatencyWindowSeconds(20);
+        // restarts the window, the samples recorded so far belong to the old one
+        checker.checkAlarm(11000L);
+        assertTrue(alarms.isEmpty());
+
+        checker.checkAlarm(21000L);
+        assertTrue(alarms.isEmpty(), "evaluated only once the new window has elapsed");
+
+        checker.checkAlarm(31000L);
+        assertTrue(alarms.isEmpty(), "samples of the old window are not counted");
+
+        record(executor.getQueueWaitHistogram(), 100, 200);
+        checker.checkAlarm(51000L);
+        assertEquals(1, alarms.size());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecutorConfigSnapshotTest {
+
+    private Map<Object, Object> config(String... keyValues) {
+        Map<Object, Object> config = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            config.put(keyValues[i], keyValues[i + 1]);
+        }
+        return config;
+    }
+
+    @Test
+    void testOnlyPoolsWithChangedContentAreReported() {
+        ExecutorConfigSnapshot before = ExecutorConfigSnapshot.ofConfig(config(
+                "cloudthread.executors[0].thread-pool-uid", "pool-a",
+                "cloudthread.executors[0].core-pool-size", "5",
+                "cloudthread.executors[1].thread-pool-uid", "pool-b",
+                "cloudthread.executors[1].alarm.queue-threshold", "80",
+                "cloudthread.web-config.core-pool-size", "10"));
+
+        // pool-b moves to index 0 unchanged, pool-a changes and the web config is ignored
+        ExecutorConfigSnapshot after = ExecutorConfigSnapshot.ofConfig(config(
+                "cloudthread.executors[0].thread-pool-uid", "pool-b",
+                "cloudthread.executors[0].alarm.queue-threshold", "80",
+                "cloudthread.executors[1].thread-pool-uid", "pool-a",
+                "cloudthread.executors[1].core-pool-size", "8",
+                "cloudthread.executors[1].keep-alive-time-seconds", "30",
+                "cloudthread.web-config.core-pool-size", "20"));
+
+        Map<String, Set<String>> changed = after.changedFields(before);
+        assertEquals(Set.of("pool-a"), changed.keySet());
+        assertEquals(Set.of("corepoolsize", "keepalivetimeseconds"), changed.get("pool-a"));
+        assertEquals("8", after.getPool("pool-a").get("core-pool-size"));
+    }
+
+    @Test
+    void testPerPoolFilesAndRemovedKeys() {
+        ExecutorConfigSnapshot before = ExecutorConfigSnapshot.ofPools(List.of(
+                config("thread-pool-uid", "pool-a", "core-pool-size", "5", "rejected-handler", "AbortPolicy")));
+        ExecutorConfigSnapshot after = ExecutorConfigSnapshot.ofPools(List.of(
+                config("thread-pool-uid", "pool-a", "core-pool-size", "5"),
+                config("core-pool-size", "3")));
+
+        assertEquals(Set.of("pool-a"), after.getThreadPoolUIDs());
+        assertEquals(Map.of("pool-a", Set.of("rejectedhandler")), after.changedFields(before));
+    }
+
+    @Test
+    void testNewPoolsAreReportedAndDigestIsStable() {
+        Map<Object, Object> pool = config("thread-pool-uid", "pool-a", "core-pool-size", "5");
+        ExecutorConfigSnapshot first = ExecutorConfigSnapshot.ofPools(List.of(pool));
+        ExecutorConfigSnapshot second = ExecutorConfigSnapshot.ofPools(List.of(pool));
+
+        assertEquals(Set.of("threadpooluid", "corepoolsize"),
+                first.changedFields(ExecutorConfigSnapshot.empty()).get("pool-a"));
+        assertEquals(first.getDigest("pool-a"), second.getDigest("pool-a"));
+        assertTrue(second.changedFields(first).isEmpty());
+    }
+}
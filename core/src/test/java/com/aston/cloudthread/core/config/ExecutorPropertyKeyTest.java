@@ -0,0 +1,51 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExecutorPropertyKeyTest {
+
+    @Test
+    void testParseTopLevelAndNestedKeys() {
+        ExecutorPropertyKey key = ExecutorPropertyKey.parse("cloudthread.executors[3].core-pool-size");
+        assertEquals(3, key.getIndex());
+        assertEquals("corepoolsize", key.getField());
+
+        ExecutorPropertyKey nested = ExecutorPropertyKey.parse("cloudthread.executors[12].alarm.queue-threshold");
+        assertEquals(12, nested.getIndex());
+        assertEquals("alarm", nested.getField());
+        assertEquals("alarm.queue-threshold", nested.getPath());
+
+        ExecutorPropertyKey map = ExecutorPropertyKey.parse("cloudthread.executors[0].rejected-handler-params[timeout-millis]");
+        assertEquals("rejectedhandlerparams", map.getField());
+    }
+
+    @Test
+    void testRelaxedNamesShareTheUniformField() {
+        assertEquals(ExecutorPropertyKey.parse("cloudthread.executors[0].keepAliveTimeSeconds").getField(),
+                ExecutorPropertyKey.parse("cloudthread.executors[0].keep_alive_time_seconds").getField());
+    }
+
+    @Test
+    void testOtherKeysAreNotParsed() {
+        assertNull(ExecutorPropertyKey.parse("cloudthread.web-config.core-pool-size"));
+        assertNull(ExecutorPropertyKey.parse("cloudthread.executors[0]"));
+        assertNull(ExecutorPropertyKey.parse("cloudthread.executors[x].core-pool-size"));
+        assertNull(ExecutorPropertyKey.parse("cloudthread.executors[1]."));
+    }
+}
@@ -13,20 +13,24 @@
  */
 package com.aston.cloudthread.core.executor;
 
+import com.aston.cloudthread.core.executor.support.BlockingPolicy;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class CloudThreadExecutorTest {
     private CloudThreadExecutor executor;
@@ -90,6 +94,75 @@ class CloudThreadExecutorTest {
         assertEquals(1, executor.getRejectCount().get());
     }
 
+    @Test
+    void testRejectHandlerGetsSubmittedTask() {
+        AtomicReference<Runnable> rejected = new AtomicReference<>();
+        executor = newExecutor(1, (r, e) -> rejected.set(r), 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> {
+        });
+
+        Runnable task = () -> {
+        };
+        executor.execute(task);
+        release.countDown();
+
+        assertSame(task, rejected.get());
+    }
+
+    @Test
+    @SneakyThrows
+    void testRequeuedTaskKeepsItsTimingAndIsNotRejected() {
+        executor = newExecutor(1, new BlockingPolicy(5000), 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> {
+        });
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            release.countDown();
+        });
+        releaser.start();
+
+        // blocks until the queue has space, then queues the task with its timing wrapper
+        executor.execute(() -> {
+        });
+        executor.shutdown();
+
+        Assertions.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(3, executor.getTaskTimingStats().getTaskCount());
+        assertEquals(0, executor.getRejectCount().get());
+        assertEquals(0, executor.getRejectionJournal().getRecordedCount());
+    }
+
+    @Test
+    void testBlockingTimeoutIsCountedAsRejected() {
+        executor = newExecutor(1, new BlockingPolicy(20), 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> {
+        });
+
+        Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+        }));
+        release.countDown();
+
+        assertEquals(1, executor.getRejectCount().get());
+        assertEquals(1, executor.getRejectionJournal().getRecordedCount());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @Test
     void testRejectHandlerToString() {
         // given
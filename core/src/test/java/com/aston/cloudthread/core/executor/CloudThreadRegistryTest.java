@@ -19,13 +19,16 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 class CloudThreadRegistryTest {
     private CloudThreadExecutor executor1;
@@ -171,4 +174,41 @@ class CloudThreadRegistryTest {
         Assertions.assertTrue(wrappers.size() >= threadCount);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testPoolIndexesAreDenseAndReused() {
+        CloudThreadRegistry.putWrapper("pool-a", executor1, props1);
+        CloudThreadRegistry.putWrapper("pool-b", executor2, props2);
+        int indexA = CloudThreadRegistry.getWrapper("pool-a").getPoolIndex();
+        int indexB = CloudThreadRegistry.getWrapper("pool-b").getPoolIndex();
+        Assertions.assertNotEquals(indexA, indexB);
+
+        // re-registering keeps the index
+        CloudThreadRegistry.putWrapper("pool-a", executor2, props2);
+        Assertions.assertEquals(indexA, CloudThreadRegistry.getWrapper("pool-a").getPoolIndex());
+
+        // a removed pool's index goes to the next new pool
+        CloudThreadRegistry.removeWrapper("pool-a");
+        CloudThreadRegistry.putWrapper("pool-c", executor1, props1);
+        Assertions.assertEquals(indexA, CloudThreadRegistry.getWrapper("pool-c").getPoolIndex());
+    }
+
+    @Test
+    void testRemoveWrapperNotifiesListeners() {
+        List<String> removed = new ArrayList<>();
+        Consumer<ThreadPoolExecutorWrapper> listener = wrapper -> removed.add(wrapper.getThreadPoolUID());
+        CloudThreadRegistry.addRemovalListener(listener);
+        try {
+            CloudThreadRegistry.putWrapper("pool-a", executor1, props1);
+
+            Assertions.assertNull(CloudThreadRegistry.removeWrapper("non-existent"));
+            ThreadPoolExecutorWrapper wrapper = CloudThreadRegistry.removeWrapper("pool-a");
+
+            Assertions.assertNotNull(wrapper);
+            Assertions.assertNull(CloudThreadRegistry.getWrapper("pool-a"));
+            Assertions.assertEquals(1, removed.size());
+            Assertions.assertEquals("pool-a", removed.get(0));
+        } finally {
+            CloudThreadRegistry.removeRemovalListener(listener);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadPoolConfigLayersTest {
+
+    private BootstrapConfigProperties properties() {
+        BootstrapConfigProperties properties = new BootstrapConfigProperties();
+        properties.setExecutorDefaults(ThreadPoolExecutorProperties.builder()
+                .corePoolSize(2)
+                .maximumPoolSize(4)
+                .queueCapacity(100)
+                .rejectedHandler("AbortPolicy")
+                .build());
+        Map<String, ThreadPoolExecutorProperties> groups = new HashMap<>();
+        groups.put("io", ThreadPoolExecutorProperties.builder().maximumPoolSize(32).queueCapacity(1000).build());
+        properties.setExecutorGroups(groups);
+        List<ThreadPoolExecutorProperties> executors = new ArrayList<>();
+        executors.add(ThreadPoolExecutorProperties.builder().threadPoolUID("plain").build());
+        executors.add(ThreadPoolExecutorProperties.builder().threadPoolUID("io-1").group("io").build());
+        executors.add(ThreadPoolExecutorProperties.builder().threadPoolUID("io-2").group("io")
+                .queueCapacity(50).build());
+        properties.setExecutors(executors);
+        return properties;
+    }
+
+    @Test
+    void testResolvePoolThenGroupThenDefaults() {
+        ThreadPoolConfigLayers layers = ThreadPoolConfigLayers.of(properties());
+
+        ThreadPoolExecutorProperties plain = layers.resolve("plain");
+        assertEquals(2, plain.getCorePoolSize());
+        assertEquals(4, plain.getMaximumPoolSize());
+        assertEquals(100, plain.getQueueCapacity());
+
+        ThreadPoolExecutorProperties io1 = layers.resolve("io-1");
+        assertEquals(2, io1.getCorePoolSize());
+        assertEquals(32, io1.getMaximumPoolSize());
+        assertEquals(1000, io1.getQueueCapacity());
+        assertEquals("io-1", io1.getThreadPoolUID());
+        assertEquals("io", io1.getGroup());
+
+        assertEquals(50, layers.resolve("io-2").getQueueCapacity());
+        assertNull(layers.resolve("missing"));
+        assertEquals(Set.of("plain", "io-1", "io-2"), layers.getChangedThreadPoolUIDs());
+    }
+
+    @Test
+    void testHolderKeepsAppliedLayersWhenPropertiesAreReboundInPlace() {
+        BootstrapConfigProperties properties = properties();
+        ThreadPoolConfigLayersHolder holder = new ThreadPoolConfigLayersHolder(properties);
+
+        // A refresh binds into the same instance before the listener sees it
+        properties.getExecutorDefaults().setCorePoolSize(3);
+        ThreadPoolConfigLayers next = holder.getLayers().refresh(properties);
+
+        assertEquals(2, holder.getLayers().resolve("plain").getCorePoolSize());
+        assertEquals(Set.of("plain", "io-1", "io-2"), next.getChangedThreadPoolUIDs());
+
+        holder.setLayers(next);
+        assertEquals(3, holder.getLayers().resolve("plain").getCorePoolSize());
+    }
+
+    @Test
+    void testResolveReturnsCopies() {
+        ThreadPoolConfigLayers layers = ThreadPoolConfigLayers.of(properties());
+
+        layers.resolve("plain").setCorePoolSize(99);
+
+        assertEquals(2, layers.resolve("plain").getCorePoolSize());
+    }
+
+    @Test
+    void testGroupChangeRefreshesOnlyInheritingPools() {
+        BootstrapConfigProperties properties = properties();
+        ThreadPoolConfigLayers layers = ThreadPoolConfigLayers.of(properties);
+
+        properties.getExecutorGroups().get("io").setQueueCapacity(2000);
+        ThreadPoolConfigLayers next = layers.refresh(properties);
+
+        assertEquals(Set.of("io-1"), next.getChangedThreadPoolUIDs());
+        assertEquals(2000, next.resolve("io-1").getQueueCapacity());
+        assertEquals(50, next.resolve("io-2").getQueueCapacity());
+    }
+
+    @Test
+    void testDefaultsChangeRefreshesPoolsNotOverridingIt() {
+        BootstrapConfigProperties properties = properties();
+        ThreadPoolConfigLayers layers = ThreadPoolConfigLayers.of(properties);
+
+        properties.getExecutorDefaults().setMaximumPoolSize(8);
+        ThreadPoolConfigLayers next = layers.refresh(properties);
+
+        assertEquals(Set.of("plain"), next.getChangedThreadPoolUIDs());
+        assertEquals(8, next.resolve("plain").getMaximumPoolSize());
+        assertEquals(32, next.resolve("io-1").getMaximumPoolSize());
+    }
+
+    @Test
+    void testUnchangedRefreshReportsNothing() {
+        ThreadPoolConfigLayers layers = ThreadPoolConfigLayers.of(properties());
+
+        assertTrue(layers.refresh(properties()).getChangedThreadPoolUIDs().isEmpty());
+    }
+
+    @Test
+    void testWithPoolFieldsMovesPoolToGroup() {
+        ThreadPoolConfigLayers layers = ThreadPoolConfigLayers.of(properties());
+
+        ThreadPoolConfigLayers next = layers.withPoolFields("plain",
+                new ThreadPoolExecutorProperties().setGroup("io"), Set.of("group"));
+
+        assertEquals(Set.of("plain"), next.getChangedThreadPoolUIDs());
+        assertEquals(32, next.resolve("plain").getMaximumPoolSize());
+        assertEquals(4, layers.resolve("plain").getMaximumPoolSize());
+    }
+
+    @Test
+    void testUnknownGroupFallsBackToDefaults() {
+        BootstrapConfigProperties properties = properties();
+        properties.getExecutors().get(0).setGroup("cpu");
+
+        ThreadPoolExecutorProperties plain = ThreadPoolConfigLayers.of(properties).resolve("plain");
+
+        assertEquals(4, plain.getMaximumPoolSize());
+    }
+}
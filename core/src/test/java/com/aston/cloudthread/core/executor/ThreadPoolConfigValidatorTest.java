@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor;
+
+import com.aston.cloudthread.core.executor.support.ResizableCapacityLinkedBlockingQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadPoolConfigValidatorTest {
+
+    private ThreadPoolExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private ThreadPoolExecutorProperties original() {
+        return new ThreadPoolExecutorProperties()
+                .setThreadPoolUID("pool")
+                .setCorePoolSize(2)
+                .setMaximumPoolSize(4)
+                .setQueueCapacity(10)
+                .setKeepAliveTimeSeconds(30L)
+                .setRejectedHandler("AbortPolicy");
+    }
+
+    @Test
+    void testValidConfigHasNoErrors() {
+        executor = new ThreadPoolExecutor(2, 4, 30, TimeUnit.SECONDS, new ResizableCapacityLinkedBlockingQueue<>(10));
+        ThreadPoolExecutorProperties remote = original()
+                .setCorePoolSize(3)
+                .setMaximumPoolSize(8)
+                .setQueueCapacity(20)
+                .setRejectedHandler("BlockingPolicy")
+                .setRejectedHandlerParams(Map.of("timeout-millis", "200"));
+
+        assertTrue(ThreadPoolConfigValidator.validate(original(), remote, executor).isEmpty());
+    }
+
+    @Test
+    void testCoreAboveMaximumIsRejected() {
+        executor = new ThreadPoolExecutor(2, 4, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(10));
+
+        // Maximum is kept from the executor when the new config leaves it empty
+        ThreadPoolExecutorProperties remote = new ThreadPoolExecutorProperties().setCorePoolSize(5);
+        List<String> errors = ThreadPoolConfigValidator.validate(original(), remote, executor);
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).contains("exceeds maximumPoolSize 4"));
+    }
+
+    @Test
+    void testUnknownNamesAndBadParamsAreRejected() {
+        executor = new ThreadPoolExecutor(2, 4, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(10));
+        ThreadPoolExecutorProperties remote = original()
+                .setWorkingQueue("NoSuchQueue")
+                .setRejectedHandler("NoSuchPolicy");
+        assertEquals(2, ThreadPoolConfigValidator.validate(original(), remote, executor).size());
+
+        ThreadPoolExecutorProperties badParams = original()
+                .setRejectedHandler("RetryPolicy")
+                .setRejectedHandlerParams(Map.of("max-retries", "many"));
+        assertEquals(1, ThreadPoolConfigValidator.validate(original(), badParams, executor).size());
+    }
+
+    @Test
+    void testCapacityChangeRequiresResizableQueue() {
+        executor = new ThreadPoolExecutor(2, 4, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(10));
+        ThreadPoolExecutorProperties remote = original().setQueueCapacity(20);
+
+        List<String> errors = ThreadPoolConfigValidator.validate(original(), remote, executor);
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).contains("LinkedBlockingQueue"));
+
+        // Unchanged capacity is fine on any queue
+        assertTrue(ThreadPoolConfigValidator.validate(original(), original(), executor).isEmpty());
+    }
+
+    @Test
+    void testCoreThreadTimeoutNeedsPositiveKeepAlive() {
+        executor = new ThreadPoolExecutor(2, 4, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(10));
+        ThreadPoolExecutorProperties remote = original()
+                .setKeepAliveTimeSeconds(0L)
+                .setAllowCoreThreadTimeout(true);
+
+        assertEquals(1, ThreadPoolConfigValidator.validate(original(), remote, executor).size());
+    }
+}
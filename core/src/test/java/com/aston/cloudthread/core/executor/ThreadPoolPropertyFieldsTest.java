@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadPoolPropertyFieldsTest {
+
+    private ThreadPoolExecutorProperties original() {
+        return ThreadPoolExecutorProperties.builder()
+                .threadPoolUID("pool-1")
+                .corePoolSize(2)
+                .maximumPoolSize(4)
+                .queueCapacity(100)
+                .rejectedHandler("AbortPolicy")
+                .alarm(new ThreadPoolExecutorProperties.AlarmConfig(true, 80, 80))
+                .build();
+    }
+
+    @Test
+    void testMergeAppliesOnlyChangedFields() {
+        ThreadPoolExecutorProperties original = original();
+        ThreadPoolExecutorProperties update = ThreadPoolExecutorProperties.builder()
+                .threadPoolUID("pool-1")
+                .corePoolSize(8)
+                .maximumPoolSize(16)
+                .alarm(new ThreadPoolExecutorProperties.AlarmConfig(true, 50, 50))
+                .build();
+
+        ThreadPoolExecutorProperties merged = ThreadPoolPropertyFields.merge(original, update,
+                Set.of("corepoolsize", "alarm", "unknown"));
+
+        assertEquals(8, merged.getCorePoolSize());
+        assertEquals(4, merged.getMaximumPoolSize());
+        assertEquals(100, merged.getQueueCapacity());
+        assertEquals(50, merged.getAlarm().getQueueThreshold());
+        assertEquals(2, original.getCorePoolSize());
+        assertEquals(80, original.getAlarm().getQueueThreshold());
+    }
+
+    @Test
+    void testCopyIsEqualButNotSame() {
+        ThreadPoolExecutorProperties original = original();
+        ThreadPoolExecutorProperties copy = ThreadPoolPropertyFields.copy(original);
+
+        assertEquals(original, copy);
+        assertNotSame(original, copy);
+        assertSame(original.getAlarm(), copy.getAlarm());
+    }
+
+    @Test
+    void testKnownFields() {
+        assertTrue(ThreadPoolPropertyFields.isKnown("corepoolsize"));
+        assertTrue(ThreadPoolPropertyFields.isKnown("rejectjournal"));
+        assertFalse(ThreadPoolPropertyFields.isKnown("core-pool-size"));
+    }
+
+    @Test
+    void testChangedFields() {
+        ThreadPoolExecutorProperties update = original().setCorePoolSize(8).setGroup("io");
+
+        assertEquals(Set.of("corepoolsize", "group"), ThreadPoolPropertyFields.changedFields(original(), update));
+        assertEquals(8, ThreadPoolPropertyFields.get(update, "corepoolsize"));
+        assertNull(ThreadPoolPropertyFields.get(update, "unknown"));
+    }
+}
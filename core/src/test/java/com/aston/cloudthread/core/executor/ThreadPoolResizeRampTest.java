@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor;
+
+import com.aston.cloudthread.core.executor.support.ResizableCapacityLinkedBlockingQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ThreadPoolResizeRampTest {
+
+    private ThreadPoolExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        ThreadPoolResizeRamp.clear();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private ThreadPoolExecutorProperties.RampConfig rampConfig(int steps) {
+        ThreadPoolExecutorProperties.RampConfig config = new ThreadPoolExecutorProperties.RampConfig();
+        config.setEnable(true);
+        config.setSteps(steps);
+        config.setStepIntervalMillis(60_000L);
+        return config;
+    }
+
+    @Test
+    void testStepsMoveSizesAndCapacityToTarget() {
+        ResizableCapacityLinkedBlockingQueue<Runnable> queue = new ResizableCapacityLinkedBlockingQueue<>(100);
+        executor = new ThreadPoolExecutor(2, 4, 30, TimeUnit.SECONDS, queue);
+        ThreadPoolResizeRamp.Ramp ramp = new ThreadPoolResizeRamp.Ramp("ramp-pool", executor, 10, 20, 500,
+                rampConfig(4), 0L);
+
+        ramp.step(null, 1L);
+        assertEquals(4, executor.getCorePoolSize());
+        assertEquals(8, executor.getMaximumPoolSize());
+        assertEquals(200, queue.remainingCapacity());
+
+        ramp.step(null, 2L);
+        ramp.step(null, 3L);
+        ramp.step(null, 4L);
+        assertEquals(10, executor.getCorePoolSize());
+        assertEquals(20, executor.getMaximumPoolSize());
+        assertEquals(500, queue.remainingCapacity());
+
+        ResizeRampProgress progress = ramp.progress();
+        assertEquals(ResizeRampProgress.State.COMPLETED, progress.getState());
+        assertEquals(4, progress.getStep());
+        assertEquals(4L, progress.getUpdateTime());
+    }
+
+    @Test
+    void testRisingRejectionsAbortRamp() {
+        CloudThreadExecutor cloudExecutor = new CloudThreadExecutor("ramp-pool", 2, 4, 30, TimeUnit.SECONDS,
+                new ResizableCapacityLinkedBlockingQueue<>(10), Executors.defaultThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy(), 1000L);
+        executor = cloudExecutor;
+        ThreadPoolExecutorWrapper wrapper = new ThreadPoolExecutorWrapper("ramp-pool", executor,
+                new ThreadPoolExecutorProperties().setCorePoolSize(12).setMaximumPoolSize(24));
+        ThreadPoolResizeRamp.Ramp ramp = new ThreadPoolResizeRamp.Ramp("ramp-pool", executor, 12, 24, null,
+                rampConfig(5), 0L);
+
+        // Baseline without rejections, then the first step
+        ramp.step(wrapper, 1L);
+        assertEquals(4, executor.getCorePoolSize());
+
+        cloudExecutor.getRejectCount().addAndGet(50);
+        ramp.step(wrapper, 2L);
+
+        ResizeRampProgress progress = ramp.progress();
+        assertEquals(ResizeRampProgress.State.ABORTED, progress.getState());
+        assertNotNull(progress.getAbortReason());
+        assertEquals(1, progress.getStep());
+        assertEquals(4, executor.getCorePoolSize());
+
+        // Properties follow the values reached, so the target can be pushed again
+        assertEquals(4, wrapper.getExecutorProperties().getCorePoolSize());
+        assertEquals(8, wrapper.getExecutorProperties().getMaximumPoolSize());
+    }
+
+    @Test
+    void testStartAndCancel() {
+        executor = new ThreadPoolExecutor(2, 4, 30, TimeUnit.SECONDS, new ResizableCapacityLinkedBlockingQueue<>(10));
+
+        assertNull(ThreadPoolResizeRamp.start("ramp-pool", executor, 2, 4, null, rampConfig(3)));
+        assertNull(ThreadPoolResizeRamp.getProgress("ramp-pool"));
+
+        ResizeRampProgress started = ThreadPoolResizeRamp.start("ramp-pool", executor, 8, 8, null, rampConfig(3));
+        assertEquals(ResizeRampProgress.State.RUNNING, started.getState());
+        assertEquals(0, started.getStep());
+
+        ThreadPoolResizeRamp.cancel("ramp-pool");
+        assertEquals(ResizeRampProgress.State.CANCELLED, ThreadPoolResizeRamp.getProgress("ramp-pool").getState());
+        assertEquals(2, executor.getCorePoolSize());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor;
+
+import com.aston.cloudthread.core.executor.support.ResizableCapacityLinkedBlockingQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ThreadPoolSettingsSnapshotTest {
+
+    private ThreadPoolExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRestoreUndoesChanges() {
+        ResizableCapacityLinkedBlockingQueue<Runnable> queue = new ResizableCapacityLinkedBlockingQueue<>(10);
+        ThreadPoolExecutor.AbortPolicy handler = new ThreadPoolExecutor.AbortPolicy();
+        executor = new ThreadPoolExecutor(2, 4, 30, TimeUnit.SECONDS, queue, handler);
+        ThreadPoolSettingsSnapshot snapshot = ThreadPoolSettingsSnapshot.capture(executor, null);
+
+        executor.setMaximumPoolSize(20);
+        executor.setCorePoolSize(10);
+        executor.setKeepAliveTime(5, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        queue.setCapacity(50);
+
+        snapshot.restore(executor);
+
+        assertEquals(2, executor.getCorePoolSize());
+        assertEquals(4, executor.getMaximumPoolSize());
+        assertEquals(30, executor.getKeepAliveTime(TimeUnit.SECONDS));
+        assertFalse(executor.allowsCoreThreadTimeOut());
+        assertSame(handler, executor.getRejectedExecutionHandler());
+        assertEquals(10, queue.remainingCapacity());
+    }
+
+    @Test
+    void testRestoreKeepsUnwrappedHandlerOfCloudThreadExecutor() {
+        ThreadPoolExecutor.CallerRunsPolicy handler = new ThreadPoolExecutor.CallerRunsPolicy();
+        CloudThreadExecutor cloudExecutor = new CloudThreadExecutor("snapshot-pool", 1, 2, 30, TimeUnit.SECONDS,
+                new ResizableCapacityLinkedBlockingQueue<>(5), Thread::new, handler, 1000L);
+        executor = cloudExecutor;
+        ThreadPoolSettingsSnapshot snapshot = ThreadPoolSettingsSnapshot.capture(executor, null);
+        assertSame(handler, snapshot.getRejectedHandler());
+        assertEquals(5, snapshot.getQueueCapacity());
+        assertNull(snapshot.getRejectJournal());
+
+        cloudExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        snapshot.restore(executor);
+
+        assertSame(handler, cloudExecutor.getDelegateRejectedHandler());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockingPolicyTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ThreadPoolExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private ThreadPoolExecutor saturatedExecutor(RejectedExecutionHandler handler) {
+        executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1), handler);
+        executor.execute(this::awaitRelease);
+        executor.execute(() -> { });
+        return executor;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void testBlocksUntilQueueHasSpace() throws InterruptedException {
+        ThreadPoolExecutor pool = saturatedExecutor(new BlockingPolicy(5000));
+        AtomicInteger ran = new AtomicInteger();
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            release.countDown();
+        });
+        releaser.start();
+        pool.execute(ran::incrementAndGet);
+
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, ran.get());
+    }
+
+    @Test
+    void testRejectsAfterTimeout() {
+        ThreadPoolExecutor pool = saturatedExecutor(new BlockingPolicy(50));
+
+        long start = System.nanoTime();
+        assertThrows(RejectedExecutionException.class, () -> pool.execute(() -> { }));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+    }
+
+    @Test
+    void testParamsAreApplied() {
+        BlockingPolicy policy = BlockingPolicy.of(Map.of("timeout-millis", "250"));
+        assertEquals(250, policy.getTimeoutMillis());
+        assertThrows(IllegalArgumentException.class, () -> BlockingPolicy.of(Map.of("timeout-millis", "soon")));
+    }
+}
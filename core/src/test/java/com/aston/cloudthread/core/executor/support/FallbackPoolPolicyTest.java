@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import com.aston.cloudthread.core.executor.CloudThreadExecutor;
+import com.aston.cloudthread.core.executor.CloudThreadRegistry;
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FallbackPoolPolicyTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        for (ThreadPoolExecutorWrapper wrapper : CloudThreadRegistry.getAllWrappers()) {
+            wrapper.getExecutor().shutdownNow();
+        }
+        CloudThreadRegistry.clear();
+    }
+
+    private CloudThreadExecutor register(String threadPoolUID, RejectedExecutionHandler handler) {
+        CloudThreadExecutor executor = new CloudThreadExecutor(threadPoolUID, 1, 1, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), Executors.defaultThreadFactory(), handler, 0L);
+        CloudThreadRegistry.putWrapper(threadPoolUID, executor,
+                ThreadPoolExecutorProperties.builder().threadPoolUID(threadPoolUID).build());
+        return executor;
+    }
+
+    private void block(CloudThreadExecutor executor) {
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @Test
+    void testRedirectsToFallbackPool() throws InterruptedException {
+        CloudThreadExecutor primary = register("primary", new FallbackPoolPolicy("fallback"));
+        CloudThreadExecutor fallback = register("fallback", new ThreadPoolExecutor.AbortPolicy());
+        block(primary);
+
+        CountDownLatch ran = new CountDownLatch(1);
+        primary.execute(ran::countDown);
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertEquals(1, primary.getRejectCount().get());
+        assertEquals(0, fallback.getRejectCount().get());
+    }
+
+    @Test
+    void testRejectsWhenFallbackMissing() {
+        CloudThreadExecutor primary = register("primary", new FallbackPoolPolicy("missing"));
+        block(primary);
+
+        assertThrows(RejectedExecutionException.class, () -> primary.execute(() -> { }));
+    }
+
+    @Test
+    void testMutualFallbackDoesNotLoop() {
+        CloudThreadExecutor first = register("first", new FallbackPoolPolicy("second"));
+        CloudThreadExecutor second = register("second", new FallbackPoolPolicy("first"));
+        block(first);
+        block(second);
+
+        assertThrows(RejectedExecutionException.class, () -> first.execute(() -> { }));
+        assertEquals(1, second.getRejectCount().get());
+    }
+}
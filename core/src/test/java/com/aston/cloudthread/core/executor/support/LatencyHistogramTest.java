@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketBoundsCoverRecordedValues() {
+        for (long micros : new long[]{0, 1, 7, 8, 15, 16, 100, 1_000, 123_456, 10_000_000}) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            long upper = LatencyHistogram.bucketUpperBoundMicros(index);
+            assertTrue(upper >= micros, "upper bound below value " + micros);
+            assertTrue(upper <= micros + micros / 8, "bucket too wide for " + micros);
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+        assertEquals(0, LatencyHistogram.bucketIndex(-5));
+    }
+
+    @Test
+    void testPercentileAndCountAbove() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.recordNanos(1_000_000L);       // 1ms
+        }
+        histogram.recordNanos(500_000_000L);         // 500ms
+
+        long[] last = new long[LatencyHistogram.BUCKET_COUNT];
+        long[] delta = new long[LatencyHistogram.BUCKET_COUNT];
+        histogram.drainDelta(last, delta);
+
+        assertEquals(100L, LatencyHistogram.totalCount(delta));
+        long p99 = LatencyHistogram.percentileMicros(delta, 99.0);
+        assertTrue(p99 >= 1_000L && p99 < 1_200L);
+        long p100 = LatencyHistogram.percentileMicros(delta, 100.0);
+        assertTrue(p100 >= 500_000L && p100 < 600_000L);
+        assertEquals(1L, LatencyHistogram.countAbove(delta, 100_000L));
+        assertEquals(0L, LatencyHistogram.percentileMicros(new long[LatencyHistogram.BUCKET_COUNT], 99.0));
+    }
+
+    @Test
+    void testDrainDeltaReturnsOnlyNewCounts() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] last = new long[LatencyHistogram.BUCKET_COUNT];
+        long[] delta = new long[LatencyHistogram.BUCKET_COUNT];
+
+        histogram.recordNanos(2_000L);
+        histogram.recordNanos(2_000L);
+        histogram.drainDelta(last, delta);
+        assertEquals(2L, LatencyHistogram.totalCount(delta));
+
+        histogram.recordNanos(50_000L);
+        histogram.drainDelta(last, delta);
+        assertEquals(1L, LatencyHistogram.totalCount(delta));
+        long median = LatencyHistogram.percentileMicros(delta, 50.0);
+        assertTrue(median >= 50L && median < 57L);
+
+        histogram.drainDelta(last, delta);
+        assertEquals(0L, LatencyHistogram.totalCount(delta));
+    }
+}
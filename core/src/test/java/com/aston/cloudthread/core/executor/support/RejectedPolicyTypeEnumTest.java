@@ -15,10 +15,13 @@ package com.aston.cloudthread.core.executor.support;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -61,11 +64,42 @@ class RejectedPolicyTypeEnumTest {
         assertTrue(ex.getMessage().contains("No matching type of rejected execution was found"));
     }
 
+    @Test
+    void testCreatePolicy_WithParams() {
+        RejectedExecutionHandler handler = RejectedPolicyTypeEnum.createPolicy("BlockingPolicy",
+                Map.of("timeout-millis", "200"));
+        assertTrue(handler instanceof BlockingPolicy);
+        assertEquals(200, ((BlockingPolicy) handler).getTimeoutMillis());
+
+        RejectedExecutionHandler fallback = RejectedPolicyTypeEnum.createPolicy("FallbackPoolPolicy",
+                Map.of("fallback-pool", "pool-b"));
+        assertEquals("pool-b", ((FallbackPoolPolicy) fallback).getFallbackPoolUID());
+    }
+
+    @Test
+    void testCreatePolicy_JdkPoliciesAreShared() {
+        assertSame(RejectedPolicyTypeEnum.ABORT_POLICY.getRejectedHandler(),
+                RejectedPolicyTypeEnum.createPolicy("AbortPolicy", Map.of("ignored", "1")));
+        assertSame(RejectedPolicyTypeEnum.createPolicy("CallerRunsPolicy"),
+                RejectedPolicyTypeEnum.createPolicy("CallerRunsPolicy", null));
+    }
+
+    @Test
+    void testCreatePolicy_FactoryPoliciesAreNotShared() {
+        RejectedExecutionHandler first = RejectedPolicyTypeEnum.createPolicy("VirtualThreadPolicy");
+        RejectedExecutionHandler second = RejectedPolicyTypeEnum.createPolicy("VirtualThreadPolicy", null);
+        assertTrue(first instanceof VirtualThreadPolicy);
+        assertNotSame(first, second);
+        assertNotSame(RejectedPolicyTypeEnum.RETRY_POLICY.getRejectedHandler(),
+                RejectedPolicyTypeEnum.createPolicy("RetryPolicy", Map.of()));
+    }
+
     @Test
     void testEnumMappingConsistency() {
         for (RejectedPolicyTypeEnum policyEnum : RejectedPolicyTypeEnum.values()) {
             RejectedExecutionHandler handler = RejectedPolicyTypeEnum.createPolicy(policyEnum.getName());
-            assertSame(handler, policyEnum.getRejectedHandler(), "Handler should match the enum instance");
+            assertSame(handler.getClass(), policyEnum.getRejectedHandler().getClass(),
+                    "Handler should match the enum policy");
         }
     }
 }
\ No newline at end of file
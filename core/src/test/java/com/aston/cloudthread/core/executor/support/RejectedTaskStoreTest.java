@@ -0,0 +1,218 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import com.aston.cloudthread.core.executor.CloudThreadExecutor;
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RejectedTaskStoreTest {
+
+    private static final Queue<String> EXECUTED = new ConcurrentLinkedQueue<>();
+
+    private static final List<String> TASK_CLASSES = List.of(SerializableTask.class.getName());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testPersistAndReplay() throws IOException {
+        RejectedTaskStore store = new RejectedTaskStore(directory.resolve("pool.rejected"), 1024 * 1024, TASK_CLASSES);
+
+        assertTrue(store.persist(new SerializableTask("a")));
+        assertTrue(store.persist(new SerializableTask("b")));
+        assertFalse(store.persist(() -> { }));
+        assertEquals(2, store.getPersistedCount().get());
+
+        EXECUTED.clear();
+        assertEquals(2, store.replay(Runnable::run));
+        assertEquals(List.of("a", "b"), List.copyOf(EXECUTED));
+        assertEquals(0, store.replay(Runnable::run));
+        assertFalse(Files.exists(directory.resolve("pool.rejected")));
+    }
+
+    @Test
+    void testFileIsBounded() {
+        RejectedTaskStore store = new RejectedTaskStore(directory.resolve("pool.rejected"), 512, TASK_CLASSES);
+
+        int persisted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (store.persist(new SerializableTask("task-" + i))) {
+                persisted++;
+            }
+        }
+        assertTrue(persisted > 0 && persisted < 20);
+        assertEquals(20 - persisted, store.getDroppedCount().get());
+    }
+
+    @Test
+    void testOnlyConfiguredTaskClassesAreStoredAndReplayed() throws IOException {
+        Path file = directory.resolve("pool.rejected");
+        RejectedTaskStore writer = new RejectedTaskStore(file, 1024 * 1024,
+                List.of(SerializableTask.class.getName(), OtherTask.class.getName()));
+        assertFalse(new RejectedTaskStore(file, 1024 * 1024, TASK_CLASSES).persist(new OtherTask()));
+        assertTrue(writer.persist(new OtherTask()));
+        assertTrue(writer.persist(new SerializableTask("allowed")));
+        writer.close();
+
+        // a file written with other settings, or by someone else, is filtered on replay
+        EXECUTED.clear();
+        assertEquals(1, new RejectedTaskStore(file, 1024 * 1024, TASK_CLASSES).replay(Runnable::run));
+        assertEquals(List.of("allowed"), List.copyOf(EXECUTED));
+    }
+
+    @Test
+    void testDirectoryIsCreatedOwnerOnly() throws IOException {
+        Path file = directory.resolve("nested").resolve("pool.rejected");
+        RejectedTaskStore store = new RejectedTaskStore(file, 1024 * 1024, TASK_CLASSES);
+        assertTrue(store.persist(new SerializableTask("a")));
+        store.close();
+
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(file.getParent()));
+            assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(file));
+        }
+    }
+
+    @Test
+    void testPersistentJournalRequiresDirectoryAndTaskClasses() {
+        CloudThreadExecutor executor = new CloudThreadExecutor("journal-pool", 1, 1, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), Executors.defaultThreadFactory(), new ThreadPoolExecutor.DiscardPolicy(), 0L);
+        ThreadPoolExecutorProperties.RejectJournalConfig config = new ThreadPoolExecutorProperties.RejectJournalConfig();
+        config.setPersistent(true);
+        config.setPersistTaskClasses(TASK_CLASSES);
+        try {
+            assertThrows(IllegalArgumentException.class, () -> executor.configureRejectionJournal(config));
+            config.setPersistDir(directory.toString());
+            config.setPersistTaskClasses(null);
+            assertThrows(IllegalArgumentException.class, () -> executor.configureRejectionJournal(config));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testAbortedTasksAreLeftToTheCaller() {
+        CloudThreadExecutor executor = new CloudThreadExecutor("abort-pool", 1, 1, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy(), 0L);
+        executor.configureRejectionJournal(persistentConfig());
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> awaitQuietly(release));
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(new SerializableTask("late")));
+
+            assertEquals(0, executor.getRejectedTaskStore().getPersistedCount().get());
+            assertFalse(Files.exists(executor.getRejectedTaskStore().getFile()));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecutorJournalsAndStoresDiscardedTasks() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CloudThreadExecutor executor = new CloudThreadExecutor("journal-pool", 1, 1, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), Executors.defaultThreadFactory(), new ThreadPoolExecutor.DiscardPolicy(), 0L);
+        executor.configureRejectionJournal(persistentConfig());
+        try {
+            executor.execute(() -> awaitQuietly(release));
+            executor.execute(new SerializableTask("late"));
+
+            List<RejectionRecord> rejections = executor.getRejectionJournal().latest(10);
+            assertEquals(1, rejections.size());
+            assertEquals(SerializableTask.class.getName(), rejections.get(0).getTaskClass());
+            assertEquals(Thread.currentThread().getName(), rejections.get(0).getSubmitterThread());
+            assertTrue(rejections.get(0).isPersisted());
+
+            release.countDown();
+            EXECUTED.clear();
+            // wait for the blocking task to free the only thread
+            long deadline = System.currentTimeMillis() + 5000;
+            while (executor.getActiveCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, executor.replayRejectedTasks());
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(List.of("late"), List.copyOf(EXECUTED));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private ThreadPoolExecutorProperties.RejectJournalConfig persistentConfig() {
+        ThreadPoolExecutorProperties.RejectJournalConfig config = new ThreadPoolExecutorProperties.RejectJournalConfig();
+        config.setPersistent(true);
+        config.setPersistDir(directory.toString());
+        config.setPersistTaskClasses(TASK_CLASSES);
+        return config;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class OtherTask implements Runnable, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void run() {
+            EXECUTED.add("other");
+        }
+    }
+
+    private static class SerializableTask implements Runnable, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+
+        SerializableTask(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            EXECUTED.add(name);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RejectionJournalTest {
+
+    @Test
+    void testRingKeepsLatestRecordsOldestFirst() {
+        RejectionJournal journal = new RejectionJournal(6, 0);
+        assertEquals(8, journal.getCapacity());
+
+        for (int i = 0; i < 20; i++) {
+            journal.record(i, "Task" + i, "main", i, 1, "AbortPolicy", false);
+        }
+
+        List<RejectionRecord> latest = journal.latest(3);
+        assertEquals(3, latest.size());
+        assertEquals("Task17", latest.get(0).getTaskClass());
+        assertEquals("Task19", latest.get(2).getTaskClass());
+        assertEquals(8, journal.latest(100).size());
+        assertEquals(20, journal.getRecordedCount());
+    }
+
+    @Test
+    void testSamplingKeepsBudgetPerSecond() {
+        RejectionJournal journal = new RejectionJournal(1024, 10);
+
+        int sampled = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (journal.sample(1_000L)) {
+                sampled++;
+            }
+        }
+        // the budget plus roughly budget * ln(n / budget) late samples
+        assertTrue(sampled >= 10 && sampled < 200, "sampled " + sampled);
+        assertEquals(10_000 - sampled, journal.getSampledOutCount());
+
+        // a new second starts a new budget
+        for (int i = 0; i < 10; i++) {
+            assertTrue(journal.sample(2_000L));
+        }
+    }
+
+    @Test
+    void testConcurrentWritersNeverReturnTornRecords() throws InterruptedException {
+        RejectionJournal journal = new RejectionJournal(64, 0);
+        int threads = 8;
+        int perThread = 10_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    journal.record(i, "Task", Thread.currentThread().getName(), i, 0, "AbortPolicy", false);
+                    journal.latest(16);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        List<RejectionRecord> latest = journal.latest(64);
+        assertEquals(64, latest.size());
+        for (int i = 1; i < latest.size(); i++) {
+            assertEquals(latest.get(i - 1).getSequence() + 1, latest.get(i).getSequence());
+        }
+        assertEquals((long) threads * perThread, journal.getRecordedCount());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+
+    @Test
+    void testRetrySucceedsOnceQueueDrains() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1), new RetryPolicy(10, 20, 200, 2.0));
+        AtomicInteger ran = new AtomicInteger();
+        try {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            executor.execute(ran::incrementAndGet);
+            new Thread(() -> {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ignored) {
+                }
+                release.countDown();
+            }).start();
+
+            executor.execute(ran::incrementAndGet);
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(2, ran.get());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRejectsAfterMaxRetries() {
+        CountDownLatch release = new CountDownLatch(1);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1), new RetryPolicy(2, 1, 5, 2.0));
+        try {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            executor.execute(() -> { });
+
+            RejectedExecutionException ex = assertThrows(RejectedExecutionException.class,
+                    () -> executor.execute(() -> { }));
+            assertTrue(ex.getMessage().contains("after 2 retries"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testParamsAreValidated() {
+        RetryPolicy policy = RetryPolicy.of(Map.of("max-retries", "5", "multiplier", "1.5"));
+        assertEquals(5, policy.getMaxRetries());
+        assertEquals(1.5, policy.getMultiplier());
+        assertEquals(10L, policy.getInitialBackoffMillis());
+
+        assertThrows(IllegalArgumentException.class, () -> RetryPolicy.of(Map.of("multiplier", "0.5")));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.executor.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadPolicyTest {
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testRunsOnCallerWithoutVirtualThreads() {
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        // the policy as resolved on Java 17
+        VirtualThreadPolicy policy = new VirtualThreadPolicy(1, null);
+
+        policy.rejectedExecution(() -> ranOn.set(Thread.currentThread()), executor);
+
+        assertSame(Thread.currentThread(), ranOn.get());
+    }
+
+    @Test
+    void testRunsOnCallerWhenVirtualThreadsNeedPreview() {
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        VirtualThreadPolicy policy = new VirtualThreadPolicy(1, task -> {
+            throw new UnsupportedOperationException("preview");
+        });
+
+        policy.rejectedExecution(() -> ranOn.set(Thread.currentThread()), executor);
+        policy.rejectedExecution(() -> ranOn.set(Thread.currentThread()), executor);
+
+        // the permit is returned once the task ran on the caller
+        assertSame(Thread.currentThread(), ranOn.get());
+    }
+
+    @Test
+    void testMaxConcurrencyBoundsRunningTasks() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        VirtualThreadPolicy policy = new VirtualThreadPolicy(1, task -> new Thread(task).start());
+
+        policy.rejectedExecution(() -> {
+            ranOn.set(Thread.currentThread());
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            finished.countDown();
+        }, executor);
+        assertThrows(RejectedExecutionException.class, () -> policy.rejectedExecution(() -> { }, executor));
+
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), ranOn.get());
+        CountDownLatch second = new CountDownLatch(1);
+        // the permit comes back once the first task is done
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (second.getCount() > 0 && System.nanoTime() < deadline) {
+            try {
+                policy.rejectedExecution(second::countDown, executor);
+            } catch (RejectedExecutionException ex) {
+                Thread.sleep(10);
+            }
+        }
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRejectsOnceShutDown() {
+        executor.shutdown();
+        VirtualThreadPolicy policy = new VirtualThreadPolicy(1, null);
+        assertThrows(RejectedExecutionException.class, () -> policy.rejectedExecution(() -> { }, executor));
+    }
+
+    @Test
+    void testParamsAreApplied() {
+        assertEquals(10000, VirtualThreadPolicy.of(Map.of()).getMaxConcurrency());
+        assertEquals(0, VirtualThreadPolicy.of(Map.of("max-concurrency", "0")).getMaxConcurrency());
+        assertThrows(IllegalArgumentException.class, () -> VirtualThreadPolicy.of(Map.of("max-concurrency", "-1")));
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.jfr;
+
+import com.aston.cloudthread.core.executor.CloudThreadExecutor;
+import com.aston.cloudthread.core.executor.support.ResizableCapacityLinkedBlockingQueue;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CloudThreadJfrEventsTest {
+    private CloudThreadExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null && !executor.isShutdown()) {
+            executor.shutdownNow();
+        }
+    }
+
+    private CloudThreadExecutor newExecutor(int queueCapacity) {
+        return new CloudThreadExecutor(
+                "jfr-pool",
+                1,
+                1,
+                1,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Executors.defaultThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy(),
+                1000L
+        );
+    }
+
+    @SneakyThrows
+    private List<RecordedEvent> dump(Recording recording) {
+        Path file = Files.createTempFile("cloudthread-jfr", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testTaskExecutedAndRejectedEvents() {
+        executor = newExecutor(1);
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(TaskExecutedEvent.NAME).withThreshold(Duration.ZERO);
+            recording.enable(TaskRejectedEvent.NAME);
+            recording.start();
+
+            CountDownLatch release = new CountDownLatch(1);
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            });
+            executor.execute(() -> {
+            });
+            Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+            }));
+
+            release.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+
+            recording.stop();
+            events = dump(recording);
+        }
+
+        long executed = events.stream()
+                .filter(e -> e.getEventType().getName().equals(TaskExecutedEvent.NAME))
+                .peek(e -> assertEquals("jfr-pool", e.getString("threadPoolUID")))
+                .count();
+        assertEquals(2, executed);
+
+        RecordedEvent rejected = events.stream()
+                .filter(e -> e.getEventType().getName().equals(TaskRejectedEvent.NAME))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("AbortPolicy", rejected.getString("rejectedPolicy"));
+        assertEquals(1, rejected.getInt("queueSize"));
+    }
+
+    @Test
+    @SneakyThrows
+    void testFastTasksAreFilteredByDefaultThreshold() {
+        executor = newExecutor(10);
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            // No explicit threshold, the event's own @Threshold applies
+            recording.enable(TaskExecutedEvent.NAME);
+            recording.start();
+
+            executor.submit(() -> {
+            }).get();
+
+            recording.stop();
+            events = dump(recording);
+        }
+
+        assertFalse(events.stream()
+                .anyMatch(e -> e.getEventType().getName().equals(TaskExecutedEvent.NAME)));
+    }
+
+    @Test
+    @SneakyThrows
+    void testQueueCapacityChangedAndProducerBlockedEvents() {
+        ResizableCapacityLinkedBlockingQueue<Integer> queue = new ResizableCapacityLinkedBlockingQueue<>(1);
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(QueueCapacityChangedEvent.NAME);
+            recording.enable(ProducerBlockedEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+
+            queue.put(1);
+            assertFalse(queue.offer(2, 20, TimeUnit.MILLISECONDS));
+            queue.setCapacity(5);
+
+            recording.stop();
+            events = dump(recording);
+        }
+
+        RecordedEvent blocked = events.stream()
+                .filter(e -> e.getEventType().getName().equals(ProducerBlockedEvent.NAME))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(blocked.getBoolean("timedOut"));
+
+        RecordedEvent changed = events.stream()
+                .filter(e -> e.getEventType().getName().equals(QueueCapacityChangedEvent.NAME))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, changed.getInt("capacityBefore"));
+        assertEquals(5, changed.getInt("capacityAfter"));
+    }
+}
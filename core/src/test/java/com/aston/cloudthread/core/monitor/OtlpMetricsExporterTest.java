@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OtlpMetricsExporterTest {
+    private HttpServer collector;
+    private final BlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+    private final AtomicInteger responseStatus = new AtomicInteger(200);
+
+    @BeforeEach
+    void setup() throws Exception {
+        // local stand-in for an OpenTelemetry collector
+        collector = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        collector.createContext("/v1/metrics", exchange -> {
+            received.add(exchange.getRequestBody().readAllBytes());
+            exchange.sendResponseHeaders(responseStatus.get(), -1);
+            exchange.close();
+        });
+        collector.start();
+    }
+
+    @AfterEach
+    void teardown() {
+        collector.stop(0);
+    }
+
+    private OtlpMetricsExporter newExporter() {
+        String endpoint = "http://127.0.0.1:" + collector.getAddress().getPort() + "/v1/metrics";
+        return new OtlpMetricsExporter(endpoint, 2000L, "demo-app");
+    }
+
+    @Test
+    void testExportSendsGaugePerMetric() throws Exception {
+        ThreadPoolRuntimeContext ctx = ThreadPoolRuntimeContext.builder()
+                .threadPoolUID("order-pool")
+                .corePoolSize(2)
+                .workQueueSize(9)
+                .build();
+
+        assertTrue(newExporter().export(List.of(ctx), 1_700_000_000_000L));
+
+        byte[] body = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(body);
+        JsonNode root = new ObjectMapper().readTree(body);
+        JsonNode resource = root.at("/resourceMetrics/0/resource/attributes/0");
+        assertEquals("service.name", resource.get("key").asText());
+        assertEquals("demo-app", resource.at("/value/stringValue").asText());
+
+        JsonNode metrics = root.at("/resourceMetrics/0/scopeMetrics/0/metrics");
+        assertEquals(ThreadPoolMetricEnum.values().length, metrics.size());
+        JsonNode queueSize = metrics.get(ThreadPoolMetricEnum.QUEUE_SIZE.ordinal());
+        assertEquals("dynamic.thread-pool.queue.size", queueSize.get("name").asText());
+        JsonNode point = queueSize.at("/gauge/dataPoints/0");
+        assertEquals("9", point.get("asInt").asText());
+        assertEquals("1700000000000000000", point.get("timeUnixNano").asText());
+        assertEquals("order-pool", point.at("/attributes/0/value/stringValue").asText());
+
+        // unset values are not exported
+        assertEquals(0, metrics.get(ThreadPoolMetricEnum.REJECT_COUNT.ordinal()).at("/sum/dataPoints").size());
+    }
+
+    @Test
+    void testCountersAreMonotonicSumsStartingOverOnReset() throws Exception {
+        OtlpMetricsExporter exporter = newExporter();
+        ThreadPoolRuntimeContext ctx = ThreadPoolRuntimeContext.builder()
+                .threadPoolUID("order-pool")
+                .completedTaskCount(100L)
+                .build();
+
+        JsonNode first = completedTaskCount(exporter.encode(List.of(ctx), 1_000L));
+        assertEquals(2, first.get("aggregationTemporality").asInt());
+        assertTrue(first.get("isMonotonic").asBoolean());
+        assertEquals("1000000000", first.at("/dataPoints/0/startTimeUnixNano").asText());
+        assertEquals("100", first.at("/dataPoints/0/asInt").asText());
+
+        ctx.setCompletedTaskCount(150L);
+        assertEquals("1000000000", completedTaskCount(exporter.encode(List.of(ctx), 2_000L))
+                .at("/dataPoints/0/startTimeUnixNano").asText());
+
+        // the executor was replaced, its count starts from 0 again
+        ctx.setCompletedTaskCount(5L);
+        assertEquals("3000000000", completedTaskCount(exporter.encode(List.of(ctx), 3_000L))
+                .at("/dataPoints/0/startTimeUnixNano").asText());
+    }
+
+    private static JsonNode completedTaskCount(byte[] body) throws IOException {
+        return new ObjectMapper().readTree(body).at("/resourceMetrics/0/scopeMetrics/0/metrics")
+                .get(ThreadPoolMetricEnum.COMPLETED_TASK_COUNT.ordinal()).get("sum");
+    }
+
+    @Test
+    void testExportReportsRejectedRequest() {
+        responseStatus.set(503);
+        ThreadPoolRuntimeContext ctx = ThreadPoolRuntimeContext.builder().threadPoolUID("p").corePoolSize(1).build();
+        assertFalse(newExporter().export(List.of(ctx), System.currentTimeMillis()));
+    }
+
+    @Test
+    void testExportToUnreachableCollector() {
+        OtlpMetricsExporter exporter = new OtlpMetricsExporter("http://127.0.0.1:1/v1/metrics", 500L, "demo-app");
+        ThreadPoolRuntimeContext ctx = ThreadPoolRuntimeContext.builder().threadPoolUID("p").corePoolSize(1).build();
+        assertFalse(exporter.export(List.of(ctx), System.currentTimeMillis()));
+    }
+}
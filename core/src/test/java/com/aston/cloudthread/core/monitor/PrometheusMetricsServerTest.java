@@ -0,0 +1,123 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrometheusMetricsServerTest {
+    private final List<ThreadPoolRuntimeContext> contexts = new ArrayList<>();
+    private PrometheusMetricsServer server;
+
+    @BeforeEach
+    void setup() throws Exception {
+        server = new PrometheusMetricsServer("127.0.0.1", 0, "/metrics", "demo-app", () -> contexts);
+        server.start();
+    }
+
+    @AfterEach
+    void teardown() {
+        server.stop();
+    }
+
+    private ThreadPoolRuntimeContext context(String threadPoolUID, int queueSize, long rejectCount) {
+        return ThreadPoolRuntimeContext.builder()
+                .threadPoolUID(threadPoolUID)
+                .corePoolSize(2)
+                .maximumPoolSize(4)
+                .workQueueSize(queueSize)
+                .rejectCount(rejectCount)
+                .build();
+    }
+
+    @Test
+    void testScrapeOverHttp() throws Exception {
+        contexts.add(context("order-pool", 17, 3L));
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/metrics")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(PrometheusMetricsServer.CONTENT_TYPE,
+                response.headers().firstValue("Content-Type").orElse(null));
+        String body = response.body();
+        assertTrue(body.contains("# TYPE dynamic_thread_pool_queue_size gauge\n"));
+        assertTrue(body.contains(
+                "dynamic_thread_pool_queue_size{dynamic_thread_pool_id=\"order-pool\",application_name=\"demo-app\"} 17\n"));
+        // cumulative totals are counters, so rate() handles resets
+        assertTrue(body.contains("# TYPE dynamic_thread_pool_reject_count_total counter\n"));
+        assertTrue(body.contains(
+                "dynamic_thread_pool_reject_count_total{dynamic_thread_pool_id=\"order-pool\",application_name=\"demo-app\"} 3\n"));
+    }
+
+    @Test
+    void testFailedRenderAnswersServerError() throws Exception {
+        PrometheusMetricsServer failing = new PrometheusMetricsServer("127.0.0.1", 0, "/metrics", "demo-app", () -> {
+            throw new IllegalStateException("snapshot failed");
+        });
+        failing.start();
+        try {
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + failing.getPort() + "/metrics")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(500, response.statusCode());
+        } finally {
+            failing.stop();
+        }
+    }
+
+    @Test
+    void testUnknownValuesAreSkipped() {
+        // reject count is -1 for executors that do not track rejections
+        contexts.add(context("plain-pool", 0, -1L));
+
+        String body = new String(server.scrape(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("dynamic_thread_pool_queue_size{dynamic_thread_pool_id=\"plain-pool\""));
+        assertFalse(body.contains("dynamic_thread_pool_reject_count_total{"));
+        assertFalse(body.contains("dynamic_thread_pool_largest_size{"));
+    }
+
+    @Test
+    void testBufferIsReusedAcrossScrapes() {
+        contexts.add(context("a", 100000, 0L));
+        String first = new String(server.scrape(), StandardCharsets.UTF_8);
+        contexts.clear();
+        contexts.add(context("b", 1, 0L));
+        String second = new String(server.scrape(), StandardCharsets.UTF_8);
+
+        assertTrue(first.contains("} 100000\n"));
+        assertFalse(second.contains("dynamic_thread_pool_id=\"a\""));
+        assertFalse(second.contains("100000"));
+    }
+
+    @Test
+    void testEscapeLabelValue() {
+        assertEquals("a\\\"b\\\\c\\nd", PrometheusMetricsServer.escapeLabelValue("a\"b\\c\nd"));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StructuredLogCollectorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<ThreadPoolRuntimeContext> batch() {
+        return List.of(
+                ThreadPoolRuntimeContext.builder()
+                        .threadPoolUID("order-pool")
+                        .corePoolSize(2)
+                        .maximumPoolSize(4)
+                        .workQueueSize(7)
+                        .workQueueName("LinkedBlockingQueue")
+                        .build(),
+                ThreadPoolRuntimeContext.builder()
+                        .threadPoolUID("pay-pool")
+                        .corePoolSize(1)
+                        .rejectCount(3L)
+                        .build());
+    }
+
+    @Test
+    void testJsonLinePerBatch() throws Exception {
+        Path file = tempDir.resolve("monitor.log");
+        StructuredLogCollector collector =
+                new StructuredLogCollector(StructuredLogCollector.Format.JSON, file, 1024 * 1024, 1);
+        collector.collect(batch(), 1000L);
+        collector.collect(batch(), 2000L);
+        collector.close();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        JsonNode first = new ObjectMapper().readTree(lines.get(0));
+        assertEquals(1000L, first.get("ts").asLong());
+        assertEquals(2, first.get("pools").size());
+        JsonNode order = first.get("pools").get(0);
+        assertEquals("order-pool", order.get("id").asText());
+        assertEquals(7, order.get("queueSize").asInt());
+        assertEquals("LinkedBlockingQueue", order.get("queue").asText());
+        assertFalse(order.has("rejects"));
+        assertEquals(3, first.get("pools").get(1).get("rejects").asInt());
+        assertEquals(2000L, new ObjectMapper().readTree(lines.get(1)).get("ts").asLong());
+    }
+
+    @Test
+    void testKeyValueLine() throws Exception {
+        Path file = tempDir.resolve("monitor-kv.log");
+        StructuredLogCollector collector =
+                new StructuredLogCollector(StructuredLogCollector.Format.KV, file, 1024 * 1024, 1);
+        collector.collect(batch(), 1000L);
+        collector.close();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertEquals("ts=1000 pools=2"
+                + " [id=order-pool core=2 max=4 queueSize=7"
+                + " throughput=0.0 arrivalRate=0.0 rejectRate=0.0 utilization=0.0 queue=LinkedBlockingQueue]"
+                + " [id=pay-pool core=1 rejects=3"
+                + " throughput=0.0 arrivalRate=0.0 rejectRate=0.0 utilization=0.0]", lines.get(0));
+    }
+
+    @Test
+    void testFileRolling() throws Exception {
+        Path file = tempDir.resolve("rolling.log");
+        StructuredLogCollector collector =
+                new StructuredLogCollector(StructuredLogCollector.Format.JSON, file, 200, 2);
+        for (int i = 0; i < 10; i++) {
+            collector.collect(batch(), i);
+        }
+        collector.close();
+
+        assertTrue(Files.exists(file));
+        assertTrue(Files.exists(tempDir.resolve("rolling.log.1")));
+        assertTrue(Files.exists(tempDir.resolve("rolling.log.2")));
+        assertFalse(Files.exists(tempDir.resolve("rolling.log.3")));
+        assertEquals(1, Files.readAllLines(file).size());
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import com.aston.cloudthread.core.executor.CloudThreadExecutor;
+import com.aston.cloudthread.core.executor.CloudThreadRegistry;
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadPoolCapacityAdvisorTest {
+    private static final String POOL_ID = "advisor-pool";
+
+    @AfterEach
+    void teardown() {
+        CloudThreadRegistry.clear();
+        ThreadPoolRateRegistry.clear();
+        ThreadPoolCapacityAdvisor.clear();
+    }
+
+    @Test
+    void testErlangC() {
+        assertEquals(1.0 / 3.0, ThreadPoolCapacityAdvisor.erlangC(2, 1.0), 1e-12);
+        assertEquals(0.0, ThreadPoolCapacityAdvisor.erlangC(4, 0.0));
+        // single server degenerates to M/M/1 where P(wait) equals utilization
+        assertEquals(0.6, ThreadPoolCapacityAdvisor.erlangC(1, 0.6), 1e-12);
+    }
+
+    @Test
+    void testWaitQuantile() {
+        // M/M/1 with rho 0.5: P(W > t) = 0.5 * e^(-(mu - lambda) t)
+        double expected = Math.log(0.5 / 0.01) / (10.0 - 5.0);
+        assertEquals(expected, ThreadPoolCapacityAdvisor.waitQuantile(1, 5.0, 10.0, 0.99, 1.0), 1e-12);
+        assertEquals(Double.POSITIVE_INFINITY, ThreadPoolCapacityAdvisor.waitQuantile(2, 30.0, 10.0, 0.99, 1.0));
+        assertEquals(0.0, ThreadPoolCapacityAdvisor.waitQuantile(50, 1.0, 10.0, 0.99, 1.0));
+    }
+
+    @Test
+    void testMinThreadsMeetsTarget() {
+        // 100 tasks/s of 50ms each keep 5 threads busy on average
+        int threads = ThreadPoolCapacityAdvisor.minThreads(100.0, 20.0, 0.99, 0.1, 1.0);
+        assertTrue(threads > 5);
+        assertTrue(ThreadPoolCapacityAdvisor.waitQuantile(threads, 100.0, 20.0, 0.99, 1.0) <= 0.1);
+        assertTrue(ThreadPoolCapacityAdvisor.waitQuantile(threads - 1, 100.0, 20.0, 0.99, 1.0) > 0.1);
+        assertEquals(1, ThreadPoolCapacityAdvisor.minThreads(0.0, 20.0, 0.99, 0.1, 1.0));
+    }
+
+    @Test
+    void testAdviseRegisteredPool() throws Exception {
+        CloudThreadExecutor executor = new CloudThreadExecutor(POOL_ID, 2, 2, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(100), Executors.defaultThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy(), 1000L);
+        CloudThreadRegistry.putWrapper(POOL_ID, executor, new ThreadPoolExecutorProperties());
+        ThreadPoolExecutorWrapper wrapper = CloudThreadRegistry.getWrapper(POOL_ID);
+        try {
+            assertNull(ThreadPoolCapacityAdvisor.evaluate(wrapper, System.currentTimeMillis()),
+                    "no completed task yet");
+            assertNull(ThreadPoolCapacityAdvisor.advise(POOL_ID));
+
+            CountDownLatch latch = new CountDownLatch(20);
+            for (int i = 0; i < 20; i++) {
+                executor.execute(() -> {
+                    try {
+                        Thread.sleep(5L);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            executor.shutdown();
+
+            assertNull(ThreadPoolCapacityAdvisor.advise(POOL_ID), "queries do not evaluate");
+            CapacityRecommendation recommendation =
+                    ThreadPoolCapacityAdvisor.evaluate(wrapper, System.currentTimeMillis());
+            assertNotNull(recommendation);
+            assertSame(recommendation, ThreadPoolCapacityAdvisor.advise(POOL_ID));
+            assertEquals(List.of(recommendation), ThreadPoolCapacityAdvisor.adviseAll());
+            assertEquals(POOL_ID, recommendation.getThreadPoolUID());
+            assertTrue(recommendation.getMeanServiceMillis() >= 5.0);
+            assertEquals(2, recommendation.getCurrentMaximumPoolSize());
+            assertEquals(100, recommendation.getCurrentQueueCapacity());
+            assertTrue(recommendation.getRecommendedCorePoolSize() >= 1);
+            assertTrue(recommendation.getRecommendedMaximumPoolSize() >= recommendation.getRecommendedCorePoolSize());
+            assertTrue(recommendation.getRecommendedQueueCapacity() >= 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
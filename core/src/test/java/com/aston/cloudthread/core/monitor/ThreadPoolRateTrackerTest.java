@@ -0,0 +1,87 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadPoolRateTrackerTest {
+
+    private ThreadPoolRuntimeContext sample(long completed, long tasks, long rejects, int active) {
+        return ThreadPoolRuntimeContext.builder()
+                .threadPoolUID("rate-pool")
+                .maximumPoolSize(4)
+                .activePoolSize(active)
+                .completedTaskCount(completed)
+                .taskCount(tasks)
+                .rejectCount(rejects)
+                .build();
+    }
+
+    @Test
+    void testFirstSampleHasNoRates() {
+        ThreadPoolRateTracker tracker = new ThreadPoolRateTracker(60L);
+        ThreadPoolRuntimeContext ctx = sample(500, 520, 3, 2);
+        tracker.update(1_000L, ctx);
+
+        assertEquals(0L, ctx.getCompletedTaskDelta());
+        assertEquals(0.0, ctx.getThroughput());
+        assertEquals(2.0, ctx.getAvgBusyThreads());
+        assertEquals(0.5, ctx.getUtilization());
+    }
+
+    @Test
+    void testSecondSampleSeedsRatesFromDeltas() {
+        ThreadPoolRateTracker tracker = new ThreadPoolRateTracker(60L);
+        tracker.update(0L, sample(0, 0, 0, 0));
+        ThreadPoolRuntimeContext ctx = sample(200, 230, 10, 4);
+        tracker.update(2_000L, ctx);
+
+        assertEquals(200L, ctx.getCompletedTaskDelta());
+        assertEquals(10L, ctx.getRejectDelta());
+        assertEquals(100.0, ctx.getThroughput(), 1e-9);
+        assertEquals(120.0, ctx.getArrivalRate(), 1e-9);
+        assertEquals(5.0, ctx.getRejectRate(), 1e-9);
+        assertEquals(tracker.getThroughput(), ctx.getThroughput());
+    }
+
+    @Test
+    void testEwmaSmoothsTowardsNewRate() {
+        ThreadPoolRateTracker tracker = new ThreadPoolRateTracker(10L);
+        tracker.update(0L, sample(0, 0, 0, 0));
+        tracker.update(1_000L, sample(100, 100, 0, 4));
+
+        // throughput drops to 0 for one second
+        ThreadPoolRuntimeContext ctx = sample(100, 100, 0, 4);
+        tracker.update(2_000L, ctx);
+        double alpha = 1.0 - Math.exp(-0.1);
+        assertEquals(100.0 * (1.0 - alpha), ctx.getThroughput(), 1e-9);
+        assertTrue(ctx.getAvgBusyThreads() > 0.0 && ctx.getAvgBusyThreads() < 4.0);
+        assertTrue(ctx.getUtilization() <= 1.0);
+    }
+
+    @Test
+    void testCounterResetDoesNotProduceNegativeDelta() {
+        ThreadPoolRateTracker tracker = new ThreadPoolRateTracker(60L);
+        tracker.update(0L, sample(1000, 1000, 50, 1));
+        ThreadPoolRuntimeContext ctx = sample(10, 10, 0, 1);
+        tracker.update(1_000L, ctx);
+
+        assertEquals(0L, ctx.getCompletedTaskDelta());
+        assertEquals(0L, ctx.getRejectDelta());
+        assertEquals(0.0, ctx.getThroughput());
+    }
+}
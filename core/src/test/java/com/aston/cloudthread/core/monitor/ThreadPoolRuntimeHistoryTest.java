@@ -0,0 +1,118 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.monitor;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadPoolRuntimeHistoryTest {
+
+    @AfterEach
+    void teardown() {
+        ThreadPoolRuntimeHistoryRegistry.clear();
+        BootstrapConfigProperties.getInstance().getMonitorConfig().setHistorySize(360);
+    }
+
+    private ThreadPoolRuntimeContext sample(int queueSize) {
+        return ThreadPoolRuntimeContext.builder()
+                .threadPoolUID("history-pool")
+                .corePoolSize(2)
+                .maximumPoolSize(4)
+                .activePoolSize(queueSize % 4)
+                .workQueueName("LinkedBlockingQueue")
+                .workQueueSize(queueSize)
+                .workQueueCapacity(100)
+                .completedTaskCount((long) queueSize * 10)
+                .rejectCount(0L)
+                .build();
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new ThreadPoolRuntimeHistory("history-pool", 0));
+    }
+
+    @Test
+    void testLatestBeforeWrapAround() {
+        ThreadPoolRuntimeHistory history = new ThreadPoolRuntimeHistory("history-pool", 5);
+        for (int i = 0; i < 3; i++) {
+            history.record(1000L + i, sample(i));
+        }
+
+        List<ThreadPoolRuntimeContext> latest = history.latest(10);
+        assertEquals(3, latest.size());
+        assertEquals(0, latest.get(0).getWorkQueueSize());
+        assertEquals(2, latest.get(2).getWorkQueueSize());
+        assertEquals(98, latest.get(2).getWorkQueueRemainingCapacity());
+        assertEquals("LinkedBlockingQueue", latest.get(2).getWorkQueueName());
+    }
+
+    @Test
+    void testOldestSamplesAreOverwritten() {
+        ThreadPoolRuntimeHistory history = new ThreadPoolRuntimeHistory("history-pool", 4);
+        for (int i = 0; i < 10; i++) {
+            history.record(1000L + i, sample(i));
+        }
+
+        assertEquals(4, history.size());
+        List<ThreadPoolRuntimeContext> latest = history.latest(4);
+        assertEquals(1006L, latest.get(0).getTimestamp());
+        assertEquals(1009L, latest.get(3).getTimestamp());
+
+        List<ThreadPoolRuntimeContext> lastTwo = history.latest(2);
+        assertEquals(8, lastTwo.get(0).getWorkQueueSize());
+        assertEquals(90L, lastTwo.get(1).getCompletedTaskCount());
+    }
+
+    @Test
+    void testQueryByTimeRange() {
+        ThreadPoolRuntimeHistory history = new ThreadPoolRuntimeHistory("history-pool", 8);
+        for (int i = 0; i < 12; i++) {
+            history.record(1000L * i, sample(i));
+        }
+
+        List<ThreadPoolRuntimeContext> range = history.query(5000L, 7500L);
+        assertEquals(3, range.size());
+        assertEquals(5000L, range.get(0).getTimestamp());
+        assertEquals(7000L, range.get(2).getTimestamp());
+
+        // samples older than the buffer are gone
+        assertEquals(4, history.query(0L, 7000L).get(0).getWorkQueueSize());
+        assertTrue(history.query(20000L, 30000L).isEmpty());
+        assertTrue(history.query(7000L, 5000L).isEmpty());
+    }
+
+    @Test
+    void testRegistryHonoursConfiguredSize() {
+        BootstrapConfigProperties.getInstance().getMonitorConfig().setHistorySize(2);
+        for (int i = 0; i < 5; i++) {
+            ThreadPoolRuntimeHistoryRegistry.record(1000L + i, sample(i));
+        }
+
+        assertEquals(2, ThreadPoolRuntimeHistoryRegistry.getHistory("history-pool").getCapacity());
+        assertEquals(2, ThreadPoolRuntimeHistoryRegistry.latest("history-pool", 10).size());
+        assertTrue(ThreadPoolRuntimeHistoryRegistry.latest("unknown-pool", 10).isEmpty());
+
+        ThreadPoolRuntimeHistoryRegistry.remove("history-pool");
+        assertNull(ThreadPoolRuntimeHistoryRegistry.getHistory("history-pool"));
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.outbox;
+
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmNotifyDTO;
+import com.aston.cloudthread.core.notification.service.AbstractNotifierService;
+import com.aston.cloudthread.core.notification.service.NotifierChannel;
+import com.aston.cloudthread.core.notification.service.NotifierCircuitBreaker;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationOutboxTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testUnacknowledgedRecordsSurviveReopen() throws IOException {
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, 1024 * 1024, 4)) {
+            OutboxRecord delivered = outbox.append("slack", "Alarm", "delivered");
+            OutboxRecord lost = outbox.append("slack", "Alarm", "lost ü");
+            outbox.append("email", "Alarm", "other channel");
+            assertNotNull(lost);
+            outbox.ack(delivered);
+            assertEquals(2, outbox.pendingCount());
+        }
+
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, 1024 * 1024, 4)) {
+            List<OutboxRecord> pending = outbox.pending("slack");
+            assertEquals(1, pending.size());
+            assertEquals("lost ü", pending.get(0).getText());
+            assertTrue(outbox.hasPending("email"));
+
+            // ids keep increasing after a restart
+            OutboxRecord next = outbox.append("slack", "Alarm", "next");
+            assertTrue(next.getId() > pending.get(0).getId());
+        }
+    }
+
+    @Test
+    void testAcknowledgedSegmentsAreDeleted() throws IOException {
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, 256, 100)) {
+            List<OutboxRecord> records = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                records.add(outbox.append("slack", "Alarm", "message " + i + " " + "x".repeat(100)));
+            }
+            assertTrue(segmentCount() > 5);
+
+            records.forEach(outbox::ack);
+            assertEquals(0, outbox.pendingCount());
+            assertEquals(1, segmentCount());
+        }
+    }
+
+    @Test
+    void testMaxSegmentsBoundsDisk() throws IOException {
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, 256, 3)) {
+            for (int i = 0; i < 50; i++) {
+                outbox.append("slack", "Alarm", "message " + i + " " + "x".repeat(100));
+            }
+            assertTrue(segmentCount() <= 3);
+            List<OutboxRecord> pending = outbox.pending("slack");
+            assertTrue(pending.size() < 50);
+            // the newest messages are kept
+            assertTrue(pending.get(pending.size() - 1).getText().startsWith("message 49 "));
+        }
+    }
+
+    @Test
+    void testTornTailIsIgnored() throws IOException {
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, 1024 * 1024, 4)) {
+            outbox.append("slack", "Alarm", "complete");
+            outbox.append("slack", "Alarm", "torn");
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, 1024 * 1024, 4)) {
+            List<OutboxRecord> pending = outbox.pending("slack");
+            assertEquals(1, pending.size());
+            assertEquals("complete", pending.get(0).getText());
+        }
+    }
+
+    @Test
+    void testChannelReplaysPendingRecordsInOrder() throws IOException {
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, 1024 * 1024, 4)) {
+            for (int i = 0; i < 3; i++) {
+                outbox.append("hook", "Alarm", "message " + i).release();
+            }
+            RecordingNotifierService service = new RecordingNotifierService();
+            NotifierChannel channel = new NotifierChannel("hook", service, new NotifierCircuitBreaker(5, 1000L), outbox);
+
+            service.failing = true;
+            channel.replay();
+            assertEquals(3, outbox.pendingCount());
+
+            service.failing = false;
+            channel.replay();
+            assertEquals(List.of("message 0", "message 1", "message 2"), service.delivered);
+            assertFalse(outbox.hasPending("hook"));
+        }
+    }
+
+    @Test
+    void testRenderFailureIsCountedWithoutOpeningCircuit() throws IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try (NotificationOutbox outbox = new NotificationOutbox(directory, 1024 * 1024, 4)) {
+            RecordingNotifierService service = new RecordingNotifierService();
+            NotifierChannel channel = new NotifierChannel("render", service, new NotifierCircuitBreaker(1, 1000L), outbox);
+
+            channel.deliver(s -> {
+                throw new IllegalStateException("broken template");
+            });
+
+            assertEquals(1.0, registry.get("dynamic.thread-pool.notify.render.failure").tag("platform", "render").counter().count());
+            assertEquals(NotifierCircuitBreaker.State.CLOSED, channel.getCircuitBreaker().getState());
+            assertFalse(outbox.hasPending("render"));
+            channel.deliver(s -> s.sendAlarmMessage(ThreadPoolAlarmNotifyDTO.builder()
+                    .threadPoolUID("pool-1")
+                    .alarmType("Capacity")
+                    .build()));
+            assertEquals(1, service.delivered.size());
+            assertFalse(outbox.hasPending("render"));
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        return segments().size();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static class RecordingNotifierService extends AbstractNotifierService {
+
+        private final List<String> delivered = new ArrayList<>();
+        private volatile boolean failing;
+
+        @Override
+        protected void deliver(String title, String text) {
+            if (failing) {
+                throw new IllegalStateException("endpoint down");
+            }
+            delivered.add(text);
+        }
+    }
+}
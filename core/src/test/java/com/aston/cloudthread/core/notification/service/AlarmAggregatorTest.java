@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmDigestDTO;
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmNotifyDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlarmAggregatorTest {
+
+    private final List<ThreadPoolAlarmDigestDTO> digests = new CopyOnWriteArrayList<>();
+    private final AlarmAggregator aggregator = new AlarmAggregator(digests::add);
+
+    @AfterEach
+    void tearDown() {
+        aggregator.shutdown();
+    }
+
+    @Test
+    void testGroupsByApplicationAndAlarmType() {
+        aggregator.add(alarm("pool-1", "Capacity", "ops"), 60_000L);
+        aggregator.add(alarm("pool-2", "Capacity", "ops,dev"), 60_000L);
+        aggregator.add(alarm("pool-1", "Activity", "ops"), 60_000L);
+        assertTrue(digests.isEmpty());
+
+        aggregator.flushAll();
+
+        assertEquals(2, digests.size());
+        ThreadPoolAlarmDigestDTO capacity = digests.stream()
+                .filter(each -> "Capacity".equals(each.getAlarmType()))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        assertEquals(2, capacity.getAlarms().size());
+        assertEquals("ops,dev", capacity.getSubscribers());
+        assertEquals("demo-app", capacity.getApplicationName());
+    }
+
+    @Test
+    void testKeepsLatestAlarmPerPool() {
+        aggregator.add(alarm("pool-1", "Capacity", "ops").setAlarmValue(81.0), 60_000L);
+        aggregator.add(alarm("pool-1", "Capacity", "ops").setAlarmValue(95.0), 60_000L);
+        aggregator.flushAll();
+
+        assertEquals(1, digests.size());
+        assertEquals(1, digests.get(0).getAlarms().size());
+        assertEquals(95.0, digests.get(0).getAlarms().get(0).getAlarmValue());
+    }
+
+    @Test
+    void testFlushesWhenWindowCloses() {
+        aggregator.add(alarm("pool-1", "Reject", "ops"), 100L);
+        aggregator.add(alarm("pool-2", "Reject", "ops"), 100L);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> digests.size() == 1);
+        assertEquals(2, digests.get(0).getAlarms().size());
+
+        // the next alarm opens a new window
+        aggregator.add(alarm("pool-3", "Reject", "ops"), 100L);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> digests.size() == 2);
+        assertEquals("pool-3", digests.get(1).getAlarms().get(0).getThreadPoolUID());
+    }
+
+    private ThreadPoolAlarmNotifyDTO alarm(String threadPoolUID, String alarmType, String subscribers) {
+        return ThreadPoolAlarmNotifyDTO.builder()
+                .threadPoolUID(threadPoolUID)
+                .applicationName("demo-app")
+                .activeProfile("dev")
+                .identify("127.0.0.1")
+                .alarmType(alarmType)
+                .subscribers(subscribers)
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import com.aston.cloudthread.core.alarm.AlarmTypeEnum;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlarmRateLimiterTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void testSuppressesWithinInterval() {
+        assertTrue(AlarmRateLimiter.allowAlarm(0, AlarmTypeEnum.CAPACITY, 5, NOW));
+        assertFalse(AlarmRateLimiter.allowAlarm(0, AlarmTypeEnum.CAPACITY, 5, NOW + 60_000L));
+        assertTrue(AlarmRateLimiter.allowAlarm(0, AlarmTypeEnum.CAPACITY, 5, NOW + 5 * 60_000L + 1));
+    }
+
+    @Test
+    void testPoolsAndAlarmTypesAreIndependent() {
+        assertTrue(AlarmRateLimiter.allowAlarm(1, AlarmTypeEnum.REJECT, 5, NOW));
+        assertTrue(AlarmRateLimiter.allowAlarm(1, AlarmTypeEnum.ACTIVITY, 5, NOW));
+        assertTrue(AlarmRateLimiter.allowAlarm(2, AlarmTypeEnum.REJECT, 5, NOW));
+        assertFalse(AlarmRateLimiter.allowAlarm(1, AlarmTypeEnum.REJECT, 5, NOW));
+    }
+
+    @Test
+    void testResetAndGrowBeyondInitialCapacity() {
+        int poolIndex = 1000;
+        assertTrue(AlarmRateLimiter.allowAlarm(poolIndex, AlarmTypeEnum.BURN_RATE, 5, NOW));
+        assertFalse(AlarmRateLimiter.allowAlarm(poolIndex, AlarmTypeEnum.BURN_RATE, 5, NOW));
+
+        AlarmRateLimiter.reset(poolIndex);
+        assertTrue(AlarmRateLimiter.allowAlarm(poolIndex, AlarmTypeEnum.BURN_RATE, 5, NOW));
+    }
+
+    @Test
+    void testUnregisteredPoolIsNotSuppressed() {
+        assertTrue(AlarmRateLimiter.allowAlarm(-1, AlarmTypeEnum.CAPACITY, 5, NOW));
+        assertTrue(AlarmRateLimiter.allowAlarm(-1, AlarmTypeEnum.CAPACITY, 5, NOW));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailMessageServiceTest {
+
+    private static final String USERNAME = "cloudthread";
+    private static final String PASSWORD = "s3cret";
+
+    /**
+     * Every line the stand-in server received, including what arrives after STARTTLS
+     */
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    private ServerSocket smtpServer;
+
+    private volatile boolean offerStartTls;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtpServer = new ServerSocket(0);
+        Thread thread = new Thread(this::serveSmtp, "stand-in-smtp");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        smtpServer.close();
+    }
+
+    @Test
+    void testRefusesCredentialsWithoutTls() {
+        EmailMessageService service = service(USERNAME, PASSWORD);
+
+        assertThrows(IllegalStateException.class, () -> service.deliver("title", "text"));
+        assertTrue(received.stream().anyMatch(line -> line.startsWith("EHLO")));
+        assertNoCredentialsSent();
+    }
+
+    @Test
+    void testUpgradesWithStartTlsBeforeAuthenticating() {
+        offerStartTls = true;
+        EmailMessageService service = service(USERNAME, PASSWORD);
+
+        // the stand-in cannot finish the handshake, so nothing after STARTTLS may reach it in plaintext
+        assertThrows(IllegalStateException.class, () -> service.deliver("title", "text"));
+        assertTrue(received.contains("STARTTLS"));
+        assertNoCredentialsSent();
+    }
+
+    @Test
+    void testSendsWithoutCredentialsOverPlainSmtp() {
+        EmailMessageService service = service(null, null);
+
+        service.deliver("title", "text");
+
+        assertTrue(received.contains("DATA"));
+        assertFalse(received.contains("AUTH LOGIN"));
+    }
+
+    private EmailMessageService service(String username, String password) {
+        return new EmailMessageService("127.0.0.1", smtpServer.getLocalPort(), false,
+                username, password, "cloudthread@aston.com", "ops@aston.com", 2000L);
+    }
+
+    private void assertNoCredentialsSent() {
+        String encodedUser = Base64.getEncoder().encodeToString(USERNAME.getBytes(StandardCharsets.UTF_8));
+        String encodedPassword = Base64.getEncoder().encodeToString(PASSWORD.getBytes(StandardCharsets.UTF_8));
+        for (String line : received) {
+            assertFalse(line.startsWith("AUTH"), line);
+            assertFalse(line.contains(encodedUser) || line.contains(encodedPassword), line);
+        }
+    }
+
+    private void serveSmtp() {
+        while (!smtpServer.isClosed()) {
+            try (Socket socket = smtpServer.accept()) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+                OutputStream out = socket.getOutputStream();
+                reply(out, "220 stand-in ready");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    received.add(line);
+                    if (line.startsWith("EHLO")) {
+                        reply(out, offerStartTls ? "250-stand-in\r\n250-STARTTLS\r\n250 AUTH LOGIN" : "250-stand-in\r\n250 AUTH LOGIN");
+                    } else if (line.equals("STARTTLS")) {
+                        // keep reading: a client that skips the handshake would show up here
+                        reply(out, "220 go ahead");
+                    } else if (line.equals("DATA")) {
+                        reply(out, "354 go ahead");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            received.add(line);
+                        }
+                        reply(out, "250 queued");
+                    } else if (line.equals("QUIT")) {
+                        reply(out, "221 bye");
+                        break;
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException ignored) {
+                // server closed
+            }
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotifierCircuitBreakerTest {
+
+    @Test
+    void testOpensAfterConsecutiveFailuresAndProbes() {
+        NotifierCircuitBreaker breaker = new NotifierCircuitBreaker(3, 1000L);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire(0L));
+            breaker.onFailure(0L);
+        }
+        assertEquals(NotifierCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(999L));
+
+        // one probe after the open period, concurrent deliveries still skipped
+        assertTrue(breaker.tryAcquire(1000L));
+        assertEquals(NotifierCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(1000L));
+
+        // failed probe opens again
+        breaker.onFailure(1000L);
+        assertFalse(breaker.tryAcquire(1500L));
+
+        // successful probe closes
+        assertTrue(breaker.tryAcquire(2000L));
+        breaker.onSuccess();
+        assertEquals(NotifierCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire(2000L));
+    }
+
+    @Test
+    void testSuccessResetsFailureCount() {
+        NotifierCircuitBreaker breaker = new NotifierCircuitBreaker(2, 1000L);
+        breaker.onFailure(0L);
+        breaker.onSuccess();
+        breaker.onFailure(0L);
+        assertEquals(NotifierCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
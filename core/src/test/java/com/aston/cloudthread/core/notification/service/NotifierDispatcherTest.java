@@ -0,0 +1,209 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmNotifyDTO;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotifierDispatcherTest {
+
+    private final List<String> webhookBodies = new CopyOnWriteArrayList<>();
+    private final List<String> smtpMessages = new CopyOnWriteArrayList<>();
+    private final AtomicInteger deadEndpointHits = new AtomicInteger();
+
+    private HttpServer webhookServer;
+    private ServerSocket smtpServer;
+    private Thread smtpThread;
+    private BootstrapConfigProperties originalProperties;
+    private NotifierDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        webhookServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        webhookServer.createContext("/hook", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                webhookBodies.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        webhookServer.createContext("/dead", exchange -> {
+            deadEndpointHits.incrementAndGet();
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        webhookServer.start();
+
+        smtpServer = new ServerSocket(0);
+        smtpThread = new Thread(this::serveSmtp, "stand-in-smtp");
+        smtpThread.setDaemon(true);
+        smtpThread.start();
+
+        PlatformRateLimiter.clear();
+        originalProperties = BootstrapConfigProperties.getInstance();
+        dispatcher = new NotifierDispatcher();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        dispatcher.shutdown();
+        BootstrapConfigProperties.setInstance(originalProperties);
+        webhookServer.stop(0);
+        smtpServer.close();
+    }
+
+    @Test
+    void testFansOutToWebhookAndEmail() {
+        BootstrapConfigProperties.NotifyChannelConfig webhook = channel("webhook", webhookUrl("/hook"));
+        BootstrapConfigProperties.NotifyChannelConfig email = new BootstrapConfigProperties.NotifyChannelConfig();
+        email.setPlatform("email");
+        email.setSmtpHost("127.0.0.1");
+        email.setSmtpPort(smtpServer.getLocalPort());
+        email.setFrom("cloudthread@aston.com");
+        email.setTo("ops@aston.com,dev@aston.com");
+        useChannels(webhook, email);
+
+        dispatcher.sendAlarmMessage(alarm());
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> webhookBodies.size() == 1 && smtpMessages.size() == 1);
+        assertTrue(webhookBodies.get(0).contains("pool-1"));
+        String mail = smtpMessages.get(0);
+        assertTrue(mail.contains("RCPT TO:<ops@aston.com>"));
+        assertTrue(mail.contains("RCPT TO:<dev@aston.com>"));
+        String body = mail.substring(mail.indexOf("\r\n\r\n") + 4).replace("\r\n", "");
+        assertTrue(new String(Base64.getDecoder().decode(body), StandardCharsets.UTF_8).contains("pool-1"));
+    }
+
+    @Test
+    void testDeadEndpointOpensCircuitWithoutBlockingOtherChannels() {
+        useChannels(channel("webhook", webhookUrl("/dead")), channel("slack", webhookUrl("/hook")));
+
+        for (int i = 0; i < 5; i++) {
+            dispatcher.sendAlarmMessage(alarm());
+        }
+
+        // the healthy channel gets every message
+        await().atMost(5, TimeUnit.SECONDS).until(() -> webhookBodies.size() == 5);
+        NotifierChannel dead = dispatcher.getChannels().get(0);
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> dead.getCircuitBreaker().getState() == NotifierCircuitBreaker.State.OPEN);
+        int hitsWhenOpened = deadEndpointHits.get();
+
+        // once open, deliveries are skipped without reaching the endpoint
+        for (int i = 0; i < 3; i++) {
+            dispatcher.sendAlarmMessage(alarm());
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(() -> webhookBodies.size() == 8);
+        assertEquals(hitsWhenOpened, deadEndpointHits.get());
+    }
+
+    private void useChannels(BootstrapConfigProperties.NotifyChannelConfig... channels) {
+        BootstrapConfigProperties.NotifyPlatformsConfig platforms = new BootstrapConfigProperties.NotifyPlatformsConfig();
+        platforms.setAlarmAggregateWindowSeconds(0L);
+        platforms.setMaxMessagesPerMinute(0);
+        platforms.setTimeoutMillis(2000L);
+        platforms.setCircuitFailureThreshold(2);
+        platforms.setCircuitOpenSeconds(60L);
+        platforms.setChannels(Arrays.asList(channels));
+        BootstrapConfigProperties properties = new BootstrapConfigProperties();
+        properties.setNotifyPlatforms(platforms);
+        BootstrapConfigProperties.setInstance(properties);
+    }
+
+    private BootstrapConfigProperties.NotifyChannelConfig channel(String platform, String url) {
+        BootstrapConfigProperties.NotifyChannelConfig channel = new BootstrapConfigProperties.NotifyChannelConfig();
+        channel.setPlatform(platform);
+        channel.setUrl(url);
+        return channel;
+    }
+
+    private String webhookUrl(String path) {
+        return "http://127.0.0.1:" + webhookServer.getAddress().getPort() + path;
+    }
+
+    private ThreadPoolAlarmNotifyDTO alarm() {
+        return ThreadPoolAlarmNotifyDTO.builder()
+                .threadPoolUID("pool-1")
+                .applicationName("demo-app")
+                .activeProfile("dev")
+                .identify("127.0.0.1")
+                .alarmType("Capacity")
+                .build();
+    }
+
+    /**
+     * Minimal SMTP server recording each session's commands and message data.
+     */
+    private void serveSmtp() {
+        while (!smtpServer.isClosed()) {
+            try (Socket socket = smtpServer.accept()) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                OutputStream out = socket.getOutputStream();
+                StringBuilder session = new StringBuilder();
+                reply(out, "220 stand-in ready");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    session.append(line).append("\r\n");
+                    if (line.startsWith("EHLO")) {
+                        reply(out, "250-stand-in\r\n250 OK");
+                    } else if (line.equals("DATA")) {
+                        reply(out, "354 go ahead");
+                        String data;
+                        while ((data = in.readLine()) != null && !data.equals(".")) {
+                            session.append(data).append("\r\n");
+                        }
+                        reply(out, "250 queued");
+                        smtpMessages.add(session.toString());
+                    } else if (line.equals("QUIT")) {
+                        reply(out, "221 bye");
+                        break;
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException ignored) {
+                // server closed
+            }
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+}
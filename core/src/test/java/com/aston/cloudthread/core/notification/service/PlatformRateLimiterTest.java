@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlatformRateLimiterTest {
+
+    @AfterEach
+    void tearDown() {
+        PlatformRateLimiter.clear();
+    }
+
+    @Test
+    void testBurstUpToLimitThenRefill() {
+        long now = 1_000_000L;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(PlatformRateLimiter.tryAcquire("SLACK", 3, now));
+        }
+        assertFalse(PlatformRateLimiter.tryAcquire("SLACK", 3, now));
+
+        // one token per 20 seconds at 3 messages per minute
+        assertFalse(PlatformRateLimiter.tryAcquire("SLACK", 3, now + 10_000L));
+        assertTrue(PlatformRateLimiter.tryAcquire("SLACK", 3, now + 20_000L));
+        assertFalse(PlatformRateLimiter.tryAcquire("SLACK", 3, now + 20_000L));
+    }
+
+    @Test
+    void testPlatformsAreLimitedIndependently() {
+        long now = 1_000_000L;
+        assertTrue(PlatformRateLimiter.tryAcquire("SLACK", 1, now));
+        assertFalse(PlatformRateLimiter.tryAcquire("SLACK", 1, now));
+        assertTrue(PlatformRateLimiter.tryAcquire("TEAMS", 1, now));
+    }
+
+    @Test
+    void testRetainAllDropsRemovedPlatforms() {
+        long now = 1_000_000L;
+        assertTrue(PlatformRateLimiter.tryAcquire("SLACK", 1, now));
+        assertTrue(PlatformRateLimiter.tryAcquire("TEAMS", 1, now));
+
+        PlatformRateLimiter.retainAll(Collections.singleton("TEAMS"));
+
+        assertFalse(PlatformRateLimiter.tryAcquire("TEAMS", 1, now), "kept platforms keep their bucket");
+        assertTrue(PlatformRateLimiter.tryAcquire("SLACK", 1, now), "a platform added again starts full");
+    }
+
+    @Test
+    void testZeroMeansUnlimited() {
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(PlatformRateLimiter.tryAcquire("SLACK", 0, 1L));
+        }
+    }
+}
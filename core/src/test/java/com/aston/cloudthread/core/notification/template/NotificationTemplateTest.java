@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.notification.template;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmNotifyDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationTemplateTest {
+
+    private static final TemplateMarkup MARKUP = new TemplateMarkup() {
+        @Override
+        public String bold(String text) {
+            return "<b>" + text + "</b>";
+        }
+
+        @Override
+        public String codeBlock(String text) {
+            return "<pre>" + text + "</pre>";
+        }
+    };
+
+    private BootstrapConfigProperties originalProperties;
+
+    @BeforeEach
+    void setUp() {
+        originalProperties = BootstrapConfigProperties.getInstance();
+        BootstrapConfigProperties properties = new BootstrapConfigProperties();
+        properties.setNotifyPlatforms(new BootstrapConfigProperties.NotifyPlatformsConfig());
+        BootstrapConfigProperties.setInstance(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        BootstrapConfigProperties.setInstance(originalProperties);
+    }
+
+    @Test
+    void testCompileLiteralsAndFields() {
+        NotificationTemplate<ThreadPoolAlarmNotifyDTO> template = NotificationTemplate.compile(
+                "${header} $5 costs $$ ${ threadPoolUID }: ${utilization}%", NotificationTemplates.ALARM_FIELDS);
+
+        assertEquals("<b>[Thread Pool Alarm]</b> $5 costs $ pool-1: 86%", template.render(alarm(), MARKUP));
+    }
+
+    @Test
+    void testUnknownFieldFailsAtCompileTime() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> NotificationTemplate.compile("Pool ${poolId}", NotificationTemplates.ALARM_FIELDS));
+        assertTrue(ex.getMessage().contains("poolId"));
+        assertThrows(IllegalArgumentException.class,
+                () -> NotificationTemplate.compile("Pool ${threadPoolUID", NotificationTemplates.ALARM_FIELDS));
+    }
+
+    @Test
+    void testDefaultAlarmTemplate() {
+        String text = NotificationTemplates.alarm().render(alarm(), MARKUP);
+
+        assertTrue(text.startsWith("<b>[Thread Pool Alarm]</b>\nEnvironment: DEV\nThread Pool ID: pool-1\n"));
+        assertTrue(text.contains("Rule: queue > 80 (value 91.3, threshold 80.0)\n"));
+        assertTrue(text.contains("Rates (tasks/s): throughput 12.50 / arrival 13.00 / rejects 0.00\n"));
+        assertTrue(text.contains("Utilization: 86% (avg busy threads 3.4)\n"));
+        assertTrue(text.contains("Recent Samples (queue size / active threads / rejects): -\n"));
+        assertTrue(text.endsWith("Time: 2024-01-01 10:00:00"));
+    }
+
+    @Test
+    void testConfiguredTemplateAndFallback() {
+        BootstrapConfigProperties.NotifyPlatformsConfig config = BootstrapConfigProperties.getInstance().getNotifyPlatforms();
+        config.setTemplates(Map.of("alarm", "${threadPoolUID} is at ${alarmValue}"));
+        assertEquals("pool-1 is at 91.3", NotificationTemplates.alarm().render(alarm(), MARKUP));
+
+        config.setTemplates(Map.of("alarm", "${unknown}"));
+        assertTrue(NotificationTemplates.alarm().render(alarm(), MARKUP).startsWith("<b>[Thread Pool Alarm]</b>"));
+
+        config.setTemplates(Map.of("alarm", "classpath:cloudthread/templates/recovery.tpl"));
+        assertTrue(NotificationTemplates.alarm().render(alarm(), MARKUP).contains("Current Value: 91.3"));
+    }
+
+    @Test
+    void testAppendFixed() {
+        assertEquals("0.00", fixed(0D, 2));
+        assertEquals("12.35", fixed(12.345678, 2));
+        assertEquals("-3.5", fixed(-3.46, 1));
+        assertEquals("100", fixed(99.6, 0));
+        assertEquals("0.05", fixed(0.049999, 2));
+        assertEquals("NaN", fixed(Double.NaN, 1));
+        assertEquals(String.format("%.1f", 1e20), fixed(1e20, 1));
+    }
+
+    private static String fixed(double value, int fractionDigits) {
+        StringBuilder out = new StringBuilder();
+        NotificationTemplates.appendFixed(out, value, fractionDigits);
+        return out.toString();
+    }
+
+    private static ThreadPoolAlarmNotifyDTO alarm() {
+        return ThreadPoolAlarmNotifyDTO.builder()
+                .threadPoolUID("pool-1")
+                .applicationName("order-service")
+                .activeProfile("dev")
+                .identify("127.0.0.1")
+                .alarmType("Capacity")
+                .alarmRule("queue > 80")
+                .alarmValue(91.25)
+                .alarmThreshold(80D)
+                .throughput(12.5)
+                .arrivalRate(13D)
+                .utilization(0.86)
+                .avgBusyThreads(3.4)
+                .currentTime("2024-01-01 10:00:00")
+                .build();
+    }
+}
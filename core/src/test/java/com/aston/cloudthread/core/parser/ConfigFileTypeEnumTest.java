@@ -24,6 +24,8 @@ class ConfigFileTypeEnumTest {
         assertEquals(ConfigFileTypeEnum.PROPERTIES, ConfigFileTypeEnum.of("properties"));
         assertEquals(ConfigFileTypeEnum.YML, ConfigFileTypeEnum.of("yml"));
         assertEquals(ConfigFileTypeEnum.YAML, ConfigFileTypeEnum.of("yaml"));
+        assertEquals(ConfigFileTypeEnum.JSON, ConfigFileTypeEnum.of("json"));
+        assertEquals(ConfigFileTypeEnum.TOML, ConfigFileTypeEnum.of("toml"));
     }
 
     @Test
@@ -83,4 +83,31 @@ class ConfigParserHandlerTest {
         result = handler.parseConfig(null, ConfigFileTypeEnum.PROPERTIES);
         assertTrue(result.isEmpty(), "Null content should return empty map");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testParseWithPrefixCachesIdenticalContent() throws IOException {
+        String yamlContent = "spring:\n  name: demo\ncloudthread:\n  enable: true";
+        Map<Object, Object> first = handler.parseConfig(yamlContent, ConfigFileTypeEnum.YAML, "cloudthread");
+        Map<Object, Object> second = handler.parseConfig(new String(yamlContent), ConfigFileTypeEnum.YAML, "cloudthread");
+
+        assertSame(first, second, "Identical content should not be parsed again");
+        assertEquals(Map.of("cloudthread.enable", "true"), first);
+        assertEquals(2, handler.parseConfig(yamlContent, ConfigFileTypeEnum.YAML, null).size());
+    }
+
+    @Test
+    void testParsePropertiesWithPrefix() throws IOException {
+        String propertiesContent = "cloudthread.enable=true\ncloudthreadx.size=1\nserver.port=8080";
+        Map<Object, Object> result = handler.parseConfig(propertiesContent, ConfigFileTypeEnum.PROPERTIES, "cloudthread");
+
+        assertEquals(Map.of("cloudthread.enable", "true"), result);
+    }
+
+    @Test
+    void testParseJsonConfigThroughDiscoveredParser() throws IOException {
+        String jsonContent = "{\"cloudthread\": {\"executors\": [{\"core-pool-size\": 4}]}}";
+        Map<Object, Object> result = handler.parseConfig(jsonContent, ConfigFileTypeEnum.JSON);
+
+        assertEquals(Map.of("cloudthread.executors[0].core-pool-size", "4"), result);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonConfigParserTest {
+    private final JsonConfigParser parser = new JsonConfigParser();
+
+    private static final String CONFIG = """
+            {
+              "spring": {"application": {"name": "demo"}},
+              "cloudthread": {
+                "enable": true,
+                "executors": [
+                  {"thread-pool-uid": "order-pool", "core-pool-size": 5, "keep-alive-time-seconds": 60,
+                   "notify": {"subscribers": ["ops", "dev"]}, "rejected-handler": null}
+                ]
+              }
+            }
+            """;
+
+    @Test
+    void testDoParseFlattensNestedObjectsAndArrays() throws IOException {
+        Map<Object, Object> result = parser.doParse(CONFIG);
+
+        assertEquals(8, result.size());
+        assertEquals("demo", result.get("spring.application.name"));
+        assertEquals("true", result.get("cloudthread.enable"));
+        assertEquals("order-pool", result.get("cloudthread.executors[0].thread-pool-uid"));
+        assertEquals("5", result.get("cloudthread.executors[0].core-pool-size"));
+        assertEquals("dev", result.get("cloudthread.executors[0].notify.subscribers[1]"));
+        assertTrue(result.containsKey("cloudthread.executors[0].rejected-handler"));
+        assertNull(result.get("cloudthread.executors[0].rejected-handler"));
+    }
+
+    @Test
+    void testDoParseWithPrefixSkipsOtherSubtrees() throws IOException {
+        Map<Object, Object> result = parser.doParse(CONFIG, "cloudthread");
+
+        assertEquals(7, result.size());
+        assertTrue(result.keySet().stream().allMatch(key -> key.toString().startsWith("cloudthread.")));
+    }
+
+    @Test
+    void testDoParseWithRootArrayAndEmptyContent() throws IOException {
+        assertEquals(Map.of("[0]", "a", "[1]", "b"), parser.doParse("[\"a\", \"b\"]"));
+        assertTrue(parser.doParse("").isEmpty());
+        assertTrue(parser.doParse(null).isEmpty());
+    }
+
+    @Test
+    void testDoParseInvalidJson() {
+        assertThrows(IOException.class, () -> parser.doParse("{\"cloudthread\": "));
+    }
+
+    @Test
+    void testGetConfigFileTypes() {
+        assertEquals(List.of(ConfigFileTypeEnum.JSON), parser.getConfigFileTypes());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TomlConfigParserTest {
+    private final TomlConfigParser parser = new TomlConfigParser();
+
+    private static final String CONFIG = """
+            [spring.application]
+            name = "demo"
+
+            [cloudthread]
+            enable = true
+
+            [[cloudthread.executors]]
+            thread-pool-uid = "order-pool"
+            core-pool-size = 5
+            working-queue = "LinkedBlockingQueue"
+
+            [[cloudthread.executors]]
+            thread-pool-uid = "pay-pool"
+            core-pool-size = 10
+            notify.subscribers = ["ops", "dev"]
+            """;
+
+    @Test
+    void testDoParseFlattensTablesAndArraysOfTables() throws IOException {
+        Map<Object, Object> result = parser.doParse(CONFIG);
+
+        assertEquals("demo", result.get("spring.application.name"));
+        assertEquals("true", result.get("cloudthread.enable"));
+        assertEquals("order-pool", result.get("cloudthread.executors[0].thread-pool-uid"));
+        assertEquals("5", result.get("cloudthread.executors[0].core-pool-size"));
+        assertEquals("10", result.get("cloudthread.executors[1].core-pool-size"));
+        assertEquals("dev", result.get("cloudthread.executors[1].notify.subscribers[1]"));
+    }
+
+    @Test
+    void testDoParseWithPrefix() throws IOException {
+        Map<Object, Object> result = parser.doParse(CONFIG, "cloudthread");
+
+        assertEquals(8, result.size());
+        assertTrue(result.keySet().stream().allMatch(key -> key.toString().startsWith("cloudthread.")));
+    }
+
+    @Test
+    void testGetConfigFileTypes() {
+        assertEquals(List.of(ConfigFileTypeEnum.TOML), parser.getConfigFileTypes());
+    }
+}
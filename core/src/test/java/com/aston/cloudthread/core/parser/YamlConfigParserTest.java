@@ -15,6 +15,7 @@ package com.aston.cloudthread.core.parser;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -123,4 +124,80 @@ class YamlConfigParserTest {
         assertEquals("remote", result.get("app.servers[1].host"));
         assertEquals("9090", result.get("app.servers[1].ports[0]"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDoParseWithPrefixKeepsOnlySubtree() {
+        String yaml = """
+                spring:
+                  application:
+                    name: demo
+                cloudthread:
+                  enable: true
+                  executors:
+                    - thread-pool-uid: order-pool
+                      core-pool-size: 5
+                      notify:
+                        subscribers: [ops, dev]
+                cloudthreadx:
+                  skipped: true
+                cloudthread.web-config.core-pool-size: 10
+                """;
+        Map<Object, Object> result = parser.doParse(yaml, "cloudthread");
+
+        assertEquals(6, result.size());
+        assertEquals("true", result.get("cloudthread.enable"));
+        assertEquals("order-pool", result.get("cloudthread.executors[0].thread-pool-uid"));
+        assertEquals("5", result.get("cloudthread.executors[0].core-pool-size"));
+        assertEquals("dev", result.get("cloudthread.executors[0].notify.subscribers[1]"));
+        assertEquals("10", result.get("cloudthread.web-config.core-pool-size"));
+        assertEquals(filtered(parser.doParse(yaml), "cloudthread"), result);
+    }
+
+    @Test
+    void testDoParseWithPrefixRendersScalarsLikeFullParse() {
+        String yaml = """
+                cloudthread:
+                  decimal: 42
+                  octal: 010
+                  hex: 0x1F
+                  float: 1.5e3
+                  flag: yes
+                  empty: ~
+                  quoted: "007"
+                  text: LinkedBlockingQueue
+                """;
+        Map<Object, Object> result = parser.doParse(yaml, "cloudthread");
+
+        assertEquals(parser.doParse(yaml), result);
+        assertEquals("8", result.get("cloudthread.octal"));
+        assertEquals("007", result.get("cloudthread.quoted"));
+        assertTrue(result.containsKey("cloudthread.empty"));
+    }
+
+    @Test
+    void testDoParseWithPrefixFallsBackOnAliases() {
+        String yaml = """
+                defaults: &defaults
+                  core-pool-size: 4
+                cloudthread:
+                  executors:
+                    - <<: *defaults
+                      thread-pool-uid: order-pool
+                """;
+        Map<Object, Object> result = parser.doParse(yaml, "cloudthread");
+
+        assertEquals(2, result.size());
+        assertEquals("4", result.get("cloudthread.executors[0].core-pool-size"));
+        assertEquals("order-pool", result.get("cloudthread.executors[0].thread-pool-uid"));
+    }
+
+    private static Map<Object, Object> filtered(Map<Object, Object> parsed, String keyPrefix) {
+        Map<Object, Object> result = new LinkedHashMap<>();
+        parsed.forEach((key, value) -> {
+            if (ConfigParser.isUnderPrefix(key.toString(), keyPrefix)) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+}
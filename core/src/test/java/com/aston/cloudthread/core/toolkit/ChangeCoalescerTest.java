@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.core.toolkit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeCoalescerTest {
+
+    private final List<Set<String>> flushes = new CopyOnWriteArrayList<>();
+
+    private void awaitFlushes(int count, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (flushes.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testBurstIsFlushedOnceWithMergedChanges() throws InterruptedException {
+        try (ChangeCoalescer<String> coalescer = new ChangeCoalescer<>("test-coalescer", 100, 2000, flushes::add)) {
+            coalescer.submit(List.of("a", "b"));
+            coalescer.submit(List.of("a", "c"));
+            assertEquals(3, coalescer.pendingCount());
+
+            awaitFlushes(1, 2000);
+            Thread.sleep(150);
+            assertEquals(1, flushes.size());
+            assertEquals(Set.of("a", "b", "c"), flushes.get(0));
+        }
+    }
+
+    @Test
+    void testMaxDelayBoundsSteadyStream() throws InterruptedException {
+        try (ChangeCoalescer<String> coalescer = new ChangeCoalescer<>("test-coalescer", 100, 300, flushes::add)) {
+            long start = System.nanoTime();
+            long firstFlushMillis = -1;
+            for (int i = 0; i < 30 && firstFlushMillis < 0; i++) {
+                coalescer.submit(List.of("key-" + i));
+                Thread.sleep(40);
+                if (!flushes.isEmpty()) {
+                    firstFlushMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+            }
+            assertTrue(firstFlushMillis > 0 && firstFlushMillis < 1000, "first flush after " + firstFlushMillis + "ms");
+        }
+    }
+
+    @Test
+    void testCloseFlushesPendingChanges() {
+        ChangeCoalescer<String> coalescer = new ChangeCoalescer<>("test-coalescer", 10_000, 60_000, flushes::add);
+        coalescer.submit(List.of("a"));
+        coalescer.close();
+
+        assertEquals(List.of(Set.of("a")), flushes);
+        assertThrows(IllegalStateException.class, () -> coalescer.submit(List.of("b")));
+    }
+}
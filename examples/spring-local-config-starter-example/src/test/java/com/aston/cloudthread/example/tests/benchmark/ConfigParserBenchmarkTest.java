@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.example.tests.benchmark;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.parser.ConfigFileTypeEnum;
+import com.aston.cloudthread.core.parser.ConfigParserHandler;
+import com.aston.cloudthread.core.parser.YamlConfigParser;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Parsing cost of a large shared config file: the full parse, the parse streaming only
+ * the {@code cloudthread} subtree, and a repeated push served from the parse cache.
+ */
+@Disabled("Benchmark, run manually")
+public class ConfigParserBenchmarkTest {
+
+    private static final int POOLS = 500;
+    private static final int UNRELATED_SERVICES = 1000;
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int MEASURED_ITERATIONS = 200;
+
+    private interface Parse {
+        Map<Object, Object> apply(String content) throws IOException;
+    }
+
+    @Test
+    void benchmarkFullVsStreamingVsCached() throws IOException {
+        String content = sharedConfig();
+        YamlConfigParser parser = new YamlConfigParser();
+        System.out.println("Config: " + content.length() / 1024 + " KiB, "
+                + parser.doParse(content).size() + " keys, "
+                + parser.doParse(content, BootstrapConfigProperties.PREFIX).size() + " below "
+                + BootstrapConfigProperties.PREFIX);
+
+        run("Full parse", content, parser::doParse);
+        run("Streaming cloudthread subtree", content,
+                c -> parser.doParse(c, BootstrapConfigProperties.PREFIX));
+        run("Cached identical push", content,
+                c -> ConfigParserHandler.getInstance().parseConfig(c, ConfigFileTypeEnum.YAML, BootstrapConfigProperties.PREFIX));
+    }
+
+    private void run(String label, String content, Parse parse) throws IOException {
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            checksum += parse.apply(content).size();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            checksum += parse.apply(content).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println(label + " benchmark: " + elapsed / MEASURED_ITERATIONS / 1000 + " us/parse (checksum " + checksum + ")");
+    }
+
+    /**
+     * A config file shared by many services, with the thread pools as a small part of it.
+     */
+    private static String sharedConfig() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("services:\n");
+        for (int i = 0; i < UNRELATED_SERVICES; i++) {
+            sb.append("  service-").append(i).append(":\n")
+                    .append("    url: http://service-").append(i).append(".internal:8080\n")
+                    .append("    timeout-millis: ").append(1000 + i).append('\n')
+                    .append("    retries: 3\n")
+                    .append("    tags: [blue, green]\n");
+        }
+        sb.append("cloudthread:\n  enable: true\n  executors:\n");
+        for (int i = 0; i < POOLS; i++) {
+            BenchmarkGroup group = BenchmarkGroup.values()[i % BenchmarkGroup.values().length];
+            sb.append("    - thread-pool-uid: pool-").append(i).append('\n')
+                    .append("      core-pool-size: ").append(group.corePoolSize).append('\n')
+                    .append("      maximum-pool-size: ").append(group.maxPoolSize).append('\n')
+                    .append("      queue-capacity: ").append(group.queueCapacity).append('\n')
+                    .append("      keep-alive-time-seconds: ").append(group.keepAliveSeconds).append('\n')
+                    .append("      working-queue: LinkedBlockingQueue\n")
+                    .append("      rejected-handler: AbortPolicy\n")
+                    .append("      allow-core-thread-timeout: true\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.example.tests.benchmark;
+
+import com.aston.cloudthread.core.notification.dto.ThreadPoolAlarmNotifyDTO;
+import com.aston.cloudthread.core.notification.template.NotificationTemplate;
+import com.aston.cloudthread.core.notification.template.NotificationTemplates;
+import com.aston.cloudthread.core.notification.template.TemplateMarkup;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+
+/**
+ * Rendering cost of the alarm message: the compiled template versus the
+ * {@link String#format(String, Object...)} call it replaced.
+ */
+@Disabled("Benchmark, run manually")
+public class NotificationTemplateBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    private static final String ALARM_FORMAT = "%s\nEnvironment: %s\nThread Pool ID: %s\nApplication: %s\nAlarm Type: %s\nRule: %s (value %s, threshold %s)\nCore Threads: %s\nMaximum Threads: %s\nCurrent Threads: %s\nActive Threads: %s\nLargest Threads: %s\nCompleted Task Count: %s\nQueue: %s\nQueue Capacity: %s\nCurrent Queue Size: %s\nRemaining Capacity: %s\nRejection Policy: %s\nRejection Count: %s\nRates (tasks/s): throughput %.2f / arrival %.2f / rejects %.2f\nUtilization: %.0f%% (avg busy threads %.1f)\nRecent Samples (queue size / active threads / rejects):%s\nRecipients: %s\nInterval: %s\nTime: %s";
+
+    private static final TemplateMarkup SLACK_MARKUP = new TemplateMarkup() {
+        @Override
+        public String bold(String text) {
+            return "*" + text + "*";
+        }
+
+        @Override
+        public String codeBlock(String text) {
+            return "```\n" + text + "```";
+        }
+    };
+
+    @Test
+    void benchmarkTemplateVsStringFormat() {
+        ThreadPoolAlarmNotifyDTO alarm = ThreadPoolAlarmNotifyDTO.builder()
+                .threadPoolUID("order-pool")
+                .applicationName("order-service")
+                .activeProfile("prod")
+                .identify("10.0.0.12")
+                .subscribers("ops@aston.com")
+                .alarmType("Capacity")
+                .alarmRule("queue usage > 80% for 30s")
+                .alarmValue(91.25)
+                .alarmThreshold(80D)
+                .corePoolSize(10)
+                .maximumPoolSize(20)
+                .currentPoolSize(20)
+                .activePoolSize(19)
+                .largestPoolSize(20)
+                .completedTaskCount(1_234_567L)
+                .workQueueName("LinkedBlockingQueue")
+                .workQueueCapacity(1000)
+                .workQueueSize(913)
+                .workQueueRemainingCapacity(87)
+                .rejectedHandlerName("CallerRunsPolicy")
+                .rejectCount(42L)
+                .throughput(812.5)
+                .arrivalRate(901.2)
+                .rejectRate(1.4)
+                .utilization(0.95)
+                .avgBusyThreads(18.9)
+                .intervalMinutes(5)
+                .currentTime("2024-01-01 10:00:00")
+                .build();
+        NotificationTemplate<ThreadPoolAlarmNotifyDTO> template = NotificationTemplates.alarm();
+
+        run("String.format", alarm, this::renderWithFormat);
+        run("Compiled template", alarm, dto -> template.render(dto, SLACK_MARKUP));
+    }
+
+    private void run(String label, ThreadPoolAlarmNotifyDTO alarm, Function<ThreadPoolAlarmNotifyDTO, String> renderer) {
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            checksum += renderer.apply(alarm).length();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            checksum += renderer.apply(alarm).length();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println(label + " benchmark: " + elapsed / MEASURED_ITERATIONS + " ns/message (checksum " + checksum + ")");
+    }
+
+    private String renderWithFormat(ThreadPoolAlarmNotifyDTO alarm) {
+        return String.format(ALARM_FORMAT,
+                SLACK_MARKUP.bold("[Thread Pool Alarm]"),
+                alarm.getActiveProfile().toUpperCase(),
+                alarm.getThreadPoolUID(),
+                alarm.getIdentify() + ":" + alarm.getApplicationName(),
+                alarm.getAlarmType(),
+                alarm.getAlarmRule() == null ? "-" : alarm.getAlarmRule(),
+                alarm.getAlarmValue() == null ? "-" : String.format("%.1f", alarm.getAlarmValue()),
+                alarm.getAlarmThreshold() == null ? "-" : alarm.getAlarmThreshold(),
+                alarm.getCorePoolSize(),
+                alarm.getMaximumPoolSize(),
+                alarm.getCurrentPoolSize(),
+                alarm.getActivePoolSize(),
+                alarm.getLargestPoolSize(),
+                alarm.getCompletedTaskCount(),
+                alarm.getWorkQueueName(),
+                alarm.getWorkQueueCapacity(),
+                alarm.getWorkQueueSize(),
+                alarm.getWorkQueueRemainingCapacity(),
+                alarm.getRejectedHandlerName(),
+                alarm.getRejectCount(),
+                alarm.getThroughput(),
+                alarm.getArrivalRate(),
+                alarm.getRejectRate(),
+                alarm.getUtilization() * 100,
+                alarm.getAvgBusyThreads(),
+                " -",
+                alarm.getSubscribers(),
+                alarm.getIntervalMinutes(),
+                alarm.getCurrentTime());
+    }
+}
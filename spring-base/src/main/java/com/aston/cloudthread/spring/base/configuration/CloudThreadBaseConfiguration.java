@@ -15,6 +15,7 @@ package com.aston.cloudthread.spring.base.configuration;
 
 import com.aston.cloudthread.core.alarm.ThreadPoolAlarmChecker;
 import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.executor.ThreadPoolConfigLayersHolder;
 import com.aston.cloudthread.core.monitor.ThreadPoolMonitor;
 import com.aston.cloudthread.core.notification.service.NotifierDispatcher;
 import com.aston.cloudthread.spring.base.support.ApplicationContextHolder;
@@ -35,12 +36,17 @@ public class CloudThreadBaseConfiguration {
     }
 
     @Bean
-    @DependsOn("applicationContextHolder")
-    public CloudThreadBeanPostProcessor cloudThreadBeanPostProcessor(BootstrapConfigProperties properties) {
-        return new CloudThreadBeanPostProcessor(properties);
+    public ThreadPoolConfigLayersHolder threadPoolConfigLayersHolder(BootstrapConfigProperties properties) {
+        return new ThreadPoolConfigLayersHolder(properties);
     }
 
     @Bean
+    @DependsOn("applicationContextHolder")
+    public CloudThreadBeanPostProcessor cloudThreadBeanPostProcessor(ThreadPoolConfigLayersHolder layersHolder) {
+        return new CloudThreadBeanPostProcessor(layersHolder);
+    }
+
+    @Bean(destroyMethod = "shutdown")
     public NotifierDispatcher notifierDispatcher() {
         return new NotifierDispatcher();
     }
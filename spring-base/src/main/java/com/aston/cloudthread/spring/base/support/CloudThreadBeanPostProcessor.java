@@ -15,26 +15,32 @@ package com.aston.cloudthread.spring.base.support;
 
 import cn.hutool.core.lang.Assert;
 import cn.hutool.core.util.ReflectUtil;
-import com.aston.cloudthread.core.config.BootstrapConfigProperties;
 import com.aston.cloudthread.core.executor.CloudThreadExecutor;
 import com.aston.cloudthread.core.executor.CloudThreadRegistry;
+import com.aston.cloudthread.core.executor.ThreadPoolConfigLayersHolder;
 import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorWrapper;
 import com.aston.cloudthread.core.executor.support.BlockingQueueTypeEnum;
+import com.aston.cloudthread.core.executor.support.RejectedPolicyTypeEnum;
 import com.aston.cloudthread.spring.base.CloudDynamicThreadPool;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeansException;
-import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
 
 import java.util.Objects;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RequiredArgsConstructor
-public class CloudThreadBeanPostProcessor implements BeanPostProcessor {
-    private final BootstrapConfigProperties properties;
+public class CloudThreadBeanPostProcessor implements DestructionAwareBeanPostProcessor {
+    /**
+     * Defaults, groups and pools applied last, shared with the refresh listener
+     */
+    private final ThreadPoolConfigLayersHolder layersHolder;
 
     @Override
     public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
@@ -56,15 +62,13 @@ public class CloudThreadBeanPostProcessor implements BeanPostProcessor {
 
             CloudThreadExecutor cloudThreadExecutor = (CloudThreadExecutor) bean;
 
-            // Load thread pool configuration from the config center
-            // and apply it to the CloudThreadExecutor
-            ThreadPoolExecutorProperties executorProperties = properties.getExecutors()
-                    .stream()
-                    .filter(item -> Objects.equals(cloudThreadExecutor.getThreadPoolUID(),
-                            item.getThreadPoolUID()))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("The Thread Pool UID does " +
-                            "not exist in the configuration."));
+            // Resolve the thread pool configuration from the config center, falling back
+            // to its group and the defaults, and apply it to the CloudThreadExecutor
+            ThreadPoolExecutorProperties executorProperties =
+                    layersHolder.getLayers().resolve(cloudThreadExecutor.getThreadPoolUID());
+            if (executorProperties == null) {
+                throw new RuntimeException("The Thread Pool UID does not exist in the configuration.");
+            }
             overrideLocalThreadPoolConfig(executorProperties, cloudThreadExecutor);
 
             // Register the CloudThreadExecutor into the CloudThreadRegistry.
@@ -76,6 +80,28 @@ public class CloudThreadBeanPostProcessor implements BeanPostProcessor {
         return bean;
     }
 
+    /**
+     * Unregister a destroyed dynamic thread pool, so the removal listeners release the
+     * per-pool state kept by the monitor, the alarm checker and the alarm rate limiter.
+     */
+    @Override
+    public void postProcessBeforeDestruction(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof CloudThreadExecutor)) {
+            return;
+        }
+        String threadPoolUID = ((CloudThreadExecutor) bean).getThreadPoolUID();
+        ThreadPoolExecutorWrapper wrapper = CloudThreadRegistry.getWrapper(threadPoolUID);
+        // Only the registered instance, a pool re-registered under the same id stays
+        if (wrapper != null && wrapper.getExecutor() == bean) {
+            CloudThreadRegistry.removeWrapper(threadPoolUID);
+        }
+    }
+
+    @Override
+    public boolean requiresDestruction(Object bean) {
+        return bean instanceof CloudThreadExecutor;
+    }
+
     /**
      * Override the configuration of a local {@link CloudThreadExecutor} with values provided
      * from remote {@link ThreadPoolExecutorProperties}.
@@ -83,6 +109,8 @@ public class CloudThreadBeanPostProcessor implements BeanPostProcessor {
      * <p>
      * The method:
      *     <ul>
+     *         <li>Keeps the local pool sizes where no layer configures them, recording them
+     *         in the properties</li>
      *         <li>Validates the corePoolSize does not exceed maximumPoolSize</li>
      *         <li>Adjusts pool sizes based on remote configuration.</li>
      *         <li>Replaces the work queue via reflection (since ThreadPoolExecutor has
@@ -97,6 +125,12 @@ public class CloudThreadBeanPostProcessor implements BeanPostProcessor {
      */
     private void overrideLocalThreadPoolConfig(ThreadPoolExecutorProperties executorProperties,
                                                CloudThreadExecutor cloudThreadExecutor) {
+        if (executorProperties.getCorePoolSize() == null) {
+            executorProperties.setCorePoolSize(cloudThreadExecutor.getCorePoolSize());
+        }
+        if (executorProperties.getMaximumPoolSize() == null) {
+            executorProperties.setMaximumPoolSize(cloudThreadExecutor.getMaximumPoolSize());
+        }
         Integer remoteCorePoolSize = executorProperties.getCorePoolSize();
         Integer remoteMaximumPoolSize = executorProperties.getMaximumPoolSize();
         Assert.isTrue(remoteCorePoolSize <= remoteMaximumPoolSize, "[remoteCorePoolSize] must " +
@@ -130,11 +164,26 @@ public class CloudThreadBeanPostProcessor implements BeanPostProcessor {
                 : false; // default false
         cloudThreadExecutor.allowCoreThreadTimeOut(allowCoreTimeout);
 
-        // 4. Set the RejectedExecutionHandler. If null, use the default AbortPolicy
+        // 4. Set the RejectedExecutionHandler with its params. If null or unknown, use the default AbortPolicy
         cloudThreadExecutor.setRejectedExecutionHandler(
-                executorProperties.getRejectedHandler() != null
-                        ? new ThreadPoolExecutor.AbortPolicy()
-                        : new ThreadPoolExecutor.AbortPolicy()
-        );
+                createRejectedHandler(executorProperties, cloudThreadExecutor.getThreadPoolUID()));
+
+        // 5. Apply the rejection journal settings, opening the rejected task store if persistent
+        cloudThreadExecutor.configureRejectionJournal(executorProperties.getRejectJournal());
+    }
+
+    private RejectedExecutionHandler createRejectedHandler(ThreadPoolExecutorProperties executorProperties,
+                                                           String threadPoolUID) {
+        if (executorProperties.getRejectedHandler() == null) {
+            return new ThreadPoolExecutor.AbortPolicy();
+        }
+        try {
+            return RejectedPolicyTypeEnum.createPolicy(executorProperties.getRejectedHandler(),
+                    executorProperties.getRejectedHandlerParams());
+        } catch (IllegalArgumentException ex) {
+            log.warn("Invalid rejected handler for thread pool {}, using AbortPolicy: {}",
+                    threadPoolUID, ex.getMessage());
+            return new ThreadPoolExecutor.AbortPolicy();
+        }
     }
 }
@@ -16,6 +16,7 @@ package com.aston.cloudthread.spring.base.configuration;
 import com.aston.cloudthread.core.alarm.ThreadPoolAlarmChecker;
 import com.aston.cloudthread.core.config.BootstrapConfigProperties;
 import com.aston.cloudthread.core.executor.CloudThreadExecutor;
+import com.aston.cloudthread.core.executor.ThreadPoolConfigLayersHolder;
 import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
 import com.aston.cloudthread.core.executor.support.BlockingQueueTypeEnum;
 import com.aston.cloudthread.core.monitor.ThreadPoolMonitor;
@@ -64,13 +65,21 @@ public class CloudThreadBaseTestConfig {
         return props;
     }
 
+    /**
+     * Thread pool configuration layers of the dummy properties
+     */
+    @Bean
+    public ThreadPoolConfigLayersHolder threadPoolConfigLayersHolder(BootstrapConfigProperties props) {
+        return new ThreadPoolConfigLayersHolder(props);
+    }
+
     /**
      * Post-processor bean for dynamic thread pools
      */
     @Bean
     @DependsOn("applicationContextHolder")
-    public CloudThreadBeanPostProcessor cloudThreadBeanPostProcessor(BootstrapConfigProperties props) {
-        return new CloudThreadBeanPostProcessor(props);
+    public CloudThreadBeanPostProcessor cloudThreadBeanPostProcessor(ThreadPoolConfigLayersHolder layersHolder) {
+        return new CloudThreadBeanPostProcessor(layersHolder);
     }
 
     /**
@@ -13,17 +13,24 @@
  */
 package com.aston.cloudthread.spring.base.support;
 
+import com.aston.cloudthread.core.alarm.AlarmTypeEnum;
 import com.aston.cloudthread.core.config.BootstrapConfigProperties;
 import com.aston.cloudthread.core.executor.CloudThreadExecutor;
 import com.aston.cloudthread.core.executor.CloudThreadRegistry;
+import com.aston.cloudthread.core.executor.ThreadPoolConfigLayers;
+import com.aston.cloudthread.core.executor.ThreadPoolConfigLayersHolder;
 import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorWrapper;
 import com.aston.cloudthread.core.executor.support.BlockingQueueTypeEnum;
+import com.aston.cloudthread.core.notification.service.AlarmRateLimiter;
 import com.aston.cloudthread.spring.base.configuration.CloudThreadBaseConfiguration;
 import com.aston.cloudthread.spring.base.configuration.CloudThreadBaseTestConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
 import java.util.Collections;
 import java.util.UUID;
@@ -34,7 +41,9 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -49,6 +58,9 @@ class CloudThreadBeanPostProcessorTest {
     @Autowired
     private BootstrapConfigProperties props;
 
+    @Autowired
+    private ThreadPoolConfigLayersHolder layersHolder;
+
     @Autowired
     private CloudThreadExecutor dynamicExecutor;
 
@@ -104,6 +116,7 @@ class CloudThreadBeanPostProcessorTest {
                 .keepAliveTimeSeconds(1000L)
                 .build();
         props.setExecutors(Collections.singletonList(overrideProps));
+        layersHolder.setLayers(ThreadPoolConfigLayers.of(props));
 
         // process bean (simulate Spring post-processing)
         postProcessor.postProcessAfterInitialization(dynamicExecutor, "dynamicExecutor");
@@ -122,6 +135,7 @@ class CloudThreadBeanPostProcessorTest {
         badConfig.setCorePoolSize(10); // > max pool size
         badConfig.setMaximumPoolSize(5);
         props.setExecutors(Collections.singletonList(badConfig));
+        layersHolder.setLayers(ThreadPoolConfigLayers.of(props));
 
         RuntimeException ex = assertThrows(RuntimeException.class,
                 () -> postProcessor.postProcessAfterInitialization(dynamicExecutor, "dynamicExecutor"));
@@ -129,6 +143,28 @@ class CloudThreadBeanPostProcessorTest {
         assertTrue(ex.getMessage().contains("must be smaller than"));
     }
 
+    @Test
+    void testClosingContextUnregistersPoolAndResetsAlarmLimiter() {
+        ApplicationContext testContext = ApplicationContextHolder.CONTEXT;
+        AnnotationConfigApplicationContext context =
+                new AnnotationConfigApplicationContext(CloudThreadBaseTestConfig.class);
+        int poolIndex;
+        try {
+            ThreadPoolExecutorWrapper wrapper = CloudThreadRegistry.getWrapper("dynamic-pool");
+            assertNotNull(wrapper);
+            poolIndex = wrapper.getPoolIndex();
+            assertTrue(AlarmRateLimiter.allowAlarm(poolIndex, AlarmTypeEnum.CAPACITY, 5));
+            assertFalse(AlarmRateLimiter.allowAlarm(poolIndex, AlarmTypeEnum.CAPACITY, 5));
+        } finally {
+            context.close();
+            // the holder is static, hand it back to the context of this test class
+            ApplicationContextHolder.CONTEXT = testContext;
+        }
+
+        assertNull(CloudThreadRegistry.getWrapper("dynamic-pool"));
+        assertTrue(AlarmRateLimiter.allowAlarm(poolIndex, AlarmTypeEnum.CAPACITY, 5));
+    }
+
     private CloudThreadExecutor newExecutor(String tUID, int queueCapacity,
                                             RejectedExecutionHandler handler,
                                             long awaitTerminationMillis) {
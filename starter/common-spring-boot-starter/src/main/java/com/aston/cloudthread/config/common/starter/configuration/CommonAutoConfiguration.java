@@ -15,6 +15,7 @@ package com.aston.cloudthread.config.common.starter.configuration;
 
 import com.aston.cloudthread.config.common.starter.refresher.CloudThreadPoolRefreshListener;
 import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.executor.ThreadPoolConfigLayersHolder;
 import com.aston.cloudthread.core.notification.service.NotifierDispatcher;
 import com.aston.cloudthread.spring.base.configuration.CloudThreadBaseConfiguration;
 import com.aston.cloudthread.spring.base.enable.MarkerConfiguration;
@@ -50,7 +51,8 @@ public class CommonAutoConfiguration {
     }
 
     @Bean
-    public CloudThreadPoolRefreshListener cloudThreadPoolRefreshListener(NotifierDispatcher notifierDispatcher) {
-        return new CloudThreadPoolRefreshListener(notifierDispatcher);
+    public CloudThreadPoolRefreshListener cloudThreadPoolRefreshListener(NotifierDispatcher notifierDispatcher,
+                                                                         ThreadPoolConfigLayersHolder layersHolder) {
+        return new CloudThreadPoolRefreshListener(notifierDispatcher, layersHolder);
     }
 }
@@ -14,19 +14,30 @@
 package com.aston.cloudthread.config.common.starter.refresher;
 
 import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.config.ExecutorPropertyKey;
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
+import com.aston.cloudthread.core.executor.ThreadPoolPropertyFields;
 import com.aston.cloudthread.core.parser.ConfigParserHandler;
+import com.aston.cloudthread.core.toolkit.ChangeCoalescer;
 import com.aston.cloudthread.spring.base.support.ApplicationContextHolder;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.context.properties.bind.Bindable;
 import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
 import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.env.Environment;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 /**
@@ -51,13 +62,25 @@ import java.util.Map;
  */
 @Slf4j
 @RequiredArgsConstructor
-public abstract class AbstractCloudThreadPoolRefresher implements ApplicationRunner {
+public abstract class AbstractCloudThreadPoolRefresher implements ApplicationRunner, DisposableBean {
+
+    private static final String THREAD_POOL_UID_FIELD = ExecutorPropertyKey.uniform("threadPoolUID");
+
+    private static final String EXECUTOR_DEFAULTS_PREFIX = BootstrapConfigProperties.PREFIX + ".executor-defaults";
+
+    private static final String EXECUTOR_GROUPS_PREFIX = BootstrapConfigProperties.PREFIX + ".executor-groups";
+
     /**
      * Autoconfigured CloudThread bootstrap properties, shared across all subclasses.
      * Includes thread pool definitions, configuration options, and notification settings.
      */
     protected final BootstrapConfigProperties props;
 
+    /**
+     * Coalesces changed keys, created on the first change
+     */
+    private volatile ChangeCoalescer<String> coalescer;
+
     /**
      * Register listeners to handle CloudThread configuration changes.
      * Subclasses must implement this method to provide the actual listener registration
@@ -111,7 +134,7 @@ public abstract class AbstractCloudThreadPoolRefresher implements ApplicationRun
     public void refreshThreadPoolProperties(String configInfo) {
         Map<Object, Object> configInfoMap =
                 ConfigParserHandler.getInstance().parseConfig(configInfo,
-                        props.getConfigFileType());
+                        props.getConfigFileType(), BootstrapConfigProperties.PREFIX);
         ConfigurationPropertySource sources =
                 new MapConfigurationPropertySource(configInfoMap);
         Binder binder = new Binder(sources);
@@ -137,4 +160,139 @@ public abstract class AbstractCloudThreadPoolRefresher implements ApplicationRun
         // Publish event to notify all CloudThread listeners of configuration change
         ApplicationContextHolder.publishEvent(new CloudThreadPoolConfigUpdateEvent(this, refreshBootstrapConfigProps));
     }
+
+    /**
+     * Refresh the thread pools addressed by the changed keys, e.g. those of an
+     * {@code EnvironmentChangeEvent}.
+     *
+     * <p>When every key is a setting of a single pool, like
+     * {@code cloudthread.executors[3].core-pool-size}, only the sub-trees of the affected
+     * pools are bound and the published event carries just their changed fields, so the
+     * cost follows the number of changed keys rather than the number of pools. Other keys,
+     * or a changed {@code thread-pool-uid} which may reorder the pools, fall back to
+     * rebinding the changed values with {@link #refreshThreadPoolProperties(Map)}. Keys below
+     * {@code executor-defaults} or {@code executor-groups} may change any number of pools, they
+     * rebind all thread pool settings and leave it to the listener to find the affected pools.</p>
+     *
+     * <p>Keys changing in quick succession, e.g. while a config server pushes a large edit
+     * as several events, are coalesced over {@code cloudthread.refresh.quiet-period-millis}
+     * (bounded by {@code max-delay-millis}) and applied once from the values current at
+     * that time. Each pool is thus resized and notified once, with the net change.</p>
+     *
+     * @param changedKeys changed keys below {@link BootstrapConfigProperties#PREFIX}
+     * @param environment environment holding the new values
+     */
+    public void refreshChangedKeys(Set<String> changedKeys, Environment environment) {
+        BootstrapConfigProperties.RefreshConfig refresh = props.getRefresh();
+        if (refresh == null || refresh.getQuietPeriodMillis() <= 0) {
+            applyChangedKeys(changedKeys, environment);
+            return;
+        }
+        coalescer(refresh, environment).submit(changedKeys);
+    }
+
+    private ChangeCoalescer<String> coalescer(BootstrapConfigProperties.RefreshConfig refresh,
+                                              Environment environment) {
+        ChangeCoalescer<String> current = coalescer;
+        if (current == null) {
+            synchronized (this) {
+                current = coalescer;
+                if (current == null) {
+                    current = new ChangeCoalescer<>("cloudthread-refresh-coalescer",
+                            refresh.getQuietPeriodMillis(), refresh.getMaxDelayMillis(),
+                            keys -> applyChangedKeys(keys, environment));
+                    coalescer = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Apply pending coalesced changes and stop the coalescer.
+     */
+    @Override
+    public void destroy() {
+        ChangeCoalescer<String> current = coalescer;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void applyChangedKeys(Set<String> changedKeys, Environment environment) {
+        Map<Integer, Set<String>> fieldsByIndex = new HashMap<>();
+        for (String key : changedKeys) {
+            if (isLayerKey(key)) {
+                refreshLayers(environment);
+                return;
+            }
+            ExecutorPropertyKey executorKey = ExecutorPropertyKey.parse(key);
+            if (executorKey == null
+                    || !ThreadPoolPropertyFields.isKnown(executorKey.getField())
+                    || THREAD_POOL_UID_FIELD.equals(executorKey.getField())) {
+                refreshThreadPoolProperties(collectValues(changedKeys, environment));
+                return;
+            }
+            fieldsByIndex.computeIfAbsent(executorKey.getIndex(), index -> new HashSet<>())
+                    .add(executorKey.getField());
+        }
+
+        Binder binder = Binder.get(environment);
+        List<ThreadPoolConfigChange> changes = new ArrayList<>(fieldsByIndex.size());
+        for (Map.Entry<Integer, Set<String>> entry : fieldsByIndex.entrySet()) {
+            String poolPrefix = BootstrapConfigProperties.PREFIX + ".executors[" + entry.getKey() + "]";
+            ThreadPoolExecutorProperties bound =
+                    binder.bind(poolPrefix, ThreadPoolExecutorProperties.class).orElse(null);
+            if (bound == null || bound.getThreadPoolUID() == null) {
+                log.warn("No thread-pool-uid configured for {}, changed keys ignored", poolPrefix);
+                continue;
+            }
+            changes.add(new ThreadPoolConfigChange(bound.getThreadPoolUID(), entry.getValue(), bound));
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        ApplicationContextHolder.publishEvent(new CloudThreadPoolConfigUpdateEvent(this, props, changes));
+    }
+
+    /**
+     * @return whether the key is below {@code executor-defaults} or {@code executor-groups}, in any relaxed form
+     */
+    private static boolean isLayerKey(String key) {
+        String uniformKey = ExecutorPropertyKey.uniform(key);
+        return uniformKey.startsWith(ExecutorPropertyKey.uniform(EXECUTOR_DEFAULTS_PREFIX))
+                || uniformKey.startsWith(ExecutorPropertyKey.uniform(EXECUTOR_GROUPS_PREFIX));
+    }
+
+    /**
+     * Rebind the defaults, the groups and the pools from the environment and refresh every pool
+     * whose effective properties changed. Removed entries disappear, which binding only the
+     * changed values onto {@link #props} would not do.
+     */
+    private void refreshLayers(Environment environment) {
+        Binder binder = Binder.get(environment);
+        props.setExecutorDefaults(binder.bind(EXECUTOR_DEFAULTS_PREFIX, ThreadPoolExecutorProperties.class)
+                .orElse(null));
+        props.setExecutorGroups(binder.bind(EXECUTOR_GROUPS_PREFIX,
+                Bindable.mapOf(String.class, ThreadPoolExecutorProperties.class)).orElse(null));
+        props.setExecutors(binder.bind(BootstrapConfigProperties.PREFIX + ".executors",
+                Bindable.listOf(ThreadPoolExecutorProperties.class)).orElse(null));
+
+        ApplicationContextHolder.publishEvent(new CloudThreadPoolConfigUpdateEvent(this, props));
+    }
+
+    /**
+     * @return the current values of the given keys, removed keys are left out
+     */
+    protected Map<String, Object> collectValues(Set<String> keys, Environment environment) {
+        Map<String, Object> values = new HashMap<>();
+        for (String key : keys) {
+            Object value = environment.getProperty(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
 }
@@ -18,13 +18,42 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.context.ApplicationEvent;
 
+import java.util.List;
+
 public class CloudThreadPoolConfigUpdateEvent extends ApplicationEvent {
     @Getter
     @Setter
     private BootstrapConfigProperties bootstrapConfigProperties;
 
+    /**
+     * Per-pool changes resolved from the changed keys, {@code null} if the whole
+     * configuration was rebound and every pool has to be compared.
+     */
+    @Getter
+    private final List<ThreadPoolConfigChange> changes;
+
+    /**
+     * Set by the listener when the refresh was rejected or failed and was undone, so a
+     * publisher tracking what it has applied keeps its previous view.
+     */
+    @Getter
+    private volatile boolean failed;
+
     public CloudThreadPoolConfigUpdateEvent(Object source, BootstrapConfigProperties bootstrapConfigProperties) {
+        this(source, bootstrapConfigProperties, null);
+    }
+
+    public CloudThreadPoolConfigUpdateEvent(Object source, BootstrapConfigProperties bootstrapConfigProperties,
+                                            List<ThreadPoolConfigChange> changes) {
         super(source);
         this.bootstrapConfigProperties = bootstrapConfigProperties;
+        this.changes = changes;
+    }
+
+    /**
+     * Report that no thread pool took the new configuration.
+     */
+    public void markFailed() {
+        this.failed = true;
     }
 }
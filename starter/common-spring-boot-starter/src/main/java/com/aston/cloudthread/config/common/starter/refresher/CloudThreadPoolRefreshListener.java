@@ -16,12 +16,22 @@ package com.aston.cloudthread.config.common.starter.refresher;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.DateUtil;
 import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.config.ExecutorPropertyKey;
+import com.aston.cloudthread.core.executor.CloudThreadExecutor;
 import com.aston.cloudthread.core.executor.CloudThreadRegistry;
+import com.aston.cloudthread.core.executor.ThreadPoolConfigHistory;
+import com.aston.cloudthread.core.executor.ThreadPoolConfigLayers;
+import com.aston.cloudthread.core.executor.ThreadPoolConfigLayersHolder;
+import com.aston.cloudthread.core.executor.ThreadPoolConfigValidator;
 import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
 import com.aston.cloudthread.core.executor.ThreadPoolExecutorWrapper;
+import com.aston.cloudthread.core.executor.ThreadPoolPropertyFields;
+import com.aston.cloudthread.core.executor.ThreadPoolResizeRamp;
+import com.aston.cloudthread.core.executor.ThreadPoolSettingsSnapshot;
 import com.aston.cloudthread.core.executor.support.BlockingQueueTypeEnum;
 import com.aston.cloudthread.core.executor.support.RejectedPolicyTypeEnum;
 import com.aston.cloudthread.core.executor.support.ResizableCapacityLinkedBlockingQueue;
+import com.aston.cloudthread.core.jfr.PoolResizedEvent;
 import com.aston.cloudthread.core.notification.dto.ThreadPoolConfigChangeDTO;
 import com.aston.cloudthread.core.notification.service.NotifierDispatcher;
 import com.aston.cloudthread.spring.base.support.ApplicationContextHolder;
@@ -32,13 +42,20 @@ import org.springframework.context.ApplicationListener;
 import org.springframework.core.env.Environment;
 
 import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 import static com.aston.cloudthread.core.constant.Constants.CHANGE_DELIMITER;
 import static com.aston.cloudthread.core.constant.Constants.CHANGE_THREAD_POOL_TEXT;
@@ -51,17 +68,26 @@ import static com.aston.cloudthread.core.constant.Constants.CHANGE_THREAD_POOL_T
  * When a remote configuration update is published, this listener:
  * <ul>
  *     <li>Checks if the event carries valid executor configuration.</li>
+ *     <li>Resolves the effective properties of each pool from the defaults, its group and its
+ *     own settings, see {@link ThreadPoolConfigLayers}.</li>
  *     <li>Compares remote and local thread pool properties.</li>
+ *     <li>Validates the new properties of all changed thread pools up front.</li>
  *     <li>If differences exist, synchronizes local thread pool settings with the remote
- *     config.</li>
+ *     config, restoring every changed pool if one of them fails.</li>
+ *     <li>Records the applied change in {@link ThreadPoolConfigHistory}, from where it can be
+ *     rolled back with {@link #rollback(long)}.</li>
+ *     <li>Hands pool size and queue capacity changes to {@link ThreadPoolResizeRamp} when the
+ *     pool has a ramp enabled.</li>
  *     <li>Updates the {@link CloudThreadRegistry} with new properties.</li>
  *     <li>Sends notifications about the change through {@link NotifierDispatcher}.</li>
  *     <li>Logs detailed change information (core size, max size, queue capacity, etc.). </li>
  * </ul>
  * </p>
  * <p>
- *     Synchronization is done per-thread-pool UID (via {@link String#intern()}) to avoid
- *     race conditions during concurrent config updates.
+ *     All pools of one event are updated as a transaction holding the refresh locks of their
+ *     {@link ThreadPoolExecutorWrapper}s, to avoid race conditions during concurrent config
+ *     updates and mixed states after a partial failure. Events carrying
+ *     {@link ThreadPoolConfigChange}s only touch the affected pools and fields.
  * </p>
  *
  * <p>
@@ -75,57 +101,233 @@ import static com.aston.cloudthread.core.constant.Constants.CHANGE_THREAD_POOL_T
 @RequiredArgsConstructor
 public class CloudThreadPoolRefreshListener implements ApplicationListener<CloudThreadPoolConfigUpdateEvent> {
 
+    private static final String GROUP_FIELD = ExecutorPropertyKey.uniform("group");
+
     private final NotifierDispatcher notifierDispatcher;
 
+    /**
+     * Defaults, groups and pool layers of the configuration applied last, built at startup
+     */
+    private final ThreadPoolConfigLayersHolder layersHolder;
+
     @Override
     public void onApplicationEvent(CloudThreadPoolConfigUpdateEvent event) {
-        BootstrapConfigProperties refresherProperties = event.getBootstrapConfigProperties();
+        Map<String, Function<ThreadPoolExecutorProperties, ThreadPoolExecutorProperties>> updates = new LinkedHashMap<>();
+        ThreadPoolConfigLayers next = layersHolder.getLayers();
+
+        // Incremental refresh: only the pools and fields addressed by the changed keys
+        if (event.getChanges() != null) {
+            for (ThreadPoolConfigChange change : event.getChanges()) {
+                String threadPoolUID = change.getThreadPoolUID();
+                next = next.withPoolFields(threadPoolUID, change.getProperties(), change.getChangedFields());
+                // A pool moving to another group may inherit any field anew
+                Collection<String> fields = change.getChangedFields().contains(GROUP_FIELD)
+                        ? ThreadPoolPropertyFields.fields() : change.getChangedFields();
+                ThreadPoolExecutorProperties effective = next.resolve(threadPoolUID);
+                Function<ThreadPoolExecutorProperties, ThreadPoolExecutorProperties> merge = originalProps ->
+                        ThreadPoolPropertyFields.merge(originalProps, effective, fields);
+                updates.merge(threadPoolUID, merge, Function::andThen);
+            }
+        } else {
+            BootstrapConfigProperties refresherProperties = event.getBootstrapConfigProperties();
 
-        // Skip if no executor configuration is provided in the remote config.
-        if (CollUtil.isEmpty(refresherProperties.getExecutors())) {
-            return;
+            // Skip if no executor configuration is provided in the remote config.
+            if (CollUtil.isEmpty(refresherProperties.getExecutors())) {
+                return;
+            }
+            next = next.refresh(refresherProperties);
+            if (log.isDebugEnabled()) {
+                log.debug("[CloudThread] Effective configuration changed for thread pools: {}",
+                        next.getChangedThreadPoolUIDs());
+            }
+            // Only the pools whose effective configuration changed, the others keep running as they are
+            for (String threadPoolUID : next.getChangedThreadPoolUIDs()) {
+                ThreadPoolExecutorProperties effective = next.resolve(threadPoolUID);
+                updates.put(threadPoolUID, originalProps -> effective);
+            }
         }
 
-        // Iterate over each remote thread pool configuration and sync with local
-        for (ThreadPoolExecutorProperties remoteProps : refresherProperties.getExecutors()) {
-            String threadPoolUID = remoteProps.getThreadPoolUID();
-
-            // Synchronize updates per thread pool UID to prevent concurrent modification
-            // issues.
-            synchronized (threadPoolUID.intern()) {
-                // Check if the remote config differs from the current local config.
-                if (!hasThreadPoolConfigChanged(remoteProps)) {
-                    log.info("no change, skip synchronized");
-                    continue;
+        try {
+            applyTransaction("refresh", updates);
+            layersHolder.setLayers(next);
+        } catch (ConfigTransactionException ex) {
+            // Already logged, every pool keeps its previous configuration.
+            event.markFailed();
+        }
+    }
+
+    /**
+     * Roll the thread pools changed by a recorded version back to their properties before it.
+     *
+     * <p>The rollback runs as a transaction of its own and is recorded as a new version, so it
+     * can be rolled back as well. The restored properties become the own layer of each rolled
+     * back pool, until the next full refresh reads the pool layers from the configuration
+     * again and re-applies the pools that differ from it.</p>
+     *
+     * @param version version number, see {@link ThreadPoolConfigHistory#versions()}
+     * @return the version recording the rollback, or {@code null} if nothing had to change
+     * @throws IllegalArgumentException if the version is unknown
+     * @throws IllegalStateException    if the rollback was rejected or failed and was undone
+     */
+    public ThreadPoolConfigHistory.ConfigVersion rollback(long version) {
+        ThreadPoolConfigHistory.ConfigVersion target = ThreadPoolConfigHistory.get(version);
+        if (target == null) {
+            throw new IllegalArgumentException("Unknown thread pool config version: " + version);
+        }
+
+        Map<String, Function<ThreadPoolExecutorProperties, ThreadPoolExecutorProperties>> updates = new LinkedHashMap<>();
+        target.getBefore().forEach((threadPoolUID, props) ->
+                updates.put(threadPoolUID, originalProps -> ThreadPoolPropertyFields.copy(props)));
+        try {
+            ThreadPoolConfigHistory.ConfigVersion applied = applyTransaction("rollback to version " + version, updates);
+            ThreadPoolConfigLayers next = layersHolder.getLayers();
+            for (Map.Entry<String, ThreadPoolExecutorProperties> entry : target.getBefore().entrySet()) {
+                next = next.withPoolFields(entry.getKey(), entry.getValue(), ThreadPoolPropertyFields.fields());
+            }
+            layersHolder.setLayers(next);
+            return applied;
+        } catch (ConfigTransactionException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Apply the new properties of several thread pools as one transaction.
+     *
+     * <p>The refresh locks of all affected pools are taken in thread pool id order, so
+     * concurrent transactions cannot deadlock. The new properties of every changed pool are
+     * validated before any pool is touched; if one is invalid, nothing is applied. If applying
+     * fails halfway, the pools already changed are restored from the snapshots taken before.
+     * Notifications are only sent once every pool has been updated.</p>
+     *
+     * @param source  what triggered the change, recorded in the history
+     * @param updates remote properties by thread pool id, given the properties currently applied
+     * @return the recorded version, or {@code null} if no pool changed
+     * @throws ConfigTransactionException if the change was rejected or failed and was undone
+     */
+    private ThreadPoolConfigHistory.ConfigVersion applyTransaction(
+            String source,
+            Map<String, Function<ThreadPoolExecutorProperties, ThreadPoolExecutorProperties>> updates) {
+        List<PendingRefresh> pending = new ArrayList<>();
+        for (Map.Entry<String, Function<ThreadPoolExecutorProperties, ThreadPoolExecutorProperties>> entry
+                : new TreeMap<>(updates).entrySet()) {
+            ThreadPoolExecutorWrapper wrapper = CloudThreadRegistry.getWrapper(entry.getKey());
+            if (wrapper == null) {
+                log.warn("No thread pool found for thread pool id: {}", entry.getKey());
+                continue;
+            }
+            pending.add(new PendingRefresh(wrapper, entry.getValue()));
+        }
+
+        List<ReentrantLock> locked = new ArrayList<>(pending.size());
+        try {
+            for (PendingRefresh refresh : pending) {
+                ReentrantLock refreshLock = refresh.wrapper.getRefreshLock();
+                refreshLock.lock();
+                locked.add(refreshLock);
+            }
+            return applyLocked(source, pending);
+        } finally {
+            for (int i = locked.size() - 1; i >= 0; i--) {
+                locked.get(i).unlock();
+            }
+        }
+    }
+
+    private ThreadPoolConfigHistory.ConfigVersion applyLocked(String source, List<PendingRefresh> pending) {
+        List<PendingRefresh> changed = new ArrayList<>();
+        for (PendingRefresh refresh : pending) {
+            refresh.originalProps = refresh.wrapper.getExecutorProperties();
+            refresh.remoteProps = refresh.remotePropsOf.apply(refresh.originalProps);
+
+            // Check if the remote config differs from the current local config.
+            if (hasDifference(refresh.originalProps, refresh.remoteProps, refresh.wrapper.getExecutor())) {
+                changed.add(refresh);
+            }
+        }
+        if (changed.isEmpty()) {
+            log.info("no change, skip synchronized");
+            return null;
+        }
+
+        // Validate every pool before touching any of them.
+        List<String> errors = new ArrayList<>();
+        for (PendingRefresh refresh : changed) {
+            for (String error : ThreadPoolConfigValidator.validate(
+                    refresh.originalProps, refresh.remoteProps, refresh.wrapper.getExecutor())) {
+                errors.add(refresh.wrapper.getThreadPoolUID() + ": " + error);
+            }
+        }
+        if (!errors.isEmpty()) {
+            log.error("Rejected thread pool config {}, no thread pool was changed: {}", source, errors);
+            throw new ConfigTransactionException("Invalid thread pool config: " + errors, null);
+        }
+
+        // Apply remote configuration to the local thread pool instances, undo all on failure.
+        List<PendingRefresh> applied = new ArrayList<>(changed.size());
+        try {
+            for (PendingRefresh refresh : changed) {
+                refresh.snapshot = ThreadPoolSettingsSnapshot.capture(
+                        refresh.wrapper.getExecutor(), refresh.originalProps);
+                applied.add(refresh);
+                updateThreadPoolFromRemoteConfig(refresh.wrapper, refresh.remoteProps);
+                refresh.wrapper.setExecutorProperties(refresh.remoteProps);
+            }
+        } catch (RuntimeException ex) {
+            log.error("Failed to apply thread pool config {}, restoring {} thread pool(s)", source, applied.size(), ex);
+            for (int i = applied.size() - 1; i >= 0; i--) {
+                PendingRefresh refresh = applied.get(i);
+                try {
+                    refresh.snapshot.restore(refresh.wrapper.getExecutor());
+                } catch (RuntimeException restoreEx) {
+                    log.error("Failed to restore thread pool {}", refresh.wrapper.getThreadPoolUID(), restoreEx);
                 }
+                refresh.wrapper.setExecutorProperties(refresh.originalProps);
+            }
+            throw new ConfigTransactionException("Failed to apply thread pool config: " + ex.getMessage(), ex);
+        }
+
+        Map<String, ThreadPoolExecutorProperties> before = new LinkedHashMap<>();
+        Map<String, ThreadPoolExecutorProperties> after = new LinkedHashMap<>();
+        for (PendingRefresh refresh : changed) {
+            before.put(refresh.wrapper.getThreadPoolUID(), refresh.originalProps);
+            after.put(refresh.wrapper.getThreadPoolUID(), refresh.remoteProps);
+        }
+        ThreadPoolConfigHistory.ConfigVersion version = ThreadPoolConfigHistory.record(source, before, after);
 
-                // Apply remote configuration to the local thread pool instance.
-                updateThreadPoolFromRemoteConfig(remoteProps);
-
-                // Retrieve wrapper and updates its cached properties.
-                ThreadPoolExecutorWrapper wrapper =
-                        CloudThreadRegistry.getWrapper(threadPoolUID);
-                ThreadPoolExecutorProperties originalProps = wrapper.getExecutorProperties();
-                wrapper.setExecutorProperties(remoteProps);
-
-                // Dispatch notification about the configuration update.
-                sendThreadPoolConfigChangeMessage(originalProps, remoteProps);
-
-                // Log detailed changes between old and new properties.
-                log.info(CHANGE_THREAD_POOL_TEXT,
-                        threadPoolUID,
-                        String.format(CHANGE_DELIMITER, originalProps.getCorePoolSize(),
-                                remoteProps.getCorePoolSize()),
-                        String.format(CHANGE_DELIMITER, originalProps.getMaximumPoolSize(), remoteProps.getMaximumPoolSize()),
-                        String.format(CHANGE_DELIMITER, originalProps.getQueueCapacity(), remoteProps.getQueueCapacity()),
-                        String.format(CHANGE_DELIMITER, originalProps.getKeepAliveTimeSeconds(),
-                                remoteProps.getKeepAliveTimeSeconds()),
-                        String.format(CHANGE_DELIMITER, originalProps.getRejectedHandler(), remoteProps.getRejectedHandler()),
-                        String.format(CHANGE_DELIMITER, originalProps.getAllowCoreThreadTimeout(),
-                                remoteProps.getAllowCoreThreadTimeout())
-                );
+        // Resize ramps are replaced once every pool has been updated, so a failed transaction
+        // leaves the ramps in progress untouched. A newer change supersedes a running ramp.
+        for (PendingRefresh refresh : changed) {
+            if (isRampEnabled(refresh.originalProps, refresh.remoteProps)) {
+                startResizeRamp(refresh.wrapper, refresh.originalProps, refresh.remoteProps);
+            } else {
+                ThreadPoolResizeRamp.cancel(refresh.wrapper.getThreadPoolUID());
             }
         }
+
+        for (PendingRefresh refresh : changed) {
+            ThreadPoolExecutorProperties originalProps = refresh.originalProps;
+            ThreadPoolExecutorProperties remoteProps = refresh.remoteProps;
+
+            // Dispatch notification about the configuration update.
+            sendThreadPoolConfigChangeMessage(originalProps, remoteProps);
+
+            // Log detailed changes between old and new properties.
+            log.info(CHANGE_THREAD_POOL_TEXT,
+                    refresh.wrapper.getThreadPoolUID(),
+                    String.format(CHANGE_DELIMITER, originalProps.getCorePoolSize(),
+                            remoteProps.getCorePoolSize()),
+                    String.format(CHANGE_DELIMITER, originalProps.getMaximumPoolSize(), remoteProps.getMaximumPoolSize()),
+                    String.format(CHANGE_DELIMITER, originalProps.getQueueCapacity(), remoteProps.getQueueCapacity()),
+                    String.format(CHANGE_DELIMITER, originalProps.getKeepAliveTimeSeconds(),
+                            remoteProps.getKeepAliveTimeSeconds()),
+                    String.format(CHANGE_DELIMITER, originalProps.getRejectedHandler(), remoteProps.getRejectedHandler()),
+                    String.format(CHANGE_DELIMITER, originalProps.getAllowCoreThreadTimeout(),
+                            remoteProps.getAllowCoreThreadTimeout())
+            );
+        }
+        log.info("Applied thread pool config version {} ({}) to {}", version.getVersion(), source, after.keySet());
+        return version;
     }
 
     /**
@@ -190,18 +392,31 @@ public class CloudThreadPoolRefreshListener implements ApplicationListener<Cloud
      *
      * <p>Updates core/max pool sizes, keep-alive time, allowCoreThreadTimeout,
      * rejected handler, and queue capacity (if supported). Ensures proper update order
-     * to avoid exceptions and ignores null values.
+     * to avoid exceptions and ignores null values. Pool sizes and queue capacity are left to
+     * a resize ramp when the pool has one enabled.
      *
+     * @param wrapper     Wrapper of the thread pool to update.
      * @param remoteProps Remote thread pool properties to apply.
      */
-    private void updateThreadPoolFromRemoteConfig(ThreadPoolExecutorProperties remoteProps) {
-        String threadPoolUID = remoteProps.getThreadPoolUID();
-        ThreadPoolExecutorWrapper wrapper = CloudThreadRegistry.getWrapper(threadPoolUID);
+    private void updateThreadPoolFromRemoteConfig(ThreadPoolExecutorWrapper wrapper,
+                                                  ThreadPoolExecutorProperties remoteProps) {
+        String threadPoolUID = wrapper.getThreadPoolUID();
         ThreadPoolExecutor executor = wrapper.getExecutor();
         ThreadPoolExecutorProperties originalProps = wrapper.getExecutorProperties();
 
-        Integer remoteCorePoolSize = remoteProps.getCorePoolSize();
-        Integer remoteMaximumPoolSize = remoteProps.getMaximumPoolSize();
+        PoolResizedEvent resizedEvent = new PoolResizedEvent();
+        if (resizedEvent.isEnabled()) {
+            resizedEvent.threadPoolUID = threadPoolUID;
+            resizedEvent.corePoolSizeBefore = executor.getCorePoolSize();
+            resizedEvent.maximumPoolSizeBefore = executor.getMaximumPoolSize();
+            resizedEvent.queueCapacityBefore = queueCapacityOf(executor);
+        }
+
+        // Ramp steps wait for the refresh lock held here, the ramp moves the sizes after commit
+        boolean ramping = isRampEnabled(originalProps, remoteProps);
+
+        Integer remoteCorePoolSize = ramping ? null : remoteProps.getCorePoolSize();
+        Integer remoteMaximumPoolSize = ramping ? null : remoteProps.getMaximumPoolSize();
 
         if (remoteCorePoolSize != null && remoteMaximumPoolSize != null) {
             int originalMaximumPoolSize = executor.getMaximumPoolSize();
@@ -221,47 +436,82 @@ public class CloudThreadPoolRefreshListener implements ApplicationListener<Cloud
             }
         }
 
+        // Keep-alive first, enabling core thread timeout requires a positive keep-alive
+        if (remoteProps.getKeepAliveTimeSeconds() != null &&
+                !Objects.equals(remoteProps.getKeepAliveTimeSeconds(), originalProps.getKeepAliveTimeSeconds())) {
+            executor.setKeepAliveTime(remoteProps.getKeepAliveTimeSeconds(), TimeUnit.SECONDS);
+        }
+
         if (remoteProps.getAllowCoreThreadTimeout() != null &&
                 !Objects.equals(remoteProps.getAllowCoreThreadTimeout(),
                         originalProps.getAllowCoreThreadTimeout())) {
             executor.allowCoreThreadTimeOut(remoteProps.getAllowCoreThreadTimeout());
         }
 
-        if (remoteProps.getRejectedHandler() != null &&
-                !Objects.equals(remoteProps.getRejectedHandler(), originalProps.getRejectedHandler())) {
-            RejectedExecutionHandler handler = RejectedPolicyTypeEnum.createPolicy(remoteProps.getRejectedHandler());
+        if (isChanged(originalProps.getRejectedHandler(), remoteProps.getRejectedHandler())
+                || isChanged(originalProps.getRejectedHandlerParams(), remoteProps.getRejectedHandlerParams())) {
+            String rejectedHandler = remoteProps.getRejectedHandler() != null
+                    ? remoteProps.getRejectedHandler()
+                    : originalProps.getRejectedHandler();
+            RejectedExecutionHandler handler = RejectedPolicyTypeEnum.createPolicy(rejectedHandler,
+                    remoteProps.getRejectedHandlerParams());
             executor.setRejectedExecutionHandler(handler);
         }
 
-        if (remoteProps.getAllowCoreThreadTimeout() != null &&
-                !Objects.equals(remoteProps.getKeepAliveTimeSeconds(), originalProps.getKeepAliveTimeSeconds())) {
-            executor.setKeepAliveTime(remoteProps.getKeepAliveTimeSeconds(), TimeUnit.SECONDS);
+        if (isChanged(originalProps.getRejectJournal(), remoteProps.getRejectJournal())
+                && executor instanceof CloudThreadExecutor) {
+            ((CloudThreadExecutor) executor).configureRejectionJournal(remoteProps.getRejectJournal());
         }
 
         /**
          * Adjusts the executor's queue capacity if it differs from the remote configuration.
          * Note: Only effective when the executor uses ResizableCapacityLinkedBlockingQueue.
          */
-        if (isQueueCapacityChanged(originalProps, remoteProps, executor)) {
+        if (!ramping && isQueueCapacityChanged(originalProps, remoteProps, executor)) {
             BlockingQueue<Runnable> queue = executor.getQueue();
             ResizableCapacityLinkedBlockingQueue<?> resizableQueue = (ResizableCapacityLinkedBlockingQueue<?>) queue;
             resizableQueue.setCapacity(remoteProps.getQueueCapacity());
         }
-    }
 
-    private boolean hasThreadPoolConfigChanged(ThreadPoolExecutorProperties remoteProps) {
-        String threadPoolUID = remoteProps.getThreadPoolUID();
-        ThreadPoolExecutorWrapper wrapper = CloudThreadRegistry.getWrapper(threadPoolUID);
-        if (wrapper == null) {
-            log.warn("No thread pool found for thread pool id: {}", threadPoolUID);
-            return false;
+        if (resizedEvent.shouldCommit()) {
+            resizedEvent.corePoolSizeAfter = executor.getCorePoolSize();
+            resizedEvent.maximumPoolSizeAfter = executor.getMaximumPoolSize();
+            resizedEvent.queueCapacityAfter = queueCapacityOf(executor);
+            resizedEvent.commit();
         }
+    }
+
+    /**
+     * Start moving the pool sizes and queue capacity to the new properties in steps.
+     *
+     * @param wrapper       Wrapper of the thread pool, already holding the new properties.
+     * @param originalProps Thread pool properties before the update.
+     * @param remoteProps   Thread pool properties applied.
+     */
+    private void startResizeRamp(ThreadPoolExecutorWrapper wrapper,
+                                 ThreadPoolExecutorProperties originalProps,
+                                 ThreadPoolExecutorProperties remoteProps) {
         ThreadPoolExecutor executor = wrapper.getExecutor();
-        ThreadPoolExecutorProperties originalProps = wrapper.getExecutorProperties();
+        Integer targetQueueCapacity = isQueueCapacityChanged(originalProps, remoteProps, executor)
+                ? remoteProps.getQueueCapacity()
+                : null;
+        ThreadPoolResizeRamp.start(wrapper.getThreadPoolUID(), executor,
+                remoteProps.getCorePoolSize(), remoteProps.getMaximumPoolSize(), targetQueueCapacity,
+                remoteProps.getRamp() != null ? remoteProps.getRamp() : originalProps.getRamp());
+    }
 
-        return hasDifference(originalProps, remoteProps, executor);
+    private boolean isRampEnabled(ThreadPoolExecutorProperties originalProps,
+                                  ThreadPoolExecutorProperties remoteProps) {
+        ThreadPoolExecutorProperties.RampConfig ramp = remoteProps.getRamp() != null
+                ? remoteProps.getRamp()
+                : originalProps.getRamp();
+        return ramp != null && Boolean.TRUE.equals(ramp.getEnable());
     }
 
+    private int queueCapacityOf(ThreadPoolExecutor executor) {
+        BlockingQueue<Runnable> queue = executor.getQueue();
+        return queue.size() + queue.remainingCapacity();
+    }
 
     private boolean hasDifference(ThreadPoolExecutorProperties originalProps,
                                   ThreadPoolExecutorProperties remoteProps,
@@ -276,6 +526,12 @@ public class CloudThreadPoolRefreshListener implements ApplicationListener<Cloud
 
                 || isChanged(originalProps.getRejectedHandler(), remoteProps.getRejectedHandler())
 
+                || isChanged(originalProps.getRejectedHandlerParams(), remoteProps.getRejectedHandlerParams())
+
+                || isChanged(originalProps.getAlarm(), remoteProps.getAlarm())
+
+                || isChanged(originalProps.getRejectJournal(), remoteProps.getRejectJournal())
+
                 || isQueueCapacityChanged(originalProps, remoteProps, executor);
     }
 
@@ -296,4 +552,36 @@ public class CloudThreadPoolRefreshListener implements ApplicationListener<Cloud
     private <T> boolean isChanged(T before, T after) {
         return after != null && !Objects.equals(before, after);
     }
+
+    /**
+     * A thread pool taking part in a transaction.
+     */
+    private static final class PendingRefresh {
+
+        private final ThreadPoolExecutorWrapper wrapper;
+
+        private final Function<ThreadPoolExecutorProperties, ThreadPoolExecutorProperties> remotePropsOf;
+
+        private ThreadPoolExecutorProperties originalProps;
+
+        private ThreadPoolExecutorProperties remoteProps;
+
+        private ThreadPoolSettingsSnapshot snapshot;
+
+        PendingRefresh(ThreadPoolExecutorWrapper wrapper,
+                       Function<ThreadPoolExecutorProperties, ThreadPoolExecutorProperties> remotePropsOf) {
+            this.wrapper = wrapper;
+            this.remotePropsOf = remotePropsOf;
+        }
+    }
+
+    /**
+     * Thrown when a transaction was rejected, or failed and was undone.
+     */
+    private static final class ConfigTransactionException extends RuntimeException {
+
+        ConfigTransactionException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
 }
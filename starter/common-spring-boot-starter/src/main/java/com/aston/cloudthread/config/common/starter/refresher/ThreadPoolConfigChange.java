@@ -0,0 +1,46 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.config.common.starter.refresher;
+
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.Set;
+
+/**
+ * Changed settings of one thread pool, resolved from the changed configuration keys.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ThreadPoolConfigChange {
+
+    /**
+     * Thread pool unique id (UID).
+     */
+    private final String threadPoolUID;
+
+    /**
+     * Uniform names of the changed fields, see {@link com.aston.cloudthread.core.config.ExecutorPropertyKey}.
+     */
+    private final Set<String> changedFields;
+
+    /**
+     * Properties bound from the configuration sub-tree of the pool, only the changed
+     * fields are applied.
+     */
+    private final ThreadPoolExecutorProperties properties;
+}
@@ -21,8 +21,6 @@ import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.env.ConfigurableEnvironment;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -55,15 +53,8 @@ public class SpringCloudConfigRefresherHandler extends AbstractCloudThreadPoolRe
 
         ConfigurableEnvironment env =
                 (ConfigurableEnvironment) ApplicationContextHolder.CONTEXT.getEnvironment();
-        Map<String, Object> refreshProps = new HashMap<>();
-        for (String key : changedKeys) {
-            Object value = env.getProperty(key);
-            if (value != null) {
-                refreshProps.put(key, value);
-            }
-        }
-        // call our new impl KV based properties local thread pool config refresher
-        super.refreshThreadPoolProperties(refreshProps);
+        // refresh only the pools and fields addressed by the changed keys
+        super.refreshChangedKeys(changedKeys, env);
         log.info("CloudThread local thread pools refreshed based on updated config keys");
     }
 }
\ No newline at end of file
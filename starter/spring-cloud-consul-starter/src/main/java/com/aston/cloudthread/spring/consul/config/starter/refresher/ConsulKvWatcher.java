@@ -0,0 +1,326 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.spring.consul.config.starter.refresher;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.parser.ConfigFileTypeEnum;
+import com.aston.cloudthread.core.parser.ConfigParserHandler;
+import com.aston.cloudthread.core.toolkit.ThreadFactoryBuilder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Watches a Consul KV prefix with blocking queries and reports the keys that changed.
+ *
+ * <p>One recursive query on {@code keyPrefix} covers all keys below it, so a single
+ * connection serves any number of keys. Each query passes the {@code X-Consul-Index} of the
+ * previous response and blocks on the server until something below the prefix changes or
+ * {@code wait-seconds} pass. The {@code ModifyIndex} of every key is kept, so only keys
+ * that really changed are handed to the listener, even though Consul returns the whole
+ * prefix.</p>
+ *
+ * <p>Failed queries are retried after a delay that starts at {@code error-backoff-millis}
+ * and doubles up to {@code max-error-backoff-millis}. If the index goes backwards, e.g.
+ * after the Consul data was restored, the watcher starts over with index 0.</p>
+ */
+@Slf4j
+public class ConsulKvWatcher implements AutoCloseable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String INDEX_HEADER = "X-Consul-Index";
+
+    private static final String TOKEN_HEADER = "X-Consul-Token";
+
+    /**
+     * Key of a whole config document, as used by Spring Cloud Consul
+     */
+    private static final String DOCUMENT_KEY = "data";
+
+    private final BootstrapConfigProperties.ConsulConfig config;
+
+    private final String keyPrefix;
+
+    private final Consumer<Map<String, String>> listener;
+
+    private final HttpClient httpClient;
+
+    /**
+     * Key: Consul key, value: its {@code ModifyIndex} in the latest response
+     */
+    private final Map<String, Long> modifyIndexes = new HashMap<>();
+
+    /**
+     * Key: Consul key, value: its decoded value, replaced as a whole after each change
+     */
+    private volatile Map<String, String> values = Collections.emptyMap();
+
+    /**
+     * {@code X-Consul-Index} of the latest response, 0 before the first one
+     */
+    @Getter
+    private volatile long index;
+
+    private volatile boolean closed;
+
+    private Thread thread;
+
+    /**
+     * @param config   Consul address, key prefix and timing
+     * @param listener receives the changed keys with their values, on the watcher thread;
+     *                 {@link #getValues()} holds all keys at that point
+     */
+    public ConsulKvWatcher(BootstrapConfigProperties.ConsulConfig config, Consumer<Map<String, String>> listener) {
+        this.config = config;
+        this.keyPrefix = trimSlashes(config.getKeyPrefix());
+        this.listener = listener;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * Start watching on a daemon thread; the first query returns the current keys at once.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = ThreadFactoryBuilder.builder()
+                .namePrefix("cloudthread_consul-watcher")
+                .daemon(true)
+                .build()
+                .newThread(this::run);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        long backoffMillis = 0L;
+        while (!closed) {
+            try {
+                poll();
+                backoffMillis = 0L;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                if (closed) {
+                    return;
+                }
+                backoffMillis = nextBackoff(backoffMillis,
+                        config.getErrorBackoffMillis(), config.getMaxErrorBackoffMillis());
+                log.warn("[CloudThread] Consul watch of {} failed, retrying in {}ms: {}",
+                        keyPrefix, backoffMillis, ex.toString());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Run one blocking query and hand the changed keys to the listener.
+     *
+     * @return whether changed keys were handed to the listener
+     * @throws IOException if Consul cannot be reached or answers with an error
+     */
+    boolean poll() throws IOException, InterruptedException {
+        long waitSeconds = Math.max(1L, config.getWaitSeconds());
+        HttpRequest.Builder builder = HttpRequest.newBuilder(queryUri(waitSeconds))
+                // Consul adds up to wait / 16 of jitter to the wait time
+                .timeout(Duration.ofSeconds(waitSeconds + waitSeconds / 16 + 10))
+                .GET();
+        if (config.getToken() != null && !config.getToken().isBlank()) {
+            builder.header(TOKEN_HEADER, config.getToken());
+        }
+        HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        // 404: nothing below the prefix yet, the response still carries the index to block on
+        int status = response.statusCode();
+        if (status != 200 && status != 404) {
+            throw new IOException("Consul responded with status " + status);
+        }
+        long responseIndex = response.headers().firstValueAsLong(INDEX_HEADER)
+                .orElseThrow(() -> new IOException("Consul response without " + INDEX_HEADER));
+        long previousIndex = index;
+        if (responseIndex < previousIndex) {
+            log.info("[CloudThread] Consul index of {} went back from {} to {}, starting over",
+                    keyPrefix, previousIndex, responseIndex);
+            index = 0L;
+            return false;
+        }
+        index = Math.max(1L, responseIndex);
+        if (responseIndex == previousIndex) {
+            // the wait time passed without a change
+            return false;
+        }
+
+        Map<String, String> changed = new LinkedHashMap<>();
+        Map<String, String> current = new LinkedHashMap<>();
+        Set<String> present = new HashSet<>();
+        if (status == 200) {
+            for (JsonNode entry : OBJECT_MAPPER.readTree(response.body())) {
+                String key = entry.path("Key").asText();
+                long modifyIndex = entry.path("ModifyIndex").asLong();
+                present.add(key);
+                Long previous = modifyIndexes.put(key, modifyIndex);
+                JsonNode value = entry.get("Value");
+                if (value == null || value.isNull()) {
+                    continue;
+                }
+                if (previous != null && previous == modifyIndex && values.containsKey(key)) {
+                    current.put(key, values.get(key));
+                    continue;
+                }
+                String decoded = new String(Base64.getDecoder().decode(value.asText()), StandardCharsets.UTF_8);
+                current.put(key, decoded);
+                changed.put(key, decoded);
+            }
+        }
+        // Removed keys cannot be expressed as a refresh, the pools keep their settings
+        modifyIndexes.keySet().retainAll(present);
+        values = Collections.unmodifiableMap(current);
+
+        if (changed.isEmpty()) {
+            return false;
+        }
+        try {
+            listener.accept(changed);
+        } catch (RuntimeException ex) {
+            log.error("[CloudThread] Failed to apply Consul changes of {}", changed.keySet(), ex);
+        }
+        return true;
+    }
+
+    /**
+     * @return all keys below the prefix with their values, as of the latest change
+     */
+    public Map<String, String> getValues() {
+        return values;
+    }
+
+    private URI queryUri(long waitSeconds) {
+        StringBuilder uri = new StringBuilder(trimTrailingSlash(config.getUrl()))
+                .append("/v1/kv/").append(keyPrefix)
+                .append("?recurse=true&index=").append(index)
+                .append("&wait=").append(waitSeconds).append('s');
+        if (config.getDatacenter() != null && !config.getDatacenter().isBlank()) {
+            uri.append("&dc=").append(URLEncoder.encode(config.getDatacenter(), StandardCharsets.UTF_8));
+        }
+        return URI.create(uri.toString());
+    }
+
+    /**
+     * @return the delay before the next retry, given the delay before the current one (0 for none)
+     */
+    static long nextBackoff(long currentMillis, long minMillis, long maxMillis) {
+        long next = currentMillis <= 0 ? minMillis : currentMillis * 2;
+        return Math.max(1L, Math.min(next, maxMillis));
+    }
+
+    /**
+     * Turn changed Consul keys into {@code cloudthread} properties.
+     *
+     * <p>A key ending in the extension of a {@link ConfigFileTypeEnum}, e.g. {@code .yaml}, or named
+     * {@code data}, holds a whole config document, parsed in the format of its extension or
+     * else {@code documentType}. Any other key is a single property whose path below the
+     * prefix, with {@code /} read as {@code .}, is the property name, e.g.
+     * {@code cloudthread/executors[0]/core-pool-size}.</p>
+     *
+     * @param keyPrefix    the watched prefix
+     * @param entries      changed keys with their values
+     * @param documentType format of {@code data} keys, may be {@code null}
+     * @return properties below {@link BootstrapConfigProperties#PREFIX}
+     * @throws IOException if a document cannot be parsed
+     */
+    public static Map<String, Object> toProperties(String keyPrefix,
+                                                   Map<String, String> entries,
+                                                   ConfigFileTypeEnum documentType) throws IOException {
+        String prefix = trimSlashes(keyPrefix);
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String path = trimSlashes(entry.getKey().startsWith(prefix)
+                    ? entry.getKey().substring(prefix.length())
+                    : entry.getKey());
+            String name = path.substring(path.lastIndexOf('/') + 1);
+            int dot = name.lastIndexOf('.');
+            String extension = dot < 0 ? null : name.substring(dot + 1);
+
+            ConfigFileTypeEnum type = null;
+            if (extension != null && extension.equals(ConfigFileTypeEnum.of(extension).getValue())) {
+                type = ConfigFileTypeEnum.of(extension);
+            } else if (path.isEmpty() || DOCUMENT_KEY.equals(name)) {
+                type = documentType;
+            }
+
+            if (type != null) {
+                ConfigParserHandler.getInstance().parseConfig(entry.getValue(), type, BootstrapConfigProperties.PREFIX)
+                        .forEach((key, value) -> properties.put(String.valueOf(key), value));
+            } else if (!path.isEmpty()) {
+                properties.put(path.replace('/', '.'), entry.getValue());
+            }
+        }
+        properties.keySet().removeIf(key -> !key.startsWith(BootstrapConfigProperties.PREFIX + "."));
+        return properties;
+    }
+
+    private static String trimSlashes(String value) {
+        if (value == null) {
+            return "";
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) == '/') {
+            end--;
+        }
+        return value.substring(start, end);
+    }
+
+    private static String trimTrailingSlash(String value) {
+        return value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+    }
+}
@@ -15,16 +15,23 @@ package com.aston.cloudthread.spring.consul.config.starter.refresher;
 
 import com.aston.cloudthread.config.common.starter.refresher.AbstractCloudThreadPoolRefresher;
 import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Map;
+
 /**
  * Consul config refresher for dynamic thread pool.
- * Listens for EnvironmentChangeEvent triggered by Spring Cloud Consul watch.
+ *
+ * <p>Watches {@code cloudthread.consul-config.key-prefix} with Consul blocking queries
+ * through a {@link ConsulKvWatcher}, a single long-poll connection for all keys below the
+ * prefix. When keys change, the properties of all keys below the prefix are bound and
+ * published; the refresh listener then applies only the pools whose settings differ.</p>
  */
 @Slf4j(topic = "CloudThreadConsulRefresher")
 public class SpringCloudConsulConfigRefresherHandler extends AbstractCloudThreadPoolRefresher {
-    // todo: add spring cloud consul event handler here, and let it be the sub-class inner
-    //  member variable
+
+    private ConsulKvWatcher watcher;
 
     public SpringCloudConsulConfigRefresherHandler(BootstrapConfigProperties props) {
         super(props);
@@ -32,6 +39,30 @@ public class SpringCloudConsulConfigRefresherHandler extends AbstractCloudThread
 
     @Override
     protected void registerListener() throws Exception {
-        log.info("Consul refresher registered for cloud dynamic thread pool");
+        BootstrapConfigProperties.ConsulConfig consulConfig = props.getConsulConfig();
+        if (consulConfig == null || consulConfig.getKeyPrefix() == null) {
+            log.info("No cloudthread.consul-config.key-prefix configured, Consul watch disabled");
+            return;
+        }
+
+        watcher = new ConsulKvWatcher(consulConfig, this::onChange);
+        watcher.start();
+        log.info("Consul refresher registered for cloud dynamic thread pool, watching {} at {}",
+                consulConfig.getKeyPrefix(), consulConfig.getUrl());
+    }
+
+    @SneakyThrows
+    private void onChange(Map<String, String> changed) {
+        log.info("Consul keys changed: {}", changed.keySet());
+        refreshThreadPoolProperties(ConsulKvWatcher.toProperties(
+                props.getConsulConfig().getKeyPrefix(), watcher.getValues(), props.getConfigFileType()));
+    }
+
+    @Override
+    public void destroy() {
+        if (watcher != null) {
+            watcher.close();
+        }
+        super.destroy();
     }
 }
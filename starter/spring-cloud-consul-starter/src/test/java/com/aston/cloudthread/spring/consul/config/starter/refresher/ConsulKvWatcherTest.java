@@ -0,0 +1,208 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.spring.consul.config.starter.refresher;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.parser.ConfigFileTypeEnum;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsulKvWatcherTest {
+    private HttpServer consul;
+    private final Object lock = new Object();
+    private final Map<String, long[]> modifyIndexes = new LinkedHashMap<>();
+    private final Map<String, String> store = new LinkedHashMap<>();
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+    private final AtomicInteger responseStatus = new AtomicInteger(200);
+    private long index = 10;
+
+    @BeforeEach
+    void setup() throws Exception {
+        // local stand-in for the Consul KV API with blocking queries
+        consul = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        consul.createContext("/v1/kv/", this::handle);
+        consul.start();
+    }
+
+    @AfterEach
+    void teardown() {
+        consul.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        queries.add(query);
+        if (responseStatus.get() != 200) {
+            exchange.sendResponseHeaders(responseStatus.get(), -1);
+            exchange.close();
+            return;
+        }
+        long requested = Long.parseLong(param(query, "index"));
+        long waitMillis = Long.parseLong(param(query, "wait").replace("s", "")) * 1000;
+        StringBuilder json = new StringBuilder("[");
+        long responseIndex;
+        synchronized (lock) {
+            long deadline = System.currentTimeMillis() + waitMillis;
+            while (index <= requested && System.currentTimeMillis() < deadline) {
+                try {
+                    lock.wait(Math.max(1, deadline - System.currentTimeMillis()));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            responseIndex = index;
+            for (Map.Entry<String, String> entry : store.entrySet()) {
+                json.append(json.length() > 1 ? "," : "")
+                        .append("{\"Key\":\"").append(entry.getKey())
+                        .append("\",\"ModifyIndex\":").append(modifyIndexes.get(entry.getKey())[0])
+                        .append(",\"Value\":\"")
+                        .append(Base64.getEncoder().encodeToString(entry.getValue().getBytes(StandardCharsets.UTF_8)))
+                        .append("\"}");
+            }
+        }
+        byte[] body = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("X-Consul-Index", String.valueOf(responseIndex));
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private static String param(String query, String name) {
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private void put(String key, String value) {
+        synchronized (lock) {
+            index++;
+            store.put(key, value);
+            modifyIndexes.put(key, new long[]{index});
+            lock.notifyAll();
+        }
+    }
+
+    private ConsulKvWatcher newWatcher(List<Map<String, String>> changes) {
+        BootstrapConfigProperties.ConsulConfig config = new BootstrapConfigProperties.ConsulConfig();
+        config.setUrl("http://127.0.0.1:" + consul.getAddress().getPort());
+        config.setKeyPrefix("config/app");
+        config.setWaitSeconds(1L);
+        return new ConsulKvWatcher(config, changes::add);
+    }
+
+    @Test
+    void testPollDeliversOnlyKeysWithNewModifyIndex() throws Exception {
+        put("config/app/cloudthread/executors[0]/thread-pool-uid", "order-pool");
+        put("config/app/cloudthread/executors[0]/core-pool-size", "4");
+        List<Map<String, String>> changes = new ArrayList<>();
+        ConsulKvWatcher watcher = newWatcher(changes);
+
+        assertTrue(watcher.poll());
+        assertEquals(2, changes.get(0).size());
+        assertEquals(12, watcher.getIndex());
+        assertTrue(queries.get(0).contains("recurse=true&index=0"));
+
+        put("config/app/cloudthread/executors[0]/core-pool-size", "8");
+        assertTrue(watcher.poll());
+        assertTrue(queries.get(1).contains("index=12"));
+        assertEquals(Map.of("config/app/cloudthread/executors[0]/core-pool-size", "8"), changes.get(1));
+        assertEquals(2, watcher.getValues().size());
+        assertEquals("order-pool", watcher.getValues().get("config/app/cloudthread/executors[0]/thread-pool-uid"));
+    }
+
+    @Test
+    void testPollBlocksUntilWaitPassesWithoutChange() throws Exception {
+        put("config/app/cloudthread/executors[0]/core-pool-size", "4");
+        List<Map<String, String>> changes = new ArrayList<>();
+        ConsulKvWatcher watcher = newWatcher(changes);
+        assertTrue(watcher.poll());
+
+        long start = System.nanoTime();
+        assertFalse(watcher.poll());
+        assertTrue(System.nanoTime() - start >= 900_000_000L);
+        assertEquals(1, changes.size());
+
+        // a change of an unrelated index, e.g. a deleted key elsewhere, is skipped by ModifyIndex
+        synchronized (lock) {
+            index++;
+            lock.notifyAll();
+        }
+        assertFalse(watcher.poll());
+        assertEquals(1, changes.size());
+    }
+
+    @Test
+    void testIndexGoingBackwardsStartsOver() throws Exception {
+        put("config/app/cloudthread/executors[0]/core-pool-size", "4");
+        ConsulKvWatcher watcher = newWatcher(new ArrayList<>());
+        assertTrue(watcher.poll());
+
+        synchronized (lock) {
+            index = 5;
+        }
+        assertFalse(watcher.poll());
+        assertEquals(0, watcher.getIndex());
+    }
+
+    @Test
+    void testErrorStatusFailsPoll() {
+        responseStatus.set(500);
+        ConsulKvWatcher watcher = newWatcher(new ArrayList<>());
+        assertThrows(IOException.class, watcher::poll);
+    }
+
+    @Test
+    void testBackoffDoublesUpToMax() {
+        assertEquals(1000, ConsulKvWatcher.nextBackoff(0, 1000, 60000));
+        assertEquals(2000, ConsulKvWatcher.nextBackoff(1000, 1000, 60000));
+        assertEquals(60000, ConsulKvWatcher.nextBackoff(40000, 1000, 60000));
+    }
+
+    @Test
+    void testToPropertiesReadsKeysAndDocuments() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("config/app/cloudthread/executors[0]/core-pool-size", "8");
+        entries.put("config/app/other/key", "ignored");
+        entries.put("config/app/pools.yaml", "cloudthread:\n  executors:\n    - thread-pool-uid: order-pool\n");
+
+        Map<String, Object> properties = ConsulKvWatcher.toProperties("/config/app/", entries, ConfigFileTypeEnum.YAML);
+
+        assertEquals("8", properties.get("cloudthread.executors[0].core-pool-size"));
+        assertEquals("order-pool", properties.get("cloudthread.executors[0].thread-pool-uid"));
+        assertEquals(2, properties.size());
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.spring.kubernetes.config.starter.refresher;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.toolkit.ThreadFactoryBuilder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Watches the data entry of a Kubernetes ConfigMap through the API server watch API.
+ *
+ * <p>The ConfigMap is listed once to learn its content and {@code resourceVersion}, then
+ * watched from that version. Every event moves the version on, including the
+ * {@code BOOKMARK} events requested with {@code allowWatchBookmarks}, so a watch ended by
+ * the server after {@code watch-timeout-seconds} or by a network error resumes where it
+ * stopped without replaying or missing changes. When the version has expired (HTTP or
+ * event status 410 Gone) the ConfigMap is listed again.</p>
+ *
+ * <p>The listener only receives the data entry when its content differs from the last one
+ * delivered; changes to other entries or to labels and annotations are skipped. Failed
+ * requests are retried after a delay that starts at {@code error-backoff-millis} and
+ * doubles up to {@code max-error-backoff-millis}.</p>
+ */
+@Slf4j
+public class KubernetesConfigMapWatcher implements AutoCloseable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String NAMESPACE_FILE = "/var/run/secrets/kubernetes.io/serviceaccount/namespace";
+
+    private static final int GONE = 410;
+
+    private final BootstrapConfigProperties.KubernetesConfig config;
+
+    private final String namespace;
+
+    private final Consumer<String> listener;
+
+    private final HttpClient httpClient;
+
+    /**
+     * Version to resume the watch from, {@code null} when the ConfigMap must be listed first
+     */
+    private volatile String resourceVersion;
+
+    /**
+     * Content of the data entry last handed to the listener
+     */
+    private String data;
+
+    private volatile boolean closed;
+
+    private Thread thread;
+
+    /**
+     * @param config   API server, ConfigMap and timing
+     * @param listener receives the content of the data entry whenever it changes, on the
+     *                 watcher thread
+     */
+    public KubernetesConfigMapWatcher(BootstrapConfigProperties.KubernetesConfig config, Consumer<String> listener) {
+        this.config = config;
+        this.namespace = resolveNamespace(config.getNamespace());
+        this.listener = listener;
+        HttpClient.Builder builder = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10));
+        SSLContext sslContext = sslContext(config.getCaFile());
+        if (sslContext != null) {
+            builder.sslContext(sslContext);
+        }
+        this.httpClient = builder.build();
+    }
+
+    /**
+     * Start watching on a daemon thread; the current content is delivered first.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = ThreadFactoryBuilder.builder()
+                .namePrefix("cloudthread_configmap-watcher")
+                .daemon(true)
+                .build()
+                .newThread(this::run);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * @return version the next watch resumes from, {@code null} before the first list
+     */
+    public String getResourceVersion() {
+        return resourceVersion;
+    }
+
+    private void run() {
+        long backoffMillis = 0L;
+        while (!closed) {
+            try {
+                if (resourceVersion == null) {
+                    list();
+                }
+                watch();
+                backoffMillis = 0L;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                if (closed) {
+                    return;
+                }
+                backoffMillis = backoffMillis <= 0
+                        ? Math.max(1L, config.getErrorBackoffMillis())
+                        : Math.min(backoffMillis * 2, config.getMaxErrorBackoffMillis());
+                log.warn("[CloudThread] Watch of ConfigMap {}/{} failed, retrying in {}ms: {}",
+                        namespace, config.getConfigMapName(), backoffMillis, ex.toString());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the ConfigMap and the version to watch from.
+     */
+    void list() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request(false), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("API server responded with status " + response.statusCode());
+        }
+        JsonNode list = OBJECT_MAPPER.readTree(response.body());
+        String version = list.path("metadata").path("resourceVersion").asText(null);
+        if (version == null) {
+            throw new IOException("ConfigMap list without resourceVersion");
+        }
+        JsonNode items = list.path("items");
+        if (items.size() == 0) {
+            log.warn("[CloudThread] ConfigMap {}/{} not found, waiting for it to be created",
+                    namespace, config.getConfigMapName());
+        } else {
+            apply(items.get(0));
+        }
+        resourceVersion = version;
+    }
+
+    /**
+     * Follow one watch until the API server ends it, or until the version expired.
+     */
+    void watch() throws IOException, InterruptedException {
+        HttpResponse<Stream<String>> response = httpClient.send(request(true), HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() == GONE) {
+                expired();
+                return;
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException("API server responded with status " + response.statusCode());
+            }
+            Iterator<String> iterator = lines.iterator();
+            while (!closed && iterator.hasNext()) {
+                String line = iterator.next();
+                if (!line.isBlank() && !handleEvent(OBJECT_MAPPER.readTree(line))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code false} when the watch must be started over from a fresh list
+     */
+    private boolean handleEvent(JsonNode event) throws IOException {
+        String type = event.path("type").asText();
+        JsonNode object = event.path("object");
+        switch (type) {
+            case "ADDED":
+            case "MODIFIED":
+                apply(object);
+                break;
+            case "DELETED":
+                log.warn("[CloudThread] ConfigMap {}/{} deleted, thread pools keep their settings",
+                        namespace, config.getConfigMapName());
+                data = null;
+                break;
+            case "BOOKMARK":
+                break;
+            case "ERROR":
+                if (object.path("code").asInt() == GONE) {
+                    expired();
+                    return false;
+                }
+                throw new IOException("Watch error: " + object.path("message").asText());
+            default:
+                log.debug("[CloudThread] Ignoring watch event of type {}", type);
+        }
+        String version = object.path("metadata").path("resourceVersion").asText(null);
+        if (version != null) {
+            resourceVersion = version;
+        }
+        return true;
+    }
+
+    private void expired() {
+        log.info("[CloudThread] resourceVersion {} of ConfigMap {}/{} expired, listing again",
+                resourceVersion, namespace, config.getConfigMapName());
+        resourceVersion = null;
+    }
+
+    private void apply(JsonNode configMap) {
+        JsonNode entry = configMap.path("data").get(config.getDataKey());
+        if (entry == null || entry.isNull()) {
+            log.warn("[CloudThread] ConfigMap {}/{} has no data entry {}",
+                    namespace, config.getConfigMapName(), config.getDataKey());
+            return;
+        }
+        String content = entry.asText();
+        if (Objects.equals(content, data)) {
+            return;
+        }
+        data = content;
+        try {
+            listener.accept(content);
+        } catch (RuntimeException ex) {
+            log.error("[CloudThread] Failed to apply ConfigMap {}/{}", namespace, config.getConfigMapName(), ex);
+        }
+    }
+
+    private HttpRequest request(boolean watch) throws IOException {
+        StringBuilder uri = new StringBuilder(config.getApiServer().replaceAll("/+$", ""))
+                .append("/api/v1/namespaces/").append(URLEncoder.encode(namespace, StandardCharsets.UTF_8))
+                .append("/configmaps?fieldSelector=")
+                .append(URLEncoder.encode("metadata.name=" + config.getConfigMapName(), StandardCharsets.UTF_8));
+        HttpRequest.Builder builder = HttpRequest.newBuilder();
+        if (watch) {
+            uri.append("&watch=true&allowWatchBookmarks=true")
+                    .append("&resourceVersion=").append(URLEncoder.encode(resourceVersion, StandardCharsets.UTF_8))
+                    .append("&timeoutSeconds=").append(config.getWatchTimeoutSeconds());
+        } else {
+            builder.timeout(Duration.ofSeconds(30));
+        }
+        Path tokenFile = config.getTokenFile() == null ? null : Path.of(config.getTokenFile());
+        if (tokenFile != null && Files.isReadable(tokenFile)) {
+            builder.header("Authorization", "Bearer " + Files.readString(tokenFile).trim());
+        }
+        return builder.uri(URI.create(uri.toString())).GET().build();
+    }
+
+    private static String resolveNamespace(String namespace) {
+        if (namespace != null && !namespace.isBlank()) {
+            return namespace;
+        }
+        try {
+            Path file = Path.of(NAMESPACE_FILE);
+            if (Files.isReadable(file)) {
+                return Files.readString(file).trim();
+            }
+        } catch (IOException ex) {
+            log.warn("[CloudThread] Failed to read the pod namespace from {}", NAMESPACE_FILE, ex);
+        }
+        return "default";
+    }
+
+    /**
+     * @return a context trusting the given CA, {@code null} to use the JDK trust store
+     */
+    private static SSLContext sslContext(String caFile) {
+        if (caFile == null || !Files.isReadable(Path.of(caFile))) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(Path.of(caFile))) {
+            KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+            trustStore.load(null, null);
+            int alias = 0;
+            for (Certificate certificate : CertificateFactory.getInstance("X.509").generateCertificates(in)) {
+                trustStore.setCertificateEntry("ca-" + alias++, certificate);
+            }
+            TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagers.init(trustStore);
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, trustManagers.getTrustManagers(), null);
+            return sslContext;
+        } catch (IOException | GeneralSecurityException ex) {
+            log.warn("[CloudThread] Failed to load the API server CA from {}, using the JDK trust store", caFile, ex);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.spring.kubernetes.config.starter.refresher;
+
+import com.aston.cloudthread.config.common.starter.refresher.AbstractCloudThreadPoolRefresher;
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.parser.ConfigFileTypeEnum;
+import com.aston.cloudthread.core.parser.ConfigParserHandler;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kubernetes ConfigMap refresher for dynamic thread pool.
+ *
+ * <p>Watches {@code cloudthread.kubernetes-config.config-map-name} through the API server
+ * with a {@link KubernetesConfigMapWatcher}. Whenever the data entry changes it is parsed
+ * with {@link ConfigParserHandler} and published; the refresh listener then applies only
+ * the pools whose settings differ.</p>
+ */
+@Slf4j(topic = "CloudThreadKubernetesRefresher")
+public class SpringCloudKubernetesConfigMapRefresherHandler extends AbstractCloudThreadPoolRefresher {
+
+    private KubernetesConfigMapWatcher watcher;
+
+    public SpringCloudKubernetesConfigMapRefresherHandler(BootstrapConfigProperties props) {
+        super(props);
+    }
+
+    @Override
+    protected void registerListener() throws Exception {
+        BootstrapConfigProperties.KubernetesConfig kubernetesConfig = props.getKubernetesConfig();
+        if (kubernetesConfig == null || kubernetesConfig.getConfigMapName() == null) {
+            log.info("No cloudthread.kubernetes-config.config-map-name configured, ConfigMap watch disabled");
+            return;
+        }
+
+        watcher = new KubernetesConfigMapWatcher(kubernetesConfig, this::onChange);
+        watcher.start();
+        log.info("Kubernetes refresher registered for cloud dynamic thread pool, watching ConfigMap {} entry {}",
+                kubernetesConfig.getConfigMapName(), kubernetesConfig.getDataKey());
+    }
+
+    @SneakyThrows
+    private void onChange(String content) {
+        Map<Object, Object> parsed = ConfigParserHandler.getInstance()
+                .parseConfig(content, dataType(), BootstrapConfigProperties.PREFIX);
+        Map<String, Object> refreshProps = new HashMap<>(parsed.size());
+        parsed.forEach((key, value) -> refreshProps.put(String.valueOf(key), value));
+        refreshThreadPoolProperties(refreshProps);
+    }
+
+    /**
+     * @return format of the data entry by its extension, else {@code config-file-type}
+     */
+    private ConfigFileTypeEnum dataType() {
+        String dataKey = props.getKubernetesConfig().getDataKey();
+        String extension = dataKey.substring(dataKey.lastIndexOf('.') + 1);
+        for (ConfigFileTypeEnum type : ConfigFileTypeEnum.values()) {
+            if (type.getValue().equals(extension)) {
+                return type;
+            }
+        }
+        return props.getConfigFileType();
+    }
+
+    @Override
+    public void destroy() {
+        if (watcher != null) {
+            watcher.close();
+        }
+        super.destroy();
+    }
+}
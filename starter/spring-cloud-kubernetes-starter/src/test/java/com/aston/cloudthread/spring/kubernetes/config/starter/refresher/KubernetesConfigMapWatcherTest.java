@@ -0,0 +1,218 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.spring.kubernetes.config.starter.refresher;
+
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KubernetesConfigMapWatcherTest {
+
+    private static final String CONFIG_MAPS_PATH = "/api/v1/namespaces/apps/configmaps";
+
+    /**
+     * Scripted API server: every request takes the next response, a list or a watch stream
+     */
+    private final Queue<ScriptedResponse> responses = new ConcurrentLinkedQueue<>();
+
+    private final List<ScriptedRequest> requests = new CopyOnWriteArrayList<>();
+
+    private HttpServer apiServer;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setup() throws IOException {
+        apiServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        apiServer.createContext(CONFIG_MAPS_PATH, exchange -> {
+            requests.add(new ScriptedRequest(exchange.getRequestURI().getQuery(),
+                    exchange.getRequestHeaders().getFirst("Authorization")));
+            ScriptedResponse response = responses.poll();
+            if (response == null || response.status != 200) {
+                exchange.sendResponseHeaders(response == null ? 500 : response.status, -1);
+                exchange.close();
+                return;
+            }
+            // chunked like a watch, the stream ends after the scripted lines as on a watch timeout
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response.body.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        apiServer.start();
+    }
+
+    @AfterEach
+    void teardown() {
+        apiServer.stop(0);
+    }
+
+    @Test
+    void testListThenWatchDeliversOnlyChangedData() throws Exception {
+        respondList("100", "size: 1");
+        respondWatch(bookmark("105"), modified("106", "size: 1"), modified("110", "size: 2"));
+        List<String> deliveries = new ArrayList<>();
+        KubernetesConfigMapWatcher watcher = newWatcher(deliveries, null);
+
+        watcher.list();
+        assertEquals("100", watcher.getResourceVersion());
+        watcher.watch();
+
+        assertEquals(List.of("size: 1", "size: 2"), deliveries);
+        assertEquals("110", watcher.getResourceVersion());
+        assertTrue(requests.get(0).query.contains("fieldSelector=metadata.name=cloudthread"));
+        assertTrue(requests.get(1).query.contains("watch=true&allowWatchBookmarks=true&resourceVersion=100"));
+    }
+
+    @Test
+    void testEndedWatchResumesFromLastBookmark() throws Exception {
+        respondList("100", "size: 1");
+        respondWatch(bookmark("120"));
+        respondWatch();
+        KubernetesConfigMapWatcher watcher = newWatcher(new ArrayList<>(), null);
+        watcher.list();
+
+        watcher.watch();
+        watcher.watch();
+
+        assertEquals("120", watcher.getResourceVersion());
+        assertTrue(requests.get(2).query.contains("resourceVersion=120"));
+    }
+
+    @Test
+    void testGoneStatusOrEventRequiresList() throws Exception {
+        respondList("100", "size: 1");
+        responses.add(new ScriptedResponse(410, ""));
+        KubernetesConfigMapWatcher watcher = newWatcher(new ArrayList<>(), null);
+        watcher.list();
+        watcher.watch();
+        assertNull(watcher.getResourceVersion());
+
+        respondList("200", "size: 1");
+        respondWatch("{\"type\":\"ERROR\",\"object\":{\"kind\":\"Status\",\"code\":410}}", modified("210", "size: 3"));
+        List<String> deliveries = new ArrayList<>();
+        watcher = newWatcher(deliveries, null);
+        watcher.list();
+        watcher.watch();
+        assertNull(watcher.getResourceVersion());
+        // events after the expiry are left to the next list
+        assertEquals(List.of("size: 1"), deliveries);
+    }
+
+    @Test
+    void testTokenIsReadForEveryRequest() throws Exception {
+        Path tokenFile = directory.resolve("token");
+        Files.writeString(tokenFile, "first\n");
+        respondList("100", "size: 1");
+        respondWatch();
+        KubernetesConfigMapWatcher watcher = newWatcher(new ArrayList<>(), tokenFile);
+
+        watcher.list();
+        // a projected service account token is rotated in place
+        Files.writeString(tokenFile, "second\n");
+        watcher.watch();
+
+        assertEquals("Bearer first", requests.get(0).authorization);
+        assertEquals("Bearer second", requests.get(1).authorization);
+    }
+
+    @Test
+    void testErrorStatusFailsList() {
+        responses.add(new ScriptedResponse(403, ""));
+        KubernetesConfigMapWatcher watcher = newWatcher(new ArrayList<>(), null);
+        assertThrows(IOException.class, watcher::list);
+    }
+
+    private KubernetesConfigMapWatcher newWatcher(List<String> deliveries, Path tokenFile) {
+        BootstrapConfigProperties.KubernetesConfig config = new BootstrapConfigProperties.KubernetesConfig();
+        config.setApiServer("http://127.0.0.1:" + apiServer.getAddress().getPort());
+        config.setNamespace("apps");
+        config.setConfigMapName("cloudthread");
+        config.setTokenFile(tokenFile == null ? null : tokenFile.toString());
+        config.setCaFile(null);
+        config.setWatchTimeoutSeconds(5L);
+        return new KubernetesConfigMapWatcher(config, deliveries::add);
+    }
+
+    private void respondList(String resourceVersion, String content) {
+        responses.add(new ScriptedResponse(200, "{\"kind\":\"ConfigMapList\",\"metadata\":{\"resourceVersion\":\""
+                + resourceVersion + "\"},\"items\":[" + configMap(resourceVersion, content) + "]}"));
+    }
+
+    private void respondWatch(String... events) {
+        StringBuilder body = new StringBuilder();
+        for (String event : events) {
+            body.append(event).append('\n');
+        }
+        responses.add(new ScriptedResponse(200, body.toString()));
+    }
+
+    private static String bookmark(String resourceVersion) {
+        return "{\"type\":\"BOOKMARK\",\"object\":{\"metadata\":{\"resourceVersion\":\"" + resourceVersion + "\"}}}";
+    }
+
+    private static String modified(String resourceVersion, String content) {
+        return "{\"type\":\"MODIFIED\",\"object\":" + configMap(resourceVersion, content) + "}";
+    }
+
+    private static String configMap(String resourceVersion, String content) {
+        return "{\"metadata\":{\"name\":\"cloudthread\",\"resourceVersion\":\"" + resourceVersion + "\"},"
+                + "\"data\":{\"application.yaml\":\"" + content + "\",\"other\":\"x\"}}";
+    }
+
+    private static final class ScriptedResponse {
+
+        private final int status;
+
+        private final String body;
+
+        ScriptedResponse(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static final class ScriptedRequest {
+
+        private final String query;
+
+        private final String authorization;
+
+        ScriptedRequest(String query, String authorization) {
+            this.query = query;
+            this.authorization = authorization;
+        }
+    }
+}
@@ -14,6 +14,7 @@
 package com.aston.cloudthread.local.config.autoconfig;
 
 import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.local.config.refresher.LocalConfigFileRefresherHandler;
 import com.aston.cloudthread.local.config.refresher.SpringLocalConfigRefresherHandler;
 import com.aston.cloudthread.spring.base.enable.MarkerConfiguration;
 import org.springframework.beans.factory.annotation.Configurable;
@@ -29,4 +30,9 @@ public class SpringLocalConfigAutoConfiguration {
     public SpringLocalConfigRefresherHandler springCloudConfigRefresherHandler(BootstrapConfigProperties props) {
         return new SpringLocalConfigRefresherHandler(props);
     }
+
+    @Bean
+    public LocalConfigFileRefresherHandler localConfigFileRefresherHandler(BootstrapConfigProperties props) {
+        return new LocalConfigFileRefresherHandler(props);
+    }
 }
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.local.config.refresher;
+
+import com.aston.cloudthread.config.common.starter.refresher.AbstractCloudThreadPoolRefresher;
+import com.aston.cloudthread.config.common.starter.refresher.CloudThreadPoolConfigUpdateEvent;
+import com.aston.cloudthread.config.common.starter.refresher.ThreadPoolConfigChange;
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.config.ExecutorConfigSnapshot;
+import com.aston.cloudthread.core.executor.ThreadPoolExecutorProperties;
+import com.aston.cloudthread.core.parser.ConfigFileTypeEnum;
+import com.aston.cloudthread.core.parser.ConfigParserHandler;
+import com.aston.cloudthread.core.toolkit.ThreadFactoryBuilder;
+import com.aston.cloudthread.spring.base.support.ApplicationContextHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Local config file refresher for dynamic thread pool, based on {@link WatchService}.
+ *
+ * <p>
+ * Watches the file set by {@code cloudthread.local-file.path} and the per thread pool files
+ * in {@code cloudthread.local-file.directory}, so changes apply without an actuator refresh
+ * call. Only the thread pool settings, {@code cloudthread.executors}, of the file are
+ * refreshed.
+ * </p>
+ *
+ * <p>
+ * The parent directories are watched rather than the files, so atomic writes that rename a
+ * temporary file over the config file, or swap a {@code ..data} symlink like a Kubernetes
+ * ConfigMap volume, are seen as well. Events are debounced by
+ * {@code cloudthread.local-file.debounce-millis}, then the files are read, parsed through
+ * {@link ConfigParserHandler} and compared per pool by content digest. A
+ * {@link CloudThreadPoolConfigUpdateEvent} is published for the pools whose digest changed,
+ * carrying just their changed fields.
+ * </p>
+ *
+ * <p>
+ * A file that is missing or cannot be parsed, e.g. caught between delete and rename, keeps
+ * the settings read before.
+ * </p>
+ */
+@Slf4j(topic = "CloudThreadLocalConfigRefresher")
+public class LocalConfigFileRefresherHandler extends AbstractCloudThreadPoolRefresher {
+
+    private static final String POOL_PREFIX = "pool";
+
+    private Path file;
+
+    private Path directory;
+
+    private volatile WatchService watchService;
+
+    /**
+     * Pools of the config file as last read
+     */
+    private ExecutorConfigSnapshot fileSnapshot = ExecutorConfigSnapshot.empty();
+
+    /**
+     * Pools of the per pool files as last read
+     */
+    private ExecutorConfigSnapshot directorySnapshot = ExecutorConfigSnapshot.empty();
+
+    public LocalConfigFileRefresherHandler(BootstrapConfigProperties props) {
+        super(props);
+    }
+
+    @Override
+    protected void registerListener() throws IOException {
+        BootstrapConfigProperties.LocalFileConfig config = props.getLocalFile();
+        if (config == null || (isBlank(config.getPath()) && isBlank(config.getDirectory()))) {
+            log.info("No cloudthread.local-file configured, local config files are not watched");
+            return;
+        }
+        file = isBlank(config.getPath()) ? null : Paths.get(config.getPath()).toAbsolutePath().normalize();
+        directory = isBlank(config.getDirectory()) ? null : Paths.get(config.getDirectory()).toAbsolutePath().normalize();
+
+        Set<Path> watchedDirectories = new LinkedHashSet<>();
+        if (file != null) {
+            watchedDirectories.add(file.getParent());
+        }
+        if (directory != null) {
+            watchedDirectories.add(directory);
+        }
+
+        WatchService service = FileSystems.getDefault().newWatchService();
+        for (Path watchedDirectory : watchedDirectories) {
+            if (!Files.isDirectory(watchedDirectory)) {
+                log.warn("Config directory {} does not exist, it is not watched", watchedDirectory);
+                continue;
+            }
+            watchedDirectory.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        }
+        watchService = service;
+
+        // Apply the files as they are now, pools already configured this way are skipped by the listener
+        reload();
+
+        long debounceMillis = Math.max(0L, config.getDebounceMillis());
+        Thread watcher = ThreadFactoryBuilder.builder()
+                .namePrefix("cloudthread_local-file-watcher")
+                .daemon(true)
+                .build()
+                .newThread(() -> watch(service, debounceMillis));
+        watcher.start();
+        log.info("Local config file refresher registered for cloud dynamic thread pool, watching {}", watchedDirectories);
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        WatchService service = watchService;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException ex) {
+                log.warn("Failed to close config file watch service", ex);
+            }
+        }
+    }
+
+    private void watch(WatchService service, long debounceMillis) {
+        try {
+            while (true) {
+                boolean relevant = drain(service.take());
+
+                // Wait until the files stay quiet, a write often raises several events
+                WatchKey next;
+                while ((next = service.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(next);
+                }
+                if (relevant) {
+                    reloadQuietly();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            log.debug("Config file watch service closed");
+        }
+    }
+
+    /**
+     * Reload on the watcher thread, which must survive a failed refresh to see the next change.
+     */
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException ex) {
+            log.error("Failed to refresh thread pools from local config files, retried on the next change", ex);
+        }
+    }
+
+    /**
+     * Consume the events of a key.
+     *
+     * @return whether an event may concern a watched file
+     */
+    private boolean drain(WatchKey key) {
+        Path watchedDirectory = (Path) key.watchable();
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || watchedDirectory.equals(directory)) {
+                relevant = true;
+                continue;
+            }
+            String name = String.valueOf(event.context());
+            // "..data" and friends are swapped by the atomic writer of Kubernetes volumes
+            if (name.equals(file.getFileName().toString()) || name.startsWith("..")) {
+                relevant = true;
+            }
+        }
+        if (!key.reset()) {
+            log.warn("Config directory {} is no longer accessible, it is not watched anymore", watchedDirectory);
+        }
+        return relevant;
+    }
+
+    private synchronized void reload() {
+        List<ThreadPoolConfigChange> changes = new ArrayList<>();
+
+        ExecutorConfigSnapshot nextFileSnapshot = fileSnapshot;
+        if (file != null) {
+            Map<Object, Object> config = parse(file, BootstrapConfigProperties.PREFIX);
+            if (config != null) {
+                nextFileSnapshot = ExecutorConfigSnapshot.ofConfig(config);
+                collectChanges(nextFileSnapshot, fileSnapshot, changes);
+            }
+        }
+
+        ExecutorConfigSnapshot nextDirectorySnapshot = directorySnapshot;
+        if (directory != null && Files.isDirectory(directory)) {
+            List<Map<Object, Object>> poolConfigs = new ArrayList<>();
+            for (Path poolFile : listConfigFiles(directory)) {
+                Map<Object, Object> poolConfig = parse(poolFile, null);
+                if (poolConfig != null) {
+                    poolConfigs.add(poolConfig);
+                }
+            }
+            nextDirectorySnapshot = ExecutorConfigSnapshot.ofPools(poolConfigs);
+            collectChanges(nextDirectorySnapshot, directorySnapshot, changes);
+        }
+
+        if (changes.isEmpty()) {
+            log.debug("No thread pool config changed in local config files");
+            return;
+        }
+        log.info("Local config files changed thread pools {}",
+                changes.stream().map(ThreadPoolConfigChange::getThreadPoolUID).collect(Collectors.toList()));
+        CloudThreadPoolConfigUpdateEvent event = new CloudThreadPoolConfigUpdateEvent(this, props, changes);
+        ApplicationContextHolder.publishEvent(event);
+        if (event.isFailed()) {
+            log.warn("Thread pool refresh from local config files failed, retried on the next change");
+            return;
+        }
+
+        // Only once applied, so the changes are found again after a failed or rejected refresh
+        fileSnapshot = nextFileSnapshot;
+        directorySnapshot = nextDirectorySnapshot;
+    }
+
+    private void collectChanges(ExecutorConfigSnapshot snapshot,
+                                ExecutorConfigSnapshot previous,
+                                List<ThreadPoolConfigChange> changes) {
+        snapshot.changedFields(previous).forEach((threadPoolUID, fields) -> {
+            Map<String, Object> values = new HashMap<>();
+            snapshot.getPool(threadPoolUID).forEach((path, value) -> values.put(POOL_PREFIX + "." + path, value));
+            try {
+                ThreadPoolExecutorProperties properties = new Binder(new MapConfigurationPropertySource(values))
+                        .bind(POOL_PREFIX, ThreadPoolExecutorProperties.class)
+                        .orElse(null);
+                if (properties != null) {
+                    changes.add(new ThreadPoolConfigChange(threadPoolUID, fields, properties));
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Invalid config of thread pool {} in local config files, ignored: {}", threadPoolUID, ex.getMessage());
+            }
+        });
+    }
+
+    private Map<Object, Object> parse(Path path, String keyPrefix) {
+        try {
+            return ConfigParserHandler.getInstance().parseConfig(read(path), typeOf(path), keyPrefix);
+        } catch (NoSuchFileException ex) {
+            log.debug("Config file {} not found, keeping the previous settings", path);
+            return null;
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Failed to read config file {}, keeping the previous settings: {}", path, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Read a file through a channel, into a buffer sized to the file.
+     */
+    private static String read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Config file too large: " + size + " bytes");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until the buffer is full or the file ends
+            }
+            buffer.flip();
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        }
+    }
+
+    /**
+     * @return the regular config files of a directory by name, hidden and temporary files are skipped
+     */
+    private static Set<Path> listConfigFiles(Path directory) {
+        Set<Path> files = new TreeSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                String extension = extensionOf(path);
+                if (!path.getFileName().toString().startsWith(".")
+                        && extension != null
+                        && extension.equals(ConfigFileTypeEnum.of(extension).getValue())
+                        && Files.isRegularFile(path)) {
+                    files.add(path);
+                }
+            }
+        } catch (IOException ex) {
+            log.warn("Failed to list config directory {}: {}", directory, ex.getMessage());
+        }
+        return files;
+    }
+
+    private static ConfigFileTypeEnum typeOf(Path path) {
+        return ConfigFileTypeEnum.of(extensionOf(path));
+    }
+
+    private static String extensionOf(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? null : name.substring(dot + 1);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2024 Rurutia1027
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ */
+package com.aston.cloudthread.local.config.refresher;
+
+import com.aston.cloudthread.config.common.starter.refresher.CloudThreadPoolConfigUpdateEvent;
+import com.aston.cloudthread.config.common.starter.refresher.ThreadPoolConfigChange;
+import com.aston.cloudthread.core.config.BootstrapConfigProperties;
+import com.aston.cloudthread.core.config.ExecutorPropertyKey;
+import com.aston.cloudthread.spring.base.support.ApplicationContextHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocalConfigFileRefresherHandlerTest {
+
+    private static final long DEBOUNCE_MILLIS = 100L;
+
+    @TempDir
+    Path directory;
+
+    private final List<CloudThreadPoolConfigUpdateEvent> events = new CopyOnWriteArrayList<>();
+
+    /**
+     * Fails the next published event, as a listener blowing up on a bad refresh would
+     */
+    private final AtomicBoolean failNext = new AtomicBoolean();
+
+    /**
+     * Marks the next published event failed, as the refresh listener does when it undoes a refresh
+     */
+    private final AtomicBoolean rejectNext = new AtomicBoolean();
+
+    private ApplicationContext previousContext;
+
+    private GenericApplicationContext context;
+
+    private LocalConfigFileRefresherHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        previousContext = ApplicationContextHolder.CONTEXT;
+        context = new GenericApplicationContext();
+        context.addApplicationListener((ApplicationListener<ApplicationEvent>) event -> {
+            if (event instanceof CloudThreadPoolConfigUpdateEvent) {
+                if (failNext.compareAndSet(true, false)) {
+                    throw new IllegalStateException("refresh failed");
+                }
+                if (rejectNext.compareAndSet(true, false)) {
+                    ((CloudThreadPoolConfigUpdateEvent) event).markFailed();
+                    return;
+                }
+                events.add((CloudThreadPoolConfigUpdateEvent) event);
+            }
+        });
+        context.refresh();
+        ApplicationContextHolder.CONTEXT = context;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (handler != null) {
+            handler.destroy();
+        }
+        context.close();
+        ApplicationContextHolder.CONTEXT = previousContext;
+    }
+
+    @Test
+    void testRenameOverWriteIsApplied() throws Exception {
+        Path file = directory.resolve("cloudthread.yaml");
+        Files.writeString(file, config(2));
+        start(file);
+        awaitCorePoolSize(2);
+
+        replace(file, config(4));
+
+        awaitCorePoolSize(4);
+        ThreadPoolConfigChange change = lastChange();
+        assertEquals("pool-a", change.getThreadPoolUID());
+        assertEquals(Set.of(ExecutorPropertyKey.uniform("corePoolSize")), change.getChangedFields());
+    }
+
+    @Test
+    void testDataSymlinkSwapIsApplied() throws Exception {
+        // Layout of a Kubernetes ConfigMap volume: the file links through ..data to a timestamped directory
+        Path first = Files.createDirectory(directory.resolve("..2024_01_01_00_00_00.1"));
+        Files.writeString(first.resolve("cloudthread.yaml"), config(2));
+        Files.createSymbolicLink(directory.resolve("..data"), first.getFileName());
+        Path file = directory.resolve("cloudthread.yaml");
+        Files.createSymbolicLink(file, directory.getFileSystem().getPath("..data", "cloudthread.yaml"));
+        start(file);
+        awaitCorePoolSize(2);
+
+        Path second = Files.createDirectory(directory.resolve("..2024_01_01_00_01_00.2"));
+        Files.writeString(second.resolve("cloudthread.yaml"), config(6));
+        Path swap = Files.createSymbolicLink(directory.resolve("..data_tmp"), second.getFileName());
+        Files.move(swap, directory.resolve("..data"), StandardCopyOption.ATOMIC_MOVE);
+
+        awaitCorePoolSize(6);
+    }
+
+    @Test
+    void testBurstOfWritesIsDebounced() throws Exception {
+        Path file = directory.resolve("cloudthread.yaml");
+        Files.writeString(file, config(2));
+        start(file);
+        awaitCorePoolSize(2);
+
+        for (int corePoolSize = 3; corePoolSize <= 7; corePoolSize++) {
+            replace(file, config(corePoolSize));
+        }
+
+        awaitCorePoolSize(7);
+        Thread.sleep(DEBOUNCE_MILLIS * 3);
+        assertEquals(2, events.size());
+    }
+
+    @Test
+    void testMissingFileKeepsSettingsUntilItReturns() throws Exception {
+        Path file = directory.resolve("cloudthread.yaml");
+        Files.writeString(file, config(2));
+        start(file);
+        awaitCorePoolSize(2);
+
+        Files.delete(file);
+        Thread.sleep(DEBOUNCE_MILLIS * 3);
+        assertEquals(1, events.size());
+
+        replace(file, config(3));
+        awaitCorePoolSize(3);
+    }
+
+    @Test
+    void testWatcherSurvivesFailedRefresh() throws Exception {
+        Path file = directory.resolve("cloudthread.yaml");
+        Files.writeString(file, config(2));
+        start(file);
+        awaitCorePoolSize(2);
+
+        failNext.set(true);
+        replace(file, config(3));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !failNext.get());
+
+        replace(file, config(4));
+        awaitCorePoolSize(4);
+        assertEquals(2, events.size(), "the failed refresh publishes nothing");
+    }
+
+    @Test
+    void testRejectedRefreshIsFoundAgain() throws Exception {
+        Path file = directory.resolve("cloudthread.yaml");
+        Files.writeString(file, config(2));
+        start(file);
+        awaitCorePoolSize(2);
+
+        rejectNext.set(true);
+        replace(file, config(3));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !rejectNext.get());
+        assertEquals(1, events.size());
+
+        // Same content again, still a change against the settings applied last
+        replace(file, config(3));
+        awaitCorePoolSize(3);
+    }
+
+    private void start(Path file) throws IOException {
+        BootstrapConfigProperties props = new BootstrapConfigProperties();
+        BootstrapConfigProperties.LocalFileConfig localFile = new BootstrapConfigProperties.LocalFileConfig();
+        localFile.setPath(file.toString());
+        localFile.setDebounceMillis(DEBOUNCE_MILLIS);
+        props.setLocalFile(localFile);
+        handler = new LocalConfigFileRefresherHandler(props);
+        handler.registerListener();
+    }
+
+    /**
+     * Write next to the file and rename it over the file, as editors and config agents do.
+     */
+    private void replace(Path file, String content) throws IOException {
+        Path temp = directory.resolve(".cloudthread.yaml.tmp");
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void awaitCorePoolSize(int corePoolSize) {
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !events.isEmpty()
+                && Integer.valueOf(corePoolSize).equals(lastChange().getProperties().getCorePoolSize()));
+    }
+
+    private ThreadPoolConfigChange lastChange() {
+        List<ThreadPoolConfigChange> changes = events.get(events.size() - 1).getChanges();
+        return changes.get(changes.size() - 1);
+    }
+
+    private static String config(int corePoolSize) {
+        return "cloudthread:\n"
+                + "  executors:\n"
+                + "    - thread-pool-uid: pool-a\n"
+                + "      core-pool-size: " + corePoolSize + "\n"
+                + "      maximum-pool-size: 8\n";
+    }
+}